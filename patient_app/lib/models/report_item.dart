@@ -5,6 +5,7 @@ class ReportItem {
   final String? resultValue;
   final String? unit;
   final String? normalRange;
+  final String? abnormalFlag;
   final int? reportPriority;
 
   ReportItem({
@@ -14,6 +15,7 @@ class ReportItem {
     this.resultValue,
     this.unit,
     this.normalRange,
+    this.abnormalFlag,
     this.reportPriority,
   });
 
@@ -58,6 +60,7 @@ class ReportItem {
       resultValue: stringOrNull(json['resultValue']),
       unit: stringOrNull(json['unit']),
       normalRange: stringOrNull(json['normalRange']),
+      abnormalFlag: stringOrNull(json['abnormalFlag']),
       reportPriority: intOrNull(
         json['reportPriority'] ??
             json['report_priority'] ??
@@ -73,9 +76,13 @@ class ReportItem {
     );
   }
 
-  /// Returns true if resultValue is outside normalRange.
+  /// Returns true if the server flagged the value (LOW/HIGH) or resultValue
+  /// is outside normalRange.
   /// Handles: "12.0-17.0", "< 200", "> 4.5", "70 - 110"
   bool get isAbnormal {
+    if (abnormalFlag != null) {
+      return true;
+    }
     final resultRaw = resultValue?.trim() ?? '';
     final rangeRaw = normalRange?.trim() ?? '';
     if (resultRaw.isEmpty || rangeRaw.isEmpty) {
@@ -55,6 +55,7 @@ class _PatientListScreenState extends State<PatientListScreen> {
     );
     if (confirm == true) {
       await StorageService.clearSession();
+      ApiService.clearSession();
       if (!mounted) return;
       Navigator.pushReplacement(context, MaterialPageRoute(builder: (_) => const LoginScreen()));
     }
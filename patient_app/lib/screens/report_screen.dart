@@ -72,7 +72,10 @@ class _ReportScreenState extends State<ReportScreen> {
       _error = null;
     });
     try {
-      final items = await ApiService.getReport(widget.patient.id, widget.patient.mobile ?? '');
+      // Same credentials as the login, in case the session must be renewed.
+      final mobile = await StorageService.getMobile() ?? widget.patient.mobile ?? '';
+      final password = await StorageService.getPassword() ?? '';
+      final items = await ApiService.getReport(widget.patient.id, mobile, password);
       if (kDebugMode) {
         final count = items.length;
         debugPrint('Report items loaded: $count');
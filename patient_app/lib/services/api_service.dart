@@ -6,6 +6,19 @@ import '../models/report_item.dart';
 class ApiService {
   static const String _base = 'https://ssdclabs.online/api';
 
+  // Short-lived session token from /login; the password is only sent to
+  // the server again when this expires.
+  static String? _token;
+
+  static Map<String, String> get _authHeaders =>
+      _token == null ? {} : {'Authorization': 'Bearer $_token'};
+
+  static void clearSession() => _token = null;
+
+  static Future<void> _ensureSession(String mobile, String password) async {
+    if (_token == null) await login(mobile, password);
+  }
+
   static Future<Map<String, dynamic>> login(String mobile, String password) async {
     try {
       final res = await http.post(
@@ -14,7 +27,11 @@ class ApiService {
         body: jsonEncode({'mobile': mobile, 'password': password}),
       ).timeout(const Duration(seconds: 15));
 
-      if (res.statusCode == 200) return jsonDecode(res.body) as Map<String, dynamic>;
+      if (res.statusCode == 200) {
+        final data = jsonDecode(res.body) as Map<String, dynamic>;
+        _token = data['token'] as String?;
+        return data;
+      }
       if (res.statusCode == 401) throw 'Invalid mobile or password.';
       throw 'Server error (${res.statusCode}). Please try again.';
     } catch (e) {
@@ -23,13 +40,30 @@ class ApiService {
     }
   }
 
+  // GET with the session token; on 401 the session has expired, so log in
+  // again once with the stored password and retry.
+  static Future<http.Response> _authorizedGet(
+      String path, String mobile, String password) async {
+    await _ensureSession(mobile, password);
+    var res = await http.get(
+      Uri.parse('$_base$path'),
+      headers: _authHeaders,
+    ).timeout(const Duration(seconds: 15));
+
+    if (res.statusCode == 401) {
+      _token = null;
+      await _ensureSession(mobile, password);
+      res = await http.get(
+        Uri.parse('$_base$path'),
+        headers: _authHeaders,
+      ).timeout(const Duration(seconds: 15));
+    }
+    return res;
+  }
+
   static Future<List<Patient>> getVisits(String mobile, String password) async {
     try {
-      final res = await http.get(
-        Uri.parse('$_base/patient-app/visits'
-            '?mobile=${Uri.encodeComponent(mobile)}'
-            '&password=${Uri.encodeComponent(password)}'),
-      ).timeout(const Duration(seconds: 15));
+      final res = await _authorizedGet('/patient-app/visits', mobile, password);
 
       if (res.statusCode == 200) {
         final List list = jsonDecode(res.body) as List;
@@ -43,11 +77,10 @@ class ApiService {
     }
   }
 
-  static Future<List<ReportItem>> getReport(int patientId, String mobile) async {
+  static Future<List<ReportItem>> getReport(
+      int patientId, String mobile, String password) async {
     try {
-      final res = await http.get(
-        Uri.parse('$_base/patient-app/report/$patientId?mobile=${Uri.encodeComponent(mobile)}'),
-      ).timeout(const Duration(seconds: 15));
+      final res = await _authorizedGet('/patient-app/report/$patientId', mobile, password);
 
       if (res.statusCode == 200) {
         final List list = jsonDecode(res.body) as List;
@@ -1347,6 +1347,129 @@
     });
   };
 
+  // ===== Lab change events (GET /dashboard/events) =====
+  // Server-Sent Events read over fetch so the JWT header goes along
+  // (EventSource cannot send it). Reconnects with Last-Event-ID so missed
+  // events are replayed; "resync" means they were not kept and the page
+  // should reload its data.
+  const LAB_EVENTS_STALL_MS = 60 * 1000; // server pings every 20s
+
+  window.ssdcLabEvents = function (onChange, onResync) {
+    let lastEventId = "";
+    let stopped = false;
+    let controller = null;
+    let watchdog = null;
+    let retryMs = 1000;
+
+    function resetWatchdog() {
+      clearTimeout(watchdog);
+      watchdog = setTimeout(() => {
+        if (controller) {
+          controller.abort();
+        }
+      }, LAB_EVENTS_STALL_MS);
+    }
+
+    function handleFrame(frame) {
+      let name = "message";
+      let data = "";
+      frame.split("\n").forEach((line) => {
+        if (!line || line.charAt(0) === ":") {
+          return;
+        }
+        const colon = line.indexOf(":");
+        const field = colon < 0 ? line : line.slice(0, colon);
+        let value = colon < 0 ? "" : line.slice(colon + 1);
+        if (value.charAt(0) === " ") {
+          value = value.slice(1);
+        }
+        if (field === "id") {
+          lastEventId = value;
+        } else if (field === "event") {
+          name = value;
+        } else if (field === "data") {
+          data = data ? data + "\n" + value : value;
+        }
+      });
+      if (name === "resync") {
+        if (typeof onResync === "function") {
+          onResync();
+        }
+        return;
+      }
+      if (name !== "change" || !data) {
+        return;
+      }
+      try {
+        onChange(JSON.parse(data));
+      } catch (err) {
+        // ignore malformed or failing handlers; the stream keeps going
+      }
+    }
+
+    function connect() {
+      if (stopped) {
+        return;
+      }
+      controller = new AbortController();
+      const headers = lastEventId ? { "Last-Event-ID": lastEventId } : {};
+      resetWatchdog();
+      window.fetch(window.apiUrl("/dashboard/events"), {
+        cache: "no-store",
+        headers,
+        signal: controller.signal
+      })
+        .then((res) => {
+          if (res.status === 401 || res.status === 403) {
+            stopped = true;
+          }
+          if (!res.ok || !res.body) {
+            throw new Error("events " + res.status);
+          }
+          retryMs = 1000;
+          const reader = res.body.getReader();
+          const decoder = new TextDecoder();
+          let buffer = "";
+          function pump() {
+            return reader.read().then((chunk) => {
+              if (chunk.done) {
+                return;
+              }
+              resetWatchdog();
+              buffer += decoder.decode(chunk.value, { stream: true }).replace(/\r\n?/g, "\n");
+              let end = buffer.indexOf("\n\n");
+              while (end >= 0) {
+                handleFrame(buffer.slice(0, end));
+                buffer = buffer.slice(end + 2);
+                end = buffer.indexOf("\n\n");
+              }
+              return pump();
+            });
+          }
+          return pump();
+        })
+        .catch(() => {})
+        .then(() => {
+          clearTimeout(watchdog);
+          if (!stopped) {
+            setTimeout(connect, retryMs);
+            retryMs = Math.min(retryMs * 2, 30 * 1000);
+          }
+        });
+    }
+
+    connect();
+    return {
+      close() {
+        stopped = true;
+        clearTimeout(watchdog);
+        if (controller) {
+          controller.abort();
+        }
+      }
+    };
+  };
+
   // ===== Idle auto-logout (20 min) with 120s warning =====
   const IDLE_TIMEOUT_MS = 20 * 60 * 1000;
   const IDLE_WARNING_MS = 120 * 1000;
@@ -47,6 +47,7 @@ function formatYmdToDdMmYyyy(ymd) {
 function clearNode(node) { window.ssdcDom.clear(node); }
 
 let latestRecentTasks = [];
+let homeCounts = null; // { today, todayPending, week, month, year }
 let homeDateSortDir = null; // null | "asc" | "desc"
 
 function pad2(n) {
@@ -209,22 +210,30 @@ function renderRecentTasksTable(tasks) {
   tbody.appendChild(frag);
 }
 
-function loadHomeSummary(){
-  fetch(`${API_BASE_URL}/dashboard/home-summary?limit=20`)
+function renderHomeCounts() {
+  const c = homeCounts || { today: 0, todayPending: 0, week: 0, month: 0, year: 0 };
+  setText("home-today-count", c.today);
+  setText("home-week-count", c.week);
+  setText("home-month-count", c.month);
+  setText("home-year-count", c.year);
+  setText("home-today-pending-count", c.todayPending);
+  setText("home-today-completed-count", Math.max(0, c.today - c.todayPending));
+}
+
+function loadHomeSummary(options){
+  fetch(`${API_BASE_URL}/dashboard/home-summary?limit=20`, options)
     .then((res) => safeJson(res))
     .then((data) => {
       const obj = (data && typeof data === "object") ? data : {};
 
-      const todayCount = Number(obj.todayCount) || 0;
-      const todayPending = Number(obj.todayPendingCount) || 0;
-      const todayCompleted = Math.max(0, todayCount - todayPending);
-
-      setText("home-today-count", todayCount);
-      setText("home-week-count", Number(obj.weekCount) || 0);
-      setText("home-month-count", Number(obj.monthCount) || 0);
-      setText("home-year-count", Number(obj.yearCount) || 0);
-      setText("home-today-pending-count", todayPending);
-      setText("home-today-completed-count", todayCompleted);
+      homeCounts = {
+        today: Number(obj.todayCount) || 0,
+        todayPending: Number(obj.todayPendingCount) || 0,
+        week: Number(obj.weekCount) || 0,
+        month: Number(obj.monthCount) || 0,
+        year: Number(obj.yearCount) || 0
+      };
+      renderHomeCounts();
 
       const tasks = [];
       const rows = Array.isArray(obj.recentTasks) ? obj.recentTasks : [];
@@ -250,6 +259,72 @@ function loadHomeSummary(){
     });
 }
 
+// ===== Live updates from /dashboard/events =====
+// Same ranges as DashboardService: week starts on Sunday (IST).
+function weekStartYmd(todayYmd) {
+  const d = new Date(`${todayYmd}T00:00:00Z`);
+  d.setUTCDate(d.getUTCDate() - d.getUTCDay());
+  return d.toISOString().slice(0, 10);
+}
+
+function adjustHomeCounts(state, sign) {
+  const dateYmd = normalizeYmd(state && state.date);
+  if (!homeCounts || !dateYmd) return;
+  const today = getTodayYmdIst();
+  if (dateYmd > today) return;
+  if (dateYmd === today) {
+    homeCounts.today += sign;
+    if (state.pending) homeCounts.todayPending += sign;
+  }
+  if (dateYmd >= weekStartYmd(today)) homeCounts.week += sign;
+  if (dateYmd >= today.slice(0, 8) + "01") homeCounts.month += sign;
+  if (dateYmd >= today.slice(0, 5) + "01-01") homeCounts.year += sign;
+}
+
+function applyTaskChange(evt) {
+  const id = Number(evt.patientId) || 0;
+  const after = evt.after;
+  const tasks = Array.isArray(latestRecentTasks) ? latestRecentTasks.slice() : [];
+  const index = tasks.findIndex((t) => t.id === id);
+  const dateYmd = normalizeYmd(after && after.date);
+  const dueAmount = Number(after && after.dueAmount) || 0;
+  const isTask = Boolean(after && dateYmd && (after.pending || dueAmount > 0));
+
+  if (!isTask) {
+    if (index >= 0) tasks.splice(index, 1);
+  } else {
+    const task = {
+      id,
+      name: evt.patientName ? String(evt.patientName) : "",
+      dateYmd,
+      dueAmount,
+      pending: Boolean(after.pending)
+    };
+    if (index >= 0) {
+      tasks[index] = task;
+    } else {
+      tasks.unshift(task);
+    }
+  }
+  latestRecentTasks = tasks;
+  renderRecentTasksTable(getSortedRecentTasksForDisplay());
+}
+
+function applyLabEvent(evt) {
+  if (!evt || typeof evt !== "object") return;
+  adjustHomeCounts(evt.before, -1);
+  adjustHomeCounts(evt.after, 1);
+  renderHomeCounts();
+  applyTaskChange(evt);
+}
+
+function startLiveUpdates() {
+  if (typeof window.ssdcLabEvents !== "function") return;
+  const stream = window.ssdcLabEvents(applyLabEvent, () => loadHomeSummary({ cache: "no-store" }));
+  window.addEventListener("pagehide", () => stream.close());
+}
+
 setupDueHeaderNavigation();
 setupDateHeaderSort();
 loadHomeSummary();
+startLiveUpdates();
@@ -22,6 +22,8 @@ let isAutoDate = true;
 let isSearchMode = false;
 let searchPage = 0;
 let searchHasMore = false;
+// Keyset cursors: searchCursors[n] fetches page n (page 0 has none).
+let searchCursors = [""];
 let searchController = null;
 
 const PAGE_SIZE = 25;
@@ -172,19 +174,63 @@ window.addEventListener("pageshow", (event) => {
   loadByDate(datePicker.value);
 });
 
-function loadByDate(date){
+function loadByDate(date, options){
   cancelSearchRequest();
   isSearchMode = false;
   searchPage = 0;
   searchHasMore = false;
   updateSearchPager();
 
-  fetch(`${API_BASE_URL}/patients/by-date/${date}`)
+  const keepPage = Boolean(options && options.keepPage);
+  fetch(`${API_BASE_URL}/patients/by-date/${date}`, keepPage ? { cache: "no-store" } : undefined)
     .then(r=>r.json())
-    .then(d=>{ allPatients=Array.isArray(d) ? d : []; renderCurrentList(allPatients); })
+    .then(d=>{ allPatients=Array.isArray(d) ? d : []; renderCurrentList(allPatients, !keepPage); })
     .catch(()=>renderEmpty());
 }
 
+// ===== Live updates from /dashboard/events (date view only) =====
+// Status changes and deletes are patched in place; anything that needs the
+// full row (new patient on this day, edits, payments) refetches the day once.
+let liveReloadTimer = null;
+
+function reloadShownDateSoon(){
+  clearTimeout(liveReloadTimer);
+  liveReloadTimer = setTimeout(() => {
+    if (!isSearchMode && !selectMode) {
+      loadByDate(datePicker.value, { keepPage: true });
+    }
+  }, 500);
+}
+
+function applyLabEvent(evt){
+  if (!evt || isSearchMode || selectMode) return;
+  const id = Number(evt.patientId) || 0;
+  const shownDate = datePicker.value;
+  const index = allPatients.findIndex((p) => Number(p?.id) === id);
+  const afterDate = evt.after && evt.after.date;
+
+  if (index < 0) {
+    if (afterDate === shownDate) reloadShownDateSoon();
+    return;
+  }
+  if (!evt.after || afterDate !== shownDate) {
+    allPatients.splice(index, 1);
+    renderCurrentList(allPatients, false);
+    return;
+  }
+  if (evt.type === "STATUS_CHANGED") {
+    allPatients[index].status = evt.after.pending ? "NOT COMPLETE" : "COMPLETED";
+    renderCurrentList(allPatients, false);
+    return;
+  }
+  reloadShownDateSoon();
+}
+
+if (typeof window.ssdcLabEvents === "function") {
+  const liveStream = window.ssdcLabEvents(applyLabEvent, reloadShownDateSoon);
+  window.addEventListener("pagehide", () => liveStream.close());
+}
+
 function normalizeDoctorName(value){
   const raw = String(value || "").trim();
   const normalized = raw.toUpperCase();
@@ -328,13 +374,21 @@ function loadSearchPage(page){
   const params = new URLSearchParams();
   params.set("name", q);
   params.set("mobile", "");
-  params.set("page", String(Math.max(0, page)));
+  if (page <= 0) {
+    searchCursors = [""];
+  }
+  const cursor = searchCursors[Math.max(0, page)] || "";
+  if (cursor) {
+    params.set("cursor", cursor);
+  }
   params.set("limit", String(SEARCH_PAGE_LIMIT));
+  let nextCursor = "";
 
   fetch(`${API_BASE_URL}/patients/search?${params.toString()}`, {
     signal: searchController.signal
   })
     .then(async (res) => {
+      nextCursor = (res && res.headers && res.headers.get("X-Next-Cursor")) || "";
       if (!res || !res.ok) {
         const data = await safeJson(res);
         const msg =
@@ -359,7 +413,8 @@ function loadSearchPage(page){
       const safe = Array.isArray(list) ? list : [];
       isSearchMode = true;
       searchPage = Math.max(0, page);
-      searchHasMore = safe.length >= SEARCH_PAGE_LIMIT;
+      searchHasMore = Boolean(nextCursor);
+      searchCursors[searchPage + 1] = nextCursor;
       updateSearchPager();
       renderCurrentList(safe);
     })
@@ -7,6 +7,7 @@ const dateFromInput = document.getElementById("dateFrom");
 const dateToInput = document.getElementById("dateTo");
 const applyFilters = document.getElementById("applyFilters");
 const thisMonthBtn = document.getElementById("thisMonth");
+const exportDueBtn = document.getElementById("exportDue");
 const backBtn = document.getElementById("backBtn");
 const dueBody = document.getElementById("dueBody");
 const rangeSubtitle = document.getElementById("rangeSubtitle");
@@ -284,12 +285,24 @@ async function loadDue(range, overrideDoctorId) {
   qs.set("from", range.from);
   qs.set("to", range.to);
   if (doctorId) qs.set("doctorId", doctorId);
-  qs.set("limit", "5000");
+  qs.set("limit", "2000");
 
   showMessage("Loading…");
   try {
-    const rows = await fetchJson(`${apiPath("/accounts/due")}?${qs.toString()}`);
-    currentDueRows = Array.isArray(rows) ? rows : [];
+    // Follow keyset pages (X-Next-Cursor) until the list is complete.
+    const rows = [];
+    let cursor = "";
+    do {
+      if (cursor) qs.set("cursor", cursor);
+      const res = await fetch(`${apiPath("/accounts/due")}?${qs.toString()}`);
+      if (!res.ok) {
+        throw new Error(`Request failed: ${res.status}`);
+      }
+      const page = await res.json();
+      if (Array.isArray(page)) rows.push(...page);
+      cursor = res.headers.get("X-Next-Cursor") || "";
+    } while (cursor);
+    currentDueRows = rows;
     updateDueDateHeaderLabel();
     renderRows(getSortedDueRowsForDisplay());
   } catch (err) {
@@ -299,6 +312,35 @@ async function loadDue(range, overrideDoctorId) {
   }
 }
 
+// Server-built XLSX of the whole due list for the current filters.
+async function downloadDueExcel() {
+  const qs = new URLSearchParams();
+  qs.set("from", dateFromInput.value);
+  qs.set("to", dateToInput.value);
+  if (doctorSelect.value) qs.set("doctorId", doctorSelect.value);
+
+  try {
+    const res = await fetch(`${apiPath("/accounts/due/xlsx")}?${qs.toString()}`);
+    if (!res.ok) {
+      throw new Error(`Request failed: ${res.status}`);
+    }
+    const blob = await res.blob();
+    const url = URL.createObjectURL(blob);
+    const a = document.createElement("a");
+    a.href = url;
+    a.download = `accounts-due-${dateFromInput.value}-to-${dateToInput.value}.xlsx`;
+    document.body.appendChild(a);
+    a.click();
+    a.remove();
+    URL.revokeObjectURL(url);
+  } catch (err) {
+    console.error("Failed to download due list", err);
+    if (typeof window.ssdcAlert === "function") {
+      window.ssdcAlert("Failed to download Excel", { title: "Export Failed" });
+    }
+  }
+}
+
 function setMonthToInputs() {
   const month = monthRangeForYmd(getTodayYmdIst());
   dateFromInput.value = month.from;
@@ -346,6 +388,10 @@ function init() {
     loadDue(range);
   });
 
+  if (exportDueBtn) {
+    exportDueBtn.addEventListener("click", downloadDueExcel);
+  }
+
   thisMonthBtn.addEventListener("click", () => {
     const range = setMonthToInputs();
     setSubtitle(range, getSelectedDoctorName());
@@ -113,10 +113,11 @@ async function loadRows(){
   if (exportDoctorId) {
     qs.set("doctorId", exportDoctorId);
   }
+  // Unfiltered: streamed by the server instead of built in memory.
   const endpoint =
     qs.toString()
       ? `/accounts/details?${qs.toString()}`
-      : "/accounts/details";
+      : "/accounts/details/export?format=json";
 
   try{
     const rows = await fetchJson(apiPath(endpoint));
@@ -129,45 +130,6 @@ async function loadRows(){
   }
 }
 
-function toCsvValue(value){
-  const text = String(value ?? "");
-  const escaped = text.replace(/"/g, '""');
-  return `"${escaped}"`;
-}
-
-function buildCsv(rows){
-  const header = [
-    "Date",
-    "Report ID",
-    "Patient",
-    "Doctor",
-    "Bill",
-    "Due",
-    "Commission"
-  ];
-  const lines = [header.map(toCsvValue).join(",")];
-  rows.forEach(row => {
-    const doctorLabel = row.doctorName
-      || (exportDoctorId ? exportDoctorName : "");
-    const due = parseNumber(row.dueAmount ?? row.due ?? 0);
-    const dateText =
-      (window.formatYmdToDdMmYyyy && row.date)
-        ? window.formatYmdToDdMmYyyy(row.date)
-        : (row.date || "");
-    const line = [
-      dateText,
-      row.reportId || "",
-      row.patientName || "",
-      doctorLabel,
-      formatNumber(row.billAmount),
-      formatNumber(due),
-      formatNumber(row.commissionAmount)
-    ];
-    lines.push(line.map(toCsvValue).join(","));
-  });
-  return lines.join("\n");
-}
-
 function sanitizeFileName(value){
   return String(value || "")
     .trim()
@@ -176,25 +138,45 @@ function sanitizeFileName(value){
     .replace(/(^-|-$)/g, "");
 }
 
-function downloadExcel(){
+// Built server-side (streamed XLSX) so large labs do not freeze the browser.
+async function downloadExcel(){
   if (!exportRows.length) {
     window.ssdcAlert("No records to export", { title: "Nothing to Export" });
     return;
   }
 
-  const csv = buildCsv(exportRows);
-  const blob = new Blob([csv], { type: "text/csv;charset=utf-8" });
-  const url = URL.createObjectURL(blob);
-
-  const a = document.createElement("a");
+  const qs = new URLSearchParams();
+  if (exportFrom) {
+    qs.set("from", exportFrom);
+  }
+  if (exportTo) {
+    qs.set("to", exportTo);
+  }
+  if (exportDoctorId) {
+    qs.set("doctorId", exportDoctorId);
+  }
+  const query = qs.toString();
   const dateStamp = new Date().toISOString().slice(0, 10);
   const name = sanitizeFileName(exportDoctorName) || "all";
-  a.href = url;
-  a.download = `accounts-${name}-${dateStamp}.csv`;
-  document.body.appendChild(a);
-  a.click();
-  a.remove();
-  URL.revokeObjectURL(url);
+
+  try {
+    const response = await fetch(apiPath(`/accounts/details/xlsx${query ? `?${query}` : ""}`));
+    if (!response.ok) {
+      throw new Error(`Request failed: ${response.status}`);
+    }
+    const blob = await response.blob();
+    const url = URL.createObjectURL(blob);
+    const a = document.createElement("a");
+    a.href = url;
+    a.download = `accounts-${name}-${dateStamp}.xlsx`;
+    document.body.appendChild(a);
+    a.click();
+    a.remove();
+    URL.revokeObjectURL(url);
+  } catch (err) {
+    console.error("Failed to download Excel", err);
+    window.ssdcAlert("Failed to download Excel", { title: "Export Failed" });
+  }
 }
 
 // Inline handler replacements (CSP-safe)
@@ -1,5 +1,12 @@
 /* ================= LOAD SAVED RESULTS (LOCAL) ================= */
 let savedResults = [];
+// Last saved value and row version per cell, so saves only send changes.
+let savedCells = {};
+// Keystroke autosave: last value sent per cell and pending debounce timers.
+const AUTOSAVE_DELAY_MS = 600;
+let autosavedValues = {};
+const autosaveTimers = new Map();
+let autosaveUsed = false;
 let selectedTestsCache = [];
 let selectedIdsCache = [];
 
@@ -210,6 +217,10 @@ function setPrintSettingsForm(data) {
   bottom.value = clampLines(data?.bottomLines);
   left.value = clampLines(data?.leftLines);
   right.value = clampLines(data?.rightLines);
+  const title = document.getElementById("psReportTitle");
+  if (title) {
+    title.value = data?.reportTitle || "";
+  }
 }
 
 function readPrintSettingsForm() {
@@ -217,7 +228,8 @@ function readPrintSettingsForm() {
     topLines: clampLines(document.getElementById("psTopLines")?.value),
     bottomLines: clampLines(document.getElementById("psBottomLines")?.value),
     leftLines: clampLines(document.getElementById("psLeftLines")?.value),
-    rightLines: clampLines(document.getElementById("psRightLines")?.value)
+    rightLines: clampLines(document.getElementById("psRightLines")?.value),
+    reportTitle: (document.getElementById("psReportTitle")?.value || "").trim()
   };
 }
 
@@ -256,7 +268,7 @@ function savePrintSettings() {
     })
     .then((saved) => {
       setPrintSettingsForm(saved);
-      window.ssdcAlert("Letterhead spacing saved for this Lab ID.", { title: "Saved" });
+      window.ssdcAlert("Print settings saved for this Lab ID.", { title: "Saved" });
     })
     .catch((err) => {
       console.error(err);
@@ -301,10 +313,12 @@ function loadSavedResults(){
     .then(list => {
       const incoming = list || [];
       savedResults = normalizeResults(incoming);
+      savedCells = indexSavedCells(savedResults);
       return savedResults;
     })
     .catch(() => {
       savedResults = [];
+      savedCells = {};
       return savedResults;
     });
 }
@@ -349,6 +363,22 @@ function normalizeResults(list){
   return Object.values(map);
 }
 
+function cellKey(testId, subTest){
+  return `${testId}::${normalizeKey(subTest)}`;
+}
+
+function indexSavedCells(list){
+  const map = {};
+  (list || []).forEach(r => {
+    map[cellKey(r.testId, r.subTest)] = {
+      id: r.id ?? null,
+      value: String(r.resultValue ?? "").trim(),
+      version: r.version ?? null
+    };
+  });
+  return map;
+}
+
 /* ================= LOAD GROUPS (DB) ================= */
 function loadGroupsAll(){
   return fetch(API_BASE_URL + "/groups")
@@ -870,6 +900,8 @@ function renderTests(tests) {
   clearNode(body);
   body.removeEventListener("input", markTouched);
   body.addEventListener("input", markTouched);
+  body.removeEventListener("input", scheduleAutosave);
+  body.addEventListener("input", scheduleAutosave);
   body.removeEventListener("click", handleAddLineClick);
   body.addEventListener("click", handleAddLineClick);
 
@@ -1352,26 +1384,150 @@ function markTouched(event) {
 }
 
 /* ================= COLLECT RESULTS ================= */
+function readResultInput(i) {
+  const rawValue = i.value || "";
+  const hasRaw = rawValue.trim() !== "";
+  const touched = i.dataset.touched === "1";
+  const fallback = i.dataset.default || i.getAttribute("value") || i.defaultValue || "";
+  const finalValue = hasRaw ? rawValue : (touched ? "" : fallback);
+  const clear = touched && !hasRaw;
+  return {
+    patientId: patientId,
+    testId: Number(i.dataset.testid),
+    subTest: i.dataset.sub || null,
+    resultValue: finalValue,
+    clear
+  };
+}
+
 function collectResults() {
   return [...document.querySelectorAll(".result-input")]
-    .map(i => {
-      const rawValue = i.value || "";
-      const hasRaw = rawValue.trim() !== "";
-      const touched = i.dataset.touched === "1";
-      const fallback = i.dataset.default || i.getAttribute("value") || i.defaultValue || "";
-      const finalValue = hasRaw ? rawValue : (touched ? "" : fallback);
-      const clear = touched && !hasRaw;
-      return {
-        patientId: patientId,
-        testId: Number(i.dataset.testid),
-        subTest: i.dataset.sub || null,
-        resultValue: finalValue,
-        clear
-      };
-    })
+    .map(readResultInput)
     .filter(r => r.clear || (r.resultValue && r.resultValue.trim() !== ""));
 }
 
+/* ================= AUTOSAVE ================= */
+function lastSentValue(key) {
+  if (Object.prototype.hasOwnProperty.call(autosavedValues, key)) {
+    return autosavedValues[key];
+  }
+  const saved = savedCells[key];
+  return saved ? saved.value : "";
+}
+
+function scheduleAutosave(event) {
+  const input = event.target;
+  if (!input || !input.classList.contains("result-input") || !canEdit()) {
+    return;
+  }
+  clearTimeout(autosaveTimers.get(input));
+  autosaveTimers.set(input, setTimeout(() => {
+    autosaveTimers.delete(input);
+    sendAutosave(input);
+  }, AUTOSAVE_DELAY_MS));
+}
+
+function sendAutosave(input) {
+  const cell = readResultInput(input);
+  if (!Number.isFinite(cell.testId)) {
+    return Promise.resolve();
+  }
+  const key = cellKey(cell.testId, cell.subTest);
+  const value = cell.clear ? "" : String(cell.resultValue || "").trim();
+  if (lastSentValue(key) === value) {
+    return Promise.resolve();
+  }
+  const saved = savedCells[key];
+  const payload = {
+    ...cell,
+    id: saved ? saved.id : null,
+    version: saved ? saved.version : null
+  };
+  const headers = { "Content-Type": "application/json" };
+  if (completedEditPin) {
+    headers["X-Edit-Pin"] = completedEditPin;
+  }
+  autosaveUsed = true;
+  autosavedValues[key] = value;
+  return fetch(API_BASE_URL + "/patient-tests/results/autosave", {
+    method: "POST",
+    headers: headers,
+    body: JSON.stringify(payload)
+  })
+    .then(res => (res.ok ? res.json() : null))
+    .then(status => reportAutosaveStatus(status))
+    .catch(() => {
+      delete autosavedValues[key];
+    });
+}
+
+// Sends whatever is still waiting on a debounce, then has the server write it.
+async function flushAutosave() {
+  const waiting = [...autosaveTimers.keys()];
+  waiting.forEach(input => clearTimeout(autosaveTimers.get(input)));
+  autosaveTimers.clear();
+  await Promise.all(waiting.map(sendAutosave));
+  const res = await fetch(
+    `${API_BASE_URL}/patient-tests/results/autosave/${patientId}/flush`,
+    { method: "POST" }
+  );
+  if (!res.ok) {
+    const msg = await res.text().catch(() => "");
+    throw new Error(msg || "Failed to save results");
+  }
+  return res.json().catch(() => ({}));
+}
+
+// Conflicts, then cells the server refused (locked report, missing patient).
+async function reportAutosaveStatus(status) {
+  const conflicted = await reportConflicts(status?.conflicts);
+  const rejected = status?.rejected;
+  if (!Array.isArray(rejected) || !rejected.length) {
+    return conflicted;
+  }
+  await window.ssdcAlert(
+    "Some values were not saved:\n"
+      + rejected
+        .map(r => `${r.subTest || "Result"}: "${r.rejectedValue || ""}" (${r.reason || "not saved"})`)
+        .join("\n"),
+    { title: "Not saved" }
+  );
+  return true;
+}
+
+async function reportConflicts(conflicts) {
+  if (!Array.isArray(conflicts) || !conflicts.length) {
+    return false;
+  }
+  await window.ssdcAlert(
+    "Some values were changed by someone else and were not saved:\n"
+      + describeConflicts(conflicts),
+    { title: "Conflict" }
+  );
+  return true;
+}
+
+// Only cells whose value differs from what was loaded, with the version seen.
+function collectDelta() {
+  return collectResults()
+    .map(r => {
+      const key = cellKey(r.testId, r.subTest);
+      const saved = savedCells[key];
+      const value = r.clear ? "" : String(r.resultValue || "").trim();
+      if (lastSentValue(key) === value) {
+        return null;
+      }
+      return { ...r, version: saved ? saved.version : null };
+    })
+    .filter(Boolean);
+}
+
+function describeConflicts(conflicts){
+  return conflicts
+    .map(c => `${c.subTest || "Result"}: now "${c.currentValue || ""}"`)
+    .join("\n");
+}
+
 /* ================= SAVE ONLY ================= */
 async function saveOnly() {
   if (!canEdit()) {
@@ -1380,7 +1536,7 @@ async function saveOnly() {
     return;
   }
 
-  const results = collectResults();
+  const results = collectDelta();
   let selectedIds = Array.isArray(selectedIdsCache) ? selectedIdsCache.slice() : [];
   if (!selectedIds.length) {
     if (Array.isArray(selectedTestsCache) && selectedTestsCache.length) {
@@ -1400,6 +1556,32 @@ async function saveOnly() {
     navigateToReports();
   };
 
+  // Once autosave has written cells, finish through the same buffer so this
+  // save does not race (and conflict with) its own earlier writes.
+  if (autosaveUsed) {
+    try {
+      await saveSelectedTestsToDb(selectedIds);
+      const inputs = [...document.querySelectorAll(".result-input")];
+      inputs.forEach(input => {
+        if (!autosaveTimers.has(input)) {
+          autosaveTimers.set(input, null);
+        }
+      });
+      const status = await flushAutosave();
+      if (await reportAutosaveStatus(status)) {
+        autosavedValues = {};
+        autosaveUsed = false;
+        await loadAndRender();
+        return;
+      }
+      finishSave();
+    } catch (err) {
+      console.error(err);
+      window.ssdcAlert(err?.message || "Failed to save results", { title: "Error" });
+    }
+    return;
+  }
+
   if (results.length === 0) {
     finishSave();
     return;
@@ -1411,16 +1593,22 @@ async function saveOnly() {
       if (completedEditPin) {
         headers["X-Edit-Pin"] = completedEditPin;
       }
-      fetch(API_BASE_URL + "/patient-tests/results", {
+      fetch(API_BASE_URL + "/patient-tests/results/delta", {
         method: "POST",
         headers: headers,
-        body: JSON.stringify(results)
+        body: JSON.stringify({ patientId: patientId, changes: results })
       })
         .then(async (res) => {
           if (!res.ok) {
             const msg = await res.text().catch(() => "");
             throw new Error(msg || "Failed to save results");
           }
+          const body = await res.json().catch(() => ({}));
+          const conflicts = Array.isArray(body?.conflicts) ? body.conflicts : [];
+          if (await reportConflicts(conflicts)) {
+            await loadAndRender();
+            return;
+          }
           finishSave();
         })
         .catch(err => {
@@ -214,9 +214,10 @@ const doctorsReady = fetch(API_BASE_URL + "/doctors")
 renderExistingPatients([], "idle");
 
 const EXISTING_PATIENTS_PAGE_LIMIT = 5;
-const EXISTING_PATIENTS_PAGE_FETCH = 6; // fetch 1 extra to detect "Next"
 let existingPatientsQuery = { name: "", mobile: "" };
 let existingPatientsPage = 0;
+// Keyset cursors: existingPatientsCursors[n] fetches page n (page 0 has none).
+let existingPatientsCursors = [""];
 let existingPatientsHasMore = false;
 let existingPatientsLoading = false;
 
@@ -267,8 +268,15 @@ function loadExistingPatientsPage(page){
   const params = new URLSearchParams();
   params.set("name", nameQuery);
   params.set("mobile", mobileQuery);
-  params.set("page", String(Math.max(0, page)));
-  params.set("limit", String(EXISTING_PATIENTS_PAGE_FETCH));
+  if (page <= 0) {
+    existingPatientsCursors = [""];
+  }
+  const cursor = existingPatientsCursors[Math.max(0, page)] || "";
+  if (cursor) {
+    params.set("cursor", cursor);
+  }
+  params.set("limit", String(EXISTING_PATIENTS_PAGE_LIMIT));
+  let nextCursor = "";
 
   existingPatientsLoading = true;
   updateExistingPager();
@@ -277,6 +285,7 @@ function loadExistingPatientsPage(page){
     signal: patientSearchController.signal
   })
   .then(async (res) => {
+    nextCursor = (res && res.headers && res.headers.get("X-Next-Cursor")) || "";
     if (!res || !res.ok) {
       const data = await safeJson(res);
       // Option A: backend blocks empty searches. Also handle generic failures.
@@ -304,12 +313,11 @@ function loadExistingPatientsPage(page){
       return;
     }
     const safe = Array.isArray(list) ? list : [];
-    existingPatientsHasMore = safe.length >= EXISTING_PATIENTS_PAGE_FETCH;
+    existingPatientsHasMore = Boolean(nextCursor);
     existingPatientsPage = Math.max(0, page);
+    existingPatientsCursors[existingPatientsPage + 1] = nextCursor;
     existingPatientsLoading = false;
-    const shown = safe.length > EXISTING_PATIENTS_PAGE_LIMIT
-      ? safe.slice(0, EXISTING_PATIENTS_PAGE_LIMIT)
-      : safe;
+    const shown = safe;
     existingList.splice(0, existingList.length, ...shown);
     renderExistingPatients(shown);
     updateExistingPager();
@@ -205,6 +205,14 @@ function showPatientInfo(){
 }
 
 /* ================= RANGE CHECK ================= */
+// The server's stored LOW/HIGH flag wins; the range text covers the rest.
+function isAbnormalResult(item, value, normalText, gender){
+  if (item && item.abnormalFlag) {
+    return true;
+  }
+  return isOutOfRange(value, normalText, gender);
+}
+
 function isOutOfRange(value, normalText, gender){
   const valueText = value == null ? "" : String(value).trim();
   const normalValueText = normalizeNormalForDisplay(normalText);
@@ -997,7 +1005,7 @@ function renderReport(tests, resultList, selectedIds, groupList){
 
       lines.forEach(([, item], index) => {
         const value = item?.resultValue || "";
-        const abnormal = isOutOfRange(value, normalText, patient.gender);
+        const abnormal = isAbnormalResult(item, value, normalText, patient.gender);
 
         // For multi-line single tests: show normal values only once (first row),
         // and split normal values into separate bordered rows.
@@ -1093,7 +1101,8 @@ function renderReport(tests, resultList, selectedIds, groupList){
               ? `${valueForDisplay} %`
               : valueForDisplay;
 
-          const abnormal = isOutOfRange(
+          const abnormal = isAbnormalResult(
+            slot.item,
             valueForDisplay,
             normalText,
             patient.gender
@@ -1123,7 +1132,8 @@ function renderReport(tests, resultList, selectedIds, groupList){
     const normalText = resolveNormalText(test, params[0] || {});
     const resultValue = item?.resultValue || "";
 
-    const abnormal = isOutOfRange(
+    const abnormal = isAbnormalResult(
+      item,
       resultValue,
       normalText,
       patient.gender
@@ -1362,8 +1372,11 @@ async function initPage(){
     showPatientInfo();
     syncReportLockUi();
 
-    const [freshResults, freshSelectedIds, freshTests, freshGroups] =
-      await Promise.all([loadResults(), loadSelectedTests(), loadTestsActive(), loadGroupsAll()]);
+    const [freshResults, freshSelectedIds, freshTests, freshGroups, printSettings] =
+      await Promise.all([
+        loadResults(), loadSelectedTests(), loadTestsActive(), loadGroupsAll(), loadPrintSettingsOnce()
+      ]);
+    applyReportTitleToDom(printSettings);
 
     renderReport(freshTests, freshResults, freshSelectedIds, freshGroups);
     if (printOnlyRequest) {
@@ -1406,17 +1419,66 @@ function goPatients(){
 }
 
 function downloadPDF(){
+  fetchServerPdf("pdf")
+    .then((blob) => saveBlob(blob, reportFileName()))
+    .catch((err) => {
+      console.warn("Server PDF failed, using browser print", err);
+      downloadPDFInBrowser();
+    });
+}
+
+function downloadPDFInBrowser(){
   setReportMode("pdf").then(() => nextPaint()).then(() => {
     window.print(); // browser save as PDF
   });
 }
 
+/* ================= SERVER PDF ================= */
+function fetchServerPdf(mode){
+  const currentPatientId = hasValidPatientId(patient?.id)
+    ? Number(patient.id)
+    : getPatientIdFromUrl();
+  if (!hasValidPatientId(currentPatientId)) {
+    return Promise.reject(new Error("Missing patient id"));
+  }
+  const safeMode = encodeURIComponent(normalizePrintMode(mode));
+  return fetch(`${API_BASE_URL}/patient-tests/report/${currentPatientId}/pdf?mode=${safeMode}`)
+    .then((res) => {
+      if (!res.ok) {
+        throw new Error("PDF request failed: " + res.status);
+      }
+      return res.blob();
+    });
+}
+
+function reportFileName(){
+  const name = String(patient?.name || "report")
+    .trim()
+    .replace(/[^A-Za-z0-9]+/g, "-")
+    .replace(/^-+|-+$/g, "");
+  const date = String(patient?.visitDate || "").trim();
+  return (name || "report") + (date ? "-" + date : "") + ".pdf";
+}
+
+function saveBlob(blob, fileName){
+  const url = URL.createObjectURL(blob);
+  const link = document.createElement("a");
+  link.href = url;
+  link.download = fileName;
+  document.body.appendChild(link);
+  link.click();
+  link.remove();
+  window.setTimeout(() => URL.revokeObjectURL(url), 30000);
+}
+
 /* ================= PRINT (LETTERHEAD) ================= */
+const DEFAULT_REPORT_TITLE = "BLOOD EXAMINATION REPORT";
 const defaultPrintSettings = {
   topLines: 0,
   bottomLines: 0,
   leftLines: 0,
-  rightLines: 0
+  rightLines: 0,
+  reportTitle: DEFAULT_REPORT_TITLE
 };
 
 let cachedPrintSettings = { ...defaultPrintSettings };
@@ -1467,7 +1529,8 @@ function loadPrintSettingsOnce(){
         topLines: clampLines(data?.topLines),
         bottomLines: clampLines(data?.bottomLines),
         leftLines: clampLines(data?.leftLines),
-        rightLines: clampLines(data?.rightLines)
+        rightLines: clampLines(data?.rightLines),
+        reportTitle: String(data?.reportTitle || "").trim() || DEFAULT_REPORT_TITLE
       };
       cachedPrintSettingsLoaded = true;
       return cachedPrintSettings;
@@ -1479,6 +1542,13 @@ function loadPrintSettingsOnce(){
     });
 }
 
+function applyReportTitleToDom(settings){
+  const title = settings?.reportTitle || DEFAULT_REPORT_TITLE;
+  document.querySelectorAll("[data-ssdc-report-title]").forEach((el) => {
+    el.textContent = title;
+  });
+}
+
 function nextPaint(){
   return new Promise((resolve) => {
     requestAnimationFrame(() => requestAnimationFrame(resolve));
@@ -1697,7 +1767,8 @@ function buildHeaderNode(){
 
   const p = document.createElement("p");
   const b = document.createElement("b");
-  b.textContent = "BLOOD EXAMINATION REPORT";
+  b.setAttribute("data-ssdc-report-title", "");
+  b.textContent = cachedPrintSettings.reportTitle || DEFAULT_REPORT_TITLE;
   p.appendChild(b);
 
   header.appendChild(h2);
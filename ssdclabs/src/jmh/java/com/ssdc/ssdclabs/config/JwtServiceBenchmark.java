@@ -0,0 +1,66 @@
+package com.ssdc.ssdclabs.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+// Per-request cost of turning a bearer token into a lab id, as JwtAuthFilter does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private SecretKey key;
+    private String token;
+    private JwtService sharedParser;
+    private JwtService verifiedCache;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        sharedParser = new JwtService(SECRET, 604800, 0);
+        verifiedCache = new JwtService(SECRET, 604800, 10000);
+        token = verifiedCache.issueToken("lab1");
+    }
+
+    // The pre-change path: a new parser built and the HMAC verified on every call.
+    @Benchmark
+    public String parserPerCall() {
+        return Jwts.parser()
+            .verifyWith(key)
+            .build()
+            .parseSignedClaims(token)
+            .getPayload()
+            .getSubject();
+    }
+
+    @Benchmark
+    public String sharedParser() {
+        return sharedParser.validateAndGetLabId(token);
+    }
+
+    @Benchmark
+    public String verifiedTokenCache() {
+        return verifiedCache.validateAndGetLabId(token);
+    }
+}
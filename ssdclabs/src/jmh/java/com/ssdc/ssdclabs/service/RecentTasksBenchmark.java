@@ -0,0 +1,53 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+
+import com.ssdc.ssdclabs.dto.RecentTaskDTO;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+
+// Home-page task list: filtering and ordering the recent-visit window that
+// getRecentTasks pulls (25 candidates per requested row, at least 200).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecentTasksBenchmark {
+
+    @Param({"8", "100"})
+    public int limit;
+
+    private PatientService service;
+
+    @Setup
+    public void setUp() {
+        List<Patient> recent = new SyntheticLab(0).recentPatients(2500);
+        PatientRepository patientRepo = RepositoryStubs.of(PatientRepository.class)
+            .on("findRecentPatients", args -> recent.subList(0,
+                Math.min(recent.size(), ((Pageable) args[1]).getPageSize())))
+            .build();
+        // getRecentTasks only reads patients; the other collaborators stay unset.
+        service = new PatientService(patientRepo, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<RecentTaskDTO> getRecentTasks() {
+        return service.getRecentTasks(SyntheticLab.LAB_ID, limit);
+    }
+}
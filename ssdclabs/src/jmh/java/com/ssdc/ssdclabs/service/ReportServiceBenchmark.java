@@ -0,0 +1,160 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.NormalRange;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.model.ReportResult;
+import com.ssdc.ssdclabs.model.Test;
+import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.repository.NormalRangeRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.ReportResultRepository;
+import com.ssdc.ssdclabs.repository.ReportSnapshotRepository;
+import com.ssdc.ssdclabs.repository.TestParameterRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+
+// Result entry and report reads for one patient with a full sheet (blood
+// picture, liver, renal, lipid, thyroid, urine and a multi-line culture):
+// saveResults grouping, line ordering, merge and classification, and
+// getResults splitting stored values back into lines. Repositories answer
+// from memory, so only the service's own work is timed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    private static final long NEW_PATIENT = 1;
+    private static final long SAVED_PATIENT = 2;
+
+    private ReportService service;
+    private List<PatientTestResultDTO> newSheet;
+    private List<PatientTestResultDTO> savedSheet;
+
+    @Setup
+    public void setUp() {
+        SyntheticLab lab = new SyntheticLab(150);
+        List<Test> sheetTests = List.of(
+            lab.testNamed("Complete Blood Picture"),
+            lab.testNamed("Liver Function Test"),
+            lab.testNamed("Renal Function Test"),
+            lab.testNamed("Lipid Profile"),
+            lab.testNamed("Thyroid Profile"),
+            lab.testNamed("Complete Urine Examination"),
+            lab.testNamed("Urine Culture"),
+            lab.testNamed("Fasting Blood Sugar"),
+            lab.testNamed("HbA1c"));
+
+        Map<Long, Patient> patients = new HashMap<>();
+        patients.put(NEW_PATIENT, lab.patient(NEW_PATIENT, Gender.FEMALE, PatientService.STATUS_NOT_COMPLETE));
+        patients.put(SAVED_PATIENT, lab.patient(SAVED_PATIENT, Gender.MALE, PatientService.STATUS_NOT_COMPLETE));
+        newSheet = lab.resultSheet(NEW_PATIENT, sheetTests);
+        savedSheet = lab.resultSheet(SAVED_PATIENT, sheetTests);
+        List<ReportResult> stored = lab.storedResults(patients.get(SAVED_PATIENT), savedSheet);
+
+        Map<Long, Test> testsById = new HashMap<>();
+        for (Test test : lab.tests()) {
+            testsById.put(test.getId(), test);
+        }
+        Map<Long, List<TestParameter>> paramsByTest = new HashMap<>();
+        for (TestParameter param : lab.parameters()) {
+            paramsByTest.computeIfAbsent(param.getTest().getId(), k -> new ArrayList<>()).add(param);
+        }
+        Map<Long, List<NormalRange>> rangesByParam = new HashMap<>();
+        for (NormalRange range : lab.ranges()) {
+            rangesByParam.computeIfAbsent(range.getParameter().getId(), k -> new ArrayList<>()).add(range);
+        }
+
+        ReportResultRepository resultRepo = RepositoryStubs.of(ReportResultRepository.class)
+            .on("findByPatient_IdIn", args -> ((Collection<?>) args[1]).contains(SAVED_PATIENT) ? stored : List.of())
+            .on("findByPatient_Id", args -> args[1].equals(SAVED_PATIENT) ? stored : List.of())
+            .on("saveAll", args -> args[0])
+            .on("deleteAll", args -> null)
+            .build();
+        TestRepository testRepo = RepositoryStubs.of(TestRepository.class)
+            .on("findByIdAndLabId", args -> Optional.ofNullable(testsById.get((Long) args[0])))
+            .build();
+        TestParameterRepository paramRepo = RepositoryStubs.of(TestParameterRepository.class)
+            .on("findByTest_IdOrderByIdAsc", args -> paramsByTest.getOrDefault((Long) args[0], List.of()))
+            .on("countByTestIds", args -> {
+                List<TestParameterRepository.TestParamCount> counts = new ArrayList<>();
+                for (Object id : (List<?>) args[0]) {
+                    counts.add(new ParamCount((Long) id, paramsByTest.getOrDefault((Long) id, List.of()).size()));
+                }
+                return counts;
+            })
+            .build();
+        PatientRepository patientRepo = RepositoryStubs.of(PatientRepository.class)
+            .on("findByIdAndLabId", args -> Optional.ofNullable(patients.get((Long) args[0])))
+            .build();
+        NormalRangeRepository normalRangeRepo = RepositoryStubs.of(NormalRangeRepository.class)
+            .on("findByParameterIdIn", args -> {
+                List<NormalRange> ranges = new ArrayList<>();
+                for (Object id : (Collection<?>) args[0]) {
+                    ranges.addAll(rangesByParam.getOrDefault((Long) id, List.of()));
+                }
+                return ranges;
+            })
+            .build();
+        ReportSnapshotRepository snapshotRepo = RepositoryStubs.of(ReportSnapshotRepository.class)
+            .on("findById", args -> Optional.empty())
+            .build();
+
+        service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo,
+            new ReportSnapshotStore(snapshotRepo, new ObjectMapper()), normalRangeRepo);
+    }
+
+    private record ParamCount(Long testId, long count) implements TestParameterRepository.TestParamCount {
+        @Override
+        public Long getTestId() {
+            return testId;
+        }
+
+        @Override
+        public Long getParamCount() {
+            return count;
+        }
+    }
+
+    // First save of a sheet: every row is new.
+    @Benchmark
+    public List<PatientTestResultDTO> saveResultsNewSheet() {
+        service.saveResults(SyntheticLab.LAB_ID, newSheet, null);
+        return newSheet;
+    }
+
+    // Re-save over stored rows: groups are matched to existing results and merged.
+    @Benchmark
+    public List<PatientTestResultDTO> saveResultsOverStoredRows() {
+        service.saveResults(SyntheticLab.LAB_ID, savedSheet, null);
+        return savedSheet;
+    }
+
+    @Benchmark
+    public List<PatientTestResultDTO> getResults() {
+        return service.getResults(SyntheticLab.LAB_ID, SAVED_PATIENT);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ssdc.ssdclabs.service;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+// In-memory stand-ins for repository interfaces so benchmarks measure the
+// service code and not a database or a mocking framework. Only the named
+// methods answer; anything else throws, which keeps a benchmark honest about
+// the queries it exercises.
+final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    static <T> Builder<T> of(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    // Runs transaction callbacks inline.
+    static PlatformTransactionManager noTransactions() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    static final class Builder<T> {
+        private final Class<T> type;
+        private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+        private Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        Builder<T> on(String method, Function<Object[], Object> answer) {
+            answers.put(method, answer);
+            return this;
+        }
+
+        T build() {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (self, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) {
+                        return answer.apply(args);
+                    }
+                    return switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(self);
+                        case "equals" -> self == args[0];
+                        case "toString" -> type.getSimpleName() + " stub";
+                        default -> throw new UnsupportedOperationException(
+                            type.getSimpleName() + "." + method.getName() + " is not stubbed");
+                    };
+                });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.NormalRange;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.model.ReportResult;
+import com.ssdc.ssdclabs.model.Test;
+import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.model.TestType;
+import com.ssdc.ssdclabs.model.ValueType;
+
+// Catalog, patients and result sheets shaped like a working lab: panels with
+// gender-specific ranges, text results with preset choices, free-text
+// reports spread over several lines, and a few hundred single tests.
+// Fixed seeds keep runs comparable.
+final class SyntheticLab {
+
+    static final String LAB_ID = "bench-lab";
+
+    private final List<Test> tests = new ArrayList<>();
+    private final List<TestParameter> parameters = new ArrayList<>();
+    private final List<NormalRange> ranges = new ArrayList<>();
+    private long nextId = 1;
+
+    // Panels first, then numeric single tests up to catalogSize.
+    SyntheticLab(int catalogSize) {
+        panel("Complete Blood Picture", "Hematology",
+            numeric("Haemoglobin", "g/dL", Gender.MALE, 13.0, 17.0, Gender.FEMALE, 12.0, 15.0),
+            numeric("Total RBC Count", "mill/cumm", Gender.ANY, 4.5, 5.5),
+            numeric("Total WBC Count", "cells/cumm", Gender.ANY, 4000.0, 11000.0),
+            numeric("Neutrophils", "%", Gender.ANY, 40.0, 70.0),
+            numeric("Lymphocytes", "%", Gender.ANY, 20.0, 40.0),
+            numeric("Eosinophils", "%", Gender.ANY, 1.0, 6.0),
+            numeric("Monocytes", "%", Gender.ANY, 2.0, 8.0),
+            numeric("Basophils", "%", Gender.ANY, 0.0, 1.0),
+            numeric("Platelet Count", "lakhs/cumm", Gender.ANY, 1.5, 4.5),
+            numeric("PCV", "%", Gender.MALE, 40.0, 50.0, Gender.FEMALE, 36.0, 46.0),
+            numeric("MCV", "fL", Gender.ANY, 83.0, 101.0),
+            numeric("MCH", "pg", Gender.ANY, 27.0, 32.0),
+            numeric("MCHC", "g/dL", Gender.ANY, 31.5, 34.5));
+        panel("Liver Function Test", "Biochemistry",
+            numeric("Total Bilirubin", "mg/dL", Gender.ANY, 0.2, 1.2),
+            numeric("Direct Bilirubin", "mg/dL", Gender.ANY, 0.0, 0.3),
+            numeric("SGOT", "U/L", Gender.ANY, null, 40.0),
+            numeric("SGPT", "U/L", Gender.ANY, null, 41.0),
+            numeric("Alkaline Phosphatase", "U/L", Gender.ANY, 44.0, 147.0),
+            numeric("Total Protein", "g/dL", Gender.ANY, 6.0, 8.3),
+            numeric("Albumin", "g/dL", Gender.ANY, 3.5, 5.2));
+        panel("Renal Function Test", "Biochemistry",
+            numeric("Blood Urea", "mg/dL", Gender.ANY, 15.0, 40.0),
+            numeric("Serum Creatinine", "mg/dL", Gender.MALE, 0.7, 1.3, Gender.FEMALE, 0.6, 1.1),
+            numeric("Uric Acid", "mg/dL", Gender.ANY, 3.5, 7.2),
+            numeric("Sodium", "mmol/L", Gender.ANY, 135.0, 145.0),
+            numeric("Potassium", "mmol/L", Gender.ANY, 3.5, 5.1),
+            numeric("Chloride", "mmol/L", Gender.ANY, 98.0, 107.0));
+        panel("Lipid Profile", "Biochemistry",
+            numeric("Total Cholesterol", "mg/dL", Gender.ANY, null, 200.0),
+            numeric("Triglycerides", "mg/dL", Gender.ANY, null, 150.0),
+            numeric("HDL Cholesterol", "mg/dL", Gender.MALE, 40.0, null, Gender.FEMALE, 50.0, null),
+            numeric("LDL Cholesterol", "mg/dL", Gender.ANY, null, 100.0),
+            numeric("VLDL Cholesterol", "mg/dL", Gender.ANY, 5.0, 40.0));
+        panel("Thyroid Profile", "Endocrinology",
+            numeric("T3", "ng/mL", Gender.ANY, 0.8, 2.0),
+            numeric("T4", "ug/dL", Gender.ANY, 5.1, 14.1),
+            numeric("TSH", "uIU/mL", Gender.ANY, 0.27, 4.2));
+        panel("Complete Urine Examination", "Clinical Pathology - Urine",
+            text("Colour", "Pale Yellow", "Pale Yellow", "Yellow", "Dark Yellow"),
+            text("Appearance", "Clear", "Clear", "Slightly Turbid", "Turbid"),
+            numeric("pH", "", Gender.ANY, 4.6, 8.0),
+            numeric("Specific Gravity", "", Gender.ANY, 1.005, 1.030),
+            text("Protein", "Nil", "Nil", "Trace", "+", "++"),
+            text("Sugar", "Nil", "Nil", "Trace", "+", "++"),
+            text("Pus Cells", "0-5 /hpf", "2-4", "4-6", "10-12", "Plenty"),
+            text("RBC", "Nil", "Nil", "1-2", "Plenty"),
+            text("Epithelial Cells", "Few", "Few", "Moderate", "Plenty"));
+        panel("Widal Test", "Serology",
+            text("S. Typhi O", "< 1:80", "1:20", "1:40", "1:80", "1:160"),
+            text("S. Typhi H", "< 1:80", "1:20", "1:40", "1:80", "1:160"),
+            text("S. Paratyphi AH", "< 1:80", "1:20", "1:40", "1:80", "1:160"),
+            text("S. Paratyphi BH", "< 1:80", "1:20", "1:40", "1:80", "1:160"));
+        single("Fasting Blood Sugar", "Biochemistry", numeric("Fasting Blood Sugar", "mg/dL", Gender.ANY, 70.0, 110.0));
+        single("Post Prandial Blood Sugar", "Biochemistry", numeric("PPBS", "mg/dL", Gender.ANY, 70.0, 140.0));
+        single("HbA1c", "Biochemistry", numeric("HbA1c", "%", Gender.ANY, 4.0, 5.6));
+        single("ESR", "Hematology", numeric("ESR", "mm/hr", Gender.MALE, 0.0, 15.0, Gender.FEMALE, 0.0, 20.0));
+        single("CRP", "Serology", numeric("CRP", "mg/L", Gender.ANY, null, 6.0));
+        single("Blood Group", "Hematology", text("Blood Group", "", "A Positive", "B Positive", "O Positive",
+            "AB Positive", "A Negative", "B Negative", "O Negative", "AB Negative"));
+        single("HBsAg", "Serology", text("HBsAg", "Negative", "Negative", "Positive"));
+        single("Dengue NS1", "Serology", text("Dengue NS1", "Negative", "Negative", "Positive"));
+        TestParameter culture = text("Culture & Sensitivity", "");
+        culture.setAllowNewLines(Boolean.TRUE);
+        single("Urine Culture", "Microbiology", culture);
+
+        Random random = new Random(42);
+        for (int i = tests.size(); i < catalogSize; i++) {
+            double low = Math.round(random.nextDouble() * 100) / 10.0;
+            single("Assay " + i, "Biochemistry",
+                numeric("Assay " + i, "units", Gender.ANY, low, low + 5 + random.nextInt(50)));
+        }
+    }
+
+    List<Test> tests() {
+        return tests;
+    }
+
+    List<TestParameter> parameters() {
+        return parameters;
+    }
+
+    List<NormalRange> ranges() {
+        return ranges;
+    }
+
+    List<TestParameter> parametersOf(Long testId) {
+        return parameters.stream().filter(p -> p.getTest().getId().equals(testId)).toList();
+    }
+
+    Test testNamed(String name) {
+        return tests.stream().filter(t -> t.getTestName().equals(name)).findFirst().orElseThrow();
+    }
+
+    Patient patient(long id, Gender gender, String status) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setLabId(LAB_ID);
+        patient.setName("Patient " + id);
+        patient.setGender(gender);
+        patient.setAge(20 + (int) (id % 60));
+        patient.setStatus(status);
+        patient.setAmount(1200.0);
+        patient.setPaid(1200.0);
+        patient.setVisitDate(LocalDate.now(ZoneId.of("Asia/Kolkata")));
+        return patient;
+    }
+
+    // Recent visits as findRecentPatients returns them (newest first): a third
+    // still pending, a quarter with money due, spread over the last 60 days.
+    List<Patient> recentPatients(int count) {
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now(ZoneId.of("Asia/Kolkata"));
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean pending = random.nextInt(3) == 0;
+            Patient patient = patient(100_000L - i, random.nextBoolean() ? Gender.MALE : Gender.FEMALE,
+                pending ? PatientService.STATUS_NOT_COMPLETE : PatientService.STATUS_COMPLETED);
+            patient.setVisitDate(today.minusDays(i * 60L / count));
+            double amount = 200 + random.nextInt(40) * 50;
+            patient.setAmount(amount);
+            patient.setPaid(random.nextInt(4) == 0 ? amount / 2 : amount);
+            patients.add(patient);
+        }
+        return patients;
+    }
+
+    // A typical sheet: every parameter of the given tests, numbers near their
+    // ranges, text picked from the presets, and a three-line culture report.
+    List<PatientTestResultDTO> resultSheet(Long patientId, List<Test> sheetTests) {
+        Random random = new Random(patientId);
+        List<PatientTestResultDTO> sheet = new ArrayList<>();
+        for (Test test : sheetTests) {
+            List<TestParameter> params = parametersOf(test.getId());
+            for (TestParameter param : params) {
+                String subTest = params.size() > 1 ? param.getName() : null;
+                if (Boolean.TRUE.equals(param.getAllowNewLines())) {
+                    sheet.add(new PatientTestResultDTO(null, patientId, test.getId(), subTest,
+                        "Organism isolated: Escherichia coli"));
+                    sheet.add(new PatientTestResultDTO(null, patientId, test.getId(), param.getName() + "::2",
+                        "Colony count: > 10^5 CFU/mL"));
+                    sheet.add(new PatientTestResultDTO(null, patientId, test.getId(), param.getName() + "::3",
+                        "Sensitive to: Nitrofurantoin, Amikacin"));
+                } else {
+                    sheet.add(new PatientTestResultDTO(null, patientId, test.getId(), subTest,
+                        sampleValue(param, random)));
+                }
+            }
+        }
+        return sheet;
+    }
+
+    // Stored rows for a sheet, as report_results would hold them after a save.
+    List<ReportResult> storedResults(Patient patient, List<PatientTestResultDTO> sheet) {
+        List<ReportResult> rows = new ArrayList<>();
+        for (PatientTestResultDTO line : sheet) {
+            Test test = tests.stream().filter(t -> t.getId().equals(line.testId)).findFirst().orElseThrow();
+            List<TestParameter> params = parametersOf(test.getId());
+            String base = line.subTest == null ? null : line.subTest.split("::")[0];
+            TestParameter param = params.stream()
+                .filter(p -> base == null || p.getName().equalsIgnoreCase(base))
+                .findFirst().orElse(params.get(0));
+            ReportResult merged = rows.stream()
+                .filter(r -> r.getParameter() == param)
+                .findFirst().orElse(null);
+            if (merged != null) {
+                merged.setResultValue(merged.getResultValue() + "\n" + line.resultValue);
+                continue;
+            }
+            ReportResult row = new ReportResult();
+            row.setId(nextId++);
+            row.setVersion(1L);
+            row.setPatient(patient);
+            row.setTest(test);
+            row.setParameter(param);
+            row.setSubTest("");
+            row.setResultValue(line.resultValue);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private String sampleValue(TestParameter param, Random random) {
+        if (param.getValueType() == ValueType.TEXT) {
+            String[] choices = param.getDefaultResult() == null
+                ? new String[] {"Normal"}
+                : param.getDefaultResult().split("\n");
+            return choices[random.nextInt(choices.length)];
+        }
+        NormalRange range = param.getNormalRanges().get(0);
+        double min = range.getMinValue() == null ? 0 : range.getMinValue();
+        double max = range.getMaxValue() == null ? min * 2 + 10 : range.getMaxValue();
+        // About one in five outside the range.
+        double value = min + (max - min) * (random.nextDouble() * 1.5 - 0.25);
+        return Double.toString(Math.round(value * 10) / 10.0);
+    }
+
+    private void panel(String name, String category, TestParameter... params) {
+        add(name, category, TestType.MULTI, params);
+    }
+
+    private void single(String name, String category, TestParameter param) {
+        add(name, category, TestType.SINGLE, param);
+    }
+
+    private void add(String name, String category, TestType type, TestParameter... params) {
+        Test test = new Test();
+        test.setId(nextId++);
+        test.setLabId(LAB_ID);
+        test.setTestName(name);
+        test.setShortcut(name.replaceAll("[^A-Z0-9]", ""));
+        test.setCategory(category);
+        test.setTestType(type);
+        test.setActive(Boolean.TRUE);
+        test.setCost(150.0 + params.length * 50);
+        test.setDisplayOrder(tests.size());
+        List<TestParameter> list = new ArrayList<>();
+        for (TestParameter param : params) {
+            param.setId(nextId++);
+            param.setTest(test);
+            for (NormalRange range : param.getNormalRanges()) {
+                range.setId(nextId++);
+                range.setParameter(param);
+                ranges.add(range);
+            }
+            list.add(param);
+            parameters.add(param);
+        }
+        test.setParameters(list);
+        tests.add(test);
+    }
+
+    private static TestParameter numeric(String name, String unit, Gender gender, Double min, Double max) {
+        TestParameter param = parameter(name, unit, ValueType.NUMBER);
+        param.getNormalRanges().add(range(gender, min, max, null));
+        return param;
+    }
+
+    private static TestParameter numeric(String name, String unit,
+                                         Gender first, Double firstMin, Double firstMax,
+                                         Gender second, Double secondMin, Double secondMax) {
+        TestParameter param = parameter(name, unit, ValueType.NUMBER);
+        param.getNormalRanges().add(range(first, firstMin, firstMax, null));
+        param.getNormalRanges().add(range(second, secondMin, secondMax, null));
+        return param;
+    }
+
+    private static TestParameter text(String name, String normal, String... choices) {
+        TestParameter param = parameter(name, null, ValueType.TEXT);
+        if (!normal.isEmpty()) {
+            param.getNormalRanges().add(range(Gender.ANY, null, null, normal));
+        }
+        if (choices.length > 0) {
+            param.setDefaultResult(String.join("\n", choices));
+        }
+        return param;
+    }
+
+    private static TestParameter parameter(String name, String unit, ValueType valueType) {
+        TestParameter param = new TestParameter();
+        param.setName(name);
+        param.setUnit(unit);
+        param.setValueType(valueType);
+        param.setNormalRanges(new ArrayList<>());
+        return param;
+    }
+
+    private static NormalRange range(Gender gender, Double min, Double max, String text) {
+        NormalRange range = new NormalRange();
+        range.setGender(gender);
+        range.setMinValue(min);
+        range.setMaxValue(max);
+        range.setTextValue(text);
+        return range;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ssdc.ssdclabs.dto.TestViewDTO;
+import com.ssdc.ssdclabs.model.Test;
+import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.repository.TestParameterRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+
+// Building test views: the per-test toView used after edits, and a whole
+// catalog rebuild after the snapshot is invalidated. Both are dominated by
+// formatNormalRange/formatNumber over every range of every parameter.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestCatalogBenchmark {
+
+    @Param({"60", "250"})
+    public int catalogSize;
+
+    private TestService service;
+    private TestCatalogCache catalogCache;
+    private Test bloodPicture;
+
+    @Setup
+    public void setUp() {
+        SyntheticLab lab = new SyntheticLab(catalogSize);
+        bloodPicture = lab.testNamed("Complete Blood Picture");
+        Map<Long, List<TestParameter>> paramsByTest = new HashMap<>();
+        for (TestParameter param : lab.parameters()) {
+            paramsByTest.computeIfAbsent(param.getTest().getId(), k -> new ArrayList<>()).add(param);
+        }
+        TestRepository testRepo = RepositoryStubs.of(TestRepository.class)
+            .on("findByLabIdOrderByIdAsc", args -> lab.tests())
+            .build();
+        TestParameterRepository paramRepo = RepositoryStubs.of(TestParameterRepository.class)
+            .on("findByLabIdWithRanges", args -> lab.parameters())
+            .on("findByTestIdInWithRanges", args -> {
+                List<TestParameter> params = new ArrayList<>();
+                for (Object id : (Collection<?>) args[0]) {
+                    params.addAll(paramsByTest.getOrDefault((Long) id, List.of()));
+                }
+                return params;
+            })
+            .build();
+        catalogCache = new TestCatalogCache();
+        service = new TestService(testRepo, paramRepo, catalogCache, RepositoryStubs.noTransactions());
+    }
+
+    // Thirteen parameters, two with gender-specific ranges.
+    @Benchmark
+    public TestViewDTO toViewPanel() {
+        return service.toView(bloodPicture);
+    }
+
+    @Benchmark
+    public List<TestViewDTO> rebuildCatalog() {
+        catalogCache.invalidate(SyntheticLab.LAB_ID);
+        return service.getAllTests(SyntheticLab.LAB_ID);
+    }
+
+    // The steady state: served from the catalog snapshot.
+    @Benchmark
+    public List<TestViewDTO> cachedCatalog() {
+        return service.getAllTests(SyntheticLab.LAB_ID);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 2FA login step: checking a TOTP code against the stored secret, and the
+// AES-GCM round trip that secret makes through lab.two_factor_secret_enc.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TwoFactorBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private TotpService totp;
+    private TwoFactorSecretCryptoService crypto;
+    private String base32Secret;
+    private Instant at;
+    private String currentCode;
+    private String wrongCode;
+    private String encryptedSecret;
+
+    @Setup
+    public void setUp() {
+        totp = new TotpService("SSDC Labs", 1);
+        crypto = new TwoFactorSecretCryptoService("", SECRET);
+        base32Secret = totp.generateSecret();
+        at = Instant.parse("2026-03-10T05:30:00Z");
+        currentCode = totp.generateCode(base32Secret, at);
+        String candidate = currentCode;
+        int n = Integer.parseInt(currentCode);
+        while (totp.verifyCode(base32Secret, candidate, at)) {
+            n = (n + 1) % 1_000_000;
+            candidate = String.format("%06d", n);
+        }
+        wrongCode = candidate;
+        encryptedSecret = crypto.encrypt(base32Secret);
+    }
+
+    @Benchmark
+    public boolean verifyCurrentCode() {
+        return totp.verifyCode(base32Secret, currentCode, at);
+    }
+
+    // A mistyped code: every step in the skew window is tried.
+    @Benchmark
+    public boolean verifyWrongCode() {
+        return totp.verifyCode(base32Secret, wrongCode, at);
+    }
+
+    @Benchmark
+    public String encryptSecret() {
+        return crypto.encrypt(base32Secret);
+    }
+
+    @Benchmark
+    public String decryptSecret() {
+        return crypto.decrypt(encryptedSecret);
+    }
+}
@@ -0,0 +1,29 @@
+#!/bin/bash
+set -e
+
+# Drives one generated database twice, on platform threads and on virtual
+# threads (needs a Java 21 runtime on PATH), with the same users and pool.
+# Results are appended to target/loadtest.csv as <label>-platform/-virtual.
+# Extra arguments are passed to the driver, e.g. duration=300.
+
+DB=${DB:-ssdclabs_load_100000}
+LABS=${LABS:-1}
+USERS=${USERS:-400}
+POOL=${POOL:-10}
+LABEL=${LABEL:-${DB#ssdclabs_load_}}
+OUT=${OUT:-target/loadtest.csv}
+
+cd "$(dirname "$0")/../.."
+
+java -version 2>&1 | head -1
+./mvnw -B -q -Ploadtest test-compile
+
+for THREADS in platform virtual; do
+  echo "=============================="
+  echo "${THREADS} threads, ${USERS} users, pool ${POOL} (${DB})"
+  echo "=============================="
+  ./mvnw -B -q -Ploadtest exec:exec \
+    -Dloadtest.args="db=${DB} labs=${LABS} users=${USERS} pool=${POOL} threads=${THREADS} label=${LABEL}-${THREADS} out=${OUT} $*"
+done
+
+echo "Results: ${OUT}"
@@ -0,0 +1,378 @@
+package com.ssdc.ssdclabs.loadtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdc.ssdclabs.dto.OnboardingImportRequest;
+import com.ssdc.ssdclabs.dto.TestPayload;
+import com.ssdc.ssdclabs.model.Doctor;
+import com.ssdc.ssdclabs.model.Lab;
+import com.ssdc.ssdclabs.repository.DoctorRepository;
+import com.ssdc.ssdclabs.repository.LabRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+import com.ssdc.ssdclabs.service.DashboardCounterService;
+import com.ssdc.ssdclabs.service.OnboardingService;
+import com.ssdc.ssdclabs.service.PatientIdentityService;
+import com.ssdc.ssdclabs.service.PatientService;
+import com.ssdc.ssdclabs.service.RevenueRollupService;
+import com.ssdc.ssdclabs.service.TestService;
+
+// Fills a load-test database: N labs (lt0001, lt0002, ...) whose catalogs are
+// imported from the admin template, each with M patients spread over several
+// years and a result row per parameter of every selected test.
+//
+// Catalogs, labs and doctors go through the services. Patients and results
+// are bulk inserted over JDBC with explicit ids, one transaction per batch;
+// rollups, dashboard counters and patient identities are rebuilt afterwards,
+// exactly as the nightly jobs would. Labs that already have patients are
+// skipped, so rerunning with a larger labs= only adds the missing ones.
+//
+//   labs=1 patients=100000 years=3 doctors=12 catalog=120 batch=2000 seed=1
+public final class DatasetGenerator {
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final String PASSWORD = "loadtest";
+
+    private static final String[] FIRST_NAMES = {
+        "Ravi", "Sita", "Kiran", "Lakshmi", "Suresh", "Anjali", "Mahesh", "Padma", "Venkat", "Divya",
+        "Ramesh", "Swathi", "Srinivas", "Kavya", "Prakash", "Bhavani", "Naresh", "Meena", "Arjun", "Sravani"
+    };
+    private static final String[] LAST_NAMES = {
+        "Reddy", "Rao", "Naidu", "Sharma", "Kumar", "Goud", "Varma", "Chowdary", "Yadav", "Shetty"
+    };
+
+    private static final String INSERT_PATIENT =
+        "INSERT INTO patients (id, lab_id, name, age, gender, mobile, address, doctor_id,"
+            + " amount, discount, paid, status, visit_date)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RESULT =
+        "INSERT INTO report_results (id, patient_id, test_id, parameter_id, sub_test,"
+            + " result_value, numeric_value, abnormal_flag, version)"
+            + " VALUES (?, ?, ?, ?, '', ?, ?, ?, 0)";
+
+    private final LoadTestArgs args;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final LabRepository labRepo;
+    private final TestRepository testRepo;
+    private final DoctorRepository doctorRepo;
+    private final TestService testService;
+    private final OnboardingService onboardingService;
+    private final RevenueRollupService revenueRollups;
+    private final DashboardCounterService dashboardCounters;
+    private final PatientIdentityService identityService;
+    private final PasswordEncoder passwordEncoder;
+
+    private long nextPatientId;
+    private long nextResultId;
+
+    private DatasetGenerator(ConfigurableApplicationContext ctx, LoadTestArgs args) {
+        this.args = args;
+        this.jdbc = ctx.getBean(JdbcTemplate.class);
+        this.tx = ctx.getBean(TransactionTemplate.class);
+        this.labRepo = ctx.getBean(LabRepository.class);
+        this.testRepo = ctx.getBean(TestRepository.class);
+        this.doctorRepo = ctx.getBean(DoctorRepository.class);
+        this.testService = ctx.getBean(TestService.class);
+        this.onboardingService = ctx.getBean(OnboardingService.class);
+        this.revenueRollups = ctx.getBean(RevenueRollupService.class);
+        this.dashboardCounters = ctx.getBean(DashboardCounterService.class);
+        this.identityService = ctx.getBean(PatientIdentityService.class);
+        this.passwordEncoder = ctx.getBean(PasswordEncoder.class);
+    }
+
+    public static void main(String[] raw) {
+        LoadTestArgs args = new LoadTestArgs(raw);
+        try (ConfigurableApplicationContext ctx = LoadTestApp.start(args)) {
+            new DatasetGenerator(ctx, args).run();
+        }
+    }
+
+    private void run() {
+        int labs = args.getInt("labs", 1);
+        int patients = args.getInt("patients", 10_000);
+        long started = System.nanoTime();
+
+        ensureTemplate(args.getInt("catalog", 120));
+        nextPatientId = queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM patients");
+        nextResultId = Math.max(
+            queryLong("SELECT COALESCE(MAX(id), 0) + 1 FROM report_results"),
+            queryLong("SELECT COALESCE(MAX(next_val), 1) FROM id_sequences WHERE sequence_name = 'report_results'"));
+
+        List<String> generated = new ArrayList<>();
+        for (int i = 1; i <= labs; i++) {
+            String labId = String.format("lt%04d", i);
+            if (queryLong("SELECT COUNT(*) FROM patients WHERE lab_id = ?", labId) > 0) {
+                System.out.printf("%s already has patients, skipped%n", labId);
+                continue;
+            }
+            createLab(labId);
+            generatePatients(labId, patients, new Random(args.getInt("seed", 1) * 1_000L + i));
+            generated.add(labId);
+        }
+        reserveResultIds();
+
+        for (String labId : generated) {
+            revenueRollups.rebuild(labId);
+            dashboardCounters.rebuild(labId);
+        }
+        long linked = identityService.backfill();
+        System.out.printf("Done: %d labs x %d patients, %d identities linked, %.1fs%n",
+            generated.size(), patients, linked, (System.nanoTime() - started) / 1e9);
+    }
+
+    // The admin lab and its catalog, unless an earlier run (or a copied
+    // production template) already provides them.
+    private void ensureTemplate(int catalogSize) {
+        String templateId = LoadTestApp.TEMPLATE_LAB_ID;
+        if (!labRepo.existsById(templateId)) {
+            Lab template = newLab(templateId, "Template Lab");
+            template.setOnboardingCompleted(Boolean.TRUE);
+            labRepo.save(template);
+        }
+        if (testRepo.countByLabId(templateId) == 0) {
+            for (TestPayload payload : TemplateCatalog.build(catalogSize)) {
+                testService.createTest(templateId, payload);
+            }
+            System.out.printf("Template catalog: %d tests%n", catalogSize);
+        }
+    }
+
+    private void createLab(String labId) {
+        if (!labRepo.existsById(labId)) {
+            labRepo.save(newLab(labId, "Load Lab " + labId));
+        }
+        if (testRepo.countByLabId(labId) == 0) {
+            OnboardingImportRequest request = new OnboardingImportRequest();
+            request.mode = "ALL";
+            onboardingService.importFromTemplate(labId, request);
+        }
+        if (doctorRepo.findByLabIdOrderByNameAsc(labId).isEmpty()) {
+            Random random = new Random(labId.hashCode());
+            int count = args.getInt("doctors", 12);
+            List<Doctor> doctors = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                Doctor doctor = new Doctor();
+                doctor.setLabId(labId);
+                doctor.setName("Dr " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + i);
+                doctor.setHospital("Clinic " + i);
+                doctor.setCommissionRate((double) (random.nextInt(5) * 5));
+                doctors.add(doctor);
+            }
+            doctorRepo.saveAll(doctors);
+        }
+    }
+
+    private Lab newLab(String labId, String name) {
+        Lab lab = new Lab();
+        lab.setLabId(labId);
+        lab.setLabName(name);
+        lab.setEmail(labId + "@loadtest.invalid");
+        lab.setPasswordHash(passwordEncoder.encode(PASSWORD));
+        lab.setActive(Boolean.TRUE);
+        lab.setSubscriptionExpiry(LocalDate.now(IST).plusYears(5));
+        lab.setEmailVerified(Boolean.TRUE);
+        return lab;
+    }
+
+    /* ================= PATIENTS AND RESULTS ================= */
+
+    private record CatalogTest(long id, double cost, List<CatalogParam> params) {
+    }
+
+    private record CatalogParam(long id, boolean numeric, boolean multiLine, String[] presets,
+                                Map<String, double[]> ranges) {
+    }
+
+    // Visits oldest first, so ids grow with visit_date as they do in production.
+    // Past visits are completed (a few left open); today's are half done. Three
+    // in ten visits reuse an earlier mobile (returning patients), a tenth are
+    // discounted and a fifth still owe money.
+    private void generatePatients(String labId, int count, Random random) {
+        List<CatalogTest> catalog = loadCatalog(labId);
+        List<Long> doctorIds = jdbc.queryForList(
+            "SELECT id FROM doctors WHERE lab_id = ? ORDER BY id", Long.class, labId);
+        int batchSize = args.getInt("batch", 2000);
+        LocalDate today = LocalDate.now(IST);
+        long days = Math.max(1, args.getInt("years", 3) * 365L);
+        List<String> mobiles = new ArrayList<>();
+        long started = System.nanoTime();
+        long results = 0;
+
+        for (int done = 0; done < count; ) {
+            int size = Math.min(batchSize, count - done);
+            List<Object[]> patientRows = new ArrayList<>(size);
+            List<Object[]> resultRows = new ArrayList<>(size * 12);
+            for (int j = 0; j < size; j++, done++) {
+                long id = nextPatientId++;
+                LocalDate visit = today.minusDays(days - 1 - (done * days / count));
+                boolean male = random.nextBoolean();
+                boolean open = visit.equals(today) ? random.nextBoolean() : random.nextInt(200) == 0;
+                String mobile;
+                if (!mobiles.isEmpty() && random.nextInt(10) < 3) {
+                    mobile = mobiles.get(random.nextInt(mobiles.size()));
+                } else {
+                    mobile = String.valueOf(6_000_000_000L + (long) (random.nextDouble() * 3_999_999_999L));
+                    if (mobiles.size() < 200_000) {
+                        mobiles.add(mobile);
+                    }
+                }
+
+                double amount = 0;
+                Set<CatalogTest> tests = new HashSet<>();
+                for (int t = 1 + random.nextInt(3); t > 0; t--) {
+                    tests.add(pickTest(catalog, random));
+                }
+                for (CatalogTest test : tests) {
+                    amount += test.cost();
+                    for (CatalogParam param : test.params()) {
+                        if (!open || random.nextBoolean()) {
+                            resultRows.add(resultRow(id, test.id(), param, male, random));
+                        }
+                    }
+                }
+                double discount = random.nextInt(10) == 0 ? Math.round(amount * 0.1) : 0;
+                double paid = random.nextInt(5) == 0 ? Math.round((amount - discount) / 2) : amount - discount;
+                Long doctorId = doctorIds.isEmpty() || random.nextInt(7) == 0
+                    ? null
+                    : doctorIds.get(random.nextInt(doctorIds.size()));
+                patientRows.add(new Object[] {
+                    id, labId,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    1 + random.nextInt(85), male ? "MALE" : "FEMALE", mobile, "Hyderabad", doctorId,
+                    amount, discount, paid,
+                    open ? PatientService.STATUS_NOT_COMPLETE : PatientService.STATUS_COMPLETED,
+                    Date.valueOf(visit)
+                });
+            }
+            tx.executeWithoutResult(status -> {
+                jdbc.batchUpdate(INSERT_PATIENT, patientRows);
+                jdbc.batchUpdate(INSERT_RESULT, resultRows);
+            });
+            results += resultRows.size();
+            if (done % (batchSize * 25) < batchSize || done == count) {
+                System.out.printf("%s: %d/%d patients, %d results, %.1fs%n",
+                    labId, done, count, results, (System.nanoTime() - started) / 1e9);
+            }
+        }
+    }
+
+    private List<CatalogTest> loadCatalog(String labId) {
+        Map<Long, Map<String, double[]>> ranges = new HashMap<>();
+        jdbc.query(
+            "SELECT r.parameter_id, r.gender, r.min_value, r.max_value FROM normal_ranges r"
+                + " JOIN test_parameters p ON p.id = r.parameter_id"
+                + " JOIN tests t ON t.id = p.test_id WHERE t.lab_id = ?",
+            rs -> {
+                double min = rs.getDouble("min_value");
+                double low = rs.wasNull() ? Double.NaN : min;
+                double max = rs.getDouble("max_value");
+                double high = rs.wasNull() ? Double.NaN : max;
+                ranges.computeIfAbsent(rs.getLong("parameter_id"), k -> new HashMap<>())
+                    .put(rs.getString("gender"), new double[] {low, high});
+            },
+            labId);
+        Map<Long, CatalogTest> tests = new LinkedHashMap<>();
+        jdbc.query(
+            "SELECT t.id AS test_id, t.cost, p.id AS param_id, p.value_type, p.default_result,"
+                + " p.allow_new_lines FROM tests t JOIN test_parameters p ON p.test_id = t.id"
+                + " WHERE t.lab_id = ? AND t.active = true ORDER BY t.id, p.id",
+            rs -> {
+                double cost = rs.getDouble("cost");
+                CatalogTest test = tests.computeIfAbsent(rs.getLong("test_id"),
+                    id -> new CatalogTest(id, cost, new ArrayList<>()));
+                String presets = rs.getString("default_result");
+                test.params().add(new CatalogParam(
+                    rs.getLong("param_id"),
+                    "NUMBER".equals(rs.getString("value_type")),
+                    rs.getBoolean("allow_new_lines"),
+                    presets == null || presets.isBlank() ? new String[0] : presets.split("\\r?\\n"),
+                    ranges.getOrDefault(rs.getLong("param_id"), Map.of())));
+            },
+            labId);
+        if (tests.isEmpty()) {
+            throw new IllegalStateException("Lab " + labId + " has no active tests");
+        }
+        return new ArrayList<>(tests.values());
+    }
+
+    // Panels (the first tests of the template) are ordered far more often
+    // than the long tail of single assays.
+    private static CatalogTest pickTest(List<CatalogTest> catalog, Random random) {
+        int head = Math.min(catalog.size(), 13);
+        if (random.nextInt(10) < 7) {
+            return catalog.get(random.nextInt(head));
+        }
+        return catalog.get(random.nextInt(catalog.size()));
+    }
+
+    private Object[] resultRow(long patientId, long testId, CatalogParam param, boolean male, Random random) {
+        String value;
+        BigDecimal number = null;
+        String flag = null;
+        if (param.multiLine()) {
+            value = "Organism isolated: Escherichia coli\nColony count: > 10^5 CFU/mL\n"
+                + "Sensitive to: Nitrofurantoin, Amikacin";
+        } else if (!param.numeric()) {
+            value = param.presets().length == 0 ? "Negative" : param.presets()[random.nextInt(param.presets().length)];
+        } else {
+            double[] range = param.ranges().get(male ? "MALE" : "FEMALE");
+            if (range == null) {
+                range = param.ranges().getOrDefault("ANY", new double[] {Double.NaN, Double.NaN});
+            }
+            number = sampleNumber(range, random);
+            value = number.toPlainString();
+            if (!Double.isNaN(range[0]) && number.doubleValue() < range[0]) {
+                flag = "LOW";
+            } else if (!Double.isNaN(range[1]) && number.doubleValue() > range[1]) {
+                flag = "HIGH";
+            }
+        }
+        return new Object[] {nextResultId++, patientId, testId, param.id(), value, number, flag};
+    }
+
+    // Mostly inside the range, about one in six outside it.
+    private static BigDecimal sampleNumber(double[] range, Random random) {
+        double low = Double.isNaN(range[0]) ? (Double.isNaN(range[1]) ? 0 : range[1] * 0.3) : range[0];
+        double high = Double.isNaN(range[1]) ? (low == 0 ? 100 : low * 2) : range[1];
+        double span = high - low;
+        double value = low + span * (random.nextDouble() * 1.4 - 0.2);
+        if (value < 0) {
+            value = low * random.nextDouble();
+        }
+        int scale = high >= 100 ? 0 : high >= 10 ? 1 : 2;
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    // Moves the report_results table generator past the inserted ids.
+    private void reserveResultIds() {
+        int updated = jdbc.update(
+            "UPDATE id_sequences SET next_val = ? WHERE sequence_name = 'report_results'", nextResultId);
+        if (updated == 0) {
+            jdbc.update("INSERT INTO id_sequences (sequence_name, next_val) VALUES ('report_results', ?)",
+                nextResultId);
+        }
+    }
+
+    private long queryLong(String sql, Object... params) {
+        Long value = jdbc.queryForObject(sql, Long.class, params);
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ssdc.ssdclabs.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every response time of a run, kept per endpoint template
+// ("GET /patient-tests/results/{id}"), and the summary table printed from
+// them. Latencies are kept in full rather than bucketed: a run of a few
+// minutes records at most a few million samples.
+final class LatencyRecorder {
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    private static final class Series {
+        private long[] micros = new long[1024];
+        private int size;
+        private int errors;
+
+        synchronized void add(long value, boolean ok) {
+            if (size == micros.length) {
+                micros = Arrays.copyOf(micros, size * 2);
+            }
+            micros[size++] = value;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(micros, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+    }
+
+    record Row(String endpoint, int count, int errors, double rps,
+               double p50, double p95, double p99, double max) {
+    }
+
+    void record(String endpoint, long nanos, boolean ok) {
+        series.computeIfAbsent(endpoint, k -> new Series()).add(nanos / 1_000, ok);
+    }
+
+    void reset() {
+        series.clear();
+    }
+
+    // Percentiles in milliseconds, nearest rank; the last row totals all endpoints.
+    List<Row> summarize(double seconds) {
+        List<Row> rows = new ArrayList<>();
+        List<long[]> all = new ArrayList<>();
+        int totalErrors = 0;
+        for (Map.Entry<String, Series> entry : new TreeMap<>(series).entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            int errors = entry.getValue().errors();
+            all.add(sorted);
+            totalErrors += errors;
+            rows.add(row(entry.getKey(), sorted, errors, seconds));
+        }
+        long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        rows.add(row("TOTAL", merged, totalErrors, seconds));
+        return rows;
+    }
+
+    private static Row row(String endpoint, long[] sorted, int errors, double seconds) {
+        return new Row(endpoint, sorted.length, errors, sorted.length / seconds,
+            percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+            sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    static void print(List<Row> rows, PrintStream out) {
+        out.printf("%-44s %8s %7s %8s %9s %9s %9s %9s%n",
+            "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Row row : rows) {
+            out.printf("%-44s %8d %7d %8.1f %9.1f %9.1f %9.1f %9.1f%n",
+                row.endpoint(), row.count(), row.errors(), row.rps(),
+                row.p50(), row.p95(), row.p99(), row.max());
+        }
+    }
+
+    // Appends to a CSV shared by all scales; the header is written once.
+    static void appendCsv(Path file, String label, List<Row> rows) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        if (!Files.exists(file)) {
+            csv.append("dataset,endpoint,count,errors,rps,p50_ms,p95_ms,p99_ms,max_ms\n");
+        }
+        for (Row row : rows) {
+            csv.append(String.format("%s,\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                label, row.endpoint(), row.count(), row.errors(), row.rps(),
+                row.p50(), row.p95(), row.p99(), row.max()));
+        }
+        Files.writeString(file, csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,325 @@
+package com.ssdc.ssdclabs.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.config.JwtService;
+
+// Boots the application on a random local port against a database filled by
+// DatasetGenerator and replays a front-desk workload over HTTP: registering
+// visits and selecting tests, entering values and completing reports, looking
+// up and printing old reports, accounts pages and the home dashboard. Each
+// user loops over weighted sessions without think time (a closed loop), so
+// throughput is what the server sustains at that concurrency.
+//
+// After the warmup, every request is timed per endpoint template and the run
+// ends with count, errors, requests/s and p50/p95/p99/max per endpoint.
+//
+//   labs=1 users=16 warmup=30 duration=120 label=100k out=target/loadtest.csv
+//   threads=platform|virtual pool=10
+//   mix=register:30,enter:25,report:20,accounts:15,dashboard:10
+public final class LoadDriver {
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final String[] SEARCH_NAMES = {"Ravi", "Sita", "Kiran Reddy", "Lakshmi Rao", "Divya"};
+    private static final int MAX_PENDING = 500;
+    private static final int PAST_VISIT_SAMPLE = 100_000;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final String baseUrl;
+    private final List<LabData> labs;
+    private final Map<String, Integer> mix;
+
+    private record LabTest(long id, List<LabParam> params) {
+    }
+
+    private record LabParam(String name, boolean numeric, boolean multiLine, String firstPreset) {
+    }
+
+    private record Visit(long patientId, List<LabTest> tests) {
+    }
+
+    private record LabData(String labId, String token, long patientCount, long[] pastVisits,
+                           List<LabTest> tests, List<String> doctors,
+                           ConcurrentLinkedDeque<Visit> pending) {
+    }
+
+    private LoadDriver(String baseUrl, List<LabData> labs, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.labs = labs;
+        this.mix = mix;
+    }
+
+    public static void main(String[] raw) throws Exception {
+        LoadTestArgs args = new LoadTestArgs(raw);
+        try (ConfigurableApplicationContext ctx = LoadTestApp.start(args)) {
+            String port = ctx.getEnvironment().getProperty("local.server.port");
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            JwtService jwt = ctx.getBean(JwtService.class);
+            List<LabData> labs = new ArrayList<>();
+            for (int i = 1; i <= args.getInt("labs", 1); i++) {
+                labs.add(loadLab(jdbc, jwt, String.format("lt%04d", i)));
+            }
+            long patients = labs.stream().mapToLong(LabData::patientCount).sum()
+                / labs.size();
+            System.out.printf("Driving %d labs (~%d patients each) with %d users%n",
+                labs.size(), patients, args.getInt("users", 16));
+
+            LoadDriver driver = new LoadDriver("http://127.0.0.1:" + port, labs, parseMix(args.get("mix",
+                "register:30,enter:25,report:20,accounts:15,dashboard:10")));
+            List<LatencyRecorder.Row> rows = driver.run(
+                args.getInt("users", 16), args.getInt("warmup", 30), args.getInt("duration", 120));
+
+            LatencyRecorder.print(rows, System.out);
+            String out = args.get("out", null);
+            if (out != null) {
+                LatencyRecorder.appendCsv(Path.of(out), args.get("label", patients + "/lab"), rows);
+            }
+        }
+    }
+
+    private static LabData loadLab(JdbcTemplate jdbc, JwtService jwt, String labId) {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM patients WHERE lab_id = ?", Long.class, labId);
+        if (count == null || count == 0) {
+            throw new IllegalStateException("Lab " + labId + " has no patients; run DatasetGenerator first");
+        }
+        // Completed visits of this lab only (ids of labs interleave once the
+        // driver has registered patients), every n-th one at large scales.
+        long step = Math.max(1, (count + PAST_VISIT_SAMPLE - 1) / PAST_VISIT_SAMPLE);
+        long[] pastVisits = jdbc.queryForList(
+            "SELECT id FROM patients WHERE lab_id = ? AND status = 'COMPLETED' AND MOD(id, ?) = 0",
+            Long.class, labId, step).stream().mapToLong(Long::longValue).toArray();
+        if (pastVisits.length == 0) {
+            throw new IllegalStateException("Lab " + labId + " has no completed visits");
+        }
+        Map<Long, LabTest> tests = new LinkedHashMap<>();
+        jdbc.query(
+            "SELECT t.id, p.parameter_name, p.value_type, p.default_result, p.allow_new_lines"
+                + " FROM tests t JOIN test_parameters p ON p.test_id = t.id"
+                + " WHERE t.lab_id = ? AND t.active = true ORDER BY t.id, p.id",
+            rs -> {
+                String presets = rs.getString("default_result");
+                String first = presets == null || presets.isBlank() ? "Negative" : presets.split("\\r?\\n")[0];
+                LabParam param = new LabParam(rs.getString("parameter_name"),
+                    "NUMBER".equals(rs.getString("value_type")), rs.getBoolean("allow_new_lines"), first);
+                tests.computeIfAbsent(rs.getLong("id"), id -> new LabTest(id, new ArrayList<>()))
+                    .params().add(param);
+            },
+            labId);
+        List<String> doctors = jdbc.queryForList(
+            "SELECT name FROM doctors WHERE lab_id = ? ORDER BY id", String.class, labId);
+        return new LabData(labId, jwt.issueToken(labId), count, pastVisits, new ArrayList<>(tests.values()),
+            doctors, new ConcurrentLinkedDeque<>());
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split(":");
+            mix.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    private List<LatencyRecorder.Row> run(int users, int warmupSeconds, int durationSeconds)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            pool.submit(() -> {
+                while (running.get()) {
+                    try {
+                        session();
+                    } catch (IOException | RuntimeException ex) {
+                        recorder.record("session error: " + ex.getClass().getSimpleName(), 0, false);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        recorder.reset();
+        long started = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        List<LatencyRecorder.Row> rows = recorder.summarize((System.nanoTime() - started) / 1e9);
+        running.set(false);
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+        return rows;
+    }
+
+    private void session() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LabData lab = labs.get(random.nextInt(labs.size()));
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                switch (entry.getKey()) {
+                    case "register" -> register(lab, random);
+                    case "enter" -> enterValues(lab, random);
+                    case "report" -> report(lab, random);
+                    case "accounts" -> accounts(lab, random);
+                    case "dashboard" -> dashboard(lab);
+                    default -> throw new IllegalArgumentException("Unknown mix entry: " + entry.getKey());
+                }
+                return;
+            }
+        }
+    }
+
+    /* ================= SESSIONS ================= */
+
+    // New visit at the front desk: patient, selected tests, the selection page.
+    private Visit register(LabData lab, ThreadLocalRandom random) throws IOException, InterruptedException {
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("name", SEARCH_NAMES[random.nextInt(SEARCH_NAMES.length)] + " " + random.nextInt(1000));
+        patient.put("age", 1 + random.nextInt(85));
+        patient.put("gender", random.nextBoolean() ? "Male" : "Female");
+        patient.put("mobile", String.valueOf(6_000_000_000L + random.nextLong(3_999_999_999L)));
+        patient.put("address", "Hyderabad");
+        if (!lab.doctors().isEmpty() && random.nextInt(7) != 0) {
+            patient.put("doctor", lab.doctors().get(random.nextInt(lab.doctors().size())));
+        }
+        patient.put("amount", 600.0);
+        patient.put("paid", 600.0);
+        JsonNode saved = send(lab, "POST", "/patients", "POST /patients", patient);
+        if (saved == null || !saved.hasNonNull("id")) {
+            return null;
+        }
+        long patientId = saved.get("id").asLong();
+
+        List<LabTest> tests = new ArrayList<>();
+        List<Map<String, Object>> selection = new ArrayList<>();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            LabTest test = lab.tests().get(random.nextInt(Math.min(13, lab.tests().size())));
+            if (!tests.contains(test)) {
+                tests.add(test);
+                selection.add(Map.of("patientId", patientId, "testId", test.id()));
+            }
+        }
+        send(lab, "POST", "/patient-tests/select", "POST /patient-tests/select", selection);
+        send(lab, "GET", "/patient-tests/" + patientId, "GET /patient-tests/{patientId}", null);
+
+        Visit visit = new Visit(patientId, tests);
+        if (lab.pending().size() < MAX_PENDING) {
+            lab.pending().add(visit);
+        }
+        return visit;
+    }
+
+    // Result entry for a waiting visit: load the sheet, save values, complete.
+    private void enterValues(LabData lab, ThreadLocalRandom random) throws IOException, InterruptedException {
+        Visit visit = lab.pending().poll();
+        if (visit == null) {
+            visit = register(lab, random);
+            if (visit == null) {
+                return;
+            }
+            lab.pending().remove(visit);
+        }
+        long patientId = visit.patientId();
+        send(lab, "GET", "/patient-tests/results/" + patientId, "GET /patient-tests/results/{patientId}", null);
+
+        List<Map<String, Object>> sheet = new ArrayList<>();
+        for (LabTest test : visit.tests()) {
+            for (LabParam param : test.params()) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("patientId", patientId);
+                line.put("testId", test.id());
+                line.put("subTest", test.params().size() > 1 ? param.name() : null);
+                line.put("resultValue", param.multiLine()
+                    ? "Organism isolated: Escherichia coli\nSensitive to: Amikacin"
+                    : param.numeric() ? String.valueOf(1 + random.nextInt(150)) : param.firstPreset());
+                sheet.add(line);
+            }
+        }
+        send(lab, "POST", "/patient-tests/results", "POST /patient-tests/results", sheet);
+        send(lab, "PUT", "/patients/" + patientId + "/status", "PUT /patients/{id}/status",
+            Map.of("status", "COMPLETED"));
+    }
+
+    // An old visit looked up by name, then its results read and printed.
+    private void report(LabData lab, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String name = SEARCH_NAMES[random.nextInt(SEARCH_NAMES.length)].replace(" ", "%20");
+        send(lab, "GET", "/patients/search?name=" + name + "&limit=50", "GET /patients/search", null);
+        long patientId = lab.pastVisits()[random.nextInt(lab.pastVisits().length)];
+        send(lab, "GET", "/patient-tests/results/" + patientId, "GET /patient-tests/results/{patientId}", null);
+        send(lab, "GET", "/patient-tests/report/" + patientId + "/pdf",
+            "GET /patient-tests/report/{patientId}/pdf", null);
+    }
+
+    // The accounts page for a recent window of up to three months.
+    private void accounts(LabData lab, ThreadLocalRandom random) throws IOException, InterruptedException {
+        LocalDate to = LocalDate.now(IST);
+        String range = "from=" + to.minusDays(7 + random.nextInt(84)) + "&to=" + to;
+        send(lab, "GET", "/accounts/summary?" + range, "GET /accounts/summary", null);
+        send(lab, "GET", "/accounts/doctors?" + range, "GET /accounts/doctors", null);
+        send(lab, "GET", "/accounts/details?" + range + "&limit=50", "GET /accounts/details", null);
+        send(lab, "GET", "/accounts/due", "GET /accounts/due", null);
+    }
+
+    private void dashboard(LabData lab) throws IOException, InterruptedException {
+        send(lab, "GET", "/dashboard/home-summary", "GET /dashboard/home-summary", null);
+        send(lab, "GET", "/patients/by-date/" + LocalDate.now(IST) + "?limit=100",
+            "GET /patients/by-date/{date}", null);
+        send(lab, "GET", "/tests/active", "GET /tests/active", null);
+    }
+
+    /* ================= HTTP ================= */
+
+    // Times one request under its endpoint template; JSON bodies are parsed,
+    // others (PDFs) only drained. Non-2xx responses count as errors.
+    private JsonNode send(LabData lab, String method, String path, String endpoint, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(60))
+            .header("Authorization", "Bearer " + lab.token());
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)));
+        }
+        long started = System.nanoTime();
+        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long elapsed = System.nanoTime() - started;
+        boolean ok = response.statusCode() / 100 == 2;
+        recorder.record(endpoint, elapsed, ok);
+        String type = response.headers().firstValue("Content-Type").orElse("");
+        if (!ok || response.body().length == 0 || !type.contains("json")) {
+            return null;
+        }
+        return json.readTree(response.body());
+    }
+}
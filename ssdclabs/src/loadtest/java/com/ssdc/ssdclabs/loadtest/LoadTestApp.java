@@ -0,0 +1,51 @@
+package com.ssdc.ssdclabs.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.ssdc.ssdclabs.SsdcLabsApplication;
+
+// Boots the application against a local MySQL database for the generator and
+// the driver. Each dataset scale gets its own database (db=ssdclabs_load_100k)
+// so runs at different sizes never share rows. The web layer always starts
+// (on a random port unless port= is given): security needs it.
+final class LoadTestApp {
+
+    static final String TEMPLATE_LAB_ID = "admin1";
+
+    private LoadTestApp() {
+    }
+
+    static ConfigurableApplicationContext start(LoadTestArgs args) {
+        String db = args.get("db", "ssdclabs_load");
+        Map<String, Object> props = new HashMap<>();
+        props.put("spring.datasource.url", args.get("url",
+            "jdbc:mysql://localhost:3306/" + db
+                + "?createDatabaseIfNotExist=true&rewriteBatchedStatements=true&useCursorFetch=true"));
+        props.put("spring.datasource.username", args.get("user", "ssdcuser"));
+        props.put("spring.datasource.password", args.get("password",
+            System.getenv().getOrDefault("SPRING_DATASOURCE_PASSWORD", "")));
+        // threads=virtual|platform and pool=N compare request-thread modes (Java 21 for virtual).
+        props.put("spring.threads.virtual.enabled", "virtual".equals(args.get("threads", "platform")));
+        props.put("spring.datasource.hikari.maximum-pool-size", args.getInt("pool", 10));
+        // The load database is disposable; the entities define its tables.
+        props.put("spring.jpa.hibernate.ddl-auto", "update");
+        props.put("app.jwt.secret", args.get("jwt-secret", "loadtest-jwt-secret-0123456789abcdef"));
+        props.put("app.template.lab-id", TEMPLATE_LAB_ID);
+        props.put("app.mail.enabled", false);
+        // The generator links identities itself once all patients are in.
+        props.put("app.patient-identity.backfill.enabled", false);
+        // Off in production; on here so over-budget requests show up in the run log.
+        props.put("app.sql.counter.enabled", args.get("sql-counter", "true"));
+        props.put("server.port", args.getInt("port", 0));
+        props.put("management.server.port", -1);
+        // Passed as command-line properties so they win over application.properties.
+        return new SpringApplicationBuilder(SsdcLabsApplication.class)
+            .run(props.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new));
+    }
+}
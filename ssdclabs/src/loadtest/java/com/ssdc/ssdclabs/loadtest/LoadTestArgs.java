@@ -0,0 +1,30 @@
+package com.ssdc.ssdclabs.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// key=value command-line options (labs=2 patients=100000 duration=120).
+final class LoadTestArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    LoadTestArgs(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            values.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+    }
+
+    String get(String key, String fallback) {
+        String value = values.get(key);
+        return value == null || value.isEmpty() ? fallback : value;
+    }
+
+    int getInt(String key, int fallback) {
+        String value = values.get(key);
+        return value == null || value.isEmpty() ? fallback : Integer.parseInt(value.replace("_", ""));
+    }
+}
@@ -0,0 +1,127 @@
+package com.ssdc.ssdclabs.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.ssdc.ssdclabs.dto.NormalRangePayload;
+import com.ssdc.ssdclabs.dto.TestParameterPayload;
+import com.ssdc.ssdclabs.dto.TestPayload;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.ValueType;
+
+// Template catalog written into the admin lab when it has no tests yet: the
+// common panels (gender-specific ranges, text presets, a multi-line culture
+// report) and numeric single tests up to the requested size. Labs are then
+// cloned from it through onboarding, like a real signup.
+final class TemplateCatalog {
+
+    private TemplateCatalog() {
+    }
+
+    static List<TestPayload> build(int size) {
+        List<TestPayload> tests = new ArrayList<>();
+        tests.add(test("Complete Blood Picture", "CBP", "Hematology", 350,
+            numeric("Haemoglobin", "g/dL", range(Gender.MALE, 13.0, 17.0), range(Gender.FEMALE, 12.0, 15.0)),
+            numeric("Total RBC Count", "mill/cumm", range(Gender.ANY, 4.5, 5.5)),
+            numeric("Total WBC Count", "cells/cumm", range(Gender.ANY, 4000.0, 11000.0)),
+            numeric("Neutrophils", "%", range(Gender.ANY, 40.0, 70.0)),
+            numeric("Lymphocytes", "%", range(Gender.ANY, 20.0, 40.0)),
+            numeric("Eosinophils", "%", range(Gender.ANY, 1.0, 6.0)),
+            numeric("Monocytes", "%", range(Gender.ANY, 2.0, 8.0)),
+            numeric("Basophils", "%", range(Gender.ANY, 0.0, 1.0)),
+            numeric("Platelet Count", "lakhs/cumm", range(Gender.ANY, 1.5, 4.5)),
+            numeric("PCV", "%", range(Gender.MALE, 40.0, 50.0), range(Gender.FEMALE, 36.0, 46.0))));
+        tests.add(test("Liver Function Test", "LFT", "Biochemistry", 600,
+            numeric("Total Bilirubin", "mg/dL", range(Gender.ANY, 0.2, 1.2)),
+            numeric("Direct Bilirubin", "mg/dL", range(Gender.ANY, 0.0, 0.3)),
+            numeric("SGOT", "U/L", range(Gender.ANY, null, 40.0)),
+            numeric("SGPT", "U/L", range(Gender.ANY, null, 41.0)),
+            numeric("Alkaline Phosphatase", "U/L", range(Gender.ANY, 44.0, 147.0)),
+            numeric("Total Protein", "g/dL", range(Gender.ANY, 6.0, 8.3)),
+            numeric("Albumin", "g/dL", range(Gender.ANY, 3.5, 5.2))));
+        tests.add(test("Renal Function Test", "RFT", "Biochemistry", 550,
+            numeric("Blood Urea", "mg/dL", range(Gender.ANY, 15.0, 40.0)),
+            numeric("Serum Creatinine", "mg/dL", range(Gender.MALE, 0.7, 1.3), range(Gender.FEMALE, 0.6, 1.1)),
+            numeric("Uric Acid", "mg/dL", range(Gender.ANY, 3.5, 7.2)),
+            numeric("Sodium", "mmol/L", range(Gender.ANY, 135.0, 145.0)),
+            numeric("Potassium", "mmol/L", range(Gender.ANY, 3.5, 5.1))));
+        tests.add(test("Lipid Profile", "LIPID", "Biochemistry", 500,
+            numeric("Total Cholesterol", "mg/dL", range(Gender.ANY, null, 200.0)),
+            numeric("Triglycerides", "mg/dL", range(Gender.ANY, null, 150.0)),
+            numeric("HDL Cholesterol", "mg/dL", range(Gender.MALE, 40.0, null), range(Gender.FEMALE, 50.0, null)),
+            numeric("LDL Cholesterol", "mg/dL", range(Gender.ANY, null, 100.0))));
+        tests.add(test("Thyroid Profile", "TFT", "Endocrinology", 450,
+            numeric("T3", "ng/mL", range(Gender.ANY, 0.8, 2.0)),
+            numeric("T4", "ug/dL", range(Gender.ANY, 5.1, 14.1)),
+            numeric("TSH", "uIU/mL", range(Gender.ANY, 0.27, 4.2))));
+        tests.add(test("Complete Urine Examination", "CUE", "Clinical Pathology - Urine", 150,
+            text("Colour", "Pale Yellow", "Yellow", "Dark Yellow"),
+            text("Appearance", "Clear", "Slightly Turbid", "Turbid"),
+            numeric("pH", "", range(Gender.ANY, 4.6, 8.0)),
+            text("Protein", "Nil", "Trace", "+", "++"),
+            text("Sugar", "Nil", "Trace", "+", "++"),
+            text("Pus Cells", "2-4", "4-6", "10-12", "Plenty")));
+        tests.add(test("Widal Test", "WIDAL", "Serology", 200,
+            text("S. Typhi O", "1:20", "1:40", "1:80", "1:160"),
+            text("S. Typhi H", "1:20", "1:40", "1:80", "1:160")));
+        tests.add(test("Fasting Blood Sugar", "FBS", "Biochemistry", 60,
+            numeric("Fasting Blood Sugar", "mg/dL", range(Gender.ANY, 70.0, 110.0))));
+        tests.add(test("HbA1c", "HBA1C", "Biochemistry", 400,
+            numeric("HbA1c", "%", range(Gender.ANY, 4.0, 5.6))));
+        tests.add(test("ESR", "ESR", "Hematology", 80,
+            numeric("ESR", "mm/hr", range(Gender.MALE, 0.0, 15.0), range(Gender.FEMALE, 0.0, 20.0))));
+        tests.add(test("HBsAg", "HBSAG", "Serology", 250, text("HBsAg", "Negative", "Positive")));
+        tests.add(test("Blood Group", "BG", "Hematology", 100,
+            text("Blood Group", "A Positive", "B Positive", "O Positive", "AB Positive", "O Negative")));
+        TestParameterPayload culture = text("Culture & Sensitivity");
+        culture.allowNewLines = Boolean.TRUE;
+        tests.add(test("Urine Culture", "UCS", "Microbiology", 700, culture));
+
+        Random random = new Random(42);
+        for (int i = tests.size(); i < size; i++) {
+            double low = Math.round(random.nextDouble() * 100) / 10.0;
+            tests.add(test("Assay " + i, "AS" + i, "Biochemistry", 100 + random.nextInt(20) * 50,
+                numeric("Assay " + i, "units", range(Gender.ANY, low, low + 5 + random.nextInt(50)))));
+        }
+        return tests;
+    }
+
+    private static TestPayload test(String name, String shortcut, String category, double cost,
+                                    TestParameterPayload... parameters) {
+        TestPayload payload = new TestPayload();
+        payload.testName = name;
+        payload.shortcut = shortcut;
+        payload.category = category;
+        payload.cost = cost;
+        payload.active = Boolean.TRUE;
+        payload.parameters = Arrays.asList(parameters);
+        return payload;
+    }
+
+    private static TestParameterPayload numeric(String name, String unit, NormalRangePayload... ranges) {
+        TestParameterPayload param = new TestParameterPayload();
+        param.name = name;
+        param.unit = unit;
+        param.valueType = ValueType.NUMBER;
+        param.normalRanges = Arrays.asList(ranges);
+        return param;
+    }
+
+    private static TestParameterPayload text(String name, String... presets) {
+        TestParameterPayload param = new TestParameterPayload();
+        param.name = name;
+        param.valueType = ValueType.TEXT;
+        param.defaultResults = Arrays.asList(presets);
+        return param;
+    }
+
+    private static NormalRangePayload range(Gender gender, Double min, Double max) {
+        NormalRangePayload range = new NormalRangePayload();
+        range.gender = gender;
+        range.minValue = min;
+        range.maxValue = max;
+        return range;
+    }
+}
@@ -0,0 +1,29 @@
+#!/bin/bash
+set -e
+
+# Generates (once) and drives a database per scale: 10k, 100k and 1M
+# patients per lab. Results are appended to target/loadtest.csv.
+# Extra arguments are passed to the driver, e.g. users=32 duration=300.
+
+LABS=${LABS:-1}
+OUT=${OUT:-target/loadtest.csv}
+
+cd "$(dirname "$0")/../.."
+
+./mvnw -B -q -Ploadtest test-compile
+
+for SCALE in 10000 100000 1000000; do
+  DB="ssdclabs_load_${SCALE}"
+  echo "=============================="
+  echo "${SCALE} patients per lab (${DB})"
+  echo "=============================="
+
+  ./mvnw -B -q -Ploadtest exec:exec \
+    -Dloadtest.main=com.ssdc.ssdclabs.loadtest.DatasetGenerator \
+    -Dloadtest.args="db=${DB} labs=${LABS} patients=${SCALE}"
+
+  ./mvnw -B -q -Ploadtest exec:exec \
+    -Dloadtest.args="db=${DB} labs=${LABS} label=${SCALE} out=${OUT} $*"
+done
+
+echo "Results: ${OUT}"
@@ -18,18 +18,17 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.ssdc.ssdclabs.model.Lab;
-import com.ssdc.ssdclabs.repository.LabRepository;
-
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
     private final JwtService jwtService;
-    private final LabRepository labRepo;
+    private final LabAuthCache labAuthCache;
 
-    public JwtAuthFilter(JwtService jwtService, LabRepository labRepo) {
+    public JwtAuthFilter(JwtService jwtService, LabAuthCache labAuthCache) {
         this.jwtService = jwtService;
-        this.labRepo = labRepo;
+        this.labAuthCache = labAuthCache;
     }
 
     @Override
@@ -44,21 +43,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             String labId = jwtService.validateAndGetLabId(token);
             if (labId != null
                     && SecurityContextHolder.getContext().getAuthentication() == null) {
-                Lab lab = labRepo.findById(labId).orElse(null);
-                if (lab != null && Boolean.TRUE.equals(lab.getActive())) {
-                    LocalDate expiry = lab.getSubscriptionExpiry();
-                    if (expiry == null || !expiry.isBefore(LocalDate.now(ZoneId.of("Asia/Kolkata")))) {
-                        UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                labId,
-                                null,
-                                List.of(new SimpleGrantedAuthority("ROLE_LAB_OWNER"))
-                            );
-                        authentication.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
+                if (labAuthCache.get(labId).allowsAccessOn(LocalDate.now(IST))) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                            labId,
+                            null,
+                            List.of(new SimpleGrantedAuthority("ROLE_LAB_OWNER"))
                         );
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                    authentication.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         }
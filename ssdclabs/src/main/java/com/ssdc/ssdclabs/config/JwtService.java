@@ -1,28 +1,51 @@
 package com.ssdc.ssdclabs.config;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtService {
 
+    // Subject and expiry of a token whose signature has already been checked.
+    private record VerifiedToken(String subject, Instant expiresAt) {
+    }
+
     private final SecretKey key;
     private final long ttlSeconds;
+    private final JwtParser parser;
+    private final Clock clock;
+    private final int maxCachedTokens;
+    // Keyed by SHA-256 of the token so raw tokens are never held in memory.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
+    @Autowired
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.ttl-seconds:604800}") long ttlSeconds) {
+            @Value("${app.jwt.ttl-seconds:604800}") long ttlSeconds,
+            @Value("${app.jwt.verified-cache.max-entries:10000}") int maxCachedTokens) {
+        this(secret, ttlSeconds, maxCachedTokens, Clock.systemUTC());
+    }
+
+    JwtService(String secret, long ttlSeconds, int maxCachedTokens, Clock clock) {
         if (secret == null || secret.trim().length() < 32) {
             throw new IllegalStateException(
                 "app.jwt.secret must be set and at least 32 characters"
@@ -30,10 +53,17 @@ public class JwtService {
         }
         this.key = Keys.hmacShaKeyFor(secret.trim().getBytes(StandardCharsets.UTF_8));
         this.ttlSeconds = Math.max(60, ttlSeconds);
+        this.clock = clock;
+        this.maxCachedTokens = Math.max(0, maxCachedTokens);
+        // Parsers are immutable and thread-safe; build it once instead of per request.
+        this.parser = Jwts.parser()
+            .verifyWith(key)
+            .clock(() -> Date.from(this.clock.instant()))
+            .build();
     }
 
     public String issueToken(String labId) {
-        Instant now = Instant.now();
+        Instant now = clock.instant();
         Instant exp = now.plusSeconds(ttlSeconds);
         return Jwts.builder()
             .subject(labId)
@@ -47,18 +77,57 @@ public class JwtService {
         if (token == null || token.trim().isEmpty()) {
             return null;
         }
+        String value = token.trim();
+        String digest = maxCachedTokens > 0 ? sha256(value) : null;
+        if (digest != null) {
+            VerifiedToken cached = verifiedTokens.get(digest);
+            if (cached != null) {
+                // Same rule as the parser: valid up to and including the exp instant.
+                if (!clock.instant().isAfter(cached.expiresAt())) {
+                    return cached.subject();
+                }
+                verifiedTokens.remove(digest, cached);
+                return null;
+            }
+        }
+
         try {
-            Jws<Claims> parsed = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token.trim());
-            String subject = parsed.getPayload().getSubject();
-            return subject == null || subject.trim().isEmpty()
-                ? null
-                : subject.trim();
+            Claims claims = parser.parseSignedClaims(value).getPayload();
+            String subject = claims.getSubject();
+            if (subject == null || subject.trim().isEmpty()) {
+                return null;
+            }
+            subject = subject.trim();
+            Date expiration = claims.getExpiration();
+            if (digest != null && expiration != null) {
+                remember(digest, new VerifiedToken(subject, expiration.toInstant()));
+            }
+            return subject;
         } catch (Exception ex) {
             return null;
         }
     }
-}
 
+    private void remember(String digest, VerifiedToken token) {
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            Instant now = clock.instant();
+            verifiedTokens.values().removeIf(t -> now.isAfter(t.expiresAt()));
+            Iterator<String> it = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() >= maxCachedTokens && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verifiedTokens.put(digest, token);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
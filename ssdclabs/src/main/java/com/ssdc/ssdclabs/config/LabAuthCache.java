@@ -0,0 +1,95 @@
+package com.ssdc.ssdclabs.config;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+// Short-lived cache of the lab fields JwtAuthFilter checks on every request.
+// Writers that change active/subscription state call evict(); the TTL bounds
+// staleness for changes made directly in the database.
+@Component
+public class LabAuthCache {
+
+    public record LabAuthState(boolean active, LocalDate subscriptionExpiry, long epoch) {
+        public boolean allowsAccessOn(LocalDate today) {
+            return active && (subscriptionExpiry == null || !subscriptionExpiry.isBefore(today));
+        }
+    }
+
+    private record Entry(LabAuthState state, long loadedAtNanos) {
+    }
+
+    private final LabRepository labRepo;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every eviction; a load that started before it is not published.
+    private final AtomicLong epoch = new AtomicLong();
+
+    public LabAuthCache(
+            LabRepository labRepo,
+            @Value("${app.auth.lab-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${app.auth.lab-cache.max-entries:1000}") int maxEntries) {
+        this.labRepo = Objects.requireNonNull(labRepo, "labRepo");
+        this.ttlNanos = Math.max(0L, ttlSeconds) * 1_000_000_000L;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public @NonNull LabAuthState get(@NonNull String labId) {
+        Objects.requireNonNull(labId, "labId");
+        long now = System.nanoTime();
+        Entry cached = entries.get(labId);
+        if (cached != null && now - cached.loadedAtNanos() < ttlNanos) {
+            return cached.state();
+        }
+
+        long loadEpoch = epoch.get();
+        LabAuthState state = labRepo.findAuthRowByLabId(labId)
+            .map(row -> new LabAuthState(
+                Boolean.TRUE.equals(row.getActive()),
+                row.getSubscriptionExpiry(),
+                loadEpoch
+            ))
+            .orElseGet(() -> new LabAuthState(false, null, loadEpoch));
+
+        if (ttlNanos > 0) {
+            makeRoom(now);
+            entries.compute(labId, (k, existing) ->
+                epoch.get() == loadEpoch ? new Entry(state, now) : existing);
+        }
+        return state;
+    }
+
+    public void evict(String labId) {
+        epoch.incrementAndGet();
+        if (labId != null) {
+            entries.remove(labId);
+        }
+    }
+
+    public void evictAll() {
+        epoch.incrementAndGet();
+        entries.clear();
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> now - entry.loadedAtNanos() >= ttlNanos);
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
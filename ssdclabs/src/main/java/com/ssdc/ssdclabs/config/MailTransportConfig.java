@@ -0,0 +1,29 @@
+package com.ssdc.ssdclabs.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.ssdc.ssdclabs.service.LogMailTransport;
+import com.ssdc.ssdclabs.service.MailTransport;
+import com.ssdc.ssdclabs.service.SmtpMailTransport;
+
+// How the mail outbox delivers: smtp (default) or log.
+@Configuration
+public class MailTransportConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.mail.transport", havingValue = "smtp", matchIfMissing = true)
+    public MailTransport smtpMailTransport(JavaMailSender sender,
+                                           @Value("${app.mail.from:}") String from) {
+        return new SmtpMailTransport(sender, from);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.mail.transport", havingValue = "log")
+    public MailTransport logMailTransport(@Value("${app.mail.log-file:}") String file) {
+        return new LogMailTransport(file);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ssdc.ssdclabs.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+// Short-lived session tokens for the patient app (subject = mobile).
+// Signed with a key derived from app.jwt.secret, so a patient token can
+// never pass JwtService as a lab token and vice versa.
+@Component
+public class PatientAppTokenService {
+
+    private static final String TOKEN_TYPE = "patient";
+
+    private final SecretKey key;
+    private final long ttlSeconds;
+    private final JwtParser parser;
+
+    public PatientAppTokenService(
+            @Value("${app.jwt.secret}") String secret,
+            @Value("${app.patient-app.token-ttl-seconds:3600}") long ttlSeconds) {
+        if (secret == null || secret.trim().length() < 32) {
+            throw new IllegalStateException(
+                "app.jwt.secret must be set and at least 32 characters"
+            );
+        }
+        this.key = Keys.hmacShaKeyFor(deriveKey(secret.trim()));
+        this.ttlSeconds = Math.max(60, ttlSeconds);
+        this.parser = Jwts.parser().verifyWith(key).build();
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public String issueToken(String mobile) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+            .subject(mobile)
+            .claim("typ", TOKEN_TYPE)
+            .issuedAt(Date.from(now))
+            .expiration(Date.from(now.plusSeconds(ttlSeconds)))
+            .signWith(key)
+            .compact();
+    }
+
+    public String validateAndGetMobile(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token.trim()).getPayload();
+            if (!TOKEN_TYPE.equals(claims.get("typ", String.class))) {
+                return null;
+            }
+            String subject = claims.getSubject();
+            return subject == null || subject.trim().isEmpty()
+                ? null
+                : subject.trim();
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static byte[] deriveKey(String secret) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return md.digest(("patient-app:" + secret).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ssdc.ssdclabs.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background timers (result autosave flushes).
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,9 @@
 package com.ssdc.ssdclabs.config;
 
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -11,6 +15,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 
 @Configuration
 public class SecurityConfig {
@@ -38,6 +43,10 @@ public class SecurityConfig {
             .cors(Customizer.withDefaults())
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Completion of streamed responses (exports, SSE) was authorized on the request itself.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Actuator only listens on the loopback management port.
+                .requestMatchers(SecurityConfig::onManagementServer).permitAll()
                 .requestMatchers(
                     "/auth/change-password",
                     "/auth/2fa/status",
@@ -55,4 +64,11 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // Requests served by the management web server (its own child context).
+    private static boolean onManagementServer(HttpServletRequest request) {
+        return WebServerApplicationContext.hasServerNamespace(
+            WebApplicationContextUtils.getWebApplicationContext(request.getServletContext()),
+            "management");
+    }
 }
@@ -0,0 +1,69 @@
+package com.ssdc.ssdclabs.config;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.ssdc.ssdclabs.config.SqlStatementCounter.Repeat;
+
+// Counts the SQL each request runs (auth lookups included) and warns when it
+// goes over budget, naming the most repeated statement shape: a query that
+// runs once per row of an earlier one is the usual N+1.
+@Component
+@ConditionalOnProperty(name = "app.sql.counter.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final long maxDbTimeMs;
+
+    public SqlBudgetFilter(@Value("${app.sql.budget.max-statements:40}") int maxStatements,
+                           @Value("${app.sql.budget.max-repeats:10}") int maxRepeats,
+                           @Value("${app.sql.budget.max-db-time-ms:1000}") long maxDbTimeMs) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.maxDbTimeMs = maxDbTimeMs;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            filterChain.doFilter(request, response);
+            report(request, scope);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        Repeat repeat = scope.mostRepeated();
+        boolean repeated = repeat != null && repeat.count() > maxRepeats;
+        if (scope.statements() <= maxStatements && scope.dbTimeMs() <= maxDbTimeMs && !repeated) {
+            if (log.isDebugEnabled() && scope.statements() > 0) {
+                log.debug("{} {}: {} statements, {} rows, {} ms in DB", request.getMethod(),
+                    request.getRequestURI(), scope.statements(), scope.rows(), scope.dbTimeMs());
+            }
+            return;
+        }
+        log.warn("{} {} over SQL budget: {} statements, {} rows, {} ms in DB; most repeated ({}x): {}",
+            request.getMethod(), request.getRequestURI(), scope.statements(), scope.rows(),
+            scope.dbTimeMs(), repeat == null ? 0 : repeat.count(), repeat == null ? "-" : repeat.shape());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ssdc.ssdclabs.config;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// Wraps the DataSource so every statement reaches SqlStatementCounter. Costs a
+// thread-local read per statement and row when no scope is open.
+@Configuration
+@ConditionalOnProperty(name = "app.sql.counter.enabled", havingValue = "true")
+public class SqlStatementConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                    .listener(new CountingListener())
+                    .proxyResultSet()
+                    .afterMethod(ctx -> {
+                        if (ctx.getTarget() instanceof ResultSet
+                                && "next".equals(ctx.getMethod().getName())
+                                && Boolean.TRUE.equals(ctx.getResult())) {
+                            SqlStatementCounter.recordRow();
+                        }
+                    })
+                    .build();
+            }
+        };
+    }
+
+    private static final class CountingListener implements QueryExecutionListener {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (!SqlStatementCounter.active()) {
+                return;
+            }
+            SqlStatementCounter.recordExecution(
+                queryInfoList.stream().map(QueryInfo::getQuery).toList(),
+                execInfo.getElapsedTime(),
+                updatedRows(execInfo.getResult()));
+        }
+
+        // Update counts only; rows read are counted as the result set advances.
+        private static long updatedRows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(0, count);
+            }
+            if (result instanceof Long count) {
+                return Math.max(0, count);
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(0, count);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(0, count);
+                }
+                return total;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ssdc.ssdclabs.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Thread-bound tally of JDBC work: statements executed, rows read or written,
+// DB time, and how often each SQL shape ran. The proxied DataSource feeds every
+// open scope on the calling thread; SqlBudgetFilter opens one per request and
+// tests open one around the call under test.
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final int MAX_SHAPE_LENGTH = 240;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlStatementCounter() {
+    }
+
+    // Most repeated SQL shape in a scope.
+    public record Repeat(String shape, int count) {
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private int statements;
+        private long rows;
+        private long dbTimeMs;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        public long dbTimeMs() {
+            return dbTimeMs;
+        }
+
+        // Null when nothing ran.
+        public Repeat mostRepeated() {
+            return shapes.entrySet().stream()
+                .max(Comparator.comparingInt(Map.Entry::getValue))
+                .map(e -> new Repeat(e.getKey(), e.getValue()))
+                .orElse(null);
+        }
+
+        public Map<String, Integer> shapes() {
+            return Map.copyOf(shapes);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Scopes nest; closing out of order keeps the still-open outer one.
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+
+    // Starts counting on this thread; close() stops it.
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    // One execution (a JDBC batch counts once) and the shapes it ran.
+    static void recordExecution(List<String> sqls, long elapsedMs, long rowsAffected) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        List<String> shapes = sqls.stream().map(SqlStatementCounter::shapeOf).toList();
+        for (Scope s = scope; s != null; s = s.parent) {
+            if (s.closed) {
+                continue;
+            }
+            s.statements++;
+            s.dbTimeMs += elapsedMs;
+            s.rows += rowsAffected;
+            for (String shape : shapes) {
+                s.shapes.merge(shape, 1, Integer::sum);
+            }
+        }
+    }
+
+    static void recordRow() {
+        for (Scope s = CURRENT.get(); s != null; s = s.parent) {
+            if (!s.closed) {
+                s.rows++;
+            }
+        }
+    }
+
+    // Literals and IN-list lengths folded away so one query per id reads as one shape.
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ssdc.ssdclabs.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Opt-in virtual threads (spring.threads.virtual.enabled, Java 21+): Tomcat
+// requests, MVC async work (streamed exports) and @Scheduled jobs then run on
+// virtual threads. The Hikari pool keeps its own size, so the database sees
+// at most that many concurrent statements whatever the request concurrency.
+@Configuration
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry registry,
+            @Value("${app.virtual-threads.pinning.threshold-ms:20}") long thresholdMs,
+            @Value("${app.virtual-threads.pinning.log-interval-seconds:60}") long logIntervalSeconds) {
+        return new VirtualThreadPinningMonitor(registry, thresholdMs, logIntervalSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode(ApplicationReadyEvent event) {
+        Environment env = event.getApplicationContext().getEnvironment();
+        String poolSize = env.getProperty("spring.datasource.hikari.maximum-pool-size", "10");
+        if (Threading.VIRTUAL.isActive(env)) {
+            log.info("Serving requests on virtual threads; database pool max {}", poolSize);
+        } else if (env.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads;"
+                + " serving requests on platform threads", Runtime.version().feature());
+        } else {
+            log.info("Serving requests on platform threads (max {}); database pool max {}",
+                env.getProperty("server.tomcat.threads.max", "200"), poolSize);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ssdc.ssdclabs.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+// Streams JFR jdk.VirtualThreadPinned events (a virtual thread that blocked
+// while holding on to its carrier, e.g. inside a synchronized block) into the
+// jvm.threads.virtual.pinned timer and a WARN with the pinning stack. Each
+// call site is logged at most once per interval; the timer counts them all.
+public class VirtualThreadPinningMonitor {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 12;
+    private static final int MAX_SITES = 1000;
+    private static final String APP_PACKAGE = "com.ssdc.ssdclabs.";
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final long logIntervalNanos;
+    private final Map<String, Long> lastLoggedAt = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry, long thresholdMs, long logIntervalSeconds) {
+        Objects.requireNonNull(registry, "registry");
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads blocked while pinned to their carrier thread")
+            .register(registry);
+        this.threshold = Duration.ofMillis(Math.max(0L, thresholdMs));
+        this.logIntervalNanos = Math.max(0L, logIntervalSeconds) * 1_000_000_000L;
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(EVENT, this::onEvent);
+        recording.startAsync();
+        stream = recording;
+        log.info("Reporting virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private void onEvent(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<String> frames = stackTrace == null
+            ? List.of()
+            : stackTrace.getFrames().stream()
+                .limit(MAX_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .toList();
+        onPinned(event.getDuration(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+
+    // Records one pinning; returns whether it was logged. JFR only emits the
+    // event on Java 21+, so tests call this directly.
+    boolean onPinned(Duration duration, List<String> frames) {
+        pinned.record(duration);
+        String site = callSite(frames);
+        long now = System.nanoTime();
+        Long last = lastLoggedAt.get(site);
+        if (last != null && now - last < logIntervalNanos) {
+            return false;
+        }
+        if (lastLoggedAt.size() >= MAX_SITES) {
+            lastLoggedAt.clear();
+        }
+        lastLoggedAt.put(site, now);
+        log.warn("Virtual thread pinned for {} ms at {}\n\tat {}",
+            duration.toMillis(), site, String.join("\n\tat ", frames));
+        return true;
+    }
+
+    // Our own innermost frame when there is one, else the innermost frame.
+    static String callSite(List<String> frames) {
+        for (String frame : frames) {
+            if (frame.startsWith(APP_PACKAGE)) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0);
+    }
+}
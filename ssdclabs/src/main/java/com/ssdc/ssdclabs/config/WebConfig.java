@@ -6,6 +6,8 @@ import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.ssdc.ssdclabs.dto.KeysetPage;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
@@ -19,6 +21,8 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedOriginPatterns(origins)
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
             .allowedHeaders("*")
+            // Keyset-paged lists return the next page token in a header.
+            .exposedHeaders(KeysetPage.NEXT_CURSOR_HEADER)
             // JWT auth does not require cookies, keep this off for safety.
             .allowCredentials(false);
     }
@@ -1,41 +1,77 @@
 package com.ssdc.ssdclabs.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.security.Principal;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.ssdc.ssdclabs.dto.AccountsDuePatientDTO;
 import com.ssdc.ssdclabs.dto.AccountsDoctorDTO;
 import com.ssdc.ssdclabs.dto.AccountsDoctorDetailDTO;
 import com.ssdc.ssdclabs.dto.AccountsSummaryDTO;
 import com.ssdc.ssdclabs.service.AccountsService;
+import com.ssdc.ssdclabs.service.DailyRollupService;
+import com.ssdc.ssdclabs.service.RevenueRollupService;
 
 @RestController
 @RequestMapping("/accounts")
 public class AccountsController {
 
+    private static final MediaType XLSX = MediaType.parseMediaType(
+        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
     private final AccountsService accountsService;
+    private final RevenueRollupService revenueRollups;
 
-    public AccountsController(AccountsService accountsService) {
+    public AccountsController(AccountsService accountsService,
+                              RevenueRollupService revenueRollups) {
         this.accountsService = accountsService;
+        this.revenueRollups = revenueRollups;
     }
 
     @GetMapping("/summary")
-    public @NonNull AccountsSummaryDTO getSummary(@NonNull Principal principal) {
-        return accountsService.getSummary(principal.getName());
+    public @NonNull AccountsSummaryDTO getSummary(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @NonNull Principal principal) {
+        try {
+            return accountsService.getSummary(principal.getName(), from, to);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
     @GetMapping("/doctors")
-    public List<AccountsDoctorDTO> getDoctors(@NonNull Principal principal) {
-        return accountsService.getDoctorSummaries(principal.getName());
+    public List<AccountsDoctorDTO> getDoctors(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @NonNull Principal principal) {
+        try {
+            return accountsService.getDoctorSummaries(principal.getName(), from, to);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    // Compare the daily revenue rollup with patients; rebuild=true repairs drift.
+    @PostMapping("/rollup/verify")
+    public DailyRollupService.VerifyResult verifyRollup(
+            @RequestParam(defaultValue = "false") boolean rebuild,
+            @NonNull Principal principal) {
+        return revenueRollups.verify(principal.getName(), rebuild);
     }
 
     @GetMapping("/doctor/{doctorId}/details")
@@ -45,50 +81,147 @@ public class AccountsController {
         return accountsService.getDoctorDetails(principal.getName(), doctorId);
     }
 
+    // Full list by default; limit/cursor switch to keyset pages (X-Next-Cursor).
     @GetMapping("/details")
-    public List<AccountsDoctorDetailDTO> getAllDetails(
+    public ResponseEntity<List<AccountsDoctorDetailDTO>> getAllDetails(
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             @RequestParam(required = false) String doctorId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
             @NonNull Principal principal) {
-        final boolean hasAnyFilter =
-            (from != null && !from.trim().isEmpty())
-            || (to != null && !to.trim().isEmpty())
-            || (doctorId != null && !doctorId.trim().isEmpty());
-        if (!hasAnyFilter) {
-            return accountsService.getAllDetails(principal.getName());
-        }
         try {
-            return accountsService.getDetailsFiltered(
+            if (limit != null || cursor != null) {
+                return KeysetResponses.of(accountsService.getDetailsAfter(
+                    principal.getName(),
+                    from,
+                    to,
+                    doctorId,
+                    cursor,
+                    limit == null ? 0 : limit
+                ));
+            }
+            final boolean hasAnyFilter =
+                (from != null && !from.trim().isEmpty())
+                || (to != null && !to.trim().isEmpty())
+                || (doctorId != null && !doctorId.trim().isEmpty());
+            if (!hasAnyFilter) {
+                return ResponseEntity.ok(accountsService.getAllDetails(principal.getName()));
+            }
+            return ResponseEntity.ok(accountsService.getDetailsFiltered(
                 principal.getName(),
                 from,
                 to,
                 doctorId
-            );
+            ));
         } catch (IllegalArgumentException ex) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
         }
     }
 
+    // Unfiltered details written row by row (format=json|csv) from a DB cursor.
+    @GetMapping("/details/export")
+    public ResponseEntity<StreamingResponseBody> exportAllDetails(
+            @RequestParam(required = false) String format,
+            @NonNull Principal principal) {
+        final AccountsService.ExportFormat exportFormat;
+        try {
+            exportFormat = AccountsService.ExportFormat.parse(format);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        final String labId = principal.getName();
+        StreamingResponseBody body =
+            out -> accountsService.writeAllDetails(labId, exportFormat, out);
+        if (exportFormat == AccountsService.ExportFormat.CSV) {
+            return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"accounts-details.csv\"")
+                .body(body);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    // Filtered details as an XLSX workbook (same filters as /details).
+    @GetMapping("/details/xlsx")
+    public ResponseEntity<StreamingResponseBody> exportDetailsWorkbook(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String doctorId,
+            @NonNull Principal principal) {
+        final String labId = principal.getName();
+        final AccountsService.ExportFilter filter = exportFilter(labId, from, to, doctorId);
+        return workbook("accounts-details.xlsx",
+            out -> accountsService.writeDetailsWorkbook(labId, filter, out));
+    }
+
+    // Due list as an XLSX workbook (same filters as /due, no limit).
+    @GetMapping("/due/xlsx")
+    public ResponseEntity<StreamingResponseBody> exportDueWorkbook(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String doctorId,
+            @NonNull Principal principal) {
+        final String labId = principal.getName();
+        final AccountsService.ExportFilter filter = exportFilter(labId, from, to, doctorId);
+        return workbook("accounts-due.xlsx",
+            out -> accountsService.writeDueWorkbook(labId, filter, out));
+    }
+
+    // Keyset paged (cursor = previous X-Next-Cursor); offset > 0 keeps the
+    // older offset paging working.
     @GetMapping("/due")
-    public List<AccountsDuePatientDTO> getDuePatients(
+    public ResponseEntity<List<AccountsDuePatientDTO>> getDuePatients(
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             @RequestParam(required = false) String doctorId,
             @RequestParam(defaultValue = "2000") int limit,
             @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String cursor,
             @NonNull Principal principal) {
         try {
-            return accountsService.getDuePatients(
+            if (offset > 0 && cursor == null) {
+                return ResponseEntity.ok(accountsService.getDuePatients(
+                    principal.getName(),
+                    from,
+                    to,
+                    doctorId,
+                    limit,
+                    offset
+                ));
+            }
+            return KeysetResponses.of(accountsService.getDuePatientsAfter(
                 principal.getName(),
                 from,
                 to,
                 doctorId,
-                limit,
-                offset
-            );
+                cursor,
+                limit
+            ));
         } catch (IllegalArgumentException ex) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
         }
     }
+
+    private AccountsService.ExportFilter exportFilter(String labId,
+                                                      String from,
+                                                      String to,
+                                                      String doctorId) {
+        try {
+            return accountsService.exportFilter(labId, from, to, doctorId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> workbook(String fileName,
+                                                                   StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .contentType(XLSX)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
 }
@@ -3,23 +3,38 @@ package com.ssdc.ssdclabs.controller;
 import java.security.Principal;
 import java.util.Objects;
 
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.ssdc.ssdclabs.dto.HomeSummaryDTO;
+import com.ssdc.ssdclabs.service.DailyRollupService;
+import com.ssdc.ssdclabs.service.DashboardCounterService;
 import com.ssdc.ssdclabs.service.DashboardService;
+import com.ssdc.ssdclabs.service.LabEventHub;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/dashboard")
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardCounterService dashboardCounters;
+    private final LabEventHub labEvents;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService,
+                               DashboardCounterService dashboardCounters,
+                               LabEventHub labEvents) {
         this.dashboardService = dashboardService;
+        this.dashboardCounters = dashboardCounters;
+        this.labEvents = labEvents;
     }
 
     @GetMapping("/home-summary")
@@ -31,5 +46,30 @@ public class DashboardController {
             limit
         );
     }
-}
 
+    // Patient change events for the lab; Last-Event-ID resumes after a reconnect.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @NonNull Principal principal,
+            HttpServletResponse response) {
+        // Keep nginx from buffering the stream.
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("Cache-Control", "no-store");
+        return labEvents.subscribe(
+            Objects.requireNonNull(principal.getName(), "labId"),
+            lastEventId
+        );
+    }
+
+    // Compare the daily counters with patients; rebuild=true repairs drift.
+    @PostMapping("/counters/verify")
+    public DailyRollupService.VerifyResult verifyCounters(
+            @RequestParam(defaultValue = "false") boolean rebuild,
+            @NonNull Principal principal) {
+        return dashboardCounters.verify(
+            Objects.requireNonNull(principal.getName(), "labId"),
+            rebuild
+        );
+    }
+}
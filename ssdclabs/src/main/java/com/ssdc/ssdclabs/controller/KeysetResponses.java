@@ -0,0 +1,23 @@
+package com.ssdc.ssdclabs.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.ssdc.ssdclabs.dto.KeysetPage;
+
+// Keyset pages go out as a plain JSON array (unchanged body shape) with the
+// next cursor in a header; no header means the last page.
+final class KeysetResponses {
+
+    private KeysetResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> of(KeysetPage<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            builder.header(KeysetPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return builder.body(page.items());
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.web.server.ResponseStatusException;
 
 import com.ssdc.ssdclabs.model.Patient;
 import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.service.MobileNumbers;
+import com.ssdc.ssdclabs.service.PatientAppAuthService;
 import com.ssdc.ssdclabs.service.ReportService;
 
 @RestController
@@ -19,88 +21,55 @@ public class PatientAppController {
     private final PatientRepository patientRepo;
     private final PasswordEncoder passwordEncoder;
     private final ReportService reportService;
+    private final PatientAppAuthService patientAppAuthService;
 
     public PatientAppController(
             PatientRepository patientRepo,
             PasswordEncoder passwordEncoder,
-            ReportService reportService) {
+            ReportService reportService,
+            PatientAppAuthService patientAppAuthService) {
         this.patientRepo = patientRepo;
         this.passwordEncoder = passwordEncoder;
         this.reportService = reportService;
+        this.patientAppAuthService = patientAppAuthService;
     }
 
     @PostMapping("/login")
     public Map<String, Object> login(@RequestBody Map<String, String> body) {
-        String mobile = body.get("mobile");
-        String password = body.get("password");
-
-        if (mobile == null || password == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mobile and password required");
-        }
-
-        List<Patient> patients = patientRepo.findByMobileOrderByVisitDateDesc(mobile);
-        if (patients.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
-        }
-
-        Patient matched = null;
-        for (Patient p : patients) {
-            if (p.getPassword() != null && passwordEncoder.matches(password, p.getPassword())) {
-                matched = p;
-                break;
-            }
-        }
-
-        if (matched == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
-        }
+        PatientAppAuthService.PatientSession session =
+            patientAppAuthService.login(body.get("mobile"), body.get("password"));
+        Patient matched = session.patient();
 
         return Map.of(
             "status", "ok",
             "patientId", matched.getId(),
             "name", matched.getName(),
-            "mobile", matched.getMobile()
+            "mobile", matched.getMobile(),
+            "token", session.token(),
+            "expiresIn", session.expiresInSeconds()
         );
     }
 
+    // Token from /login in the Authorization header; mobile + password
+    // query parameters are still accepted from older app builds.
     @GetMapping("/visits")
-    public List<Patient> getVisits(@RequestParam String mobile, @RequestParam String password) {
-        if (mobile == null || mobile.trim().isEmpty() || password == null || password.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mobile and password required");
+    public List<Patient> getVisits(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam(required = false) String mobile,
+            @RequestParam(required = false) String password) {
+        if (authorization != null) {
+            return patientAppAuthService.getVisits(patientAppAuthService.authenticate(authorization));
         }
-        List<Patient> patients = patientRepo.findByMobileOrderByVisitDateDesc(mobile.trim());
-        boolean authenticated = patients.stream().anyMatch(
-                p -> p.getPassword() != null && passwordEncoder.matches(password, p.getPassword()));
-        if (!authenticated) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
-        }
-        return patients;
+        return patientAppAuthService.getVisitsWithPassword(mobile, password);
     }
 
     @PostMapping("/change-password")
     public Map<String, String> changePassword(@RequestBody Map<String, String> body) {
-        String mobile = body.get("mobile");
-        String oldPass = body.get("oldPassword");
-        String newPass = body.get("newPassword");
-
-        if (mobile == null || oldPass == null || newPass == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing fields");
-        }
-
-        List<Patient> patients = patientRepo.findByMobileOrderByVisitDateDesc(mobile);
-        boolean changed = false;
-        for (Patient p : patients) {
-            if (p.getPassword() != null && passwordEncoder.matches(oldPass, p.getPassword())) {
-                p.setPassword(passwordEncoder.encode(newPass));
-                patientRepo.save(p);
-                changed = true;
-            }
-        }
-
-        if (!changed) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid old password");
-        }
-
+        patientAppAuthService.changePassword(
+            body.get("mobile"),
+            body.get("oldPassword"),
+            body.get("newPassword")
+        );
         return Map.of("status", "ok", "message", "Password changed");
     }
 
@@ -124,18 +93,21 @@ public class PatientAppController {
         );
     }
 
+    // Token only: a patient id and mobile alone must not open a report.
     @GetMapping("/report/{patientId}")
     public List<com.ssdc.ssdclabs.dto.PatientAppReportDTO> getReport(
             @PathVariable Long patientId,
-            @RequestParam String mobile) {
-        if (mobile == null || mobile.trim().isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mobile required");
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization == null || authorization.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Login required");
         }
+        String owner = patientAppAuthService.authenticate(authorization);
 
         Patient patient = patientRepo.findById(patientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
 
-        if (!mobile.trim().equals(patient.getMobile())) {
+        // Visits are grouped by normalized mobile, so "+91 98765 43210" owns "9876543210".
+        if (!MobileNumbers.sameNumber(owner, patient.getMobile())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
 
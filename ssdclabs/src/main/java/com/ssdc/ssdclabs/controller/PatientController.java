@@ -7,21 +7,26 @@ import java.util.Map;
 import java.util.Objects;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.ssdc.ssdclabs.model.Patient;
 import com.ssdc.ssdclabs.service.PatientService;
+import com.ssdc.ssdclabs.service.ResultAutosaveBuffer;
 
 @RestController
 @RequestMapping("/patients")
 public class PatientController {
 
     private final PatientService service;
+    private final ResultAutosaveBuffer autosaveBuffer;
 
-    public PatientController(PatientService service) {
+    public PatientController(PatientService service,
+                             ResultAutosaveBuffer autosaveBuffer) {
         this.service = service;
+        this.autosaveBuffer = autosaveBuffer;
     }
 
     /* ADD PATIENT */
@@ -35,12 +40,23 @@ public class PatientController {
     }
 
     /* BY DATE */
+    // Whole day by default; limit/cursor page through it (X-Next-Cursor).
     @GetMapping("/by-date/{date}")
-    public List<Patient> byDate(@PathVariable @NonNull String date,
-                                @NonNull Principal principal) {
-        return service.findByDate(
-            Objects.requireNonNull(principal.getName(), "labId"),
-            Objects.requireNonNull(LocalDate.parse(date), "date"));
+    public ResponseEntity<List<Patient>> byDate(@PathVariable @NonNull String date,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String cursor,
+                                                @NonNull Principal principal) {
+        final String labId = Objects.requireNonNull(principal.getName(), "labId");
+        final LocalDate day = Objects.requireNonNull(LocalDate.parse(date), "date");
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(service.findByDate(labId, day));
+        }
+        try {
+            return KeysetResponses.of(
+                service.findByDateAfter(labId, day, cursor, limit == null ? 100 : limit));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
     /* GET BY ID */
@@ -54,12 +70,15 @@ public class PatientController {
     }
 
     /* SEARCH (ALL PATIENTS) */
+    // Keyset paged: pass the X-Next-Cursor of the previous response as cursor.
+    // page > 0 keeps the older offset paging working.
     @GetMapping("/search")
-    public List<Patient> searchPatients(
+    public ResponseEntity<List<Patient>> searchPatients(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String mobile,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
             @NonNull Principal principal) {
         final String nameQuery = name == null ? "" : name.trim();
         final String mobileQuery = mobile == null ? "" : mobile.trim();
@@ -72,13 +91,17 @@ public class PatientController {
         if (limit < 1 || limit > 200) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be 1..200");
         }
-        return service.searchPatientsPaged(
-            Objects.requireNonNull(principal.getName(), "labId"),
-            nameQuery,
-            mobileQuery,
-            page,
-            limit
-        );
+        final String labId = Objects.requireNonNull(principal.getName(), "labId");
+        if (page > 0 && cursor == null) {
+            return ResponseEntity.ok(
+                service.searchPatientsPaged(labId, nameQuery, mobileQuery, page, limit));
+        }
+        try {
+            return KeysetResponses.of(
+                service.searchPatientsAfter(labId, nameQuery, mobileQuery, cursor, limit));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
     /* UPDATE PATIENT */
@@ -122,6 +145,8 @@ public class PatientController {
         if (status == null || status.trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Status is required");
         }
+        // Completing must see the last typed values.
+        autosaveBuffer.flushPatient(Objects.requireNonNull(principal.getName(), "labId"), id);
         try {
             return service.updateStatus(
                 Objects.requireNonNull(principal.getName(), "labId"),
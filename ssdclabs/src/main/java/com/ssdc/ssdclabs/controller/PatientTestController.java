@@ -1,8 +1,22 @@
 package com.ssdc.ssdclabs.controller;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.security.Principal;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,20 +24,38 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.ssdc.ssdclabs.dto.AbnormalResultDTO;
+import com.ssdc.ssdclabs.dto.AutosaveStatusDTO;
 import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
 import com.ssdc.ssdclabs.dto.PatientTestSelectionDTO;
+import com.ssdc.ssdclabs.dto.ResultDeltaRequest;
+import com.ssdc.ssdclabs.dto.ResultDeltaResponse;
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+import com.ssdc.ssdclabs.service.ReportPdfRenderer;
+import com.ssdc.ssdclabs.service.ReportPdfService;
 import com.ssdc.ssdclabs.service.ReportService;
+import com.ssdc.ssdclabs.service.ResultAutosaveBuffer;
 
 @RestController
 @RequestMapping("/patient-tests")
 public class PatientTestController {
 
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
     private final ReportService reportService;
+    private final ReportPdfService reportPdfService;
+    private final ResultAutosaveBuffer autosaveBuffer;
 
-    public PatientTestController(ReportService reportService) {
+    public PatientTestController(ReportService reportService,
+                                 ReportPdfService reportPdfService,
+                                 ResultAutosaveBuffer autosaveBuffer) {
         this.reportService = reportService;
+        this.reportPdfService = reportPdfService;
+        this.autosaveBuffer = autosaveBuffer;
     }
 
     // SAVE SELECTED TESTS
@@ -35,13 +67,57 @@ public class PatientTestController {
         reportService.saveSelectedTests(principal.getName(), tests, editPin);
     }
 
-    // SAVE RESULTS
+    // SAVE RESULTS (409 with the stored values when another editor saved first)
     @PostMapping("/results")
-    public void saveResults(
+    public ResponseEntity<ResultDeltaResponse> saveResults(
             @RequestBody @NonNull List<PatientTestResultDTO> results,
             @RequestHeader(value = "X-Edit-Pin", required = false) String editPin,
             @NonNull Principal principal) {
-        reportService.saveResults(principal.getName(), results, editPin);
+        Set<Long> patientIds = new LinkedHashSet<>();
+        for (PatientTestResultDTO result : results) {
+            if (result != null && result.patientId != null) {
+                patientIds.add(result.patientId);
+            }
+        }
+        for (Long patientId : patientIds) {
+            autosaveBuffer.flushPatient(principal.getName(), patientId);
+        }
+        try {
+            reportService.saveResults(principal.getName(), results, editPin);
+        } catch (OptimisticLockingFailureException ex) {
+            // Nothing from this request was written.
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(reportService.describeSaveConflicts(principal.getName(), results));
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    // SAVE CHANGED CELLS ONLY (stale cells come back as conflicts)
+    @PostMapping("/results/delta")
+    public ResultDeltaResponse saveResultDelta(
+            @RequestBody @NonNull ResultDeltaRequest request,
+            @RequestHeader(value = "X-Edit-Pin", required = false) String editPin,
+            @NonNull Principal principal) {
+        autosaveBuffer.flushPatient(principal.getName(), request.patientId);
+        return reportService.saveResultDelta(principal.getName(), request, editPin);
+    }
+
+    // AUTOSAVE ONE CELL (buffered, written shortly after typing stops)
+    @PostMapping("/results/autosave")
+    public AutosaveStatusDTO autosaveResult(
+            @RequestBody @NonNull PatientTestResultDTO cell,
+            @RequestHeader(value = "X-Edit-Pin", required = false) String editPin,
+            @NonNull Principal principal) {
+        return autosaveBuffer.submit(principal.getName(), cell, editPin);
+    }
+
+    // WRITE PENDING AUTOSAVES NOW
+    @PostMapping("/results/autosave/{patientId}/flush")
+    public AutosaveStatusDTO flushAutosave(
+            @PathVariable @NonNull Long patientId,
+            @NonNull Principal principal) {
+        autosaveBuffer.flushPatient(principal.getName(), patientId);
+        return autosaveBuffer.status(principal.getName(), patientId);
     }
 
     // LOAD TESTS FOR PATIENT
@@ -57,7 +133,52 @@ public class PatientTestController {
     public List<PatientTestResultDTO> getResults(
             @PathVariable @NonNull Long patientId,
             @NonNull Principal principal) {
+        autosaveBuffer.flushPatient(principal.getName(), patientId);
         return reportService.getResults(principal.getName(), patientId);
     }
 
+    // ABNORMAL RESULTS OF ONE PARAMETER (visit dates, this month by default)
+    @GetMapping("/abnormal")
+    public List<AbnormalResultDTO> abnormalResults(
+            @RequestParam @NonNull Long parameterId,
+            @RequestParam(required = false) AbnormalFlag flag,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @NonNull Principal principal) {
+        LocalDate today = LocalDate.now(IST);
+        LocalDate start = parseDate(from, today.withDayOfMonth(1));
+        LocalDate end = parseDate(to, today.with(TemporalAdjusters.lastDayOfMonth()));
+        return reportService.findAbnormalResults(principal.getName(), parameterId, flag, start, end);
+    }
+
+    private static @NonNull LocalDate parseDate(String value, @NonNull LocalDate fallback) {
+        if (value == null || value.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date. Use YYYY-MM-DD");
+        }
+    }
+
+    // REPORT PDF (mode=pdf adds the lab header, mode=letterhead leaves print margins)
+    @GetMapping("/report/{patientId}/pdf")
+    public void downloadReportPdf(
+            @PathVariable @NonNull Long patientId,
+            @RequestParam(value = "mode", required = false) String mode,
+            @NonNull Principal principal,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "inline; filename=\"report-" + patientId + ".pdf\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+        reportPdfService.writeReport(
+            principal.getName(),
+            patientId,
+            ReportPdfRenderer.Mode.from(mode),
+            response.getOutputStream()
+        );
+    }
+
 }
@@ -0,0 +1,16 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.math.BigDecimal;
+
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+
+public record AbnormalResultDTO(
+    Long patientId,
+    String patientName,
+    String visitDate,
+    Long testId,
+    String subTest,
+    String resultValue,
+    BigDecimal numericValue,
+    AbnormalFlag flag
+) {}
@@ -0,0 +1,16 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.time.LocalDate;
+
+// Scalar patient + doctor columns read by the streaming accounts export.
+public record AccountsDetailRow(
+    LocalDate visitDate,
+    Long patientId,
+    String patientName,
+    Long doctorId,
+    String doctorName,
+    Double commissionRate,
+    Double amount,
+    Double discount,
+    Double paid
+) {}
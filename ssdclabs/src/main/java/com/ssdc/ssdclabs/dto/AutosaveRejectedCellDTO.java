@@ -0,0 +1,10 @@
+package com.ssdc.ssdclabs.dto;
+
+// A buffered cell the delta save refused outright (locked report, missing
+// patient); the value was not written.
+public record AutosaveRejectedCellDTO(
+    Long testId,
+    String subTest,
+    String rejectedValue,
+    String reason
+) {}
@@ -0,0 +1,9 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.util.List;
+
+public record AutosaveStatusDTO(
+    int pendingCells,
+    List<ResultConflictDTO> conflicts,
+    List<AutosaveRejectedCellDTO> rejected
+) {}
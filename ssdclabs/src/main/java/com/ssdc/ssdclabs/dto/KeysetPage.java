@@ -0,0 +1,24 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset listing; nextCursor is null on the last page.
+public record KeysetPage<T>(
+    List<T> items,
+    String nextCursor
+) {
+    // Response header carrying nextCursor on paged list endpoints.
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // window holds up to limit + 1 rows; the extra row only says "there is more".
+    public static <T> KeysetPage<T> of(List<T> window,
+                                       int limit,
+                                       Function<T, PageCursor> positionOf) {
+        if (window.size() <= limit) {
+            return new KeysetPage<>(window, null);
+        }
+        List<T> items = window.subList(0, limit);
+        return new KeysetPage<>(items, positionOf.apply(items.get(limit - 1)).encode());
+    }
+}
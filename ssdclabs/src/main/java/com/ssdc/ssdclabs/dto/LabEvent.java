@@ -0,0 +1,23 @@
+package com.ssdc.ssdclabs.dto;
+
+// One patient change pushed to a lab's open pages over /dashboard/events.
+// before/after carry just enough for the home counters and task list to be
+// patched in place: null before = new patient, null after = deleted.
+public record LabEvent(
+    String type,
+    long patientId,
+    String patientName,
+    TaskState before,
+    TaskState after
+) {
+
+    public static final String PATIENT_REGISTERED = "PATIENT_REGISTERED";
+    public static final String PATIENT_UPDATED = "PATIENT_UPDATED";
+    public static final String PAYMENT_UPDATED = "PAYMENT_UPDATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String PATIENT_DELETED = "PATIENT_DELETED";
+
+    // Same fields and rules as RecentTaskDTO (date is yyyy-MM-dd).
+    public record TaskState(String date, double dueAmount, boolean pending) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position in a (visitDate DESC, id DESC) listing: the last row already sent.
+// Sent to clients as an opaque base64url token; a null visitDate marks the
+// undated rows that sort after every dated one.
+public record PageCursor(LocalDate visitDate, long id) {
+
+    // Sorts before every real row, so "after FIRST" is the first page.
+    public static final PageCursor FIRST = new PageCursor(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    private static final String PREFIX = "v1:";
+
+    public static PageCursor after(LocalDate visitDate, Long id) {
+        return new PageCursor(visitDate, id == null ? 0L : id);
+    }
+
+    // Blank means the first page; anything unreadable is a 400.
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String[] parts = raw.substring(PREFIX.length()).split(":", -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDate date = parts[0].isEmpty() ? null : LocalDate.parse(parts[0]);
+            return new PageCursor(date, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = PREFIX + (visitDate == null ? "" : visitDate.toString()) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,7 @@
 package com.ssdc.ssdclabs.dto;
 
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+
 public class PatientAppReportDTO {
     public Long testId;
     public String testName;
@@ -7,6 +9,9 @@ public class PatientAppReportDTO {
     public String resultValue;
     public String unit;
     public String normalRange;
+    public AbnormalFlag abnormalFlag;
+
+    public PatientAppReportDTO() {}
 
     public PatientAppReportDTO(Long testId, String testName, String parameterName,
                                String resultValue, String unit, String normalRange) {
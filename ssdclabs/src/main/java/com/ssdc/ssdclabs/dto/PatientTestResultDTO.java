@@ -1,5 +1,7 @@
 package com.ssdc.ssdclabs.dto;
 
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+
 public class PatientTestResultDTO {
 
     public Long id;
@@ -8,6 +10,10 @@ public class PatientTestResultDTO {
     public String subTest;
     public String resultValue;
     public Boolean clear;
+    // Version of the stored row this line belongs to (delta saves).
+    public Long version;
+    // Stored LOW/HIGH check, on the line that holds the row's numeric reading.
+    public AbnormalFlag abnormalFlag;
 
     public PatientTestResultDTO() {}
 
@@ -5,17 +5,21 @@ public class PrintSettingsDTO {
     public Integer bottomLines;
     public Integer leftLines;
     public Integer rightLines;
+    // Report heading; null on save keeps the stored title, blank clears it.
+    public String reportTitle;
 
     public PrintSettingsDTO() {}
 
     public PrintSettingsDTO(Integer topLines,
                             Integer bottomLines,
                             Integer leftLines,
-                            Integer rightLines) {
+                            Integer rightLines,
+                            String reportTitle) {
         this.topLines = topLines;
         this.bottomLines = bottomLines;
         this.leftLines = leftLines;
         this.rightLines = rightLines;
+        this.reportTitle = reportTitle;
     }
 }
 
@@ -0,0 +1,15 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.util.List;
+
+// Everything the report endpoints return for one patient, frozen at COMPLETE time.
+public record ReportSnapshotDocument(
+    long version,
+    List<PatientTestSelectionDTO> selectedTests,
+    List<PatientTestResultDTO> results,
+    List<PatientAppReportDTO> report
+) {
+    public ReportSnapshotDocument withVersion(long newVersion) {
+        return new ReportSnapshotDocument(newVersion, selectedTests, results, report);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ssdc.ssdclabs.dto;
+
+public class ResultConflictDTO {
+    public Long testId;
+    public String subTest;
+    public Long expectedVersion;
+    public Long currentVersion;
+    public String currentValue;
+    public String rejectedValue;
+
+    public ResultConflictDTO() {}
+
+    public ResultConflictDTO(Long testId,
+                             String subTest,
+                             Long expectedVersion,
+                             Long currentVersion,
+                             String currentValue,
+                             String rejectedValue) {
+        this.testId = testId;
+        this.subTest = subTest;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+        this.currentValue = currentValue;
+        this.rejectedValue = rejectedValue;
+    }
+}
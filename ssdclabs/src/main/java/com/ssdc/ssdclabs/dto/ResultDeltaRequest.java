@@ -0,0 +1,17 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.util.List;
+
+// Changed result cells for one patient. Each change carries the row version
+// the client loaded (null for a line it has never seen stored).
+public class ResultDeltaRequest {
+    public Long patientId;
+    public List<PatientTestResultDTO> changes;
+
+    public ResultDeltaRequest() {}
+
+    public ResultDeltaRequest(Long patientId, List<PatientTestResultDTO> changes) {
+        this.patientId = patientId;
+        this.changes = changes;
+    }
+}
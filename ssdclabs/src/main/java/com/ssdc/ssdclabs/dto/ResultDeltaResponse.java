@@ -0,0 +1,12 @@
+package com.ssdc.ssdclabs.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultDeltaResponse {
+    // Cells that were written, with the row version to send next time.
+    public List<PatientTestResultDTO> applied = new ArrayList<>();
+    public List<ResultConflictDTO> conflicts = new ArrayList<>();
+
+    public ResultDeltaResponse() {}
+}
@@ -0,0 +1,7 @@
+package com.ssdc.ssdclabs.model;
+
+// Result outside the patient's normal range, decided when the value is saved.
+public enum AbnormalFlag {
+    LOW,
+    HIGH
+}
@@ -0,0 +1,89 @@
+package com.ssdc.ssdclabs.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+// Per (lab, visit date) patient counts behind the home dashboard, kept in step
+// with patient writes so the summary reads a year of buckets, not every patient.
+@Entity
+@Table(name = "lab_daily_counters")
+@IdClass(LabDailyCounter.Key.class)
+public class LabDailyCounter {
+
+    @Id
+    @Column(name = "lab_id", length = 6, nullable = false)
+    private String labId;
+
+    @Id
+    @Column(name = "counter_date", nullable = false)
+    private LocalDate counterDate;
+
+    @Column(nullable = false)
+    private Long registered = 0L;
+
+    @Column(nullable = false)
+    private Long pending = 0L;
+
+    @Column(nullable = false)
+    private Long completed = 0L;
+
+    // Patients with amount - paid > 0 (same rule as the Accounts due list).
+    @Column(nullable = false)
+    private Long due = 0L;
+
+    public String getLabId() { return labId; }
+    public void setLabId(String labId) { this.labId = labId; }
+
+    public LocalDate getCounterDate() { return counterDate; }
+    public void setCounterDate(LocalDate counterDate) { this.counterDate = counterDate; }
+
+    public Long getRegistered() { return registered; }
+    public void setRegistered(Long registered) { this.registered = registered; }
+
+    public Long getPending() { return pending; }
+    public void setPending(Long pending) { this.pending = pending; }
+
+    public Long getCompleted() { return completed; }
+    public void setCompleted(Long completed) { this.completed = completed; }
+
+    public Long getDue() { return due; }
+    public void setDue(Long due) { this.due = due; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String labId;
+        private LocalDate counterDate;
+
+        public Key() {}
+
+        public Key(String labId, LocalDate counterDate) {
+            this.labId = labId;
+            this.counterDate = counterDate;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(labId, key.labId)
+                && Objects.equals(counterDate, key.counterDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(labId, counterDate);
+        }
+    }
+}
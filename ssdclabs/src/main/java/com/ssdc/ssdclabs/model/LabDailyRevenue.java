@@ -0,0 +1,108 @@
+package com.ssdc.ssdclabs.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+// Per (lab, visit date, doctor) billing totals, kept in step with patient
+// writes so Accounts reads scale with days rather than patients.
+// doctor_id 0 collects patients without a doctor.
+@Entity
+@Table(name = "lab_daily_revenue")
+@IdClass(LabDailyRevenue.Key.class)
+public class LabDailyRevenue {
+
+    public static final long NO_DOCTOR = 0L;
+
+    @Id
+    @Column(name = "lab_id", length = 6, nullable = false)
+    private String labId;
+
+    @Id
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    @Id
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "patient_count", nullable = false)
+    private Long patientCount = 0L;
+
+    @Column(nullable = false, precision = 16, scale = 4)
+    private BigDecimal billed = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 4)
+    private BigDecimal discount = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 4)
+    private BigDecimal paid = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 4)
+    private BigDecimal commission = BigDecimal.ZERO;
+
+    public String getLabId() { return labId; }
+    public void setLabId(String labId) { this.labId = labId; }
+
+    public LocalDate getRevenueDate() { return revenueDate; }
+    public void setRevenueDate(LocalDate revenueDate) { this.revenueDate = revenueDate; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Long getPatientCount() { return patientCount; }
+    public void setPatientCount(Long patientCount) { this.patientCount = patientCount; }
+
+    public BigDecimal getBilled() { return billed; }
+    public void setBilled(BigDecimal billed) { this.billed = billed; }
+
+    public BigDecimal getDiscount() { return discount; }
+    public void setDiscount(BigDecimal discount) { this.discount = discount; }
+
+    public BigDecimal getPaid() { return paid; }
+    public void setPaid(BigDecimal paid) { this.paid = paid; }
+
+    public BigDecimal getCommission() { return commission; }
+    public void setCommission(BigDecimal commission) { this.commission = commission; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String labId;
+        private LocalDate revenueDate;
+        private Long doctorId;
+
+        public Key() {}
+
+        public Key(String labId, LocalDate revenueDate, Long doctorId) {
+            this.labId = labId;
+            this.revenueDate = revenueDate;
+            this.doctorId = doctorId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(labId, key.labId)
+                && Objects.equals(revenueDate, key.revenueDate)
+                && Objects.equals(doctorId, key.doctorId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(labId, revenueDate, doctorId);
+        }
+    }
+}
@@ -29,6 +29,10 @@ public class LabPrintSettings {
     @Column(name = "right_lines", nullable = false)
     private Integer rightLines = 0;
 
+    // Heading under the lab name on reports; NULL prints the default title.
+    @Column(name = "report_title", length = 80)
+    private String reportTitle;
+
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt = Instant.now();
 
@@ -53,6 +57,9 @@ public class LabPrintSettings {
     public Integer getRightLines() { return rightLines; }
     public void setRightLines(Integer rightLines) { this.rightLines = rightLines; }
 
+    public String getReportTitle() { return reportTitle; }
+    public void setReportTitle(String reportTitle) { this.reportTitle = reportTitle; }
+
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
@@ -0,0 +1,7 @@
+package com.ssdc.ssdclabs.model;
+
+public enum MailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
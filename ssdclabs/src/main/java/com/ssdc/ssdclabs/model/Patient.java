@@ -25,7 +25,8 @@ import jakarta.persistence.Transient;
     indexes = {
         @Index(name = "idx_patients_lab_visit_date", columnList = "lab_id, visit_date"),
         @Index(name = "idx_patients_lab_doctor", columnList = "lab_id, doctor_id"),
-        @Index(name = "idx_patients_lab_mobile", columnList = "lab_id, mobile")
+        @Index(name = "idx_patients_lab_mobile", columnList = "lab_id, mobile"),
+        @Index(name = "idx_patients_identity_visit", columnList = "identity_id, visit_date")
     }
 )
 public class Patient {
@@ -50,6 +51,11 @@ public class Patient {
     private String mobile;
     private String address;
 
+    // PatientIdentity for the normalized mobile; null when the mobile is unusable.
+    @JsonIgnore
+    @Column(name = "identity_id")
+    private Long identityId;
+
     @JsonIgnore
     private String password; // hashed
 
@@ -94,6 +100,10 @@ public class Patient {
     public String getMobile() { return mobile; }
     public void setMobile(String mobile) { this.mobile = mobile; }
 
+    @JsonIgnore
+    public Long getIdentityId() { return identityId; }
+    public void setIdentityId(Long identityId) { this.identityId = identityId; }
+
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
 
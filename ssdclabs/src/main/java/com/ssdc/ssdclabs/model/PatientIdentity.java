@@ -0,0 +1,40 @@
+package com.ssdc.ssdclabs.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// One person across labs, keyed on the normalized mobile (see MobileNumbers).
+// patients.identity_id links every visit to it.
+@Entity
+@Table(
+    name = "patient_identities",
+    uniqueConstraints = @UniqueConstraint(name = "uk_patient_identities_mobile_key", columnNames = "mobile_key")
+)
+public class PatientIdentity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "mobile_key", length = 16, nullable = false)
+    private String mobileKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getMobileKey() { return mobileKey; }
+    public void setMobileKey(String mobileKey) { this.mobileKey = mobileKey; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
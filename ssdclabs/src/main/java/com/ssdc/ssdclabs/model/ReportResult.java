@@ -1,27 +1,49 @@
 package com.ssdc.ssdclabs.model;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(
     name = "report_results",
     uniqueConstraints = @UniqueConstraint(
         columnNames = {"patient_id", "test_id", "parameter_id", "sub_test"}
+    ),
+    indexes = @Index(
+        name = "idx_report_results_param_flag",
+        columnList = "parameter_id, abnormal_flag, visit_date"
     )
 )
 public class ReportResult {
 
+    // Ids are reserved 50 at a time from id_sequences; IDENTITY would force
+    // one INSERT round trip per row and disable JDBC batching.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "report_result_ids")
+    @TableGenerator(
+        name = "report_result_ids",
+        table = "id_sequences",
+        pkColumnName = "sequence_name",
+        valueColumnName = "next_val",
+        pkColumnValue = "report_results",
+        allocationSize = 50
+    )
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +64,25 @@ public class ReportResult {
     @Column(name = "result_value", columnDefinition = "TEXT")
     private String resultValue;
 
+    // First numeric line of result_value and its range check, set on save so
+    // reports can be filtered by value without parsing TEXT.
+    @Column(name = "numeric_value", precision = 18, scale = 4)
+    private BigDecimal numericValue;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "abnormal_flag", length = 8)
+    private AbnormalFlag abnormalFlag;
+
+    // Copy of patients.visit_date so "abnormal for a parameter in a date
+    // window" is one range of idx_report_results_param_flag.
+    @Column(name = "visit_date")
+    private LocalDate visitDate;
+
+    // Optimistic lock for delta saves; clients echo it back with each change.
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -56,6 +97,9 @@ public class ReportResult {
         this.parameter = parameter;
     }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getSubTest() { return subTest; }
     public void setSubTest(String subTest) { this.subTest = subTest; }
 
@@ -63,4 +107,17 @@ public class ReportResult {
     public void setResultValue(String resultValue) {
         this.resultValue = resultValue;
     }
+
+    public BigDecimal getNumericValue() { return numericValue; }
+    public void setNumericValue(BigDecimal numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    public AbnormalFlag getAbnormalFlag() { return abnormalFlag; }
+    public void setAbnormalFlag(AbnormalFlag abnormalFlag) {
+        this.abnormalFlag = abnormalFlag;
+    }
+
+    public LocalDate getVisitDate() { return visitDate; }
+    public void setVisitDate(LocalDate visitDate) { this.visitDate = visitDate; }
 }
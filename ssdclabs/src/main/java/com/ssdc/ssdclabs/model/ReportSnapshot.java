@@ -0,0 +1,46 @@
+package com.ssdc.ssdclabs.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "report_snapshots")
+public class ReportSnapshot {
+
+    @Id
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "lab_id", length = 6, nullable = false)
+    private String labId;
+
+    // Bumped on every capture; never reused for a patient.
+    @Column(nullable = false)
+    private Long version = 1L;
+
+    // Null once a PIN-authorized reopen invalidates the snapshot.
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    @Column(name = "captured_at", nullable = false)
+    private Instant capturedAt = Instant.now();
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public String getLabId() { return labId; }
+    public void setLabId(String labId) { this.labId = labId; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Instant getCapturedAt() { return capturedAt; }
+    public void setCapturedAt(Instant capturedAt) { this.capturedAt = capturedAt; }
+}
@@ -0,0 +1,102 @@
+package com.ssdc.ssdclabs.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ssdc.ssdclabs.model.LabDailyCounter;
+
+public interface LabDailyCounterRepository
+        extends JpaRepository<LabDailyCounter, LabDailyCounter.Key> {
+
+    interface DailyCounterRow {
+        LocalDate getCounterDate();
+        Long getRegistered();
+        Long getPending();
+        Long getCompleted();
+        Long getDue();
+    }
+
+    // Adds (or with negative values, takes back) one patient's counts.
+    @Modifying
+    @Query(value = """
+        INSERT INTO lab_daily_counters
+            (lab_id, counter_date, registered, pending, completed, due)
+        VALUES (:labId, :day, :registered, :pending, :completed, :due)
+        ON DUPLICATE KEY UPDATE
+            registered = registered + VALUES(registered),
+            pending = pending + VALUES(pending),
+            completed = completed + VALUES(completed),
+            due = due + VALUES(due)
+    """, nativeQuery = true)
+    int addToDay(@Param("labId") String labId,
+                 @Param("day") LocalDate day,
+                 @Param("registered") long registered,
+                 @Param("pending") long pending,
+                 @Param("completed") long completed,
+                 @Param("due") long due);
+
+    @Modifying
+    @Query(value = "DELETE FROM lab_daily_counters WHERE lab_id = :labId", nativeQuery = true)
+    int deleteByLabId(@Param("labId") String labId);
+
+    // Rebuild from patients; mirrors DashboardCounterService.contributionOf.
+    @Modifying
+    @Query(value = """
+        INSERT INTO lab_daily_counters
+            (lab_id, counter_date, registered, pending, completed, due)
+        SELECT p.lab_id,
+               COALESCE(p.visit_date, DATE '1970-01-01'),
+               COUNT(*),
+               SUM(CASE WHEN UPPER(TRIM(COALESCE(p.status, ''))) = 'COMPLETED' THEN 0 ELSE 1 END),
+               SUM(CASE WHEN UPPER(TRIM(COALESCE(p.status, ''))) = 'COMPLETED' THEN 1 ELSE 0 END),
+               SUM(CASE WHEN COALESCE(p.amount, 0) - COALESCE(p.paid, 0) > 0 THEN 1 ELSE 0 END)
+        FROM patients p
+        WHERE p.lab_id = :labId
+        GROUP BY p.lab_id, COALESCE(p.visit_date, DATE '1970-01-01')
+    """, nativeQuery = true)
+    int rebuildFromPatients(@Param("labId") String labId);
+
+    // Same grouping as the rebuild, returned instead of stored (reconcile job).
+    @Query(value = """
+        SELECT COALESCE(p.visit_date, DATE '1970-01-01') AS counterDate,
+               COUNT(*) AS registered,
+               SUM(CASE WHEN UPPER(TRIM(COALESCE(p.status, ''))) = 'COMPLETED' THEN 0 ELSE 1 END) AS pending,
+               SUM(CASE WHEN UPPER(TRIM(COALESCE(p.status, ''))) = 'COMPLETED' THEN 1 ELSE 0 END) AS completed,
+               SUM(CASE WHEN COALESCE(p.amount, 0) - COALESCE(p.paid, 0) > 0 THEN 1 ELSE 0 END) AS due
+        FROM patients p
+        WHERE p.lab_id = :labId
+        GROUP BY COALESCE(p.visit_date, DATE '1970-01-01')
+    """, nativeQuery = true)
+    List<DailyCounterRow> computeFromPatients(@Param("labId") String labId);
+
+    @Query("""
+        SELECT c.counterDate AS counterDate,
+               c.registered AS registered,
+               c.pending AS pending,
+               c.completed AS completed,
+               c.due AS due
+        FROM LabDailyCounter c
+        WHERE c.labId = :labId
+    """)
+    List<DailyCounterRow> findRowsByLabId(@Param("labId") String labId);
+
+    // At most a year and a week of buckets for the home summary.
+    @Query("""
+        SELECT c.counterDate AS counterDate,
+               c.registered AS registered,
+               c.pending AS pending,
+               c.completed AS completed,
+               c.due AS due
+        FROM LabDailyCounter c
+        WHERE c.labId = :labId
+          AND c.counterDate BETWEEN :from AND :to
+    """)
+    List<DailyCounterRow> findRowsBetween(@Param("labId") String labId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+}
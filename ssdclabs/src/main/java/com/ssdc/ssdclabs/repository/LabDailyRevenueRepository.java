@@ -0,0 +1,169 @@
+package com.ssdc.ssdclabs.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ssdc.ssdclabs.model.LabDailyRevenue;
+
+public interface LabDailyRevenueRepository
+        extends JpaRepository<LabDailyRevenue, LabDailyRevenue.Key> {
+
+    interface RevenueTotals {
+        Long getPatientCount();
+        Double getBilled();
+        Double getDiscount();
+        Double getPaid();
+        Double getCommission();
+    }
+
+    interface DoctorRevenueTotals {
+        Long getDoctorId();
+        Long getPatientCount();
+        Double getBilled();
+    }
+
+    interface DailyRevenueRow {
+        LocalDate getRevenueDate();
+        Long getDoctorId();
+        Long getPatientCount();
+        Double getBilled();
+        Double getDiscount();
+        Double getPaid();
+        Double getCommission();
+    }
+
+    // Adds (or with negative values, takes back) one patient's share.
+    @Modifying
+    @Query(value = """
+        INSERT INTO lab_daily_revenue
+            (lab_id, revenue_date, doctor_id, patient_count, billed, discount, paid, commission)
+        VALUES (:labId, :day, :doctorId, :count, :billed, :discount, :paid, :commission)
+        ON DUPLICATE KEY UPDATE
+            patient_count = patient_count + VALUES(patient_count),
+            billed = billed + VALUES(billed),
+            discount = discount + VALUES(discount),
+            paid = paid + VALUES(paid),
+            commission = commission + VALUES(commission)
+    """, nativeQuery = true)
+    int addToDay(@Param("labId") String labId,
+                 @Param("day") LocalDate day,
+                 @Param("doctorId") long doctorId,
+                 @Param("count") long count,
+                 @Param("billed") double billed,
+                 @Param("discount") double discount,
+                 @Param("paid") double paid,
+                 @Param("commission") double commission);
+
+    // A doctor's commission rate changed: re-derive from billed, one row per day.
+    @Modifying
+    @Query(value = """
+        UPDATE lab_daily_revenue
+        SET commission = billed * (:rate / 100.0)
+        WHERE lab_id = :labId
+          AND doctor_id = :doctorId
+    """, nativeQuery = true)
+    int recomputeCommission(@Param("labId") String labId,
+                            @Param("doctorId") long doctorId,
+                            @Param("rate") double rate);
+
+    @Modifying
+    @Query(value = "DELETE FROM lab_daily_revenue WHERE lab_id = :labId", nativeQuery = true)
+    int deleteByLabId(@Param("labId") String labId);
+
+    // Rebuild from patients; mirrors RevenueRollupService.contributionOf.
+    @Modifying
+    @Query(value = """
+        INSERT INTO lab_daily_revenue
+            (lab_id, revenue_date, doctor_id, patient_count, billed, discount, paid, commission)
+        SELECT p.lab_id,
+               COALESCE(p.visit_date, DATE '1970-01-01'),
+               COALESCE(p.doctor_id, 0),
+               COUNT(*),
+               SUM(COALESCE(p.amount, 0)),
+               SUM(GREATEST(COALESCE(p.discount, 0), 0)),
+               SUM(CASE
+                       WHEN COALESCE(p.amount, 0) < 0 THEN GREATEST(COALESCE(p.paid, 0), 0)
+                       ELSE LEAST(GREATEST(COALESCE(p.paid, 0), 0), COALESCE(p.amount, 0))
+                   END),
+               SUM(CASE
+                       WHEN d.id IS NULL OR LOWER(TRIM(d.name)) = 'self' THEN 0
+                       ELSE COALESCE(p.amount, 0) * (COALESCE(d.commission_rate, :defaultRate) / 100.0)
+                   END)
+        FROM patients p
+        LEFT JOIN doctors d ON d.id = p.doctor_id
+        WHERE p.lab_id = :labId
+        GROUP BY p.lab_id, COALESCE(p.visit_date, DATE '1970-01-01'), COALESCE(p.doctor_id, 0)
+    """, nativeQuery = true)
+    int rebuildFromPatients(@Param("labId") String labId,
+                            @Param("defaultRate") double defaultRate);
+
+    // Same grouping as the rebuild, returned instead of stored (verify job).
+    @Query(value = """
+        SELECT COALESCE(p.visit_date, DATE '1970-01-01') AS revenueDate,
+               COALESCE(p.doctor_id, 0) AS doctorId,
+               COUNT(*) AS patientCount,
+               SUM(COALESCE(p.amount, 0)) AS billed,
+               SUM(GREATEST(COALESCE(p.discount, 0), 0)) AS discount,
+               SUM(CASE
+                       WHEN COALESCE(p.amount, 0) < 0 THEN GREATEST(COALESCE(p.paid, 0), 0)
+                       ELSE LEAST(GREATEST(COALESCE(p.paid, 0), 0), COALESCE(p.amount, 0))
+                   END) AS paid,
+               SUM(CASE
+                       WHEN d.id IS NULL OR LOWER(TRIM(d.name)) = 'self' THEN 0
+                       ELSE COALESCE(p.amount, 0) * (COALESCE(d.commission_rate, :defaultRate) / 100.0)
+                   END) AS commission
+        FROM patients p
+        LEFT JOIN doctors d ON d.id = p.doctor_id
+        WHERE p.lab_id = :labId
+        GROUP BY COALESCE(p.visit_date, DATE '1970-01-01'), COALESCE(p.doctor_id, 0)
+    """, nativeQuery = true)
+    List<DailyRevenueRow> computeFromPatients(@Param("labId") String labId,
+                                              @Param("defaultRate") double defaultRate);
+
+    @Query(value = """
+        SELECT r.revenue_date AS revenueDate,
+               r.doctor_id AS doctorId,
+               r.patient_count AS patientCount,
+               r.billed AS billed,
+               r.discount AS discount,
+               r.paid AS paid,
+               r.commission AS commission
+        FROM lab_daily_revenue r
+        WHERE r.lab_id = :labId
+    """, nativeQuery = true)
+    List<DailyRevenueRow> findRowsByLabId(@Param("labId") String labId);
+
+    @Query("""
+        SELECT COALESCE(SUM(r.patientCount), 0) AS patientCount,
+               COALESCE(SUM(r.billed), 0) AS billed,
+               COALESCE(SUM(r.discount), 0) AS discount,
+               COALESCE(SUM(r.paid), 0) AS paid,
+               COALESCE(SUM(r.commission), 0) AS commission
+        FROM LabDailyRevenue r
+        WHERE r.labId = :labId
+          AND r.revenueDate BETWEEN :from AND :to
+    """)
+    RevenueTotals sumBetween(@Param("labId") String labId,
+                             @Param("from") LocalDate from,
+                             @Param("to") LocalDate to);
+
+    @Query("""
+        SELECT r.doctorId AS doctorId,
+               SUM(r.patientCount) AS patientCount,
+               SUM(r.billed) AS billed
+        FROM LabDailyRevenue r
+        WHERE r.labId = :labId
+          AND r.revenueDate BETWEEN :from AND :to
+        GROUP BY r.doctorId
+        HAVING SUM(r.patientCount) > 0
+        ORDER BY SUM(r.billed) DESC
+    """)
+    List<DoctorRevenueTotals> sumByDoctorBetween(@Param("labId") String labId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to);
+}
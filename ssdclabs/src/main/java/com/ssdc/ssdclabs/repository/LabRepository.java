@@ -1,10 +1,28 @@
 package com.ssdc.ssdclabs.repository;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.ssdc.ssdclabs.model.Lab;
 
 public interface LabRepository extends JpaRepository<Lab, String> {
+    interface LabAuthRow {
+        Boolean getActive();
+        LocalDate getSubscriptionExpiry();
+    }
+
     boolean existsByLabIdIgnoreCase(String labId);
-}
 
+    // Only the columns the security filter needs, not the full 25-column row.
+    @Query("""
+        SELECT l.active AS active,
+               l.subscriptionExpiry AS subscriptionExpiry
+        FROM Lab l
+        WHERE l.labId = :labId
+    """)
+    Optional<LabAuthRow> findAuthRowByLabId(@Param("labId") String labId);
+}
@@ -0,0 +1,31 @@
+package com.ssdc.ssdclabs.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.ssdc.ssdclabs.model.MailOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // Due PENDING rows, oldest first. Locked with SKIP LOCKED (timeout -2) so
+    // a second instance claims other rows instead of waiting on these.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT m FROM MailOutbox m
+        WHERE m.status = com.ssdc.ssdclabs.model.MailStatus.PENDING
+          AND m.nextAttemptAt <= :now
+        ORDER BY m.id
+    """)
+    List<MailOutbox> findDueForUpdate(@Param("now") Instant now, Pageable page);
+}
@@ -1,12 +1,24 @@
 package com.ssdc.ssdclabs.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.ssdc.ssdclabs.model.NormalRange;
 
 public interface NormalRangeRepository
         extends JpaRepository<NormalRange, Long> {
     List<NormalRange> findByParameter_Id(Long parameterId);
+
+    // Result saves: the ranges of every touched parameter in one statement.
+    @Query("""
+        SELECT r
+        FROM NormalRange r
+        WHERE r.parameter.id IN :parameterIds
+        ORDER BY r.id ASC
+    """)
+    List<NormalRange> findByParameterIdIn(@Param("parameterIds") Collection<Long> parameterIds);
 }
@@ -0,0 +1,25 @@
+package com.ssdc.ssdclabs.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ssdc.ssdclabs.model.PatientIdentity;
+
+public interface PatientIdentityRepository extends JpaRepository<PatientIdentity, Long> {
+
+    @Query("SELECT i.id FROM PatientIdentity i WHERE i.mobileKey = :mobileKey")
+    Optional<Long> findIdByMobileKey(@Param("mobileKey") String mobileKey);
+
+    // Race-free create: concurrent writers for the same person share one row.
+    @Modifying
+    @Query(value = """
+        INSERT INTO patient_identities (mobile_key, created_at)
+        VALUES (:mobileKey, CURRENT_TIMESTAMP)
+        ON DUPLICATE KEY UPDATE mobile_key = mobile_key
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("mobileKey") String mobileKey);
+}
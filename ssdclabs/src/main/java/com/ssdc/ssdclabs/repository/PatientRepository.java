@@ -1,23 +1,35 @@
 package com.ssdc.ssdclabs.repository;
 
-import java.sql.Date;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.ssdc.ssdclabs.dto.AccountsDetailRow;
 import com.ssdc.ssdclabs.dto.AccountsDuePatientDTO;
+
+import jakarta.persistence.QueryHint;
 import com.ssdc.ssdclabs.model.Patient;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
-    interface DoctorBillAggregate {
-        Long getDoctorId();
-        String getDoctorName();
-        Long getPatientCount();
-        Double getTotalBill();
+
+    interface NameIndexRow {
+        Long getId();
+        String getName();
+        String getMobile();
+        LocalDate getVisitDate();
+    }
+
+    interface UnlinkedMobileRow {
+        Long getId();
+        String getMobile();
     }
 
     /* Calendar date filter */
@@ -61,6 +73,99 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     """)
     List<Patient> findAllWithDoctorOrderByVisitDateDescIdDesc(@Param("labId") String labId);
 
+    // Forward-only read for exports: scalar rows (nothing enters the persistence
+    // context), fetched from a server-side cursor 500 at a time. Close the stream.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+        SELECT new com.ssdc.ssdclabs.dto.AccountsDetailRow(
+            p.visitDate, p.id, p.name, d.id, d.name, d.commissionRate,
+            p.amount, p.discount, p.paid)
+        FROM Patient p
+        LEFT JOIN p.doctor d
+        WHERE p.labId = :labId
+        ORDER BY p.visitDate DESC, p.id DESC
+    """)
+    Stream<AccountsDetailRow> streamDetailRowsByLabId(@Param("labId") String labId);
+
+    // Source rows for the in-memory patient name index (PatientNameIndex).
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+        SELECT p.id AS id, p.name AS name, p.mobile AS mobile, p.visitDate AS visitDate
+        FROM Patient p
+        WHERE p.labId = :labId
+    """)
+    Stream<NameIndexRow> streamNameIndexRows(@Param("labId") String labId);
+
+    // Cursor-read variants of the filtered details and due lists for XLSX
+    // exports. Doctor filter: anyDoctor, else selfOnly, else d.id = doctorId.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+        SELECT new com.ssdc.ssdclabs.dto.AccountsDetailRow(
+            p.visitDate, p.id, p.name, d.id, d.name, d.commissionRate,
+            p.amount, p.discount, p.paid)
+        FROM Patient p
+        LEFT JOIN p.doctor d
+        WHERE p.labId = :labId
+          AND p.visitDate BETWEEN :from AND :to
+          AND (:anyDoctor = true
+               OR (:selfOnly = true AND (d IS NULL OR LOWER(d.name) = 'self'))
+               OR d.id = :doctorId)
+        ORDER BY p.visitDate DESC, p.id DESC
+    """)
+    Stream<AccountsDetailRow> streamDetailRows(
+            @Param("labId") String labId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("anyDoctor") boolean anyDoctor,
+            @Param("selfOnly") boolean selfOnly,
+            @Param("doctorId") long doctorId);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+        SELECT new com.ssdc.ssdclabs.dto.AccountsDuePatientDTO(
+            p.visitDate,
+            p.id,
+            p.name,
+            p.mobile,
+            p.address,
+            COALESCE(d.name, 'SELF'),
+            (COALESCE(p.amount, 0.0) - COALESCE(p.paid, 0.0)),
+            COALESCE(p.status, 'NOT COMPLETE')
+        )
+        FROM Patient p
+        LEFT JOIN p.doctor d
+        WHERE p.labId = :labId
+          AND p.visitDate BETWEEN :from AND :to
+          AND (COALESCE(p.amount, 0.0) - COALESCE(p.paid, 0.0)) > 0.0
+          AND (:anyDoctor = true
+               OR (:selfOnly = true AND (d IS NULL OR LOWER(d.name) = 'self'))
+               OR d.id = :doctorId)
+        ORDER BY p.visitDate DESC, p.id DESC
+    """)
+    Stream<AccountsDuePatientDTO> streamDuePatients(
+            @Param("labId") String labId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("anyDoctor") boolean anyDoctor,
+            @Param("selfOnly") boolean selfOnly,
+            @Param("doctorId") long doctorId);
+
     /* 🔍 Mobile search (PARTIAL match) */
     // Ordered by most recent visit first, then newest id.
     List<Patient> findByLabIdAndMobileContainingOrderByVisitDateDescIdDesc(
@@ -83,6 +188,40 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     // List patients by mobile (exact match) for App Login
     List<Patient> findByMobileOrderByVisitDateDesc(String mobile);
 
+    // Patient-app password change: only the visits whose PIN the patient proved.
+    @Modifying
+    @Query("UPDATE Patient p SET p.password = :password WHERE p.id IN :matchedIds")
+    int updatePasswordByIds(@Param("matchedIds") List<Long> matchedIds,
+                            @Param("password") String password);
+
+    // Every visit of one person across labs (idx_patients_identity_visit), plus
+    // visits with the same mobile the identity backfill has not linked yet.
+    @Query("""
+        SELECT p
+        FROM Patient p
+        WHERE p.identityId = :identityId
+           OR (p.identityId IS NULL AND p.mobile = :mobile)
+        ORDER BY p.visitDate DESC
+    """)
+    List<Patient> findVisitsOfIdentity(@Param("identityId") Long identityId,
+                                       @Param("mobile") String mobile);
+
+    // Identity backfill: rows not linked yet, in id order.
+    @Query("""
+        SELECT p.id AS id, p.mobile AS mobile
+        FROM Patient p
+        WHERE p.identityId IS NULL
+          AND p.mobile IS NOT NULL
+          AND p.id > :afterId
+        ORDER BY p.id
+    """)
+    List<UnlinkedMobileRow> findUnlinkedMobiles(@Param("afterId") long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Patient p SET p.identityId = :identityId WHERE p.id IN :ids AND p.identityId IS NULL")
+    int linkIdentity(@Param("identityId") Long identityId,
+                     @Param("ids") List<Long> ids);
+
     boolean existsByAppLoginId(String appLoginId);
 
     // Single search query (with optional filters) that fetches doctor to avoid N+1.
@@ -114,51 +253,135 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
             @Param("mobile") String mobile,
             Pageable pageable);
 
+    /* Keyset pages: rows after a (visitDate, id) cursor in DESC order. The
+       predicate is a range on (lab_id, visit_date), whose InnoDB entries end
+       in the primary key, so the index serves both the seek and the order. */
+
+    // Undated patients sort last (NULLs are lowest in DESC order).
+    @Query("""
+        SELECT p.id
+        FROM Patient p
+        WHERE p.labId = :labId
+          AND (:name = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))
+          AND (:mobile = '' OR p.mobile LIKE CONCAT('%', :mobile, '%'))
+          AND (p.visitDate IS NULL
+               OR (p.visitDate <= :afterDate
+                   AND (p.visitDate < :afterDate OR p.id < :afterId)))
+        ORDER BY p.visitDate DESC, p.id DESC
+    """)
+    List<Long> searchIdsAfter(
+            @Param("labId") String labId,
+            @Param("name") String name,
+            @Param("mobile") String mobile,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    @Query("""
+        SELECT p.id
+        FROM Patient p
+        WHERE p.labId = :labId
+          AND (:name = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))
+          AND (:mobile = '' OR p.mobile LIKE CONCAT('%', :mobile, '%'))
+          AND p.visitDate IS NULL
+          AND p.id < :afterId
+        ORDER BY p.id DESC
+    """)
+    List<Long> searchUndatedIdsAfter(
+            @Param("labId") String labId,
+            @Param("name") String name,
+            @Param("mobile") String mobile,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
     @Query("""
         SELECT p
         FROM Patient p
         LEFT JOIN FETCH p.doctor d
         WHERE p.labId = :labId
-          AND p.id IN :ids
+          AND p.visitDate = :visitDate
+          AND p.id < :afterId
+        ORDER BY p.id DESC
     """)
-    List<Patient> findByLabIdAndIdInWithDoctor(
+    List<Patient> findByVisitDateWithDoctorAfter(
             @Param("labId") String labId,
-            @Param("ids") List<Long> ids);
+            @Param("visitDate") LocalDate visitDate,
+            @Param("afterId") long afterId,
+            Pageable pageable);
 
-    // Aggregate totals ordered by highest billing first (for accounts).
+    // Doctor filter as in streamDetailRows.
     @Query("""
-        SELECT d.id AS doctorId,
-               COALESCE(d.name, 'SELF') AS doctorName,
-               COUNT(p) AS patientCount,
-               COALESCE(SUM(p.amount), 0) AS totalBill
+        SELECT new com.ssdc.ssdclabs.dto.AccountsDetailRow(
+            p.visitDate, p.id, p.name, d.id, d.name, d.commissionRate,
+            p.amount, p.discount, p.paid)
         FROM Patient p
         LEFT JOIN p.doctor d
         WHERE p.labId = :labId
-        GROUP BY d.id, d.name
-        ORDER BY totalBill DESC
+          AND p.visitDate BETWEEN :from AND :to
+          AND (:anyDoctor = true
+               OR (:selfOnly = true AND (d IS NULL OR LOWER(d.name) = 'self'))
+               OR d.id = :doctorId)
+          AND p.visitDate <= :afterDate
+          AND (p.visitDate < :afterDate OR p.id < :afterId)
+        ORDER BY p.visitDate DESC, p.id DESC
     """)
-    java.util.List<DoctorBillAggregate> findDoctorBillAggregatesOrdered(@Param("labId") String labId);
-
-    long countByLabIdAndDoctor_Id(String labId, Long doctorId);
+    List<AccountsDetailRow> findDetailRowsAfter(
+            @Param("labId") String labId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("anyDoctor") boolean anyDoctor,
+            @Param("selfOnly") boolean selfOnly,
+            @Param("doctorId") long doctorId,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") long afterId,
+            Pageable pageable);
 
     @Query("""
-        SELECT
-            COALESCE(SUM(p.amount), 0),
-            COALESCE(SUM(p.discount), 0),
-            COALESCE(SUM(
-                CASE
-                    WHEN d IS NULL OR LOWER(d.name) = 'self' THEN 0
-                    ELSE p.amount * (COALESCE(d.commissionRate, :defaultRate) / 100.0)
-                END
-            ), 0)
+        SELECT new com.ssdc.ssdclabs.dto.AccountsDuePatientDTO(
+            p.visitDate,
+            p.id,
+            p.name,
+            p.mobile,
+            p.address,
+            COALESCE(d.name, 'SELF'),
+            (COALESCE(p.amount, 0.0) - COALESCE(p.paid, 0.0)),
+            COALESCE(p.status, 'NOT COMPLETE')
+        )
         FROM Patient p
         LEFT JOIN p.doctor d
         WHERE p.labId = :labId
+          AND p.visitDate BETWEEN :from AND :to
+          AND (COALESCE(p.amount, 0.0) - COALESCE(p.paid, 0.0)) > 0.0
+          AND (:anyDoctor = true
+               OR (:selfOnly = true AND (d IS NULL OR LOWER(d.name) = 'self'))
+               OR d.id = :doctorId)
+          AND p.visitDate <= :afterDate
+          AND (p.visitDate < :afterDate OR p.id < :afterId)
+        ORDER BY p.visitDate DESC, p.id DESC
+    """)
+    List<AccountsDuePatientDTO> findDuePatientsAfter(
+            @Param("labId") String labId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("anyDoctor") boolean anyDoctor,
+            @Param("selfOnly") boolean selfOnly,
+            @Param("doctorId") long doctorId,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    @Query("""
+        SELECT p
+        FROM Patient p
+        LEFT JOIN FETCH p.doctor d
+        WHERE p.labId = :labId
+          AND p.id IN :ids
     """)
-    Object[] findAccountsSummaryNumbers(
+    List<Patient> findByLabIdAndIdInWithDoctor(
             @Param("labId") String labId,
-            @Param("defaultRate") double defaultRate
-    );
+            @Param("ids") List<Long> ids);
+
+    long countByLabIdAndDoctor_Id(String labId, Long doctorId);
 
     java.util.Optional<Patient> findByIdAndLabId(Long id, String labId);
 
@@ -183,28 +406,6 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
             @Param("labId") String labId,
             Pageable pageable);
 
-    @Query(
-        value = """
-            SELECT
-                COALESCE(SUM(CASE WHEN p.visit_date = :today THEN 1 ELSE 0 END), 0) AS todayCount,
-                COALESCE(SUM(CASE WHEN p.visit_date = :today AND (p.status IS NULL OR UPPER(TRIM(p.status)) <> 'COMPLETED') THEN 1 ELSE 0 END), 0) AS todayPendingCount,
-                COALESCE(SUM(CASE WHEN p.visit_date BETWEEN :weekStart AND :today THEN 1 ELSE 0 END), 0) AS weekCount,
-                COALESCE(SUM(CASE WHEN p.visit_date BETWEEN :monthStart AND :today THEN 1 ELSE 0 END), 0) AS monthCount,
-                COALESCE(SUM(CASE WHEN p.visit_date BETWEEN :yearStart AND :today THEN 1 ELSE 0 END), 0) AS yearCount
-            FROM patients p
-            WHERE p.lab_id = :labId
-        """,
-        nativeQuery = true
-    )
-    Object[] findHomeSummaryCounts(
-            @Param("labId") String labId,
-            @Param("today") Date today,
-            @Param("weekStart") Date weekStart,
-            @Param("monthStart") Date monthStart,
-            @Param("yearStart") Date yearStart
-    );
-
-
     @Query("""
         SELECT new com.ssdc.ssdclabs.dto.AccountsDuePatientDTO(
             p.visitDate,
@@ -1,14 +1,24 @@
 package com.ssdc.ssdclabs.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.ssdc.ssdclabs.model.AbnormalFlag;
 import com.ssdc.ssdclabs.model.ReportResult;
 
+import jakarta.persistence.QueryHint;
+
 public interface ReportResultRepository
         extends JpaRepository<ReportResult, Long> {
     @Query("""
@@ -35,6 +45,74 @@ public interface ReportResultRepository
     List<ReportResult> findByPatient_IdIn(@Param("labId") String labId,
                                          @Param("patientIds") List<Long> patientIds);
 
+    // Delta saves: only the rows of the parameters being changed.
+    @Query("""
+        SELECT r
+        FROM ReportResult r
+        WHERE r.patient.id = :patientId
+          AND r.patient.labId = :labId
+          AND r.parameter.id IN :parameterIds
+        ORDER BY r.id ASC
+    """)
+    List<ReportResult> findByPatientAndParameterIds(@Param("labId") String labId,
+                                                   @Param("patientId") Long patientId,
+                                                   @Param("parameterIds") Collection<Long> parameterIds);
+
+    // Abnormal results of one parameter over a visit-date window: one range of
+    // idx_report_results_param_flag per flag, then the patient by primary key.
+    @Query("""
+        SELECT r
+        FROM ReportResult r
+        JOIN FETCH r.patient pt
+        WHERE r.parameter.id = :parameterId
+          AND r.abnormalFlag IN :flags
+          AND r.visitDate BETWEEN :from AND :to
+          AND pt.labId = :labId
+        ORDER BY r.visitDate ASC, r.id ASC
+    """)
+    List<ReportResult> findAbnormalByParameter(@Param("labId") String labId,
+                                              @Param("parameterId") Long parameterId,
+                                              @Param("flags") Collection<AbnormalFlag> flags,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+
+    // Classification backfill: rows saved before visit_date existed, in id
+    // order. Read-only so classifying them in memory never flushes (or bumps
+    // @Version); the results go back through setClassification.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+        SELECT r
+        FROM ReportResult r
+        JOIN FETCH r.patient pt
+        JOIN FETCH r.parameter p
+        WHERE r.visitDate IS NULL
+          AND pt.visitDate IS NOT NULL
+          AND r.id > :afterId
+        ORDER BY r.id ASC
+    """)
+    List<ReportResult> findUnclassified(@Param("afterId") long afterId, Pageable pageable);
+
+    // Skips a row an editor saved since it was read (a save sets visit_date).
+    @Modifying
+    @Query("""
+        UPDATE ReportResult r
+        SET r.numericValue = :numericValue,
+            r.abnormalFlag = :abnormalFlag,
+            r.visitDate = :visitDate
+        WHERE r.id = :id
+          AND r.visitDate IS NULL
+    """)
+    int setClassification(@Param("id") Long id,
+                          @Param("numericValue") BigDecimal numericValue,
+                          @Param("abnormalFlag") AbnormalFlag abnormalFlag,
+                          @Param("visitDate") LocalDate visitDate);
+
+    // Keeps the copied visit date in step when a patient's visit is moved.
+    @Modifying
+    @Query("UPDATE ReportResult r SET r.visitDate = :visitDate WHERE r.patient.id = :patientId")
+    int updateVisitDate(@Param("patientId") Long patientId,
+                        @Param("visitDate") LocalDate visitDate);
+
     Optional<ReportResult> findFirstByPatient_IdAndTest_IdAndParameter_IdAndSubTest(
         Long patientId,
         Long testId,
@@ -0,0 +1,9 @@
+package com.ssdc.ssdclabs.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.ssdc.ssdclabs.model.ReportSnapshot;
+
+public interface ReportSnapshotRepository
+        extends JpaRepository<ReportSnapshot, Long> {
+}
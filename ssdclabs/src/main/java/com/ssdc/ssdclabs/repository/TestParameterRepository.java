@@ -1,5 +1,6 @@
 package com.ssdc.ssdclabs.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,6 +18,35 @@ public interface TestParameterRepository
 
     List<TestParameter> findByTest_IdOrderByIdAsc(Long testId);
 
+    // Write path: every parameter of the selected tests in one statement.
+    @Query("""
+        SELECT p
+        FROM TestParameter p
+        WHERE p.test.id IN :testIds
+        ORDER BY p.test.id ASC, p.id ASC
+    """)
+    List<TestParameter> findByTestIdIn(@Param("testIds") Collection<Long> testIds);
+
+    // Catalog fetch path: parameters and their ranges in one statement, so view
+    // builders never walk the lazy collections one row at a time.
+    @Query("""
+        SELECT p
+        FROM TestParameter p
+        LEFT JOIN FETCH p.normalRanges r
+        WHERE p.test.labId = :labId
+        ORDER BY p.test.id ASC, p.id ASC, r.id ASC
+    """)
+    List<TestParameter> findByLabIdWithRanges(@Param("labId") String labId);
+
+    @Query("""
+        SELECT p
+        FROM TestParameter p
+        LEFT JOIN FETCH p.normalRanges r
+        WHERE p.test.id IN :testIds
+        ORDER BY p.test.id ASC, p.id ASC, r.id ASC
+    """)
+    List<TestParameter> findByTestIdInWithRanges(@Param("testIds") Collection<Long> testIds);
+
     @Query("""
         SELECT tp.test.id AS testId,
                COUNT(tp) AS paramCount
@@ -1,5 +1,6 @@
 package com.ssdc.ssdclabs.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +15,8 @@ public interface TestRepository extends JpaRepository<Test, Long> {
 
     java.util.Optional<Test> findByIdAndLabId(Long id, String labId);
 
+    List<Test> findByLabIdAndIdIn(String labId, Collection<Long> ids);
+
     java.util.Optional<Test> findFirstByLabIdAndShortcutIgnoreCase(String labId, String shortcut);
 
     // Ordered by id for stable insertion order.
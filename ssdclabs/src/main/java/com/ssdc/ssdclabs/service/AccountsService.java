@@ -1,59 +1,133 @@
 package com.ssdc.ssdclabs.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.TemporalAdjusters;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.AbstractPageRequest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import com.ssdc.ssdclabs.dto.AccountsDetailRow;
 import com.ssdc.ssdclabs.dto.AccountsDuePatientDTO;
 import com.ssdc.ssdclabs.dto.AccountsDoctorDTO;
 import com.ssdc.ssdclabs.dto.AccountsDoctorDetailDTO;
 import com.ssdc.ssdclabs.dto.AccountsSummaryDTO;
+import com.ssdc.ssdclabs.dto.KeysetPage;
+import com.ssdc.ssdclabs.dto.PageCursor;
 import com.ssdc.ssdclabs.model.Doctor;
+import com.ssdc.ssdclabs.model.LabDailyRevenue;
 import com.ssdc.ssdclabs.model.Patient;
 import com.ssdc.ssdclabs.repository.DoctorRepository;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository;
 import com.ssdc.ssdclabs.repository.PatientRepository;
 
 @Service
 public class AccountsService {
 
     private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final LocalDate ALL_TIME_FROM = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_TIME_TO = LocalDate.of(9999, 12, 31);
+    private static final String[] EXPORT_HEADER = {
+        "Date", "Report ID", "Patient", "Doctor", "Bill", "Discount", "Paid", "Due", "Commission"
+    };
+
+    public enum ExportFormat {
+        JSON, CSV;
+
+        public static ExportFormat parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return JSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("format must be json or csv");
+            }
+        }
+    }
+
+    // Resolved date range + doctor filter for exports; validated before any
+    // bytes are streamed so bad input still gets a 400.
+    public record ExportFilter(LocalDate from,
+                               LocalDate to,
+                               boolean anyDoctor,
+                               boolean selfOnly,
+                               long doctorId,
+                               boolean matchesNothing) {
+    }
 
     private final PatientRepository patientRepo;
     private final DoctorRepository doctorRepo;
+    private final LabDailyRevenueRepository rollupRepo;
+    private final ObjectWriter detailWriter;
+    private final TransactionTemplate readTx;
     private final double defaultCommissionRate;
 
     public AccountsService(
             PatientRepository patientRepo,
             DoctorRepository doctorRepo,
+            LabDailyRevenueRepository rollupRepo,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager txManager,
             @Value("${accounts.default-commission-rate:0}") double defaultCommissionRate) {
         this.patientRepo = Objects.requireNonNull(patientRepo, "patientRepo");
         this.doctorRepo = Objects.requireNonNull(doctorRepo, "doctorRepo");
+        this.rollupRepo = Objects.requireNonNull(rollupRepo, "rollupRepo");
+        this.readTx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+        this.readTx.setReadOnly(true);
+        // One flush per response, not per row.
+        this.detailWriter = Objects.requireNonNull(objectMapper, "objectMapper")
+            .writerFor(AccountsDoctorDetailDTO.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
         this.defaultCommissionRate = defaultCommissionRate;
     }
 
     public @NonNull AccountsSummaryDTO getSummary(@NonNull String labId) {
-        Object[] row = patientRepo.findAccountsSummaryNumbers(
+        return getSummary(labId, null, null);
+    }
+
+    // Served from lab_daily_revenue: cost follows the number of days in range.
+    public @NonNull AccountsSummaryDTO getSummary(@NonNull String labId, String from, String to) {
+        DateRange range = resolveRollupRange(from, to);
+        LabDailyRevenueRepository.RevenueTotals totals = rollupRepo.sumBetween(
             Objects.requireNonNull(labId, "labId"),
-            defaultCommissionRate
+            range.from(),
+            range.to()
         );
 
-        double totalRevenue = toDouble(row, 0);
-        double totalDiscount = toDouble(row, 1);
-        double totalCommission = toDouble(row, 2);
+        double totalRevenue = orZero(totals == null ? null : totals.getBilled());
+        double totalDiscount = orZero(totals == null ? null : totals.getDiscount());
+        double totalCommission = orZero(totals == null ? null : totals.getCommission());
         // totalRevenue is SUM(p.amount) (final payable), which already reflects discounts.
         // Do not subtract discount again.
         double netProfit = totalRevenue - totalCommission;
@@ -62,10 +136,19 @@ public class AccountsService {
     }
 
     public @NonNull List<AccountsDoctorDTO> getDoctorSummaries(@NonNull String labId) {
+        return getDoctorSummaries(labId, null, null);
+    }
+
+    public @NonNull List<AccountsDoctorDTO> getDoctorSummaries(@NonNull String labId,
+                                                               String from,
+                                                               String to) {
+        DateRange range = resolveRollupRange(from, to);
         // Aggregated totals are ordered by totalBill DESC in the query.
-        List<PatientRepository.DoctorBillAggregate> aggregates =
-            patientRepo.findDoctorBillAggregatesOrdered(
-                Objects.requireNonNull(labId, "labId"));
+        List<LabDailyRevenueRepository.DoctorRevenueTotals> aggregates =
+            rollupRepo.sumByDoctorBetween(
+                Objects.requireNonNull(labId, "labId"),
+                range.from(),
+                range.to());
 
         List<Doctor> doctors = doctorRepo.findByLabIdOrderByNameAsc(labId);
         Map<Long, Doctor> doctorById = new HashMap<>();
@@ -77,16 +160,17 @@ public class AccountsService {
         List<AccountsDoctorDTO> summaries = new ArrayList<>();
         Set<String> addedNames = new HashSet<>();
 
-        for (PatientRepository.DoctorBillAggregate agg : aggregates) {
-            Long docId = agg.getDoctorId();
-            String name = normalizeDoctorName(agg.getDoctorName());
-            String doctorId = docId == null ? "SELF" : String.valueOf(docId);
+        for (LabDailyRevenueRepository.DoctorRevenueTotals agg : aggregates) {
+            Long docId = agg.getDoctorId() == null || agg.getDoctorId() == LabDailyRevenue.NO_DOCTOR
+                ? null
+                : agg.getDoctorId();
             Doctor doctor = docId == null ? null : doctorById.get(docId);
+            String name = normalizeDoctorName(doctor == null ? null : doctor.getName());
+            String doctorId = docId == null ? "SELF" : String.valueOf(docId);
             double rate = commissionRateFor(doctor, name);
             long patientCount =
                 agg.getPatientCount() == null ? 0 : agg.getPatientCount();
-            double totalBill =
-                agg.getTotalBill() == null ? 0 : agg.getTotalBill();
+            double totalBill = orZero(agg.getBilled());
             summaries.add(new AccountsDoctorDTO(
                 doctorId,
                 name,
@@ -204,6 +288,186 @@ public class AccountsService {
         return details;
     }
 
+    // Same rows as getAllDetails, written to out as they come off the cursor;
+    // memory use does not depend on how many patients the lab has.
+    @Transactional(readOnly = true)
+    public long writeAllDetails(@NonNull String labId,
+                                @NonNull ExportFormat format,
+                                @NonNull OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out");
+        try (Stream<AccountsDetailRow> rows =
+                 patientRepo.streamDetailRowsByLabId(Objects.requireNonNull(labId, "labId"))) {
+            return Objects.requireNonNull(format, "format") == ExportFormat.CSV
+                ? writeCsv(rows, out)
+                : writeJson(rows, out);
+        }
+    }
+
+    // Keyset page of /details: no filter at all means every patient (as
+    // getAllDetails), otherwise the getDetailsFiltered range and doctor rules.
+    public @NonNull KeysetPage<AccountsDoctorDetailDTO> getDetailsAfter(
+            @NonNull String labId,
+            String from,
+            String to,
+            String doctorId,
+            String cursor,
+            int limit) {
+        final String safeLabId = Objects.requireNonNull(labId, "labId");
+        final boolean noFilter = isBlank(from) && isBlank(to) && isBlank(doctorId);
+        final DateRange range = noFilter
+            ? new DateRange(ALL_TIME_FROM, ALL_TIME_TO)
+            : resolveDateRange(from, to);
+        final DoctorFilter doctor = resolveDoctorFilter(safeLabId, doctorId);
+        final PageCursor after = PageCursor.decode(cursor);
+        final int safeLimit = clamp(limit, 1, 5000, 500);
+        if (doctor.type == DoctorFilterType.INVALID || after.visitDate() == null) {
+            return new KeysetPage<>(new ArrayList<>(), null);
+        }
+
+        final List<AccountsDetailRow> rows = patientRepo.findDetailRowsAfter(
+            safeLabId,
+            range.from(),
+            range.to(),
+            doctor.type == DoctorFilterType.ALL,
+            doctor.type == DoctorFilterType.SELF,
+            doctor.doctorId == null ? -1L : doctor.doctorId,
+            after.visitDate(),
+            after.id(),
+            PageRequest.of(0, safeLimit + 1));
+        KeysetPage<AccountsDetailRow> page = KeysetPage.of(rows, safeLimit,
+            row -> PageCursor.after(row.visitDate(), row.patientId()));
+        List<AccountsDoctorDetailDTO> details = new ArrayList<>(page.items().size());
+        for (AccountsDetailRow row : page.items()) {
+            details.add(toDetail(row));
+        }
+        return new KeysetPage<>(details, page.nextCursor());
+    }
+
+    // Keyset page of the due list: same filters as getDuePatients.
+    public @NonNull KeysetPage<AccountsDuePatientDTO> getDuePatientsAfter(
+            @NonNull String labId,
+            String from,
+            String to,
+            String doctorId,
+            String cursor,
+            int limit) {
+        final String safeLabId = Objects.requireNonNull(labId, "labId");
+        final DateRange range = resolveDateRange(from, to);
+        final DoctorFilter doctor = resolveDoctorFilter(safeLabId, doctorId);
+        final PageCursor after = PageCursor.decode(cursor);
+        final int safeLimit = clamp(limit, 1, 5000, 2000);
+        if (doctor.type == DoctorFilterType.INVALID || after.visitDate() == null) {
+            return new KeysetPage<>(new ArrayList<>(), null);
+        }
+
+        final List<AccountsDuePatientDTO> rows = patientRepo.findDuePatientsAfter(
+            safeLabId,
+            range.from(),
+            range.to(),
+            doctor.type == DoctorFilterType.ALL,
+            doctor.type == DoctorFilterType.SELF,
+            doctor.doctorId == null ? -1L : doctor.doctorId,
+            after.visitDate(),
+            after.id(),
+            PageRequest.of(0, safeLimit + 1));
+        return KeysetPage.of(rows, safeLimit,
+            row -> PageCursor.after(row.visitDate(), row.patientId()));
+    }
+
+    // Same doctorId rules as getDetailsFiltered; no dates means all time (as
+    // the unfiltered /details), one date fills in its month.
+    public @NonNull ExportFilter exportFilter(@NonNull String labId,
+                                              String from,
+                                              String to,
+                                              String doctorId) {
+        DateRange range = resolveRollupRange(from, to);
+        DoctorFilter doctor = resolveDoctorFilter(Objects.requireNonNull(labId, "labId"), doctorId);
+        return new ExportFilter(
+            range.from(),
+            range.to(),
+            doctor.type == DoctorFilterType.ALL,
+            doctor.type == DoctorFilterType.SELF,
+            doctor.doctorId == null ? -1L : doctor.doctorId,
+            doctor.type == DoctorFilterType.INVALID
+        );
+    }
+
+    // Workbooks are filled in a read-only transaction (rows spill to a temp
+    // file) and written to out after it ends, so a slow download does not
+    // hold a database connection.
+    public long writeDetailsWorkbook(@NonNull String labId,
+                                     @NonNull ExportFilter filter,
+                                     @NonNull OutputStream out) throws IOException {
+        try (AccountsWorkbookWriter xlsx = new AccountsWorkbookWriter("Accounts", EXPORT_HEADER)) {
+            if (!filter.matchesNothing()) {
+                readTx.executeWithoutResult(status -> fillDetailsWorkbook(xlsx, labId, filter));
+            }
+            xlsx.writeTo(Objects.requireNonNull(out, "out"));
+            return xlsx.rowCount();
+        }
+    }
+
+    public long writeDueWorkbook(@NonNull String labId,
+                                 @NonNull ExportFilter filter,
+                                 @NonNull OutputStream out) throws IOException {
+        try (AccountsWorkbookWriter xlsx = new AccountsWorkbookWriter("Due",
+                "Date", "Report ID", "Patient", "Mobile", "Address", "Doctor", "Due", "Status")) {
+            if (!filter.matchesNothing()) {
+                readTx.executeWithoutResult(status -> fillDueWorkbook(xlsx, labId, filter));
+            }
+            xlsx.writeTo(Objects.requireNonNull(out, "out"));
+            return xlsx.rowCount();
+        }
+    }
+
+    private void fillDetailsWorkbook(AccountsWorkbookWriter xlsx, String labId, ExportFilter filter) {
+        try (Stream<AccountsDetailRow> rows = patientRepo.streamDetailRows(
+                Objects.requireNonNull(labId, "labId"),
+                filter.from(),
+                filter.to(),
+                filter.anyDoctor(),
+                filter.selfOnly(),
+                filter.doctorId())) {
+            for (AccountsDetailRow row : (Iterable<AccountsDetailRow>) rows::iterator) {
+                AccountsDoctorDetailDTO detail = toDetail(row);
+                xlsx.addRow(
+                    row.visitDate(),
+                    detail.reportId(),
+                    detail.patientName(),
+                    detail.doctorName(),
+                    detail.billAmount(),
+                    detail.discountAmount(),
+                    detail.paidAmount(),
+                    detail.dueAmount(),
+                    detail.commissionAmount()
+                );
+            }
+        }
+    }
+
+    private void fillDueWorkbook(AccountsWorkbookWriter xlsx, String labId, ExportFilter filter) {
+        try (Stream<AccountsDuePatientDTO> rows = patientRepo.streamDuePatients(
+                Objects.requireNonNull(labId, "labId"),
+                filter.from(),
+                filter.to(),
+                filter.anyDoctor(),
+                filter.selfOnly(),
+                filter.doctorId())) {
+            for (AccountsDuePatientDTO due : (Iterable<AccountsDuePatientDTO>) rows::iterator) {
+                xlsx.addRow(
+                    due.visitDate(),
+                    due.patientId() == null ? "" : "R" + due.patientId(),
+                    due.patientName(),
+                    due.mobile(),
+                    due.address(),
+                    normalizeDoctorName(due.doctorName()),
+                    due.dueAmount(),
+                    due.status()
+                );
+            }
+        }
+    }
+
     public @NonNull List<AccountsDoctorDetailDTO> getDetailsFiltered(
             @NonNull String labId,
             String from,
@@ -321,6 +585,100 @@ public class AccountsService {
     }
 
 
+    private long writeJson(Stream<AccountsDetailRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator json = detailWriter.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            for (AccountsDetailRow row : (Iterable<AccountsDetailRow>) rows::iterator) {
+                detailWriter.writeValue(json, toDetail(row));
+                count++;
+            }
+            json.writeEndArray();
+        }
+        return count;
+    }
+
+    private long writeCsv(Stream<AccountsDetailRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM so Excel opens the file as UTF-8.
+        csv.write('\uFEFF');
+        writeCsvLine(csv, EXPORT_HEADER);
+        for (AccountsDetailRow row : (Iterable<AccountsDetailRow>) rows::iterator) {
+            AccountsDoctorDetailDTO detail = toDetail(row);
+            writeCsvLine(csv, new String[] {
+                detail.date(),
+                detail.reportId(),
+                csvText(detail.patientName()),
+                csvText(detail.doctorName()),
+                formatAmount(detail.billAmount()),
+                formatAmount(detail.discountAmount()),
+                formatAmount(detail.paidAmount()),
+                formatAmount(detail.dueAmount()),
+                formatAmount(detail.commissionAmount())
+            });
+            count++;
+        }
+        csv.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer csv, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            String value = values[i] == null ? "" : values[i];
+            csv.write('"');
+            csv.write(value.replace("\"", "\"\""));
+            csv.write('"');
+        }
+        csv.write("\r\n");
+    }
+
+    // Free-text cells only: Excel runs a cell starting with one of these as a
+    // formula, so a leading quote keeps names like "=HYPERLINK(...)" as text.
+    // Amount cells are left alone so negative values stay numeric.
+    private static String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        return "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+    }
+
+    private static String formatAmount(double value) {
+        return BigDecimal.valueOf(value)
+            .setScale(2, RoundingMode.HALF_UP)
+            .toPlainString();
+    }
+
+    // Mirrors the per-patient mapping in getAllDetails.
+    private AccountsDoctorDetailDTO toDetail(AccountsDetailRow row) {
+        double bill = row.amount() == null ? 0 : row.amount();
+        double discount = row.discount() == null ? 0 : Math.max(0, row.discount());
+        double paid = row.paid() == null ? 0 : Math.max(0, row.paid());
+        if (bill >= 0) {
+            paid = Math.min(paid, bill);
+        }
+        double due = Math.max(0, bill - paid);
+        String doctorName = normalizeDoctorName(row.doctorId() == null ? null : row.doctorName());
+        double rate = isSelfDoctor(doctorName)
+            ? 0
+            : row.commissionRate() != null ? row.commissionRate() : defaultCommissionRate;
+        return new AccountsDoctorDetailDTO(
+            row.visitDate() == null ? "" : row.visitDate().toString(),
+            row.patientId() == null ? "" : "R" + row.patientId(),
+            row.patientName(),
+            doctorName,
+            bill,
+            discount,
+            paid,
+            due,
+            calculateCommission(bill, rate)
+        );
+    }
+
     private String normalizeDoctorName(String doctorName) {
         if (doctorName == null) {
             return "SELF";
@@ -420,19 +778,22 @@ public class AccountsService {
 
     private record DoctorSelection(Long id, String name) {}
 
-    private double toDouble(Object[] row, int idx) {
-        if (row == null || idx < 0 || idx >= row.length || row[idx] == null) {
-            return 0;
-        }
-        Object value = row[idx];
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (Exception ex) {
-            return 0;
+    private static double orZero(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    // No dates means all time (rollup rows start at 1970-01-01 for undated visits).
+    private DateRange resolveRollupRange(String from, String to) {
+        boolean noFrom = from == null || from.trim().isEmpty();
+        boolean noTo = to == null || to.trim().isEmpty();
+        if (noFrom && noTo) {
+            return new DateRange(ALL_TIME_FROM, ALL_TIME_TO);
         }
+        return resolveDateRange(from, to);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
     }
 
     private static int clamp(int value, int min, int max, int defaultValue) {
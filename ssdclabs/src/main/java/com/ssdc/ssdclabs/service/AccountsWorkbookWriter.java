@@ -0,0 +1,106 @@
+package com.ssdc.ssdclabs.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+// Streaming XLSX writer for accounts exports. Only the last ROW_WINDOW rows are
+// kept in memory; older rows go to a compressed temp file until writeTo().
+// Cells are plain values (no formulas): dates as dates, amounts as numbers.
+final class AccountsWorkbookWriter implements Closeable {
+
+    static final int ROW_WINDOW = 200;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final SXSSFWorkbook workbook;
+    private final String sheetName;
+    private final String[] headers;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle amountStyle;
+    private Sheet sheet;
+    private int sheetCount;
+    private int nextRow;
+    private long rows;
+
+    AccountsWorkbookWriter(String sheetName, String... headers) {
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheetName = sheetName;
+        this.headers = headers.clone();
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        this.headerStyle.setFont(bold);
+        this.dateStyle = workbook.createCellStyle();
+        this.dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd-mm-yyyy"));
+        this.amountStyle = workbook.createCellStyle();
+        this.amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+        startSheet();
+    }
+
+    // LocalDate, Number and anything else (as text); null leaves the cell blank.
+    void addRow(Object... values) {
+        if (nextRow >= MAX_ROWS) {
+            startSheet();
+        }
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof LocalDate date) {
+                cell.setCellValue(date);
+                cell.setCellStyle(dateStyle);
+            } else if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+                cell.setCellStyle(amountStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+        rows++;
+    }
+
+    long rowCount() {
+        return rows;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Also removes the temp files backing flushed rows (POI 5).
+        workbook.close();
+    }
+
+    // Rolls over to "Name (2)" and so on past Excel's row limit.
+    private void startSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+        sheet.createFreezePane(0, 1);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, Math.max(10, headers[i].length() + 4) * 256);
+        }
+        nextRow = 1;
+    }
+}
@@ -13,8 +13,10 @@ import java.util.regex.Pattern;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ssdc.ssdclabs.config.JwtService;
+import com.ssdc.ssdclabs.config.LabAuthCache;
 import com.ssdc.ssdclabs.dto.AuthLoginRequest;
 import com.ssdc.ssdclabs.dto.AuthResponse;
 import com.ssdc.ssdclabs.dto.AuthSignupRequest;
@@ -38,6 +40,7 @@ public class AuthService {
     private final MailService mailService;
     private final TotpService totpService;
     private final TwoFactorSecretCryptoService twoFactorSecretCryptoService;
+    private final LabAuthCache labAuthCache;
     private final String frontendBaseUrl;
     private final long setupTtlSeconds;
     private final long challengeTtlSeconds;
@@ -47,6 +50,7 @@ public class AuthService {
             LabRepository labRepo,
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
+            LabAuthCache labAuthCache,
             MailService mailService,
             TotpService totpService,
             TwoFactorSecretCryptoService twoFactorSecretCryptoService,
@@ -57,6 +61,7 @@ public class AuthService {
         this.labRepo = Objects.requireNonNull(labRepo, "labRepo");
         this.passwordEncoder = Objects.requireNonNull(passwordEncoder, "passwordEncoder");
         this.jwtService = Objects.requireNonNull(jwtService, "jwtService");
+        this.labAuthCache = Objects.requireNonNull(labAuthCache, "labAuthCache");
         this.mailService = Objects.requireNonNull(mailService, "mailService");
         this.totpService = Objects.requireNonNull(totpService, "totpService");
         this.twoFactorSecretCryptoService =
@@ -67,6 +72,8 @@ public class AuthService {
         this.frontendBaseUrl = Objects.requireNonNull(frontendBaseUrl, "frontendBaseUrl").replaceAll("/+$", "");
     }
 
+    // The outbox row commits with the new token; delivery is asynchronous.
+    @Transactional
     public AuthSignupResponse signup(AuthSignupRequest request) {
         String labName = trimToNull(request == null ? null : request.labName);
         String labId = normalizeLabId(request == null ? null : request.labId);
@@ -109,9 +116,11 @@ public class AuthService {
         lab.setEmailVerifySentAt(OffsetDateTime.now());
         lab.setEmailVerifySendCount(1);
         lab = labRepo.save(lab);
+        labAuthCache.evict(lab.getLabId());
 
         String verifyLink = buildVerifyLink(lab.getLabId(), token);
-        mailService.send(
+        mailService.enqueue(
+            lab.getLabId(),
             email,
             "Verify your SSDC Labs account",
             "Hello " + lab.getLabName() + ",\n\n"
@@ -389,6 +398,7 @@ public class AuthService {
         labRepo.save(lab);
     }
 
+    @Transactional
     public void resendVerificationLink(String labId) {
         String safeLabId = normalizeLabId(labId);
         if (safeLabId == null) {
@@ -423,7 +433,8 @@ public class AuthService {
         labRepo.save(lab);
 
         String verifyLink = buildVerifyLink(lab.getLabId(), token);
-        mailService.send(
+        mailService.enqueue(
+            lab.getLabId(),
             email,
             "Verify your SSDC Labs account",
             "Please verify your email by clicking this link:\n"
@@ -459,9 +470,11 @@ public class AuthService {
         lab.setEmailVerifyTokenHash(null);
         lab.setEmailVerifyExpiresAt(null);
         labRepo.save(lab);
+        labAuthCache.evict(lab.getLabId());
         return true;
     }
 
+    @Transactional
     public void requestPasswordReset(String labId) {
         String safeLabId = normalizeLabId(labId);
         if (safeLabId == null) {
@@ -495,7 +508,8 @@ public class AuthService {
         labRepo.save(lab);
 
         String link = buildResetLink(lab.getLabId(), token);
-        mailService.send(
+        mailService.enqueue(
+            lab.getLabId(),
             email,
             "Reset your SSDC Labs password",
             "Hello " + lab.getLabName() + ",\n\n"
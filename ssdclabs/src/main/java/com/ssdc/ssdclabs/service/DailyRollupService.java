@@ -0,0 +1,108 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdc.ssdclabs.model.Lab;
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+// Verify/rebuild driver shared by the per-lab daily rollup tables. Subclasses
+// supply the table's queries and bucket comparison; R is the repository's row
+// projection, used for both the stored and the freshly aggregated buckets.
+public abstract class DailyRollupService<R> {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyRollupService.class);
+
+    // Bucket for patients without a visit date; the rebuild SQL uses the same day.
+    protected static final LocalDate NO_DATE = LocalDate.of(1970, 1, 1);
+
+    public record VerifyResult(String labId, int buckets, int mismatches, boolean rebuilt) {
+    }
+
+    private final String name;
+    private final LabRepository labRepo;
+    private final TransactionTemplate tx;
+
+    protected DailyRollupService(String name,
+                                 LabRepository labRepo,
+                                 PlatformTransactionManager txManager) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.labRepo = Objects.requireNonNull(labRepo, "labRepo");
+        this.tx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+    }
+
+    protected abstract void deleteRows(String labId);
+
+    protected abstract int insertFromPatients(String labId);
+
+    protected abstract List<R> storedRows(String labId);
+
+    // Same grouping as insertFromPatients, returned instead of stored.
+    protected abstract List<R> expectedRows(String labId);
+
+    protected abstract Object bucketOf(R row);
+
+    // Stored buckets every patient has moved out of.
+    protected abstract boolean isEmpty(R row);
+
+    protected abstract boolean sameTotals(R expected, R actual);
+
+    public int rebuild(@NonNull String labId) {
+        Objects.requireNonNull(labId, "labId");
+        Integer rows = tx.execute(status -> {
+            deleteRows(labId);
+            return insertFromPatients(labId);
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    // Compares stored buckets with a fresh aggregate over patients.
+    public VerifyResult verify(@NonNull String labId, boolean rebuildOnMismatch) {
+        Objects.requireNonNull(labId, "labId");
+        Map<Object, R> stored = new HashMap<>();
+        for (R row : storedRows(labId)) {
+            if (!isEmpty(row)) {
+                stored.put(bucketOf(row), row);
+            }
+        }
+        List<R> expected = expectedRows(labId);
+        int mismatches = 0;
+        for (R row : expected) {
+            R actual = stored.remove(bucketOf(row));
+            if (actual == null || !sameTotals(row, actual)) {
+                mismatches++;
+            }
+        }
+        mismatches += stored.size();
+        boolean rebuilt = false;
+        if (mismatches > 0 && rebuildOnMismatch) {
+            rebuild(labId);
+            rebuilt = true;
+        }
+        return new VerifyResult(labId, expected.size(), mismatches, rebuilt);
+    }
+
+    // Body of each subclass's nightly job; one lab failing does not stop the rest.
+    protected void verifyEveryLab() {
+        for (Lab lab : labRepo.findAll()) {
+            try {
+                VerifyResult result = verify(lab.getLabId(), true);
+                if (result.mismatches() > 0) {
+                    log.warn("{} for lab {} had {} drifted buckets; rebuilt",
+                        name, result.labId(), result.mismatches());
+                }
+            } catch (RuntimeException ex) {
+                log.warn("{} verify failed for lab {}", name, lab.getLabId(), ex);
+            }
+        }
+    }
+}
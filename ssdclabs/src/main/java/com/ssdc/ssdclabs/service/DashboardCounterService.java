@@ -0,0 +1,121 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.LabDailyCounterRepository;
+import com.ssdc.ssdclabs.repository.LabDailyCounterRepository.DailyCounterRow;
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+// Keeps lab_daily_counters in step with patient create, edit, status and
+// delete inside the caller's transaction; a nightly job re-derives every lab
+// from patients and rebuilds on drift.
+@Service
+public class DashboardCounterService extends DailyRollupService<DailyCounterRow> {
+
+    // One patient's share of a day bucket.
+    public record Contribution(LocalDate day, boolean completed, boolean due) {
+    }
+
+    private final LabDailyCounterRepository counterRepo;
+
+    public DashboardCounterService(LabDailyCounterRepository counterRepo,
+                                   LabRepository labRepo,
+                                   PlatformTransactionManager txManager) {
+        super("Dashboard counters", labRepo, txManager);
+        this.counterRepo = Objects.requireNonNull(counterRepo, "counterRepo");
+    }
+
+    // Same rules as the old home-summary query and the Accounts due list.
+    public Contribution contributionOf(Patient patient) {
+        if (patient == null) {
+            return null;
+        }
+        String status = patient.getStatus() == null ? "" : patient.getStatus().trim();
+        double amount = patient.getAmount() == null ? 0 : patient.getAmount();
+        double paid = patient.getPaid() == null ? 0 : patient.getPaid();
+        return new Contribution(
+            patient.getVisitDate() == null ? NO_DATE : patient.getVisitDate(),
+            PatientService.STATUS_COMPLETED.equalsIgnoreCase(status),
+            amount - paid > 0
+        );
+    }
+
+    // Moves a patient from its old bucket to its new one (either may be null).
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(@NonNull String labId, Contribution before, Contribution after) {
+        Objects.requireNonNull(labId, "labId");
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            add(labId, before, -1);
+        }
+        if (after != null) {
+            add(labId, after, 1);
+        }
+    }
+
+    @Scheduled(cron = "${app.dashboard.counters.reconcile-cron:0 45 2 * * *}", zone = "Asia/Kolkata")
+    public void reconcileAllLabs() {
+        verifyEveryLab();
+    }
+
+    @Override
+    protected void deleteRows(String labId) {
+        counterRepo.deleteByLabId(labId);
+    }
+
+    @Override
+    protected int insertFromPatients(String labId) {
+        return counterRepo.rebuildFromPatients(labId);
+    }
+
+    @Override
+    protected List<DailyCounterRow> storedRows(String labId) {
+        return counterRepo.findRowsByLabId(labId);
+    }
+
+    @Override
+    protected List<DailyCounterRow> expectedRows(String labId) {
+        return counterRepo.computeFromPatients(labId);
+    }
+
+    @Override
+    protected Object bucketOf(DailyCounterRow row) {
+        return row.getCounterDate();
+    }
+
+    @Override
+    protected boolean isEmpty(DailyCounterRow row) {
+        return value(row.getRegistered()) == 0;
+    }
+
+    private void add(String labId, Contribution c, int sign) {
+        counterRepo.addToDay(labId, c.day(), sign,
+            c.completed() ? 0 : sign,
+            c.completed() ? sign : 0,
+            c.due() ? sign : 0);
+    }
+
+    @Override
+    protected boolean sameTotals(DailyCounterRow a, DailyCounterRow b) {
+        return value(a.getRegistered()) == value(b.getRegistered())
+            && value(a.getPending()) == value(b.getPending())
+            && value(a.getCompleted()) == value(b.getCompleted())
+            && value(a.getDue()) == value(b.getDue());
+    }
+
+    private static long value(Long v) {
+        return v == null ? 0 : v;
+    }
+}
@@ -1,6 +1,5 @@
 package com.ssdc.ssdclabs.service;
 
-import java.sql.Date;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -13,18 +12,19 @@ import org.springframework.stereotype.Service;
 
 import com.ssdc.ssdclabs.dto.HomeSummaryDTO;
 import com.ssdc.ssdclabs.dto.RecentTaskDTO;
-import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.LabDailyCounterRepository;
+import com.ssdc.ssdclabs.repository.LabDailyCounterRepository.DailyCounterRow;
 
 @Service
 public class DashboardService {
 
     private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
 
-    private final PatientRepository patientRepo;
+    private final LabDailyCounterRepository counterRepo;
     private final PatientService patientService;
 
-    public DashboardService(PatientRepository patientRepo, PatientService patientService) {
-        this.patientRepo = patientRepo;
+    public DashboardService(LabDailyCounterRepository counterRepo, PatientService patientService) {
+        this.counterRepo = counterRepo;
         this.patientService = patientService;
     }
 
@@ -37,19 +37,24 @@ public class DashboardService {
         final LocalDate monthStart = today.withDayOfMonth(1);
         final LocalDate yearStart = today.withDayOfYear(1);
 
-        final Object[] counts = patientRepo.findHomeSummaryCounts(
-            safeLabId,
-            Date.valueOf(today),
-            Date.valueOf(weekStart),
-            Date.valueOf(monthStart),
-            Date.valueOf(yearStart)
-        );
-
-        final long todayCount = toLong(counts, 0);
-        final long todayPendingCount = toLong(counts, 1);
-        final long weekCount = toLong(counts, 2);
-        final long monthCount = toLong(counts, 3);
-        final long yearCount = toLong(counts, 4);
+        // A Sunday week can start in the previous year.
+        final LocalDate from = weekStart.isBefore(yearStart) ? weekStart : yearStart;
+        long todayCount = 0;
+        long todayPendingCount = 0;
+        long weekCount = 0;
+        long monthCount = 0;
+        long yearCount = 0;
+        for (DailyCounterRow row : counterRepo.findRowsBetween(safeLabId, from, today)) {
+            final LocalDate day = row.getCounterDate();
+            final long registered = toLong(row.getRegistered());
+            if (day.equals(today)) {
+                todayCount += registered;
+                todayPendingCount += toLong(row.getPending());
+            }
+            if (!day.isBefore(weekStart)) weekCount += registered;
+            if (!day.isBefore(monthStart)) monthCount += registered;
+            if (!day.isBefore(yearStart)) yearCount += registered;
+        }
 
         final List<RecentTaskDTO> recent = patientService.getRecentTasks(safeLabId, safeLimit);
 
@@ -63,10 +68,7 @@ public class DashboardService {
         );
     }
 
-    private static long toLong(Object[] row, int index) {
-        if (row == null || row.length == 0) return 0;
-        Object val = (row[0] instanceof Object[]) ? ((Object[]) row[0])[index] : row[index];
-        if (val instanceof Number) return ((Number) val).longValue();
-        return 0;
+    private static long toLong(Long value) {
+        return value == null ? 0 : value;
     }
 }
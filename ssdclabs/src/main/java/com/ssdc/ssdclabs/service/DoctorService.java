@@ -5,6 +5,7 @@ import java.util.Objects;
 
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ssdc.ssdclabs.model.Doctor;
 import com.ssdc.ssdclabs.repository.DoctorRepository;
@@ -15,16 +16,24 @@ public class DoctorService {
 
     private final DoctorRepository doctorRepo;
     private final PatientRepository patientRepo;
+    private final RevenueRollupService revenueRollups;
 
-    public DoctorService(DoctorRepository doctorRepo, PatientRepository patientRepo) {
+    public DoctorService(DoctorRepository doctorRepo,
+                         PatientRepository patientRepo,
+                         RevenueRollupService revenueRollups) {
         this.doctorRepo = doctorRepo;
         this.patientRepo = patientRepo;
+        this.revenueRollups = revenueRollups;
     }
 
+    @Transactional
     public @NonNull Doctor saveDoctor(@NonNull String labId,
                                       @NonNull Doctor doctor) {
         doctor.setLabId(Objects.requireNonNull(labId, "labId"));
-        return Objects.requireNonNull(doctorRepo.save(doctor), "saved doctor");
+        Doctor saved = Objects.requireNonNull(doctorRepo.save(doctor), "saved doctor");
+        // Rate or SELF name may have changed; rollup commission follows it.
+        revenueRollups.doctorRateChanged(labId, saved);
+        return saved;
     }
 
     public List<Doctor> getAllDoctors(@NonNull String labId) {
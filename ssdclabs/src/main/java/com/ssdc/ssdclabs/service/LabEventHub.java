@@ -0,0 +1,353 @@
+package com.ssdc.ssdclabs.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.ssdc.ssdclabs.dto.LabEvent;
+
+import jakarta.annotation.PreDestroy;
+
+// Per-lab Server-Sent Events fan-out for dashboard and worklist pages.
+// PatientService publishes changes; they are sent only after the write
+// commits. Each lab keeps its last events so a reconnect with Last-Event-ID
+// resumes without a reload, and each connection has a bounded queue drained
+// by a small fixed pool: a client that falls behind, or whose send stalls
+// past the send timeout, is disconnected and catches up from the replay
+// buffer when it reconnects.
+@Component
+public class LabEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(LabEventHub.class);
+
+    static final String EVENT_CHANGE = "change";
+    // Sent instead of a replay when the requested id is gone; clients reload.
+    static final String EVENT_RESYNC = "resync";
+
+    private record Entry(long seq, LabEvent event) {
+    }
+
+    private final class Subscriber {
+        final String labId;
+        final SseEmitter emitter;
+        // Builders are single-use, so each connection builds its own copy.
+        final BlockingQueue<Supplier<SseEventBuilder>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        // Guarded by this: the pool thread inside emitter.send, and since when.
+        Thread sendingThread;
+        long sendStartedNanos;
+
+        Subscriber(String labId, SseEmitter emitter) {
+            this.labId = labId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(connectionBuffer);
+        }
+
+        void offer(Supplier<SseEventBuilder> item) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                close();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                Supplier<SseEventBuilder> item;
+                while (!closed && (item = queue.poll()) != null) {
+                    sendTracked(item.get());
+                }
+            } catch (IOException | RuntimeException ex) {
+                // Client went away or the send was cut off; it resumes on reconnect.
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void sendTracked(SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                sendingThread = Thread.currentThread();
+                sendStartedNanos = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendingThread = null;
+                    // An interrupt from stopIfStalled must not reach the next task.
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        // Frees the pool thread of a send blocked past the timeout.
+        synchronized boolean stopIfStalled(long nowNanos) {
+            if (sendingThread == null || nowNanos - sendStartedNanos < sendTimeoutNanos) {
+                return false;
+            }
+            close();
+            sendingThread.interrupt();
+            return true;
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            LabChannel channel = channels.get(labId);
+            if (channel != null) {
+                channel.subscribers.remove(this);
+            }
+        }
+    }
+
+    private static final class LabChannel {
+        final ArrayDeque<Entry> replay = new ArrayDeque<>();
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        long nextSeq = 1;
+    }
+
+    // Event ids are "<boot>-<seq>" so an id from before a restart forces a resync.
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, LabChannel> channels = new ConcurrentHashMap<>();
+    private final Executor sender;
+    private final ExecutorService ownExecutor;
+    private final int replaySize;
+    private final int connectionBuffer;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+
+    @Autowired
+    public LabEventHub(@Value("${app.events.sse.replay-events:256}") int replaySize,
+                       @Value("${app.events.sse.connection-buffer:64}") int connectionBuffer,
+                       @Value("${app.events.sse.timeout-ms:1800000}") long timeoutMs,
+                       @Value("${app.events.sse.sender-threads:4}") int senderThreads,
+                       @Value("${app.events.sse.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this(replaySize, connectionBuffer, timeoutMs, sendTimeoutMs, newSenderPool(senderThreads));
+    }
+
+    // An ExecutorService sender is owned by the hub and shut down with it.
+    LabEventHub(int replaySize, int connectionBuffer, long timeoutMs, long sendTimeoutMs, Executor sender) {
+        this.replaySize = Math.max(1, replaySize);
+        this.connectionBuffer = Math.max(4, connectionBuffer);
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sendTimeoutMs));
+        Objects.requireNonNull(sender, "sender");
+        if (sender instanceof ExecutorService own) {
+            this.ownExecutor = own;
+            this.sender = own;
+        } else {
+            this.ownExecutor = null;
+            this.sender = sender;
+        }
+    }
+
+    public SseEmitter subscribe(@NonNull String labId, String lastEventId) {
+        return subscribe(labId, lastEventId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(@NonNull String labId, String lastEventId, SseEmitter emitter) {
+        Objects.requireNonNull(labId, "labId");
+        Subscriber subscriber = new Subscriber(labId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+
+        LabChannel channel = channels.computeIfAbsent(labId, k -> new LabChannel());
+        synchronized (channel) {
+            List<Entry> missed = lastEventId == null || lastEventId.isBlank()
+                ? List.of()
+                : missedSince(channel, lastEventId.trim());
+            // A replay that would overflow the connection queue is a reload too.
+            if (missed == null || missed.size() >= connectionBuffer) {
+                subscriber.offer(() -> SseEmitter.event().name(EVENT_RESYNC).data("{}", MediaType.APPLICATION_JSON));
+            } else {
+                for (Entry entry : missed) {
+                    subscriber.offer(toSse(entry));
+                }
+            }
+            channel.subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    // Sent after the surrounding transaction commits (immediately without one).
+    public void publish(@NonNull String labId, @NonNull LabEvent event) {
+        Objects.requireNonNull(labId, "labId");
+        Objects.requireNonNull(event, "event");
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(labId, event);
+                }
+            });
+        } else {
+            dispatch(labId, event);
+        }
+    }
+
+    // Comment lines keep proxies from closing idle streams and reveal dead clients.
+    @Scheduled(fixedDelayString = "${app.events.sse.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (LabChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(() -> SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    // A send blocked on a stalled client holds one of the few sender threads.
+    @Scheduled(fixedDelayString = "${app.events.sse.send-timeout-ms:10000}")
+    public void dropStalledSends() {
+        dropStalledSends(System.nanoTime());
+    }
+
+    int dropStalledSends(long nowNanos) {
+        int dropped = 0;
+        for (LabChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.stopIfStalled(nowNanos)) {
+                    subscriber.emitter.completeWithError(new IOException("Event send timed out"));
+                    dropped++;
+                }
+            }
+        }
+        if (dropped > 0) {
+            log.info("Dropped {} lab event streams with stalled sends", dropped);
+        }
+        return dropped;
+    }
+
+    int subscriberCount(String labId) {
+        LabChannel channel = channels.get(labId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    // Ends open streams before graceful shutdown waits on in-flight requests;
+    // clients reconnect to the next instance with their Last-Event-ID.
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        for (LabChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.close();
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closeStreams();
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    private void dispatch(String labId, LabEvent event) {
+        LabChannel channel = channels.computeIfAbsent(labId, k -> new LabChannel());
+        synchronized (channel) {
+            Entry entry = new Entry(channel.nextSeq++, event);
+            channel.replay.addLast(entry);
+            while (channel.replay.size() > replaySize) {
+                channel.replay.removeFirst();
+            }
+            if (channel.subscribers.isEmpty()) {
+                return;
+            }
+            Supplier<SseEventBuilder> sse = toSse(entry);
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(sse);
+            }
+        }
+    }
+
+    // Fixed daemon threads that idle out; waiting drains (one per busy stream) queue.
+    private static ExecutorService newSenderPool(int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "lab-events");
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Events after lastEventId, or null when they are no longer all retained.
+    private List<Entry> missedSince(LabChannel channel, String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !bootId.equals(lastEventId.substring(0, dash))) {
+            return null;
+        }
+        long seen;
+        try {
+            seen = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        if (seen >= channel.nextSeq) {
+            return null;
+        }
+        Entry oldest = channel.replay.peekFirst();
+        if (oldest != null && seen < oldest.seq() - 1) {
+            log.debug("Replay gap for lab events: {} < {}", seen, oldest.seq());
+            return null;
+        }
+        List<Entry> missed = new ArrayList<>();
+        for (Entry entry : channel.replay) {
+            if (entry.seq() > seen) {
+                missed.add(entry);
+            }
+        }
+        return missed;
+    }
+
+    private Supplier<SseEventBuilder> toSse(Entry entry) {
+        String id = bootId + "-" + entry.seq();
+        return () -> SseEmitter.event()
+            .id(id)
+            .name(EVENT_CHANGE)
+            .data(entry.event(), MediaType.APPLICATION_JSON);
+    }
+}
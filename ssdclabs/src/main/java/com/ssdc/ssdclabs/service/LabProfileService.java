@@ -15,9 +15,11 @@ public class LabProfileService {
     private static final int MAX_NAME_LENGTH = 120;
 
     private final LabRepository labRepo;
+    private final ReportLetterheadCache letterheads;
 
-    public LabProfileService(LabRepository labRepo) {
+    public LabProfileService(LabRepository labRepo, ReportLetterheadCache letterheads) {
         this.labRepo = Objects.requireNonNull(labRepo, "labRepo");
+        this.letterheads = Objects.requireNonNull(letterheads, "letterheads");
     }
 
     public @NonNull LabProfileDTO getProfile(@NonNull String labId) {
@@ -44,6 +46,7 @@ public class LabProfileService {
         }
         lab.setLabName(labName);
         Lab saved = labRepo.save(lab);
+        letterheads.evict(labId);
         return new LabProfileDTO(saved.getLabId(), saved.getLabName());
     }
 
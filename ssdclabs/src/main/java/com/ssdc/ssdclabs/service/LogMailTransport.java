@@ -0,0 +1,48 @@
+package com.ssdc.ssdclabs.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Local stand-in for SMTP (app.mail.transport=log): logs each message and,
+// when a file is configured, appends it there so links can be opened from
+// a dev box or a load test without a mail account.
+public class LogMailTransport implements MailTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(LogMailTransport.class);
+
+    private final Path file;
+
+    public LogMailTransport(String file) {
+        this.file = file == null || file.isBlank() ? null : Path.of(file.trim());
+    }
+
+    @Override
+    public void send(String to, String subject, String body) {
+        log.info("Mail to {}: {}", to, subject);
+        if (file == null) {
+            return;
+        }
+        String entry = "Date: " + Instant.now() + "\n"
+            + "To: " + to + "\n"
+            + "Subject: " + subject + "\n\n"
+            + body + "\n----\n";
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            synchronized (this) {
+                Files.writeString(file, entry, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write mail to " + file, ex);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdc.ssdclabs.model.MailOutbox;
+import com.ssdc.ssdclabs.model.MailStatus;
+import com.ssdc.ssdclabs.repository.MailOutboxRepository;
+
+// Delivers mail_outbox rows. Each run claims a batch of due rows in a short
+// transaction (attempts + 1, next_attempt_at pushed out by the backoff), sends
+// them with no transaction open, then records SENT or the error. A crash
+// mid-send leaves the row PENDING, so it is retried once its backoff passes.
+@Service
+public class MailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxRepository outboxRepo;
+    private final MailTransport transport;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration maxAge;
+
+    @Autowired
+    public MailOutboxDispatcher(MailOutboxRepository outboxRepo,
+                                MailTransport transport,
+                                PlatformTransactionManager txManager,
+                                @Value("${app.mail.outbox.batch-size:20}") int batchSize,
+                                @Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+                                @Value("${app.mail.outbox.base-delay-seconds:30}") long baseDelaySeconds,
+                                @Value("${app.mail.outbox.max-age-minutes:30}") long maxAgeMinutes) {
+        this(outboxRepo, transport, txManager, Clock.systemUTC(),
+            batchSize, maxAttempts, baseDelaySeconds, maxAgeMinutes);
+    }
+
+    MailOutboxDispatcher(MailOutboxRepository outboxRepo,
+                         MailTransport transport,
+                         PlatformTransactionManager txManager,
+                         Clock clock,
+                         int batchSize,
+                         int maxAttempts,
+                         long baseDelaySeconds,
+                         long maxAgeMinutes) {
+        this.outboxRepo = Objects.requireNonNull(outboxRepo, "outboxRepo");
+        this.transport = Objects.requireNonNull(transport, "transport");
+        this.tx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = Duration.ofSeconds(Math.max(1L, baseDelaySeconds));
+        this.maxDelay = Duration.ofHours(1);
+        this.maxAge = Duration.ofMinutes(Math.max(1L, maxAgeMinutes));
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:2000}")
+    public void dispatchDue() {
+        try {
+            while (dispatchBatch() == batchSize) {
+                // A full batch: more may be due.
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Mail outbox run failed; retrying next run", ex);
+        }
+    }
+
+    // Sends one batch; returns how many rows were claimed.
+    int dispatchBatch() {
+        List<Claimed> claimed = tx.execute(status -> claim());
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        for (Claimed mail : claimed) {
+            String error = mail.expired() ? "Expired before delivery" : deliver(mail);
+            tx.executeWithoutResult(status -> record(mail, error));
+        }
+        return claimed.size();
+    }
+
+    private record Claimed(Long id, String to, String subject, String body,
+                           int attempt, boolean expired) {
+    }
+
+    private List<Claimed> claim() {
+        Instant now = clock.instant();
+        List<MailOutbox> due = outboxRepo.findDueForUpdate(now, PageRequest.of(0, batchSize));
+        List<Claimed> claimed = new ArrayList<>(due.size());
+        for (MailOutbox mail : due) {
+            int attempt = mail.getAttempts() + 1;
+            mail.setAttempts(attempt);
+            mail.setNextAttemptAt(now.plus(backoff(attempt)));
+            boolean expired = mail.getCreatedAt().plus(maxAge).isBefore(now);
+            claimed.add(new Claimed(mail.getId(), mail.getRecipient(), mail.getSubject(),
+                mail.getBody(), attempt, expired));
+        }
+        return claimed;
+    }
+
+    // Returns the failure message, or null once the transport accepted it.
+    private String deliver(Claimed mail) {
+        try {
+            transport.send(mail.to(), mail.subject(), mail.body());
+            return null;
+        } catch (RuntimeException ex) {
+            log.warn("Mail {} attempt {} failed: {}", mail.id(), mail.attempt(), ex.toString());
+            String message = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+            return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        }
+    }
+
+    private void record(Claimed claimed, String error) {
+        MailOutbox mail = outboxRepo.findById(claimed.id()).orElse(null);
+        if (mail == null) {
+            return;
+        }
+        if (error == null) {
+            mail.setStatus(MailStatus.SENT);
+            mail.setSentAt(clock.instant());
+            mail.setLastError(null);
+            mail.setBody(null);
+            return;
+        }
+        mail.setLastError(error);
+        if (claimed.expired() || claimed.attempt() >= maxAttempts) {
+            mail.setStatus(MailStatus.FAILED);
+            mail.setBody(null);
+            log.warn("Mail {} to lab {} given up after {} attempts: {}",
+                mail.getId(), mail.getLabId(), claimed.attempt(), error);
+        }
+    }
+
+    // base * 2^(attempt - 1), capped at an hour.
+    Duration backoff(int attempt) {
+        int shift = Math.min(Math.max(0, attempt - 1), 20);
+        Duration delay = baseDelay.multipliedBy(1L << shift);
+        return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+    }
+}
@@ -1,37 +1,41 @@
 package com.ssdc.ssdclabs.service;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ssdc.ssdclabs.model.MailOutbox;
+import com.ssdc.ssdclabs.repository.MailOutboxRepository;
+
+// Queues outgoing email in mail_outbox inside the caller's transaction, so a
+// message exists exactly when the token change it announces commits.
+// MailOutboxDispatcher delivers it in the background.
 @Service
 public class MailService {
 
     private final boolean enabled;
-    private final String from;
-    private final JavaMailSender sender;
+    private final MailOutboxRepository outboxRepo;
 
     public MailService(
             @Value("${app.mail.enabled:false}") boolean enabled,
-            @Value("${app.mail.from:}") String from,
-            JavaMailSender sender) {
+            MailOutboxRepository outboxRepo) {
         this.enabled = enabled;
-        this.from = from == null ? "" : from.trim();
-        this.sender = Objects.requireNonNull(sender, "sender");
+        this.outboxRepo = Objects.requireNonNull(outboxRepo, "outboxRepo");
     }
 
     public boolean isEnabled() {
         return enabled;
     }
 
-    public void send(@NonNull String to,
-                     @NonNull String subject,
-                     @NonNull String body) {
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String labId,
+                        @NonNull String to,
+                        @NonNull String subject,
+                        @NonNull String body) {
         if (!enabled) {
             throw new IllegalStateException("Email is not enabled (app.mail.enabled=false)");
         }
@@ -39,14 +43,11 @@ public class MailService {
         if (safeTo.isEmpty()) {
             throw new IllegalArgumentException("Email address is required");
         }
-        SimpleMailMessage msg = new SimpleMailMessage();
-        msg.setTo(safeTo);
-        if (!from.isEmpty()) {
-            msg.setFrom(from);
-        }
-        msg.setSubject(Objects.requireNonNull(subject, "subject"));
-        msg.setText(new String(Objects.requireNonNull(body, "body").getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
-        sender.send(msg);
+        MailOutbox mail = new MailOutbox();
+        mail.setLabId(labId);
+        mail.setRecipient(safeTo);
+        mail.setSubject(Objects.requireNonNull(subject, "subject"));
+        mail.setBody(Objects.requireNonNull(body, "body"));
+        outboxRepo.save(mail);
     }
 }
-
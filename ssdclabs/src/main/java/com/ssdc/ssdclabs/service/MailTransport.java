@@ -0,0 +1,8 @@
+package com.ssdc.ssdclabs.service;
+
+// Delivers one message; throws on failure so the outbox can retry it.
+// Selected by app.mail.transport (see MailTransportConfig).
+public interface MailTransport {
+
+    void send(String to, String subject, String body);
+}
@@ -0,0 +1,66 @@
+package com.ssdc.ssdclabs.service;
+
+// Normalizes the free-text patients.mobile column to an E.164-style key
+// ("+919876543210") so "+91 98765 43210", "098765-43210" and "9876543210"
+// name the same person. Bare 10-digit numbers are taken as Indian; anything
+// that cannot be a phone number gives null.
+public final class MobileNumbers {
+
+    private static final String DEFAULT_COUNTRY_CODE = "91";
+    private static final int NATIONAL_LENGTH = 10;
+    // E.164 caps numbers at 15 digits after the "+".
+    public static final int MAX_KEY_LENGTH = 16;
+
+    private MobileNumbers() {
+    }
+
+    public static String normalize(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String value = raw.trim();
+        StringBuilder digits = new StringBuilder(value.length());
+        boolean international = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == '+' && i == 0) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return null;
+            }
+        }
+        String number = digits.toString();
+        if (!international && number.startsWith("00")) {
+            number = number.substring(2);
+            international = true;
+        }
+        if (!international) {
+            // Trunk prefix "0" or a country code typed without the "+".
+            if (number.length() == NATIONAL_LENGTH + 1 && number.startsWith("0")) {
+                number = number.substring(1);
+            } else if (number.length() == NATIONAL_LENGTH + DEFAULT_COUNTRY_CODE.length()
+                && number.startsWith(DEFAULT_COUNTRY_CODE)) {
+                number = number.substring(DEFAULT_COUNTRY_CODE.length());
+            }
+            if (number.length() != NATIONAL_LENGTH) {
+                return null;
+            }
+            number = DEFAULT_COUNTRY_CODE + number;
+        }
+        if (number.length() < 8 || number.length() > MAX_KEY_LENGTH - 1 || number.startsWith("0")) {
+            return null;
+        }
+        return "+" + number;
+    }
+
+    // Unusable numbers only match themselves, exactly as typed.
+    public static boolean sameNumber(String a, String b) {
+        String left = normalize(a);
+        if (left == null) {
+            return a != null && b != null && a.trim().equals(b.trim());
+        }
+        return left.equals(normalize(b));
+    }
+}
@@ -39,6 +39,7 @@ public class OnboardingService {
     private final NormalRangeRepository rangeRepo;
     private final TestGroupRepository groupRepo;
     private final TestGroupMappingRepository mapRepo;
+    private final TestCatalogCache catalogCache;
     private final String templateLabId;
 
     public OnboardingService(
@@ -48,6 +49,7 @@ public class OnboardingService {
             NormalRangeRepository rangeRepo,
             TestGroupRepository groupRepo,
             TestGroupMappingRepository mapRepo,
+            TestCatalogCache catalogCache,
             @Value("${app.template.lab-id:admin1}") String templateLabId) {
         this.labRepo = Objects.requireNonNull(labRepo, "labRepo");
         this.testRepo = Objects.requireNonNull(testRepo, "testRepo");
@@ -55,6 +57,7 @@ public class OnboardingService {
         this.rangeRepo = Objects.requireNonNull(rangeRepo, "rangeRepo");
         this.groupRepo = Objects.requireNonNull(groupRepo, "groupRepo");
         this.mapRepo = Objects.requireNonNull(mapRepo, "mapRepo");
+        this.catalogCache = Objects.requireNonNull(catalogCache, "catalogCache");
         this.templateLabId = Objects.requireNonNull(templateLabId, "templateLabId").trim().toLowerCase();
     }
 
@@ -302,6 +305,7 @@ public class OnboardingService {
 
         lab.setOnboardingCompleted(Boolean.TRUE);
         labRepo.save(lab);
+        catalogCache.invalidateAfterCommit(safeLabId);
 
         return new OnboardingImportResponse(
             testsImported,
@@ -0,0 +1,153 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ssdc.ssdclabs.config.PatientAppTokenService;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+
+@Service
+public class PatientAppAuthService {
+
+    public record PatientSession(String token, long expiresInSeconds, Patient patient) {
+    }
+
+    private final PatientRepository patientRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final PatientAppTokenService tokenService;
+    private final PatientIdentityService identities;
+
+    public PatientAppAuthService(PatientRepository patientRepo,
+                                 PasswordEncoder passwordEncoder,
+                                 PatientAppTokenService tokenService,
+                                 PatientIdentityService identities) {
+        this.patientRepo = Objects.requireNonNull(patientRepo, "patientRepo");
+        this.identities = Objects.requireNonNull(identities, "identities");
+        this.passwordEncoder = Objects.requireNonNull(passwordEncoder, "passwordEncoder");
+        this.tokenService = Objects.requireNonNull(tokenService, "tokenService");
+    }
+
+    // The only bcrypt work in a session; later calls present the token.
+    @Transactional(readOnly = true)
+    public PatientSession login(String mobile, String password) {
+        String safeMobile = trimToNull(mobile);
+        if (safeMobile == null || password == null || password.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mobile and password required");
+        }
+        Patient matched = verifyPassword(visitsOf(safeMobile), password);
+        if (matched == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        }
+        return new PatientSession(
+            tokenService.issueToken(safeMobile),
+            tokenService.getTtlSeconds(),
+            matched
+        );
+    }
+
+    public String authenticate(String authorization) {
+        String token = null;
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            token = authorization.substring("Bearer ".length());
+        }
+        String mobile = tokenService.validateAndGetMobile(token);
+        if (mobile == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired session");
+        }
+        return mobile;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Patient> getVisits(String mobile) {
+        return visitsOf(mobile);
+    }
+
+    // Legacy clients still send the password with every /visits call.
+    @Transactional(readOnly = true)
+    public List<Patient> getVisitsWithPassword(String mobile, String password) {
+        String safeMobile = trimToNull(mobile);
+        if (safeMobile == null || password == null || password.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mobile and password required");
+        }
+        List<Patient> patients = visitsOf(safeMobile);
+        if (verifyPassword(patients, password) == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        }
+        return patients;
+    }
+
+    @Transactional
+    public void changePassword(String mobile, String oldPassword, String newPassword) {
+        String safeMobile = trimToNull(mobile);
+        if (safeMobile == null || oldPassword == null || newPassword == null || newPassword.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing fields");
+        }
+        // Each visit gets its own PIN, and family members can share a phone:
+        // only visits the old password opens move to the new one.
+        List<Long> matchedIds = visitsMatching(visitsOf(safeMobile), oldPassword);
+        if (matchedIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid old password");
+        }
+        patientRepo.updatePasswordByIds(matchedIds, passwordEncoder.encode(newPassword));
+    }
+
+    // Identity key, then every visit linked to it across labs. Unlinked rows
+    // with the exact mobile are included too, so visits the backfill has not
+    // reached stay visible even after a newer visit got linked.
+    private List<Patient> visitsOf(String mobile) {
+        Optional<Long> identityId = identities.findIdentityId(mobile);
+        return identityId.isPresent()
+            ? patientRepo.findVisitsOfIdentity(identityId.get(), mobile)
+            : patientRepo.findByMobileOrderByVisitDateDesc(mobile);
+    }
+
+    // Visits usually share a hash; check each distinct hash at most once,
+    // newest visit first since that is the password the patient last received.
+    private Patient verifyPassword(List<Patient> patients, String password) {
+        Set<String> checked = new HashSet<>();
+        for (Patient patient : patients) {
+            String hash = patient.getPassword();
+            if (hash == null || !checked.add(hash)) {
+                continue;
+            }
+            if (passwordEncoder.matches(password, hash)) {
+                return patient;
+            }
+        }
+        return null;
+    }
+
+    // Same one-check-per-distinct-hash rule, collecting every visit that matches.
+    private List<Long> visitsMatching(List<Patient> patients, String password) {
+        Map<String, Boolean> checked = new HashMap<>();
+        List<Long> matched = new ArrayList<>();
+        for (Patient patient : patients) {
+            String hash = patient.getPassword();
+            if (hash != null && checked.computeIfAbsent(hash, h -> passwordEncoder.matches(password, h))) {
+                matched.add(patient.getId());
+            }
+        }
+        return matched;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String v = value.trim();
+        return v.isEmpty() ? null : v;
+    }
+}
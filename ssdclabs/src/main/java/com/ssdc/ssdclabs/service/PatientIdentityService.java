@@ -0,0 +1,140 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientIdentityRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository.UnlinkedMobileRow;
+
+// Links patient visits across labs to one PatientIdentity per normalized
+// mobile. Writes link inside the caller's transaction; rows saved before the
+// identity table existed are linked by a background backfill in id order.
+@Service
+public class PatientIdentityService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientIdentityService.class);
+
+    private final PatientIdentityRepository identityRepo;
+    private final PatientRepository patientRepo;
+    private final TransactionTemplate tx;
+    private final boolean backfillEnabled;
+    private final int batchSize;
+    // Set once a pass finds nothing left; new rows are linked on write.
+    private volatile boolean backfillDone;
+
+    public PatientIdentityService(PatientIdentityRepository identityRepo,
+                                  PatientRepository patientRepo,
+                                  PlatformTransactionManager txManager,
+                                  @Value("${app.patient-identity.backfill.enabled:true}") boolean backfillEnabled,
+                                  @Value("${app.patient-identity.backfill.batch-size:500}") int batchSize) {
+        this.identityRepo = Objects.requireNonNull(identityRepo, "identityRepo");
+        this.patientRepo = Objects.requireNonNull(patientRepo, "patientRepo");
+        this.tx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+        this.backfillEnabled = backfillEnabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Points the patient at the identity for its current mobile.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void link(Patient patient) {
+        if (patient != null) {
+            patient.setIdentityId(identityIdFor(MobileNumbers.normalize(patient.getMobile())));
+        }
+    }
+
+    // Read-only lookup for the patient app; empty for unknown or unusable numbers.
+    public Optional<Long> findIdentityId(String mobile) {
+        String key = MobileNumbers.normalize(mobile);
+        return key == null ? Optional.empty() : identityRepo.findIdByMobileKey(key);
+    }
+
+    @Scheduled(initialDelayString = "${app.patient-identity.backfill.initial-delay-ms:60000}",
+               fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void backfillPending() {
+        if (!backfillEnabled || backfillDone) {
+            return;
+        }
+        try {
+            long linked = backfill();
+            log.info("Patient identity backfill linked {} visits", linked);
+            backfillDone = true;
+        } catch (RuntimeException ex) {
+            log.warn("Patient identity backfill failed; retrying next run", ex);
+        }
+    }
+
+    // Links every unlinked row, one short transaction per batch. Rows whose
+    // mobile cannot be normalized are skipped and stay unlinked.
+    public long backfill() {
+        long afterId = 0;
+        long linked = 0;
+        while (true) {
+            final long from = afterId;
+            BatchResult batch = tx.execute(status -> linkBatch(from));
+            if (batch == null || batch.lastId() == null) {
+                return linked;
+            }
+            linked += batch.linked();
+            afterId = batch.lastId();
+            if (batch.rows() < batchSize) {
+                return linked;
+            }
+        }
+    }
+
+    private record BatchResult(Long lastId, int rows, int linked) {
+    }
+
+    private BatchResult linkBatch(long afterId) {
+        List<UnlinkedMobileRow> rows =
+            patientRepo.findUnlinkedMobiles(afterId, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return new BatchResult(null, 0, 0);
+        }
+        Map<String, List<Long>> idsByKey = new LinkedHashMap<>();
+        for (UnlinkedMobileRow row : rows) {
+            String key = MobileNumbers.normalize(row.getMobile());
+            if (key != null) {
+                idsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(row.getId());
+            }
+        }
+        int linked = 0;
+        for (Map.Entry<String, List<Long>> entry : idsByKey.entrySet()) {
+            Long identityId = identityIdFor(entry.getKey());
+            if (identityId != null) {
+                linked += patientRepo.linkIdentity(identityId, entry.getValue());
+            }
+        }
+        return new BatchResult(rows.get(rows.size() - 1).getId(), rows.size(), linked);
+    }
+
+    private Long identityIdFor(String key) {
+        if (key == null) {
+            return null;
+        }
+        Optional<Long> existing = identityRepo.findIdByMobileKey(key);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        identityRepo.insertIfAbsent(key);
+        return identityRepo.findIdByMobileKey(key).orElse(null);
+    }
+}
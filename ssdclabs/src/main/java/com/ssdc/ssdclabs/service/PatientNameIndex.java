@@ -0,0 +1,575 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdc.ssdclabs.dto.PageCursor;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository.NameIndexRow;
+
+import jakarta.annotation.PreDestroy;
+
+// Per-lab trigram index over lower-cased patient names and mobiles, serving the
+// id phase of patient search without a LIKE '%x%' table scan. A lab's index is
+// built in the background on its first search (callers use SQL until it is
+// ready) and PatientService writes are applied after they commit. Labs with
+// more than max-patients-per-lab visits are not indexed and stay on SQL.
+@Component
+public class PatientNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNameIndex.class);
+    private static final int GRAM = 3;
+    private static final int LOAD_CHUNK = 1000;
+    // Small candidate sets are sorted; larger ones are filtered in recency order.
+    private static final int SORT_CANDIDATES_BELOW = 4096;
+    private static final Comparator<Entry> RECENCY = Comparator
+        .comparing(Entry::visitDate, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()))
+        .thenComparing(Entry::id, Comparator.reverseOrder());
+
+    private record Entry(Long id, LocalDate visitDate, String name, String mobile) {
+        static Entry of(Long id, String name, String mobile, LocalDate visitDate) {
+            return new Entry(id, visitDate,
+                name == null ? "" : name.toLowerCase(Locale.ROOT),
+                mobile == null ? "" : mobile);
+        }
+    }
+
+    // Ids holding one trigram as a primitive array: 8 bytes per id rather than
+    // a boxed Long in a hash set. Appended unsorted while the lab loads and
+    // sorted once before it goes live; kept sorted by insert after that.
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+        private boolean sorted = true;
+
+        void append(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                sorted = false;
+            }
+            grow();
+            ids[size++] = id;
+        }
+
+        void insert(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            grow();
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = sorted ? Arrays.binarySearch(ids, 0, size, id) : indexOf(id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        void sort() {
+            if (!sorted) {
+                Arrays.sort(ids, 0, size);
+                sorted = true;
+            }
+            if (ids.length > size + 16) {
+                ids = Arrays.copyOf(ids, size);
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+        }
+    }
+
+    private static final class LabIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, Entry> entries = new HashMap<>();
+        final TreeSet<Entry> byRecency = new TreeSet<>(RECENCY);
+        final Map<String, Postings> nameGrams = new HashMap<>();
+        final Map<String, Postings> mobileGrams = new HashMap<>();
+        // Deleted while the initial load was running; the load must skip them.
+        final Set<Long> removedWhileLoading = new HashSet<>();
+        volatile boolean ready;
+        // Over max-patients-per-lab: holds nothing and is served by SQL.
+        volatile boolean oversized;
+        volatile long lastUsedAt = System.currentTimeMillis();
+    }
+
+    // Thrown by a load that passes the per-lab cap.
+    private static final class OversizedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OversizedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final PatientRepository patientRepo;
+    private final TransactionTemplate readTx;
+    private final Executor builder;
+    private final ExecutorService ownExecutor;
+    private final boolean enabled;
+    private final int maxLabs;
+    private final int maxPatientsPerLab;
+    private final Map<String, LabIndex> labs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PatientNameIndex(PatientRepository patientRepo,
+                            PlatformTransactionManager txManager,
+                            @Value("${app.patient-search.index.enabled:true}") boolean enabled,
+                            @Value("${app.patient-search.index.max-labs:50}") int maxLabs,
+                            @Value("${app.patient-search.index.max-patients-per-lab:100000}") int maxPatientsPerLab) {
+        this(patientRepo, txManager, enabled, maxLabs, maxPatientsPerLab, null);
+    }
+
+    // builder == null: one daemon thread of our own.
+    PatientNameIndex(PatientRepository patientRepo,
+                     PlatformTransactionManager txManager,
+                     boolean enabled,
+                     int maxLabs,
+                     int maxPatientsPerLab,
+                     Executor builder) {
+        this.patientRepo = Objects.requireNonNull(patientRepo, "patientRepo");
+        this.readTx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+        this.readTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxLabs = Math.max(1, maxLabs);
+        this.maxPatientsPerLab = Math.max(1, maxPatientsPerLab);
+        if (builder == null) {
+            this.ownExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "patient-name-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.builder = ownExecutor;
+        } else {
+            this.ownExecutor = null;
+            this.builder = builder;
+        }
+    }
+
+    // Ids of one offset page in (visitDate DESC, id DESC) order; empty while cold.
+    public Optional<List<Long>> searchPage(@NonNull String labId,
+                                           String name,
+                                           String mobile,
+                                           int offset,
+                                           int limit) {
+        LabIndex lab = readyIndex(labId);
+        if (lab == null) {
+            return Optional.empty();
+        }
+        return Optional.of(collect(lab, name, mobile, null, Math.max(0, offset), limit));
+    }
+
+    // Ids after a keyset cursor; empty while cold.
+    public Optional<List<Long>> searchAfter(@NonNull String labId,
+                                            String name,
+                                            String mobile,
+                                            PageCursor after,
+                                            int limit) {
+        LabIndex lab = readyIndex(labId);
+        if (lab == null) {
+            return Optional.empty();
+        }
+        return Optional.of(collect(lab, name, mobile, after, 0, limit));
+    }
+
+    // Call after saving a patient (inside or outside a transaction).
+    public void patientSaved(@NonNull String labId, Patient patient) {
+        if (patient == null || patient.getId() == null) {
+            return;
+        }
+        Entry entry = Entry.of(patient.getId(), patient.getName(), patient.getMobile(), patient.getVisitDate());
+        afterCommit(() -> {
+            LabIndex lab = labs.get(labId);
+            if (lab == null || lab.oversized) {
+                return;
+            }
+            lab.lock.writeLock().lock();
+            try {
+                put(lab, entry);
+                lab.removedWhileLoading.remove(entry.id());
+                if (lab.ready && lab.entries.size() > maxPatientsPerLab) {
+                    markOversized(labId, lab);
+                }
+            } finally {
+                lab.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void patientDeleted(@NonNull String labId, Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            LabIndex lab = labs.get(labId);
+            if (lab == null || lab.oversized) {
+                return;
+            }
+            lab.lock.writeLock().lock();
+            try {
+                remove(lab, patientId);
+                if (!lab.ready) {
+                    lab.removedWhileLoading.add(patientId);
+                }
+            } finally {
+                lab.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Drops a lab's index; the next search rebuilds it.
+    public void invalidate(@NonNull String labId) {
+        labs.remove(labId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    private LabIndex readyIndex(String labId) {
+        if (!enabled) {
+            return null;
+        }
+        Objects.requireNonNull(labId, "labId");
+        LabIndex lab = labs.get(labId);
+        if (lab == null) {
+            LabIndex created = new LabIndex();
+            lab = labs.putIfAbsent(labId, created);
+            if (lab == null) {
+                lab = created;
+                evictIfOverCapacity(labId);
+                startBuild(labId, created);
+            }
+        }
+        lab.lastUsedAt = System.currentTimeMillis();
+        return lab.ready ? lab : null;
+    }
+
+    private void startBuild(String labId, LabIndex lab) {
+        try {
+            builder.execute(() -> build(labId, lab));
+        } catch (RejectedExecutionException ex) {
+            labs.remove(labId, lab);
+        }
+    }
+
+    private void build(String labId, LabIndex lab) {
+        long started = System.nanoTime();
+        try {
+            readTx.executeWithoutResult(status -> {
+                List<Entry> chunk = new ArrayList<>(LOAD_CHUNK);
+                try (Stream<NameIndexRow> rows = patientRepo.streamNameIndexRows(labId)) {
+                    Iterator<NameIndexRow> it = rows.iterator();
+                    while (it.hasNext()) {
+                        NameIndexRow row = it.next();
+                        chunk.add(Entry.of(row.getId(), row.getName(), row.getMobile(), row.getVisitDate()));
+                        if (chunk.size() == LOAD_CHUNK) {
+                            load(lab, chunk);
+                            chunk.clear();
+                        }
+                    }
+                }
+                load(lab, chunk);
+            });
+            lab.lock.writeLock().lock();
+            try {
+                lab.nameGrams.values().forEach(Postings::sort);
+                lab.mobileGrams.values().forEach(Postings::sort);
+                lab.removedWhileLoading.clear();
+                lab.ready = true;
+                log.info("Patient name index for lab {} built: {} patients in {} ms",
+                    labId, lab.entries.size(), (System.nanoTime() - started) / 1_000_000L);
+            } finally {
+                lab.lock.writeLock().unlock();
+            }
+        } catch (OversizedException ex) {
+            lab.lock.writeLock().lock();
+            try {
+                markOversized(labId, lab);
+            } finally {
+                lab.lock.writeLock().unlock();
+            }
+        } catch (RuntimeException ex) {
+            labs.remove(labId, lab);
+            log.warn("Patient name index build failed for lab {}", labId, ex);
+        }
+    }
+
+    // Rows already written by a newer save (or deleted) during the load win.
+    private void load(LabIndex lab, List<Entry> chunk) {
+        lab.lock.writeLock().lock();
+        try {
+            for (Entry entry : chunk) {
+                if (!lab.entries.containsKey(entry.id()) && !lab.removedWhileLoading.contains(entry.id())) {
+                    put(lab, entry);
+                }
+            }
+            if (lab.entries.size() > maxPatientsPerLab) {
+                throw new OversizedException();
+            }
+        } finally {
+            lab.lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock. The placeholder stays in the map so the lab
+    // is not reloaded on every search; invalidate() or eviction retries it.
+    private void markOversized(String labId, LabIndex lab) {
+        lab.ready = false;
+        lab.oversized = true;
+        lab.entries.clear();
+        lab.byRecency.clear();
+        lab.nameGrams.clear();
+        lab.mobileGrams.clear();
+        lab.removedWhileLoading.clear();
+        log.info("Patient name index skipped for lab {}: more than {} patients; searching with SQL",
+            labId, maxPatientsPerLab);
+    }
+
+    private static void put(LabIndex lab, Entry entry) {
+        remove(lab, entry.id());
+        lab.entries.put(entry.id(), entry);
+        lab.byRecency.add(entry);
+        post(lab, lab.nameGrams, grams(entry.name()), entry.id());
+        post(lab, lab.mobileGrams, grams(entry.mobile()), entry.id());
+    }
+
+    private static void post(LabIndex lab, Map<String, Postings> postings, Set<String> grams, long id) {
+        for (String gram : grams) {
+            Postings ids = postings.computeIfAbsent(gram, g -> new Postings());
+            if (lab.ready) {
+                ids.insert(id);
+            } else {
+                ids.append(id);
+            }
+        }
+    }
+
+    private static void remove(LabIndex lab, Long id) {
+        Entry old = lab.entries.remove(id);
+        if (old == null) {
+            return;
+        }
+        lab.byRecency.remove(old);
+        unpost(lab.nameGrams, grams(old.name()), id);
+        unpost(lab.mobileGrams, grams(old.mobile()), id);
+    }
+
+    private static void unpost(Map<String, Postings> postings, Set<String> grams, long id) {
+        for (String gram : grams) {
+            Postings ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private List<Long> collect(LabIndex lab,
+                               String name,
+                               String mobile,
+                               PageCursor after,
+                               int skip,
+                               int limit) {
+        String nameQuery = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        String mobileQuery = mobile == null ? "" : mobile.trim();
+        Entry start = after == null ? null : new Entry(after.id(), after.visitDate(), "", "");
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, 256)));
+
+        lab.lock.readLock().lock();
+        try {
+            long[] candidates = intersect(
+                candidates(lab.nameGrams, nameQuery),
+                candidates(lab.mobileGrams, mobileQuery));
+            Iterable<Entry> ordered;
+            if (candidates != null && candidates.length < SORT_CANDIDATES_BELOW) {
+                List<Entry> sorted = new ArrayList<>(candidates.length);
+                for (long id : candidates) {
+                    Entry entry = lab.entries.get(id);
+                    if (entry != null) {
+                        sorted.add(entry);
+                    }
+                }
+                sorted.sort(RECENCY);
+                ordered = sorted;
+            } else {
+                ordered = start == null ? lab.byRecency : lab.byRecency.tailSet(start, false);
+            }
+
+            int skipped = 0;
+            for (Entry entry : ordered) {
+                if (start != null && RECENCY.compare(entry, start) <= 0) {
+                    continue;
+                }
+                if (candidates != null && Arrays.binarySearch(candidates, entry.id()) < 0) {
+                    continue;
+                }
+                // Trigrams only narrow the set; the substring check decides.
+                if (!entry.name().contains(nameQuery) || !entry.mobile().contains(mobileQuery)) {
+                    continue;
+                }
+                if (skipped < skip) {
+                    skipped++;
+                    continue;
+                }
+                ids.add(entry.id());
+                if (ids.size() >= limit) {
+                    break;
+                }
+            }
+        } finally {
+            lab.lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    // Sorted ids holding every trigram of the query; null when the query is
+    // too short to have one (every entry is a candidate).
+    private static long[] candidates(Map<String, Postings> postings, String query) {
+        if (query.length() < GRAM) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Postings ids = postings.get(gram);
+            if (ids == null) {
+                return new long[0];
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.size));
+        long[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = merge(result, result.length, lists.get(i).ids, lists.get(i).size);
+        }
+        return result;
+    }
+
+    // null means "no restriction".
+    private static long[] intersect(long[] a, long[] b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return merge(a, a.length, b, b.length);
+    }
+
+    // Ids present in both sorted arrays.
+    private static long[] merge(long[] a, int aSize, long[] b, int bSize) {
+        long[] result = new long[Math.min(aSize, bSize)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static Set<String> grams(String text) {
+        if (text == null || text.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private void evictIfOverCapacity(String keep) {
+        while (labs.size() > maxLabs) {
+            String oldest = null;
+            long oldestAt = Long.MAX_VALUE;
+            for (Map.Entry<String, LabIndex> entry : labs.entrySet()) {
+                if (!entry.getKey().equals(keep) && entry.getValue().lastUsedAt < oldestAt) {
+                    oldest = entry.getKey();
+                    oldestAt = entry.getValue().lastUsedAt;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            labs.remove(oldest);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -18,6 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.ssdc.ssdclabs.dto.KeysetPage;
+import com.ssdc.ssdclabs.dto.LabEvent;
+import com.ssdc.ssdclabs.dto.PageCursor;
 import com.ssdc.ssdclabs.dto.RecentTaskDTO;
 import com.ssdc.ssdclabs.model.Doctor;
 import com.ssdc.ssdclabs.model.Gender;
@@ -35,6 +38,12 @@ public class PatientService {
     private final PatientRepository patientRepo;
     private final ReportResultRepository resultRepo;
     private final DoctorRepository doctorRepo;
+    private final ReportService reportService;
+    private final RevenueRollupService revenueRollups;
+    private final DashboardCounterService dashboardCounters;
+    private final PatientNameIndex nameIndex;
+    private final PatientIdentityService identities;
+    private final LabEventHub labEvents;
 
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
 
@@ -42,14 +51,27 @@ public class PatientService {
             PatientRepository patientRepo,
             ReportResultRepository resultRepo,
             DoctorRepository doctorRepo,
+            ReportService reportService,
+            RevenueRollupService revenueRollups,
+            DashboardCounterService dashboardCounters,
+            PatientNameIndex nameIndex,
+            PatientIdentityService identities,
+            LabEventHub labEvents,
             org.springframework.security.crypto.password.PasswordEncoder passwordEncoder) {
         this.patientRepo = patientRepo;
         this.resultRepo = resultRepo;
         this.doctorRepo = doctorRepo;
+        this.reportService = reportService;
+        this.revenueRollups = revenueRollups;
+        this.dashboardCounters = dashboardCounters;
+        this.nameIndex = nameIndex;
+        this.identities = identities;
+        this.labEvents = labEvents;
         this.passwordEncoder = passwordEncoder;
     }
 
     /* SAVE */
+    @Transactional
     public @NonNull Patient savePatient(@NonNull String labId,
                                         @NonNull Patient patient) {
         patient.setLabId(Objects.requireNonNull(labId, "labId"));
@@ -66,7 +88,13 @@ public class PatientService {
         String doctorName = patient.getDoctorName();
         Doctor doctor = resolveDoctor(labId, doctorName);
         patient.setDoctor(doctor);
-        return Objects.requireNonNull(patientRepo.save(patient), "saved patient");
+        identities.link(patient);
+        Patient saved = Objects.requireNonNull(patientRepo.save(patient), "saved patient");
+        revenueRollups.move(labId, null, revenueRollups.contributionOf(saved));
+        dashboardCounters.move(labId, null, dashboardCounters.contributionOf(saved));
+        nameIndex.patientSaved(labId, saved);
+        publish(labId, LabEvent.PATIENT_REGISTERED, saved, null, taskState(saved));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -99,6 +127,9 @@ public class PatientService {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Name is required");
         }
+        RevenueRollupService.Contribution before = revenueRollups.contributionOf(patient);
+        DashboardCounterService.Contribution countedBefore = dashboardCounters.contributionOf(patient);
+        LabEvent.TaskState taskBefore = taskState(patient);
         patient.setName(name.trim());
         patient.setAge(updates.getAge());
         patient.setGender(updates.getGender() == null ? Gender.ANY : updates.getGender());
@@ -117,6 +148,7 @@ public class PatientService {
 
         patient.setPaid(updates.getPaid());
 
+        LocalDate visitDateBefore = patient.getVisitDate();
         if (updates.getVisitDate() != null) {
             patient.setVisitDate(updates.getVisitDate());
         }
@@ -124,8 +156,20 @@ public class PatientService {
         String doctorName = updates.getDoctorName();
         Doctor doctor = resolveDoctor(labId, doctorName);
         patient.setDoctor(doctor);
+        identities.link(patient);
 
-        return Objects.requireNonNull(patientRepo.save(patient), "saved patient");
+        Patient saved = Objects.requireNonNull(patientRepo.save(patient), "saved patient");
+        if (!Objects.equals(visitDateBefore, saved.getVisitDate())) {
+            resultRepo.updateVisitDate(saved.getId(), saved.getVisitDate());
+        }
+        revenueRollups.move(labId, before, revenueRollups.contributionOf(saved));
+        dashboardCounters.move(labId, countedBefore, dashboardCounters.contributionOf(saved));
+        nameIndex.patientSaved(labId, saved);
+        LabEvent.TaskState taskAfter = taskState(saved);
+        publish(labId,
+            taskBefore.dueAmount() != taskAfter.dueAmount() ? LabEvent.PAYMENT_UPDATED : LabEvent.PATIENT_UPDATED,
+            saved, taskBefore, taskAfter);
+        return saved;
     }
 
     @Transactional
@@ -174,8 +218,22 @@ public class PatientService {
             }
         }
 
+        DashboardCounterService.Contribution countedBefore = dashboardCounters.contributionOf(patient);
+        LabEvent.TaskState taskBefore = taskState(patient);
         patient.setStatus(finalStatus);
-        return Objects.requireNonNull(patientRepo.save(patient), "saved patient");
+        Patient saved = Objects.requireNonNull(patientRepo.save(patient), "saved patient");
+        dashboardCounters.move(labId, countedBefore, dashboardCounters.contributionOf(saved));
+        publish(labId, LabEvent.STATUS_CHANGED, saved, taskBefore, taskState(saved));
+
+        // Completed reports are served from a frozen snapshot until a PIN reopen.
+        if (STATUS_COMPLETED.equals(finalStatus)) {
+            if (!currentlyCompleted || reportService.getSnapshot(labId, patientId) == null) {
+                reportService.captureSnapshot(labId, patientId);
+            }
+        } else if (currentlyCompleted) {
+            reportService.invalidateSnapshot(patientId);
+        }
+        return saved;
     }
 
     /* FIND BY DATE */
@@ -206,18 +264,66 @@ public class PatientService {
         final int safePage = Math.max(0, page);
         final int safeLimit = Math.max(1, Math.min(200, limit));
 
-        final List<Long> ids = patientRepo.searchIdsOrderByVisitDateDescIdDesc(
-            safeLabId,
-            nameQuery,
-            mobileQuery,
-            PageRequest.of(safePage, safeLimit)
-        );
+        // In-memory trigram index when warm, LIKE scan otherwise.
+        final List<Long> ids = nameIndex.searchPage(
+                safeLabId, nameQuery, mobileQuery, safePage * safeLimit, safeLimit)
+            .orElseGet(() -> patientRepo.searchIdsOrderByVisitDateDescIdDesc(
+                safeLabId,
+                nameQuery,
+                mobileQuery,
+                PageRequest.of(safePage, safeLimit)
+            ));
+        return loadInOrder(safeLabId, ids);
+    }
+
+    // Keyset variant of searchPatientsPaged: seeks past the cursor instead of
+    // skipping page * limit rows, so deep pages cost the same as the first.
+    public KeysetPage<Patient> searchPatientsAfter(@NonNull String labId,
+                                                   String name,
+                                                   String mobile,
+                                                   String cursor,
+                                                   int limit) {
+        final String safeLabId = Objects.requireNonNull(labId, "labId");
+        final String nameQuery = name == null ? "" : name.trim();
+        final String mobileQuery = mobile == null ? "" : mobile.trim();
+        final int safeLimit = Math.max(1, Math.min(200, limit));
+        final PageCursor after = PageCursor.decode(cursor);
+        final PageRequest window = PageRequest.of(0, safeLimit + 1);
+
+        final List<Long> ids = nameIndex.searchAfter(
+                safeLabId, nameQuery, mobileQuery, after, safeLimit + 1)
+            .orElseGet(() -> after.visitDate() == null
+                ? patientRepo.searchUndatedIdsAfter(
+                    safeLabId, nameQuery, mobileQuery, after.id(), window)
+                : patientRepo.searchIdsAfter(
+                    safeLabId, nameQuery, mobileQuery, after.visitDate(), after.id(), window));
+        return KeysetPage.of(loadInOrder(safeLabId, ids), safeLimit,
+            p -> PageCursor.after(p.getVisitDate(), p.getId()));
+    }
+
+    // One visit date, newest id first, limit rows after the cursor.
+    public KeysetPage<Patient> findByDateAfter(@NonNull String labId,
+                                               @NonNull LocalDate date,
+                                               String cursor,
+                                               int limit) {
+        final int safeLimit = Math.max(1, Math.min(500, limit));
+        final PageCursor after = PageCursor.decode(cursor);
+        // A cursor from another date (or the first page) starts at the top.
+        final long afterId = date.equals(after.visitDate()) ? after.id() : Long.MAX_VALUE;
+        final List<Patient> rows = patientRepo.findByVisitDateWithDoctorAfter(
+            Objects.requireNonNull(labId, "labId"),
+            Objects.requireNonNull(date, "date"),
+            afterId,
+            PageRequest.of(0, safeLimit + 1));
+        return KeysetPage.of(rows, safeLimit, p -> PageCursor.after(date, p.getId()));
+    }
+
+    // Fetch with doctor (avoid N+1), then re-apply the order of ids.
+    private List<Patient> loadInOrder(String labId, List<Long> ids) {
         if (ids.isEmpty()) {
-            return List.of();
+            return new ArrayList<>();
         }
-
-        // Fetch with doctor (avoid N+1), then re-apply the desired order.
-        final List<Patient> rows = patientRepo.findByLabIdAndIdInWithDoctor(safeLabId, ids);
+        final List<Patient> rows = patientRepo.findByLabIdAndIdInWithDoctor(labId, ids);
 
         final Map<Long, Integer> order = new HashMap<>(ids.size() * 2);
         for (int i = 0; i < ids.size(); i++) {
@@ -243,13 +349,44 @@ public class PatientService {
             Objects.requireNonNull(labId, "labId")
         ).orElseThrow(() -> new IllegalArgumentException("Patient not found"));
 
-        // 1️⃣ delete report results
+        // 1️⃣ delete report results + frozen report
         resultRepo.deleteByPatient_Id(
             patient.getId());
+        reportService.deleteSnapshot(patient.getId());
 
-        // 2️⃣ delete patient
+        // 2️⃣ delete patient (and its share of the revenue rollup and dashboard counters)
+        revenueRollups.move(labId, revenueRollups.contributionOf(patient), null);
+        dashboardCounters.move(labId, dashboardCounters.contributionOf(patient), null);
         patientRepo.deleteById(
             patient.getId());
+        nameIndex.patientDeleted(labId, patient.getId());
+        publish(labId, LabEvent.PATIENT_DELETED, patient, taskState(patient), null);
+    }
+
+    // Pushed to the lab's open pages after commit (see LabEventHub).
+    private void publish(String labId, String type, Patient patient,
+                         LabEvent.TaskState before, LabEvent.TaskState after) {
+        labEvents.publish(labId, new LabEvent(
+            type,
+            patient.getId() == null ? 0L : patient.getId(),
+            patient.getName(),
+            before,
+            after
+        ));
+    }
+
+    // Same pending/due rules as getRecentTasks.
+    private static LabEvent.TaskState taskState(Patient patient) {
+        final boolean pending = !STATUS_COMPLETED.equalsIgnoreCase(
+            patient.getStatus() == null ? "" : patient.getStatus().trim()
+        );
+        final double amount = patient.getAmount() == null ? 0.0 : patient.getAmount();
+        final double paid = patient.getPaid() == null ? 0.0 : patient.getPaid();
+        return new LabEvent.TaskState(
+            patient.getVisitDate() == null ? null : patient.getVisitDate().toString(),
+            Math.max(0.0, amount - paid),
+            pending
+        );
     }
 
     public List<RecentTaskDTO> getRecentTasks(@NonNull String labId, int limit) {
@@ -13,18 +13,22 @@ import com.ssdc.ssdclabs.repository.LabPrintSettingsRepository;
 public class PrintSettingsService {
 
     private static final int MAX_LINES = 200;
+    private static final int MAX_TITLE_LENGTH = 80;
 
     private final LabPrintSettingsRepository repo;
+    private final ReportLetterheadCache letterheads;
 
-    public PrintSettingsService(LabPrintSettingsRepository repo) {
+    public PrintSettingsService(LabPrintSettingsRepository repo,
+                                ReportLetterheadCache letterheads) {
         this.repo = repo;
+        this.letterheads = letterheads;
     }
 
     public @NonNull PrintSettingsDTO getSettings(@NonNull String labId) {
         Objects.requireNonNull(labId, "labId");
         LabPrintSettings existing = repo.findById(labId).orElse(null);
         if (existing == null) {
-            return new PrintSettingsDTO(0, 0, 0, 0);
+            return new PrintSettingsDTO(0, 0, 0, 0, null);
         }
         return toDto(existing);
     }
@@ -49,8 +53,12 @@ public class PrintSettingsService {
         settings.setBottomLines(bottom);
         settings.setLeftLines(left);
         settings.setRightLines(right);
+        if (incoming.reportTitle != null) {
+            settings.setReportTitle(normalizeTitle(incoming.reportTitle));
+        }
 
         LabPrintSettings saved = repo.save(settings);
+        letterheads.evict(labId);
         return toDto(saved);
     }
 
@@ -61,12 +69,19 @@ public class PrintSettingsService {
         return v;
     }
 
+    private static String normalizeTitle(String value) {
+        String v = value.trim().replaceAll("\\s+", " ");
+        if (v.isEmpty()) return null;
+        return v.length() > MAX_TITLE_LENGTH ? v.substring(0, MAX_TITLE_LENGTH).trim() : v;
+    }
+
     private static PrintSettingsDTO toDto(LabPrintSettings s) {
         return new PrintSettingsDTO(
             s.getTopLines() == null ? 0 : s.getTopLines(),
             s.getBottomLines() == null ? 0 : s.getBottomLines(),
             s.getLeftLines() == null ? 0 : s.getLeftLines(),
-            s.getRightLines() == null ? 0 : s.getRightLines()
+            s.getRightLines() == null ? 0 : s.getRightLines(),
+            s.getReportTitle()
         );
     }
 }
@@ -0,0 +1,88 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.ssdc.ssdclabs.model.Lab;
+import com.ssdc.ssdclabs.model.LabPrintSettings;
+import com.ssdc.ssdclabs.repository.LabPrintSettingsRepository;
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+// Per-lab page furniture for server-rendered reports: the lab name, and the
+// report title and letterhead margins from print settings. Loaded once and kept until the lab
+// changes its name or print settings.
+@Component
+public class ReportLetterheadCache {
+
+    // Same conversion the browser uses (--ssdc-letterhead-line-mm).
+    static final float MM_PER_LINE = 4f;
+    static final float BASE_MARGIN_MM = 10f;
+    // Printed when the lab has not set its own title (also the browser default).
+    static final String DEFAULT_REPORT_TITLE = "BLOOD EXAMINATION REPORT";
+
+    public record Letterhead(String labName,
+                             String reportTitle,
+                             float topMm,
+                             float bottomMm,
+                             float leftMm,
+                             float rightMm,
+                             long epoch) {
+    }
+
+    private final LabRepository labRepo;
+    private final LabPrintSettingsRepository printSettingsRepo;
+    private final Map<String, Letterhead> entries = new ConcurrentHashMap<>();
+    // Bumped on every eviction; also part of the cached PDF key.
+    private final AtomicLong epoch = new AtomicLong();
+
+    public ReportLetterheadCache(LabRepository labRepo,
+                                 LabPrintSettingsRepository printSettingsRepo) {
+        this.labRepo = Objects.requireNonNull(labRepo, "labRepo");
+        this.printSettingsRepo = Objects.requireNonNull(printSettingsRepo, "printSettingsRepo");
+    }
+
+    public @NonNull Letterhead get(@NonNull String labId) {
+        Objects.requireNonNull(labId, "labId");
+        Letterhead cached = entries.get(labId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadEpoch = epoch.get();
+        String labName = labRepo.findById(labId)
+            .map(Lab::getLabName)
+            .filter(name -> !name.trim().isEmpty())
+            .orElse(labId);
+        LabPrintSettings settings = printSettingsRepo.findById(labId).orElse(null);
+        String title = settings == null ? null : settings.getReportTitle();
+        Letterhead loaded = new Letterhead(
+            labName.trim(),
+            title == null || title.trim().isEmpty() ? DEFAULT_REPORT_TITLE : title.trim(),
+            marginMm(settings == null ? null : settings.getTopLines()),
+            marginMm(settings == null ? null : settings.getBottomLines()),
+            marginMm(settings == null ? null : settings.getLeftLines()),
+            marginMm(settings == null ? null : settings.getRightLines()),
+            loadEpoch
+        );
+        entries.compute(labId, (k, existing) ->
+            epoch.get() == loadEpoch ? loaded : existing);
+        return loaded;
+    }
+
+    public void evict(String labId) {
+        epoch.incrementAndGet();
+        if (labId != null) {
+            entries.remove(labId);
+        }
+    }
+
+    private static float marginMm(Integer lines) {
+        int value = lines == null ? 0 : Math.max(0, lines);
+        return BASE_MARGIN_MM + value * MM_PER_LINE;
+    }
+}
@@ -0,0 +1,193 @@
+package com.ssdc.ssdclabs.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+// Unicode fonts for server-rendered reports. The bundled DejaVu Sans covers
+// Latin, Greek, Cyrillic and lab symbols (µ, ≤, ≥); fallback TTFs (Noto Sans
+// Telugu/Devanagari when installed) cover Indian-script names. Font files are
+// read and measured once per JVM; each document embeds only the glyphs it uses.
+// Text is laid out glyph by glyph, without complex-script shaping.
+@Component
+public class ReportPdfFonts {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportPdfFonts.class);
+
+    static final String DEFAULT_FALLBACKS =
+        "/usr/share/fonts/truetype/noto/NotoSansTelugu-Regular.ttf,"
+            + "/usr/share/fonts/truetype/noto/NotoSansDevanagari-Regular.ttf";
+
+    public enum Style {
+        REGULAR,
+        BOLD
+    }
+
+    // One font file: its bytes (embedded per document) and the advance width
+    // of every BMP code point it maps, in 1/1000 em (NaN when unmapped).
+    static final class Face {
+        private final byte[] data;
+        private final float[] advances;
+
+        Face(byte[] data) throws IOException {
+            this.data = data;
+            this.advances = new float[Character.MAX_VALUE + 1];
+            Arrays.fill(advances, Float.NaN);
+            try (TrueTypeFont ttf = new TTFParser().parse(new RandomAccessReadBuffer(data))) {
+                CmapLookup cmap = ttf.getUnicodeCmapLookup(false);
+                float scale = 1000f / ttf.getUnitsPerEm();
+                for (int cp = 0; cp <= Character.MAX_VALUE; cp++) {
+                    int gid = cmap == null ? 0 : cmap.getGlyphId(cp);
+                    if (gid > 0) {
+                        advances[cp] = ttf.getAdvanceWidth(gid) * scale;
+                    }
+                }
+            }
+        }
+
+        boolean covers(int codePoint) {
+            return codePoint <= Character.MAX_VALUE && !Float.isNaN(advances[codePoint]);
+        }
+
+        float advance(int codePoint) {
+            return advances[codePoint];
+        }
+    }
+
+    // A stretch of text drawn with one face.
+    record Run(Face face, String text) {
+    }
+
+    private final List<Face> regular;
+    private final List<Face> bold;
+
+    public ReportPdfFonts(@Value("${app.report-pdf.fonts.fallback:" + DEFAULT_FALLBACKS + "}") String[] fallbacks) {
+        List<Face> extra = new ArrayList<>();
+        for (String path : fallbacks == null ? new String[0] : fallbacks) {
+            if (path == null || path.trim().isEmpty()) {
+                continue;
+            }
+            Path file = Path.of(path.trim());
+            if (!Files.isReadable(file)) {
+                log.info("Report PDF fallback font {} not found; its scripts print as '?'", file);
+                continue;
+            }
+            try {
+                extra.add(new Face(Files.readAllBytes(file)));
+            } catch (IOException ex) {
+                log.warn("Report PDF fallback font {} could not be read; skipping", file, ex);
+            }
+        }
+        this.regular = withFallbacks(bundled("fonts/DejaVuSans.ttf"), extra);
+        this.bold = withFallbacks(bundled("fonts/DejaVuSans-Bold.ttf"), extra);
+    }
+
+    // Width of the text in points, as it will be drawn.
+    float width(String text, Style style, float size) {
+        float total = 0;
+        for (Run run : runs(text, style)) {
+            for (int i = 0; i < run.text().length(); i++) {
+                total += run.face().advance(run.text().charAt(i));
+            }
+        }
+        return total / 1000f * size;
+    }
+
+    // Splits text into runs by the first face that has each character.
+    // Characters no face has become '?'; invisible format characters
+    // (zero-width joiners and the like) mean nothing without shaping and
+    // are dropped.
+    List<Run> runs(String text, Style style) {
+        List<Face> faces = style == Style.BOLD ? bold : regular;
+        Face primary = faces.get(0);
+        List<Run> runs = new ArrayList<>();
+        Face current = null;
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.getType(cp) == Character.FORMAT) {
+                continue;
+            }
+            Face face = faceFor(faces, cp);
+            if (face == null) {
+                face = primary;
+                cp = '?';
+            }
+            if (face != current && chunk.length() > 0) {
+                runs.add(new Run(current, chunk.toString()));
+                chunk.setLength(0);
+            }
+            current = face;
+            chunk.appendCodePoint(cp);
+        }
+        if (chunk.length() > 0) {
+            runs.add(new Run(current, chunk.toString()));
+        }
+        return runs;
+    }
+
+    // Per-document embedding: each face is loaded into the document the first
+    // time a run needs it.
+    static final class Embedded {
+        private final PDDocument document;
+        private final Map<Face, PDFont> fonts = new IdentityHashMap<>();
+
+        Embedded(PDDocument document) {
+            this.document = document;
+        }
+
+        PDFont font(Face face) throws IOException {
+            PDFont font = fonts.get(face);
+            if (font == null) {
+                font = PDType0Font.load(document, new RandomAccessReadBuffer(face.data), true, false);
+                fonts.put(face, font);
+            }
+            return font;
+        }
+    }
+
+    private static Face faceFor(List<Face> faces, int codePoint) {
+        for (Face face : faces) {
+            if (face.covers(codePoint)) {
+                return face;
+            }
+        }
+        return null;
+    }
+
+    private static List<Face> withFallbacks(Face primary, List<Face> fallbacks) {
+        List<Face> faces = new ArrayList<>(fallbacks.size() + 1);
+        faces.add(primary);
+        faces.addAll(fallbacks);
+        return List.copyOf(faces);
+    }
+
+    private static Face bundled(String resource) {
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            return new Face(in.readAllBytes());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not load report font " + resource, ex);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.ssdc.ssdclabs.service;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.ssdc.ssdclabs.dto.PatientAppReportDTO;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.service.ReportLetterheadCache.Letterhead;
+import com.ssdc.ssdclabs.service.ReportPdfFonts.Style;
+
+// Lays out the report table (TEST / RESULT / UNIT / NORMAL VALUES) on A4 pages,
+// mirroring the browser report. Per-test layout work (wrapping names, units and
+// normal ranges to column widths) is kept per lab until the catalog changes.
+// Text is set in the embedded Unicode fonts of ReportPdfFonts.
+@Component
+public class ReportPdfRenderer {
+
+    public enum Mode {
+        PDF,
+        LETTERHEAD;
+
+        public static Mode from(String value) {
+            return value != null && "letterhead".equalsIgnoreCase(value.trim())
+                ? LETTERHEAD
+                : PDF;
+        }
+    }
+
+    public record PatientHeader(String name,
+                                String ageSex,
+                                String doctor,
+                                String date,
+                                String mobile,
+                                String address,
+                                Gender gender) {
+    }
+
+    private static final Style REGULAR = Style.REGULAR;
+    private static final Style BOLD = Style.BOLD;
+
+    private static final float PT_PER_MM = 72f / 25.4f;
+    private static final float FONT_SIZE = 9f;
+    private static final float LEADING = 11.5f;
+    private static final float TITLE_SIZE = 15f;
+    private static final float INDENT = 8f;
+    private static final float[] COLUMN_SHARES = {0.38f, 0.20f, 0.14f, 0.28f};
+    private static final float FOOTER_HEIGHT = 3 * LEADING;
+    private static final Color ABNORMAL = new Color(0xC6, 0x28, 0x28);
+    private static final Pattern RANGE = Pattern.compile(
+        "^\\s*(-?\\d+(?:\\.\\d+)?)\\s*-\\s*(-?\\d+(?:\\.\\d+)?)\\s*$");
+    private static final Pattern BOUND = Pattern.compile(
+        "^\\s*([<>])\\s*=?\\s*(-?\\d+(?:\\.\\d+)?)\\s*$");
+
+    // Letterhead margins change column widths, so layouts are kept per width.
+    private record FragmentKey(Long testId, float width) {
+    }
+
+    private record ParamKey(String parameter, String unit, String normal, Gender gender) {
+    }
+
+    private record ParamLayout(List<String> label,
+                               List<String> unit,
+                               List<String> normal,
+                               List<double[]> ranges) {
+    }
+
+    private static final class TestFragment {
+        final long catalogVersion;
+        final String testName;
+        final List<String> heading;
+        final Map<ParamKey, ParamLayout> params = new ConcurrentHashMap<>();
+
+        TestFragment(long catalogVersion, String testName, List<String> heading) {
+            this.catalogVersion = catalogVersion;
+            this.testName = testName;
+            this.heading = heading;
+        }
+    }
+
+    private final TestCatalogCache catalogCache;
+    private final ReportPdfFonts fonts;
+    private final Map<String, Map<FragmentKey, TestFragment>> fragmentsByLab = new ConcurrentHashMap<>();
+
+    public ReportPdfRenderer(TestCatalogCache catalogCache, ReportPdfFonts fonts) {
+        this.catalogCache = Objects.requireNonNull(catalogCache, "catalogCache");
+        this.fonts = Objects.requireNonNull(fonts, "fonts");
+    }
+
+    public void render(@NonNull String labId,
+                       @NonNull Letterhead letterhead,
+                       @NonNull Mode mode,
+                       @NonNull PatientHeader patient,
+                       @NonNull List<PatientAppReportDTO> rows,
+                       @NonNull OutputStream out) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            Page page = new Page(document, letterhead, mode, patient);
+            long catalogVersion = catalogCache.version(labId);
+            Map<FragmentKey, TestFragment> fragments =
+                fragmentsByLab.computeIfAbsent(labId, k -> new ConcurrentHashMap<>());
+
+            int i = 0;
+            while (i < rows.size()) {
+                PatientAppReportDTO first = rows.get(i);
+                int end = i + 1;
+                while (end < rows.size() && Objects.equals(rows.get(end).testId, first.testId)) {
+                    end++;
+                }
+                TestFragment fragment = fragment(fragments, catalogVersion, first, page.columnWidth(0));
+                drawTest(page, fragment, rows.subList(i, end), patient.gender());
+                i = end;
+            }
+            page.finish();
+            document.save(out);
+        }
+    }
+
+    /* ================= FRAGMENTS ================= */
+
+    private TestFragment fragment(Map<FragmentKey, TestFragment> fragments,
+                                  long catalogVersion,
+                                  PatientAppReportDTO row,
+                                  float width) {
+        String testName = clean(row.testName);
+        if (row.testId == null) {
+            return new TestFragment(catalogVersion, testName, wrap(testName, BOLD, width));
+        }
+        return fragments.compute(new FragmentKey(row.testId, width), (key, existing) -> {
+            if (existing != null
+                    && existing.catalogVersion == catalogVersion
+                    && existing.testName.equals(testName)) {
+                return existing;
+            }
+            return new TestFragment(catalogVersion, testName, wrap(testName, BOLD, width));
+        });
+    }
+
+    private ParamLayout paramLayout(TestFragment fragment,
+                                    String label,
+                                    PatientAppReportDTO row,
+                                    Gender gender,
+                                    float[] widths) {
+        ParamKey key = new ParamKey(label, clean(row.unit), clean(row.normalRange), gender);
+        return fragment.params.computeIfAbsent(key, k -> {
+            List<String> normalLines = normalLinesFor(k.normal(), k.gender());
+            List<double[]> ranges = new ArrayList<>();
+            List<String> wrappedNormal = new ArrayList<>();
+            for (String line : normalLines) {
+                double[] range = parseRange(line);
+                if (range != null) {
+                    ranges.add(range);
+                }
+                wrappedNormal.addAll(wrap(line, REGULAR, widths[3]));
+            }
+            return new ParamLayout(
+                wrap(k.parameter(), REGULAR, widths[0] - INDENT),
+                wrap(k.unit(), REGULAR, widths[2]),
+                wrappedNormal,
+                List.copyOf(ranges)
+            );
+        });
+    }
+
+    /* ================= TABLE ================= */
+
+    private void drawTest(Page page,
+                          TestFragment fragment,
+                          List<PatientAppReportDTO> rows,
+                          Gender gender) throws IOException {
+        float[] widths = page.columnWidths();
+        boolean single = isSingleParameter(fragment.testName, rows);
+        if (!single) {
+            page.ensureSpace(LEADING * (fragment.heading.size() + 1));
+            page.row(List.of(fragment.heading, List.of(), List.of(), List.of()), BOLD, false, 0);
+        }
+
+        String previousBase = null;
+        for (PatientAppReportDTO row : rows) {
+            String base = baseName(row.parameterName);
+            boolean continuation = previousBase != null && previousBase.equalsIgnoreCase(base);
+            previousBase = base;
+
+            ParamLayout layout = paramLayout(fragment, single ? fragment.testName : base, row, gender, widths);
+            List<String> result = wrap(clean(row.resultValue), BOLD, widths[1]);
+            // The stored flag covers rows with catalog ranges; the printed range
+            // text still catches the rest (and rows not yet classified).
+            boolean abnormal = row.abnormalFlag != null || isAbnormal(row.resultValue, layout.ranges());
+
+            List<String> label = continuation ? List.of() : (single ? fragment.heading : layout.label());
+            List<String> unit = continuation ? List.of() : layout.unit();
+            List<String> normal = continuation ? List.of() : layout.normal();
+            page.row(List.of(label, result, unit, normal), single ? BOLD : REGULAR, abnormal,
+                single ? 0 : INDENT);
+        }
+        page.gap(LEADING / 3);
+    }
+
+    private static boolean isSingleParameter(String testName, List<PatientAppReportDTO> rows) {
+        String firstBase = null;
+        for (PatientAppReportDTO row : rows) {
+            String base = baseName(row.parameterName);
+            if (firstBase == null) {
+                firstBase = base;
+            } else if (!firstBase.equalsIgnoreCase(base)) {
+                return false;
+            }
+        }
+        return firstBase == null || firstBase.isEmpty() || firstBase.equalsIgnoreCase(testName);
+    }
+
+    // "Haemoglobin::2" is the second result line of the "Haemoglobin" parameter.
+    private static String baseName(String parameterName) {
+        String value = clean(parameterName);
+        int idx = value.indexOf("::");
+        return (idx >= 0 ? value.substring(0, idx) : value).trim();
+    }
+
+    /* ================= NORMAL RANGES ================= */
+
+    // Keeps the "M:"/"F:" lines for the patient's gender, like the browser report.
+    static List<String> normalLinesFor(String normal, Gender gender) {
+        List<String> all = new ArrayList<>();
+        for (String line : normal.split("\n")) {
+            if (!line.trim().isEmpty()) {
+                all.add(line.trim());
+            }
+        }
+        if (gender == null || gender == Gender.ANY) {
+            return all;
+        }
+        String own = gender == Gender.MALE ? "M:" : "F:";
+        String other = gender == Gender.MALE ? "F:" : "M:";
+        List<String> picked = new ArrayList<>();
+        boolean matched = false;
+        for (String line : all) {
+            String upper = line.toUpperCase(Locale.ROOT);
+            if (upper.startsWith(own)) {
+                picked.add(line.substring(own.length()).trim());
+                matched = true;
+            } else if (!upper.startsWith(other)) {
+                picked.add(line);
+            }
+        }
+        return matched ? picked : all;
+    }
+
+    static double[] parseRange(String line) {
+        Matcher range = RANGE.matcher(line);
+        if (range.matches()) {
+            return new double[] {Double.parseDouble(range.group(1)), Double.parseDouble(range.group(2))};
+        }
+        Matcher bound = BOUND.matcher(line);
+        if (bound.matches()) {
+            double limit = Double.parseDouble(bound.group(2));
+            return "<".equals(bound.group(1))
+                ? new double[] {Double.NEGATIVE_INFINITY, limit}
+                : new double[] {limit, Double.POSITIVE_INFINITY};
+        }
+        return null;
+    }
+
+    static boolean isAbnormal(String value, List<double[]> ranges) {
+        if (value == null || ranges.isEmpty()) {
+            return false;
+        }
+        double number;
+        try {
+            number = Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        for (double[] range : ranges) {
+            if (number >= range[0] && number <= range[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* ================= TEXT ================= */
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace("\r", "");
+    }
+
+    List<String> wrap(String value, Style style, float width) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : clean(value).split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.trim().split("\\s+")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String candidate = line.length() == 0 ? word : line + " " + word;
+                if (width(candidate, style) <= width) {
+                    line.setLength(0);
+                    line.append(candidate);
+                    continue;
+                }
+                if (line.length() > 0) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                // A single word wider than the column is broken by code points.
+                for (int i = 0; i < word.length(); ) {
+                    int cp = word.codePointAt(i);
+                    i += Character.charCount(cp);
+                    String next = new String(Character.toChars(cp));
+                    if (line.length() > 0 && width(line + next, style) > width) {
+                        lines.add(line.toString());
+                        line.setLength(0);
+                    }
+                    line.append(next);
+                }
+            }
+            if (line.length() > 0) {
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    private float width(String value, Style style) {
+        return fonts.width(value, style, FONT_SIZE);
+    }
+
+    /* ================= PAGES ================= */
+
+    private final class Page {
+        private final PDDocument document;
+        private final ReportPdfFonts.Embedded embedded;
+        private final Mode mode;
+        private final PatientHeader patient;
+        private final String labName;
+        private final String title;
+        private final float top;
+        private final float bottom;
+        private final float left;
+        private final float[] widths;
+        private PDPageContentStream stream;
+        private float y;
+        // Table lines that fit below the header of an empty page.
+        private int linesPerPage;
+        private boolean empty;
+
+        Page(PDDocument document, Letterhead letterhead, Mode mode, PatientHeader patient) throws IOException {
+            this.document = document;
+            this.embedded = new ReportPdfFonts.Embedded(document);
+            this.mode = mode;
+            this.patient = patient;
+            this.labName = letterhead.labName();
+            this.title = letterhead.reportTitle();
+            boolean useLetterhead = mode == Mode.LETTERHEAD;
+            float base = ReportLetterheadCache.BASE_MARGIN_MM * PT_PER_MM;
+            this.top = useLetterhead ? letterhead.topMm() * PT_PER_MM : base;
+            this.bottom = useLetterhead ? letterhead.bottomMm() * PT_PER_MM : base;
+            this.left = useLetterhead ? letterhead.leftMm() * PT_PER_MM : base;
+            float right = useLetterhead ? letterhead.rightMm() * PT_PER_MM : base;
+            float usable = Math.max(200f, PDRectangle.A4.getWidth() - left - right);
+            this.widths = new float[COLUMN_SHARES.length];
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = usable * COLUMN_SHARES[i];
+            }
+            newPage();
+            this.linesPerPage = linesLeft();
+        }
+
+        float columnWidth(int column) {
+            return widths[column];
+        }
+
+        float[] columnWidths() {
+            return widths;
+        }
+
+        void ensureSpace(float height) throws IOException {
+            if (!empty && y - height < bottom + FOOTER_HEIGHT) {
+                breakPage();
+            }
+        }
+
+        void gap(float height) {
+            y -= height;
+        }
+
+        // Rows that fit on a page are kept together; taller ones continue on
+        // as many pages as they need.
+        void row(List<List<String>> cells, Style labelStyle, boolean abnormal, float indent) throws IOException {
+            int height = 1;
+            for (List<String> cell : cells) {
+                height = Math.max(height, cell.size());
+            }
+            if (height <= linesPerPage) {
+                ensureSpace(height * LEADING);
+            }
+            int from = 0;
+            while (from < height) {
+                if (linesLeft() == 0 && !empty) {
+                    breakPage();
+                }
+                int count = Math.max(1, Math.min(height - from, linesLeft()));
+                drawLines(cells, from, from + count, labelStyle, abnormal, indent);
+                from += count;
+            }
+        }
+
+        void finish() throws IOException {
+            finishPage();
+        }
+
+        private void drawLines(List<List<String>> cells, int from, int to,
+                               Style labelStyle, boolean abnormal, float indent) throws IOException {
+            float x = left;
+            for (int col = 0; col < cells.size(); col++) {
+                Style style = col == 0 ? labelStyle : (col == 1 ? BOLD : REGULAR);
+                boolean red = col == 1 && abnormal;
+                float cellX = x + (col == 0 ? indent : 0);
+                List<String> cell = cells.get(col);
+                float lineY = y;
+                for (int line = from; line < Math.min(to, cell.size()); line++) {
+                    text(cell.get(line), style, FONT_SIZE, cellX, lineY - FONT_SIZE, red);
+                    lineY -= LEADING;
+                }
+                x += widths[col];
+            }
+            y -= (to - from) * LEADING;
+            empty = false;
+        }
+
+        private int linesLeft() {
+            return Math.max(0, (int) Math.floor((y - bottom - FOOTER_HEIGHT) / LEADING));
+        }
+
+        private void breakPage() throws IOException {
+            finishPage();
+            newPage();
+        }
+
+        private void newPage() throws IOException {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            stream = new PDPageContentStream(document, page);
+            y = PDRectangle.A4.getHeight() - top;
+            empty = true;
+
+            if (mode == Mode.PDF) {
+                float titleWidth = fonts.width(labName, BOLD, TITLE_SIZE);
+                text(labName, BOLD, TITLE_SIZE, left + (totalWidth() - titleWidth) / 2, y - TITLE_SIZE, false);
+                y -= TITLE_SIZE + 4;
+                float width = width(title, BOLD);
+                text(title, BOLD, FONT_SIZE, left + (totalWidth() - width) / 2, y - FONT_SIZE, false);
+                y -= LEADING + 4;
+            }
+
+            float half = totalWidth() / 2;
+            labelled("Name", patient.name(), left, y);
+            labelled("Date", patient.date(), left + half, y);
+            y -= LEADING;
+            labelled("Age / Sex", patient.ageSex(), left, y);
+            labelled("Ref. By", patient.doctor(), left + half, y);
+            y -= LEADING;
+            labelled("Mobile", patient.mobile(), left, y);
+            labelled("Address", patient.address(), left + half, y);
+            y -= LEADING + 4;
+
+            rule(y);
+            y -= 2;
+            String[] headers = {"TEST", "RESULT", "UNIT", "NORMAL VALUES"};
+            float x = left;
+            for (int i = 0; i < headers.length; i++) {
+                text(headers[i], BOLD, FONT_SIZE, x, y - FONT_SIZE, false);
+                x += widths[i];
+            }
+            y -= LEADING + 2;
+            rule(y);
+            y -= 4;
+        }
+
+        private void finishPage() throws IOException {
+            float footerY = bottom + FOOTER_HEIGHT;
+            rule(footerY);
+            text("Red = Abnormal value", REGULAR, FONT_SIZE - 1, left, footerY - LEADING, true);
+            text("SUGGESTED CLINICAL CORRELATION", REGULAR, FONT_SIZE, left, bottom + 2, false);
+            String signature = "SIGNATURE";
+            text(signature, BOLD, FONT_SIZE, left + totalWidth() - width(signature, BOLD), bottom + 2, false);
+            stream.close();
+        }
+
+        private void labelled(String label, String value, float x, float lineY) throws IOException {
+            String prefix = label + ": ";
+            text(prefix, BOLD, FONT_SIZE, x, lineY - FONT_SIZE, false);
+            List<String> lines = wrap(value, REGULAR, totalWidth() / 2 - width(prefix, BOLD) - 4);
+            if (!lines.isEmpty()) {
+                text(lines.get(0), REGULAR, FONT_SIZE, x + width(prefix, BOLD), lineY - FONT_SIZE, false);
+            }
+        }
+
+        private void rule(float lineY) throws IOException {
+            stream.setLineWidth(0.6f);
+            stream.moveTo(left, lineY);
+            stream.lineTo(left + totalWidth(), lineY);
+            stream.stroke();
+        }
+
+        // Each run is shown in the face that has its characters; showText
+        // advances the position, so runs follow on from one another.
+        private void text(String value, Style style, float size, float x, float baseline, boolean red)
+                throws IOException {
+            List<ReportPdfFonts.Run> runs = fonts.runs(clean(value).replace("\n", " "), style);
+            if (runs.isEmpty()) {
+                return;
+            }
+            stream.beginText();
+            stream.setNonStrokingColor(red ? ABNORMAL : Color.BLACK);
+            stream.newLineAtOffset(x, baseline);
+            for (ReportPdfFonts.Run run : runs) {
+                stream.setFont(embedded.font(run.face()), size);
+                stream.showText(run.text());
+            }
+            stream.endText();
+        }
+
+        private float totalWidth() {
+            float total = 0;
+            for (float w : widths) {
+                total += w;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ssdc.ssdclabs.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ssdc.ssdclabs.dto.PatientAppReportDTO;
+import com.ssdc.ssdclabs.dto.ReportSnapshotDocument;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.service.ReportLetterheadCache.Letterhead;
+import com.ssdc.ssdclabs.service.ReportPdfRenderer.Mode;
+import com.ssdc.ssdclabs.service.ReportPdfRenderer.PatientHeader;
+
+// Server-side report PDFs. Completed reports are cached by patient id and
+// snapshot version, so repeat downloads are served from memory; in-progress
+// reports are rendered straight into the response.
+@Service
+public class ReportPdfService {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private record CacheKey(Long patientId, Mode mode) {
+    }
+
+    private record CachedPdf(String labId,
+                             long snapshotVersion,
+                             long letterheadEpoch,
+                             PatientHeader header,
+                             byte[] bytes) {
+    }
+
+    private final ReportService reportService;
+    private final PatientRepository patientRepo;
+    private final ReportLetterheadCache letterheads;
+    private final ReportPdfRenderer renderer;
+    private final int maxEntries;
+    private final Map<CacheKey, CachedPdf> cache = new ConcurrentHashMap<>();
+
+    public ReportPdfService(ReportService reportService,
+                            PatientRepository patientRepo,
+                            ReportLetterheadCache letterheads,
+                            ReportPdfRenderer renderer,
+                            @Value("${app.report-pdf.cache.max-entries:200}") int maxEntries) {
+        this.reportService = Objects.requireNonNull(reportService, "reportService");
+        this.patientRepo = Objects.requireNonNull(patientRepo, "patientRepo");
+        this.letterheads = Objects.requireNonNull(letterheads, "letterheads");
+        this.renderer = Objects.requireNonNull(renderer, "renderer");
+        this.maxEntries = Math.max(0, maxEntries);
+    }
+
+    public void writeReport(@NonNull String labId,
+                            @NonNull Long patientId,
+                            @NonNull Mode mode,
+                            @NonNull OutputStream out) throws IOException {
+        Objects.requireNonNull(labId, "labId");
+        Objects.requireNonNull(patientId, "patientId");
+        Patient patient = patientRepo.findByIdAndLabIdWithDoctor(patientId, labId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
+        PatientHeader header = header(patient);
+        Letterhead letterhead = letterheads.get(labId);
+        ReportSnapshotDocument snapshot = reportService.getSnapshot(labId, patientId);
+
+        if (snapshot == null || maxEntries == 0) {
+            List<PatientAppReportDTO> rows = reportService.getReportForApp(labId, patientId);
+            renderer.render(labId, letterhead, mode, header, rows, out);
+            return;
+        }
+
+        CacheKey key = new CacheKey(patientId, mode);
+        CachedPdf cached = cache.get(key);
+        if (cached != null
+                && cached.labId().equals(labId)
+                && cached.snapshotVersion() == snapshot.version()
+                && cached.letterheadEpoch() == letterhead.epoch()
+                && cached.header().equals(header)) {
+            out.write(cached.bytes());
+            return;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+        renderer.render(labId, letterhead, mode, header, snapshot.report(), buffer);
+        byte[] bytes = buffer.toByteArray();
+        makeRoom();
+        cache.put(key, new CachedPdf(labId, snapshot.version(), letterhead.epoch(), header, bytes));
+        out.write(bytes);
+    }
+
+    private void makeRoom() {
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        Iterator<CacheKey> it = cache.keySet().iterator();
+        while (cache.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static PatientHeader header(Patient patient) {
+        Gender gender = patient.getGender() == null ? Gender.ANY : patient.getGender();
+        String age = patient.getAge() == null ? "" : String.valueOf(patient.getAge());
+        return new PatientHeader(
+            nullToEmpty(patient.getName()),
+            age + " / " + (gender == Gender.ANY ? "" : gender.getLabel()),
+            nullToEmpty(patient.getDoctorName()),
+            patient.getVisitDate() == null ? "" : DATE.format(patient.getVisitDate()),
+            nullToEmpty(patient.getMobile()),
+            nullToEmpty(patient.getAddress()),
+            gender
+        );
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
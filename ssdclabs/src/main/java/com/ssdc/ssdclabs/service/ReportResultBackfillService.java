@@ -0,0 +1,99 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdc.ssdclabs.model.ReportResult;
+import com.ssdc.ssdclabs.repository.ReportResultRepository;
+
+// Fills numeric_value, abnormal_flag and visit_date on report rows saved
+// before those columns existed. Saves classify their own rows, so once a pass
+// finds nothing left the backfill stops.
+@Service
+public class ReportResultBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportResultBackfillService.class);
+
+    private final ReportResultRepository resultRepo;
+    private final ReportService reportService;
+    private final TransactionTemplate tx;
+    private final boolean backfillEnabled;
+    private final int batchSize;
+    private volatile boolean backfillDone;
+
+    public ReportResultBackfillService(ReportResultRepository resultRepo,
+                                       ReportService reportService,
+                                       PlatformTransactionManager txManager,
+                                       @Value("${app.report-results.backfill.enabled:true}") boolean backfillEnabled,
+                                       @Value("${app.report-results.backfill.batch-size:500}") int batchSize) {
+        this.resultRepo = Objects.requireNonNull(resultRepo, "resultRepo");
+        this.reportService = Objects.requireNonNull(reportService, "reportService");
+        this.tx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+        this.backfillEnabled = backfillEnabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(initialDelayString = "${app.report-results.backfill.initial-delay-ms:90000}",
+               fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void backfillPending() {
+        if (!backfillEnabled || backfillDone) {
+            return;
+        }
+        try {
+            long classified = backfill();
+            log.info("Report result backfill classified {} rows", classified);
+            backfillDone = true;
+        } catch (RuntimeException ex) {
+            log.warn("Report result backfill failed; retrying next run", ex);
+        }
+    }
+
+    // Classifies every pending row, one short transaction per batch.
+    public long backfill() {
+        long afterId = 0;
+        long classified = 0;
+        while (true) {
+            final long from = afterId;
+            BatchResult batch = tx.execute(status -> classifyBatch(from));
+            if (batch == null || batch.lastId() == null) {
+                return classified;
+            }
+            classified += batch.classified();
+            afterId = batch.lastId();
+            if (batch.rows() < batchSize) {
+                return classified;
+            }
+        }
+    }
+
+    private record BatchResult(Long lastId, int rows, int classified) {
+    }
+
+    // Rows are read-only, so classifying them in memory never flushes; each
+    // goes back through a bulk update that leaves @Version alone and skips
+    // rows an editor saved in the meantime.
+    private BatchResult classifyBatch(long afterId) {
+        List<ReportResult> rows =
+            resultRepo.findUnclassified(afterId, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return new BatchResult(null, 0, 0);
+        }
+        reportService.classifyValues(rows);
+        int classified = 0;
+        for (ReportResult row : rows) {
+            classified += resultRepo.setClassification(
+                row.getId(), row.getNumericValue(), row.getAbnormalFlag(), row.getVisitDate());
+        }
+        return new BatchResult(rows.get(rows.size() - 1).getId(), rows.size(), classified);
+    }
+}
@@ -2,7 +2,11 @@ package com.ssdc.ssdclabs.service;
 
 import com.ssdc.ssdclabs.AppConstants;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -22,15 +26,23 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.ssdc.ssdclabs.dto.AbnormalResultDTO;
 import com.ssdc.ssdclabs.dto.PatientAppReportDTO;
 import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
 import com.ssdc.ssdclabs.dto.PatientTestSelectionDTO;
+import com.ssdc.ssdclabs.dto.ResultConflictDTO;
+import com.ssdc.ssdclabs.dto.ResultDeltaRequest;
+import com.ssdc.ssdclabs.dto.ResultDeltaResponse;
+import com.ssdc.ssdclabs.dto.ReportSnapshotDocument;
+import com.ssdc.ssdclabs.model.AbnormalFlag;
 import com.ssdc.ssdclabs.model.Gender;
 import com.ssdc.ssdclabs.model.NormalRange;
 import com.ssdc.ssdclabs.model.Patient;
 import com.ssdc.ssdclabs.model.ReportResult;
 import com.ssdc.ssdclabs.model.Test;
 import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.model.ValueType;
+import com.ssdc.ssdclabs.repository.NormalRangeRepository;
 import com.ssdc.ssdclabs.repository.PatientRepository;
 import com.ssdc.ssdclabs.repository.ReportResultRepository;
 import com.ssdc.ssdclabs.repository.TestParameterRepository;
@@ -41,20 +53,27 @@ public class ReportService {
 
     private static final Pattern EXTRA_SUFFIX_PATTERN =
         Pattern.compile("^extra-(\\d+)$", Pattern.CASE_INSENSITIVE);
+    private static final long MAX_ABNORMAL_WINDOW_DAYS = 366;
 
     private final ReportResultRepository resultRepo;
     private final TestRepository testRepo;
     private final TestParameterRepository paramRepo;
     private final PatientRepository patientRepo;
+    private final ReportSnapshotStore snapshotStore;
+    private final NormalRangeRepository normalRangeRepo;
 
     public ReportService(ReportResultRepository resultRepo,
                          TestRepository testRepo,
                          TestParameterRepository paramRepo,
-                         PatientRepository patientRepo) {
+                         PatientRepository patientRepo,
+                         ReportSnapshotStore snapshotStore,
+                         NormalRangeRepository normalRangeRepo) {
         this.resultRepo = resultRepo;
         this.testRepo = testRepo;
         this.paramRepo = paramRepo;
         this.patientRepo = patientRepo;
+        this.snapshotStore = snapshotStore;
+        this.normalRangeRepo = normalRangeRepo;
     }
 
     private boolean isCompleted(Patient patient) {
@@ -134,15 +153,31 @@ public class ReportService {
             }
         }
 
+        // Two IN queries for the whole selection instead of two per test.
+        Map<Long, Test> testsById = new HashMap<>();
+        for (Test test : testRepo.findByLabIdAndIdIn(labId, selectedTestIds)) {
+            testsById.put(test.getId(), test);
+        }
+        Map<Long, List<TestParameter>> paramsByTest = new HashMap<>();
+        if (!testsById.isEmpty()) {
+            for (TestParameter param : paramRepo.findByTestIdIn(testsById.keySet())) {
+                if (param.getTest() != null) {
+                    paramsByTest
+                        .computeIfAbsent(param.getTest().getId(), k -> new ArrayList<>())
+                        .add(param);
+                }
+            }
+        }
+
         List<ReportResult> toSave = new ArrayList<>();
         for (Long testId : selectedTestIds) {
             Long safeTestId = Objects.requireNonNull(testId, "testId");
-            Test testEntity = testRepo.findByIdAndLabId(safeTestId, labId).orElse(null);
+            Test testEntity = testsById.get(safeTestId);
             if (testEntity == null) {
                 continue;
             }
             List<TestParameter> params =
-                paramRepo.findByTest_IdOrderByIdAsc(safeTestId);
+                paramsByTest.getOrDefault(safeTestId, List.of());
             if (params.isEmpty()) {
                 continue;
             }
@@ -172,8 +207,10 @@ public class ReportService {
             resultRepo.deleteAll(toDelete);
         }
         if (!toSave.isEmpty()) {
+            classifyValues(toSave);
             resultRepo.saveAll(toSave);
         }
+        refreshSnapshotIfCompleted(labId, patient);
     }
 
     @Transactional
@@ -437,14 +474,369 @@ public class ReportService {
             resultRepo.deleteAll(toDelete);
         }
         if (!toSave.isEmpty()) {
+            classifyValues(toSave);
             resultRepo.saveAll(toSave);
         }
+        for (Patient patient : patientCache.values()) {
+            refreshSnapshotIfCompleted(labId, patient);
+        }
+    }
 
+    // Sets numeric_value and abnormal_flag from result_value, and copies the
+    // patient's visit date. Ranges for all rows come from one query, and only
+    // when some row holds a number.
+    void classifyValues(List<ReportResult> rows) {
+        Map<ReportResult, BigDecimal> numbers = new HashMap<>();
+        Set<Long> parameterIds = new HashSet<>();
+        for (ReportResult row : rows) {
+            row.setVisitDate(row.getPatient() == null ? null : row.getPatient().getVisitDate());
+            TestParameter param = row.getParameter();
+            BigDecimal number = param == null || param.getValueType() == ValueType.TEXT
+                ? null
+                : ResultValueClassifier.numericValue(row.getResultValue());
+            row.setNumericValue(number);
+            row.setAbnormalFlag(null);
+            if (number != null && param.getId() != null) {
+                numbers.put(row, number);
+                parameterIds.add(param.getId());
+            }
+        }
+        if (numbers.isEmpty()) {
+            return;
+        }
+        Map<Long, List<NormalRange>> rangesByParam = new HashMap<>();
+        for (NormalRange range : normalRangeRepo.findByParameterIdIn(parameterIds)) {
+            if (range.getParameter() != null) {
+                rangesByParam
+                    .computeIfAbsent(range.getParameter().getId(), k -> new ArrayList<>())
+                    .add(range);
+            }
+        }
+        for (Map.Entry<ReportResult, BigDecimal> entry : numbers.entrySet()) {
+            ReportResult row = entry.getKey();
+            Gender gender = row.getPatient() == null ? null : row.getPatient().getGender();
+            row.setAbnormalFlag(ResultValueClassifier.flag(
+                entry.getValue(),
+                rangesByParam.get(row.getParameter().getId()),
+                gender
+            ));
+        }
+    }
+
+    // The full save lost a race on a row's @Version and was rolled back. Lists
+    // every sent cell whose stored value now differs, in the delta-save shape,
+    // so the client can merge and resend.
+    @Transactional(readOnly = true)
+    public ResultDeltaResponse describeSaveConflicts(@NonNull String labId,
+                                                     List<PatientTestResultDTO> results) {
+        ResultDeltaResponse response = new ResultDeltaResponse();
+        if (results == null) {
+            return response;
+        }
+        record CellKey(Long testId, String subTest) {}
+        Map<Long, Map<CellKey, PatientTestResultDTO>> storedByPatient = new HashMap<>();
+        for (PatientTestResultDTO sent : results) {
+            if (sent == null || sent.patientId == null || sent.testId == null) {
+                continue;
+            }
+            String sentValue = Boolean.TRUE.equals(sent.clear) ? null : normalizeResultValue(sent.resultValue);
+            if (sentValue == null && !Boolean.TRUE.equals(sent.clear)) {
+                continue;
+            }
+            Map<CellKey, PatientTestResultDTO> stored = storedByPatient.computeIfAbsent(sent.patientId, id -> {
+                Map<CellKey, PatientTestResultDTO> cells = new HashMap<>();
+                for (PatientTestResultDTO cell : loadResults(labId, id)) {
+                    cells.putIfAbsent(new CellKey(cell.testId, normalizeSubTest(cell.subTest)), cell);
+                }
+                return cells;
+            });
+            PatientTestResultDTO current = stored.get(new CellKey(sent.testId, normalizeSubTest(sent.subTest)));
+            String currentValue = current == null ? null : emptyToNull(current.resultValue);
+            if (!Objects.equals(currentValue, sentValue)) {
+                response.conflicts.add(new ResultConflictDTO(
+                    sent.testId,
+                    sent.subTest,
+                    sent.version,
+                    current == null ? null : current.version,
+                    currentValue,
+                    sentValue
+                ));
+            }
+        }
+        return response;
+    }
+
+    /* ================= DELTA SAVE ================= */
+
+    // Applies only the changed cells of one patient. Rows of untouched
+    // parameters are never loaded; a cell whose row moved past the version the
+    // client saw is reported back as a conflict instead of overwriting it.
+    @Transactional
+    public ResultDeltaResponse saveResultDelta(@NonNull String labId,
+                                               ResultDeltaRequest request,
+                                               String editPin) {
+        ResultDeltaResponse response = new ResultDeltaResponse();
+        if (request == null || request.patientId == null
+                || request.changes == null || request.changes.isEmpty()) {
+            return response;
+        }
+        Long patientId = request.patientId;
+        Patient patient = patientRepo.findByIdAndLabId(patientId, labId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
+        if (isCompleted(patient) && !isValidCompletedEditPin(editPin)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Report is completed and locked");
+        }
+
+        Set<Long> testIds = new LinkedHashSet<>();
+        for (PatientTestResultDTO change : request.changes) {
+            if (change != null && change.testId != null) {
+                testIds.add(change.testId);
+            }
+        }
+        if (testIds.isEmpty()) {
+            return response;
+        }
+        Map<Long, Test> testsById = new HashMap<>();
+        for (Test test : testRepo.findByLabIdAndIdIn(labId, testIds)) {
+            testsById.put(test.getId(), test);
+        }
+        Map<Long, List<TestParameter>> paramsByTest = new HashMap<>();
+        if (!testsById.isEmpty()) {
+            for (TestParameter param : paramRepo.findByTestIdIn(testsById.keySet())) {
+                if (param.getTest() != null) {
+                    paramsByTest
+                        .computeIfAbsent(param.getTest().getId(), k -> new ArrayList<>())
+                        .add(param);
+                }
+            }
+        }
+
+        record GroupKey(Long testId, Long parameterId) {}
+        record Cell(PatientTestResultDTO change, int line, String value) {}
+
+        Map<GroupKey, List<Cell>> cellsByGroup = new LinkedHashMap<>();
+        Map<GroupKey, TestParameter> groupParam = new HashMap<>();
+        Map<String, TestParameter> paramByNameCache = new HashMap<>();
+        int seq = 0;
+        for (PatientTestResultDTO change : request.changes) {
+            seq++;
+            if (change == null || change.testId == null) {
+                continue;
+            }
+            List<TestParameter> params = paramsByTest.getOrDefault(change.testId, List.of());
+            if (!testsById.containsKey(change.testId) || params.isEmpty()) {
+                continue;
+            }
+            String subTest = normalizeSubTest(change.subTest);
+            TestParameter param = resolveParameter(params, subTest, paramByNameCache, change.testId);
+            if (param == null || param.getId() == null) {
+                continue;
+            }
+            String value = Boolean.TRUE.equals(change.clear)
+                ? null
+                : normalizeResultValue(change.resultValue);
+            GroupKey key = new GroupKey(change.testId, param.getId());
+            groupParam.putIfAbsent(key, param);
+            cellsByGroup.computeIfAbsent(key, k -> new ArrayList<>())
+                .add(new Cell(change, lineIndex(subTest, seq), value));
+        }
+        if (cellsByGroup.isEmpty()) {
+            return response;
+        }
+
+        Set<Long> parameterIds = new HashSet<>();
+        for (TestParameter param : groupParam.values()) {
+            parameterIds.add(param.getId());
+        }
+        Map<GroupKey, List<ReportResult>> existingByGroup = new HashMap<>();
+        for (ReportResult row : resultRepo.findByPatientAndParameterIds(labId, patientId, parameterIds)) {
+            if (row.getTest() == null || row.getParameter() == null) {
+                continue;
+            }
+            existingByGroup
+                .computeIfAbsent(new GroupKey(row.getTest().getId(), row.getParameter().getId()),
+                    k -> new ArrayList<>())
+                .add(row);
+        }
+
+        record Applied(ReportResult row, Cell cell) {}
+        List<Applied> applied = new ArrayList<>();
+        List<ReportResult> toSave = new ArrayList<>();
+        List<ReportResult> toDelete = new ArrayList<>();
+
+        for (Map.Entry<GroupKey, List<Cell>> entry : cellsByGroup.entrySet()) {
+            GroupKey key = entry.getKey();
+            TestParameter param = groupParam.get(key);
+            List<ReportResult> existing = existingByGroup.getOrDefault(key, List.of());
+            ReportResult base = pickBaseResult(existing, param.getName());
+            Long currentVersion = base == null ? null : base.getVersion();
+
+            // Legacy one-row-per-line storage is folded into the base row.
+            List<String> lines = new ArrayList<>(
+                base == null ? List.of() : splitResultLines(base.getResultValue()));
+            List<ReportResult> lineRows = new ArrayList<>();
+            for (ReportResult row : existing) {
+                String sub = normalizeSubTest(row.getSubTest());
+                if (row != base && sub != null && sub.contains("::")) {
+                    lineRows.add(row);
+                }
+            }
+            lineRows.sort((a, b) -> Integer.compare(
+                computeLineSortKey(a.getSubTest(), 0),
+                computeLineSortKey(b.getSubTest(), 0)));
+            for (ReportResult row : lineRows) {
+                lines.addAll(splitResultLines(row.getResultValue()));
+            }
+
+            List<Cell> groupApplied = new ArrayList<>();
+            for (Cell cell : entry.getValue()) {
+                String current = cell.line() >= 0 && cell.line() < lines.size()
+                    ? lines.get(cell.line())
+                    : null;
+                if (Objects.equals(emptyToNull(current), cell.value())) {
+                    continue;
+                }
+                if (isStale(cell.change().version, currentVersion, current)) {
+                    response.conflicts.add(new ResultConflictDTO(
+                        key.testId(),
+                        cell.change().subTest,
+                        cell.change().version,
+                        currentVersion,
+                        current,
+                        cell.value()
+                    ));
+                    continue;
+                }
+                if (cell.line() >= 0 && cell.line() < lines.size()) {
+                    lines.set(cell.line(), cell.value() == null ? "" : cell.value());
+                } else if (cell.value() != null) {
+                    lines.add(cell.value());
+                }
+                groupApplied.add(cell);
+            }
+            if (groupApplied.isEmpty() && lineRows.isEmpty()) {
+                continue;
+            }
+
+            List<String> kept = new ArrayList<>();
+            for (String line : lines) {
+                if (!isBlank(line)) {
+                    kept.add(line.trim());
+                }
+            }
+            String combined = kept.isEmpty() ? null : String.join("\n", kept);
+            if (base == null) {
+                if (combined == null) {
+                    continue;
+                }
+                base = new ReportResult();
+                base.setPatient(patient);
+                base.setTest(testsById.get(key.testId()));
+                base.setParameter(param);
+                base.setSubTest("");
+            }
+            base.setResultValue(combined);
+            toSave.add(base);
+            toDelete.addAll(lineRows);
+            for (Cell cell : groupApplied) {
+                applied.add(new Applied(base, cell));
+            }
+        }
+
+        if (!toDelete.isEmpty()) {
+            resultRepo.deleteAll(toDelete);
+        }
+        if (!toSave.isEmpty()) {
+            classifyValues(toSave);
+            // Flush so the response carries the bumped row versions.
+            resultRepo.saveAllAndFlush(toSave);
+            refreshSnapshotIfCompleted(labId, patient);
+        }
+        for (Applied item : applied) {
+            PatientTestResultDTO dto = new PatientTestResultDTO(
+                item.row().getId(),
+                patientId,
+                item.row().getTest() == null ? null : item.row().getTest().getId(),
+                item.cell().change().subTest,
+                item.cell().value()
+            );
+            response.applied.add(withVersion(dto, item.row()));
+        }
+        return response;
+    }
+
+    // 0-based line of a "Name::n" cell; -1 appends ("Name::extra-1" and friends).
+    private int lineIndex(String subTest, int seq) {
+        int key = computeLineSortKey(subTest, seq);
+        if (key == 0) {
+            return 0;
+        }
+        return key >= 1000 ? -1 : key - 1;
+    }
+
+    // A versioned cell must match the stored row; an unversioned one may only
+    // fill a line the client could not have seen a value for.
+    private boolean isStale(Long expectedVersion, Long currentVersion, String currentValue) {
+        if (expectedVersion != null) {
+            return !expectedVersion.equals(currentVersion);
+        }
+        return !isBlank(currentValue);
+    }
+
+    private String emptyToNull(String value) {
+        return isBlank(value) ? null : value.trim();
+    }
+
+    /* ================= REPORT SNAPSHOTS ================= */
+
+    // Freezes the assembled report; called when a patient is marked COMPLETED.
+    @Transactional
+    public long captureSnapshot(@NonNull String labId, @NonNull Long patientId) {
+        List<PatientTestResultDTO> results = loadResults(labId, patientId);
+        ReportSnapshotDocument document = new ReportSnapshotDocument(
+            0L,
+            loadSelectedTests(labId, patientId),
+            results,
+            assembleReportForApp(results)
+        );
+        return snapshotStore.save(labId, patientId, document);
+    }
+
+    // Only a PIN-authorized reopen gets here; reads fall back to report_results.
+    @Transactional
+    public void invalidateSnapshot(@NonNull Long patientId) {
+        snapshotStore.invalidate(patientId);
+    }
+
+    @Transactional
+    public void deleteSnapshot(@NonNull Long patientId) {
+        snapshotStore.delete(patientId);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportSnapshotDocument getSnapshot(@NonNull String labId, @NonNull Long patientId) {
+        return snapshotStore.find(labId, patientId);
+    }
+
+    // A PIN-authorized edit of a completed report re-freezes it in the same transaction.
+    private void refreshSnapshotIfCompleted(String labId, Patient patient) {
+        if (patient != null && patient.getId() != null && isCompleted(patient)) {
+            captureSnapshot(labId, patient.getId());
+        }
     }
 
     @Transactional(readOnly = true)
     public List<PatientTestSelectionDTO> getSelectedTests(@NonNull String labId,
                                                          @NonNull Long patientId) {
+        ReportSnapshotDocument snapshot = snapshotStore.find(labId, patientId);
+        if (snapshot != null) {
+            return snapshot.selectedTests();
+        }
+        return loadSelectedTests(labId, patientId);
+    }
+
+    private List<PatientTestSelectionDTO> loadSelectedTests(@NonNull String labId,
+                                                            @NonNull Long patientId) {
         List<ReportResult> results = resultRepo.findByPatient_Id(
             Objects.requireNonNull(labId, "labId"),
             Objects.requireNonNull(patientId, "patientId"));
@@ -479,6 +871,48 @@ public class ReportService {
     @Transactional(readOnly = true)
     public List<PatientTestResultDTO> getResults(@NonNull String labId,
                                                  @NonNull Long patientId) {
+        ReportSnapshotDocument snapshot = snapshotStore.find(labId, patientId);
+        if (snapshot != null) {
+            return snapshot.results();
+        }
+        return loadResults(labId, patientId);
+    }
+
+    // Flagged results of one parameter across the lab's visits in [from, to];
+    // a null flag means both LOW and HIGH.
+    @Transactional(readOnly = true)
+    public List<AbnormalResultDTO> findAbnormalResults(@NonNull String labId,
+                                                       @NonNull Long parameterId,
+                                                       AbnormalFlag flag,
+                                                       @NonNull LocalDate from,
+                                                       @NonNull LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_ABNORMAL_WINDOW_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Date range must be at most " + MAX_ABNORMAL_WINDOW_DAYS + " days");
+        }
+        Set<AbnormalFlag> flags = flag == null ? EnumSet.allOf(AbnormalFlag.class) : EnumSet.of(flag);
+        List<AbnormalResultDTO> out = new ArrayList<>();
+        for (ReportResult row : resultRepo.findAbnormalByParameter(labId, parameterId, flags, from, to)) {
+            Patient patient = row.getPatient();
+            out.add(new AbnormalResultDTO(
+                patient.getId(),
+                patient.getName(),
+                row.getVisitDate() == null ? null : row.getVisitDate().toString(),
+                row.getTest() == null ? null : row.getTest().getId(),
+                normalizeSubTest(row.getSubTest()),
+                row.getResultValue(),
+                row.getNumericValue(),
+                row.getAbnormalFlag()
+            ));
+        }
+        return out;
+    }
+
+    private List<PatientTestResultDTO> loadResults(@NonNull String labId,
+                                                   @NonNull Long patientId) {
         List<ReportResult> results = resultRepo.findByPatient_Id(
             Objects.requireNonNull(labId, "labId"),
             Objects.requireNonNull(patientId, "patientId"));
@@ -523,25 +957,26 @@ public class ReportService {
             }
 
             List<String> lines = splitResultLines(result.getResultValue());
+            int readingLine = readingLine(lines);
             if (lines.isEmpty()) {
-                response.add(new PatientTestResultDTO(
+                response.add(withVersion(new PatientTestResultDTO(
                     result.getId(),
                     patientId,
                     testId,
                     baseSubTest,
                     result.getResultValue()
-                ));
+                ), result));
                 continue;
             }
 
             if (isLineRow) {
-                response.add(new PatientTestResultDTO(
+                response.add(withFlag(withVersion(new PatientTestResultDTO(
                     result.getId(),
                     patientId,
                     testId,
                     rawSubTest,
                     lines.get(0)
-                ));
+                ), result), result, readingLine == 0));
                 continue;
             }
 
@@ -559,18 +994,42 @@ public class ReportService {
                 } else {
                     subOut = prefix + "::" + (i + 1);
                 }
-                response.add(new PatientTestResultDTO(
+                response.add(withFlag(withVersion(new PatientTestResultDTO(
                     result.getId(),
                     patientId,
                     testId,
                     subOut,
                     value
-                ));
+                ), result), result, i == readingLine));
             }
         }
         return response;
     }
 
+    private static PatientTestResultDTO withVersion(PatientTestResultDTO dto, ReportResult row) {
+        dto.version = row.getVersion();
+        return dto;
+    }
+
+    private static PatientTestResultDTO withFlag(PatientTestResultDTO dto,
+                                                 ReportResult row,
+                                                 boolean holdsReading) {
+        if (holdsReading) {
+            dto.abnormalFlag = row.getAbnormalFlag();
+        }
+        return dto;
+    }
+
+    // Index of the line numeric_value was read from, or -1.
+    private static int readingLine(List<String> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (ResultValueClassifier.parse(lines.get(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private int computeLineSortKey(String subTest, int seq) {
         if (subTest == null) {
             return 0;
@@ -800,9 +1259,16 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public List<PatientAppReportDTO> getReportForApp(@NonNull String labId, @NonNull Long patientId) {
+        ReportSnapshotDocument snapshot = snapshotStore.find(labId, patientId);
+        if (snapshot != null) {
+            return snapshot.report();
+        }
+        return assembleReportForApp(loadResults(labId, patientId));
+    }
+
+    private List<PatientAppReportDTO> assembleReportForApp(List<PatientTestResultDTO> rawResults) {
         record AppRow(int seq, PatientAppReportDTO dto) {}
 
-        List<PatientTestResultDTO> rawResults = getResults(labId, patientId);
         if (rawResults.isEmpty()) {
             return List.of();
         }
@@ -819,6 +1285,12 @@ public class ReportService {
         List<Test> tests = testRepo.findAllById(testIds);
         Map<Long, Test> testMap = tests.stream()
             .collect(Collectors.toMap(Test::getId, t -> t));
+        Map<Long, List<TestParameter>> paramsByTest = new HashMap<>();
+        for (TestParameter p : paramRepo.findByTestIdInWithRanges(testIds)) {
+            if (p != null && p.getTest() != null) {
+                paramsByTest.computeIfAbsent(p.getTest().getId(), k -> new ArrayList<>()).add(p);
+            }
+        }
 
         List<Test> orderedTests = new ArrayList<>(testMap.values());
         orderedTests.sort(this::compareTestsByPriority);
@@ -838,16 +1310,15 @@ public class ReportService {
 
             String paramName = extractBaseName(raw.subTest);
             TestParameter param = null;
-            if (test.getParameters() != null) {
-                for (TestParameter p : test.getParameters()) {
-                     if (p.getName() != null && p.getName().equalsIgnoreCase(paramName)) {
-                         param = p;
-                         break;
-                     }
-                }
-                if (param == null && !test.getParameters().isEmpty() && (paramName == null || paramName.isEmpty())) {
-                     param = test.getParameters().get(0);
-                }
+            List<TestParameter> testParams = paramsByTest.getOrDefault(test.getId(), List.of());
+            for (TestParameter p : testParams) {
+                 if (p.getName() != null && p.getName().equalsIgnoreCase(paramName)) {
+                     param = p;
+                     break;
+                 }
+            }
+            if (param == null && !testParams.isEmpty() && (paramName == null || paramName.isEmpty())) {
+                 param = testParams.get(0);
             }
 
             String unit = "";
@@ -858,14 +1329,16 @@ public class ReportService {
                 normal = formatNormalRanges(param.getNormalRanges());
             }
 
-            enrichedRows.add(new AppRow(seq++, new PatientAppReportDTO(
+            PatientAppReportDTO dto = new PatientAppReportDTO(
                     raw.testId,
                     test.getTestName(),
                     raw.subTest,
                     raw.resultValue,
                     unit,
                     normal
-            )));
+            );
+            dto.abnormalFlag = raw.abnormalFlag;
+            enrichedRows.add(new AppRow(seq++, dto));
         }
 
         enrichedRows.sort((a, b) -> {
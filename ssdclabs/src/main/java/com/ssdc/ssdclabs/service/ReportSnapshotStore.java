@@ -0,0 +1,85 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.dto.ReportSnapshotDocument;
+import com.ssdc.ssdclabs.model.ReportSnapshot;
+import com.ssdc.ssdclabs.repository.ReportSnapshotRepository;
+
+// Persists the assembled report of a COMPLETED patient as one JSON document,
+// so reads are a primary-key lookup instead of a rebuild from report_results.
+@Component
+public class ReportSnapshotStore {
+
+    private final ReportSnapshotRepository snapshotRepo;
+    private final ObjectMapper objectMapper;
+
+    public ReportSnapshotStore(ReportSnapshotRepository snapshotRepo,
+                               ObjectMapper objectMapper) {
+        this.snapshotRepo = Objects.requireNonNull(snapshotRepo, "snapshotRepo");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+    }
+
+    public ReportSnapshotDocument find(String labId, Long patientId) {
+        if (labId == null || patientId == null) {
+            return null;
+        }
+        ReportSnapshot row = snapshotRepo.findById(patientId).orElse(null);
+        if (row == null || row.getPayload() == null || !labId.equals(row.getLabId())) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(row.getPayload(), ReportSnapshotDocument.class)
+                .withVersion(row.getVersion());
+        } catch (JsonProcessingException ex) {
+            // Unreadable document: fall back to rebuilding from report_results.
+            return null;
+        }
+    }
+
+    public long save(String labId, Long patientId, ReportSnapshotDocument document) {
+        ReportSnapshot row = snapshotRepo.findById(patientId).orElse(null);
+        long version;
+        if (row == null) {
+            row = new ReportSnapshot();
+            row.setPatientId(patientId);
+            row.setLabId(labId);
+            version = 1L;
+        } else {
+            version = row.getVersion() == null ? 1L : row.getVersion() + 1;
+        }
+        try {
+            row.setPayload(objectMapper.writeValueAsString(document.withVersion(version)));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize report snapshot", ex);
+        }
+        row.setVersion(version);
+        row.setCapturedAt(Instant.now());
+        snapshotRepo.save(row);
+        return version;
+    }
+
+    // Keeps the row so the next capture gets a fresh, never-reused version.
+    public void invalidate(Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        snapshotRepo.findById(patientId).ifPresent(row -> {
+            if (row.getPayload() != null) {
+                row.setPayload(null);
+                snapshotRepo.save(row);
+            }
+        });
+    }
+
+    public void delete(Long patientId) {
+        if (patientId != null) {
+            snapshotRepo.deleteById(patientId);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ssdc.ssdclabs.dto.AutosaveRejectedCellDTO;
+import com.ssdc.ssdclabs.dto.AutosaveStatusDTO;
+import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
+import com.ssdc.ssdclabs.dto.ResultConflictDTO;
+import com.ssdc.ssdclabs.dto.ResultDeltaRequest;
+import com.ssdc.ssdclabs.dto.ResultDeltaResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// Write-behind buffer for keystroke autosave. Single-cell edits are coalesced
+// per patient (last value per cell wins) and written through the delta save in
+// one transaction per patient on a short timer, on explicit save/complete, and
+// on shutdown.
+@Component
+public class ResultAutosaveBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultAutosaveBuffer.class);
+
+    private record PatientKey(String labId, Long patientId) {
+    }
+
+    private record CellKey(Long testId, String subTest) {
+        static CellKey of(PatientTestResultDTO cell) {
+            String sub = cell.subTest == null ? "" : cell.subTest.trim().toLowerCase(Locale.ROOT);
+            return new CellKey(cell.testId, sub);
+        }
+    }
+
+    // Version the client loaded for a row, and the version our own flushes
+    // have moved it to since; lets later keystrokes on that row not conflict
+    // with this buffer's earlier writes.
+    private record RowVersion(Long seen, Long current) {
+    }
+
+    private static final class PatientBuffer {
+        final ReentrantLock flushLock = new ReentrantLock();
+        final Map<CellKey, PatientTestResultDTO> pending = new LinkedHashMap<>();
+        final Map<Long, RowVersion> rowVersions = new HashMap<>();
+        final Map<CellKey, PatientTestResultDTO> written = new HashMap<>();
+        final List<ResultConflictDTO> conflicts = new ArrayList<>();
+        final List<AutosaveRejectedCellDTO> rejected = new ArrayList<>();
+        String editPin;
+        long firstPendingAt;
+        long lastTouchedAt;
+        // Set under the buffer's monitor when it leaves the map; submit then
+        // starts a fresh buffer instead of writing into a detached one.
+        boolean retired;
+    }
+
+    private final ReportService reportService;
+    private final long flushDelayMillis;
+    private final long idleMillis;
+    private final Map<PatientKey, PatientBuffer> buffers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // Published on the management port only: the buffer spans every lab.
+    private final Timer flushTimer;
+    private final Counter flushedCells;
+    private final Counter coalescedCells;
+    private final Counter conflictCount;
+    private final Counter failures;
+
+    @Autowired
+    public ResultAutosaveBuffer(ReportService reportService,
+                                MeterRegistry registry,
+                                @Value("${app.autosave.flush-delay-ms:1500}") long flushDelayMillis,
+                                @Value("${app.autosave.idle-seconds:1800}") long idleSeconds) {
+        this(reportService, registry, flushDelayMillis, Duration.ofSeconds(Math.max(1L, idleSeconds)));
+    }
+
+    ResultAutosaveBuffer(ReportService reportService, MeterRegistry registry,
+                         long flushDelayMillis, Duration idle) {
+        this.reportService = Objects.requireNonNull(reportService, "reportService");
+        Objects.requireNonNull(registry, "registry");
+        this.flushDelayMillis = Math.max(0L, flushDelayMillis);
+        this.idleMillis = Math.max(0L, idle.toMillis());
+        this.flushTimer = Timer.builder("autosave.flushes")
+            .description("Buffered autosave writes, one per patient flush")
+            .register(registry);
+        this.flushedCells = counter(registry, "autosave.cells.flushed", "Cells written by autosave flushes");
+        this.coalescedCells = counter(registry, "autosave.cells.coalesced",
+            "Keystrokes replaced by a later value before being written");
+        this.conflictCount = counter(registry, "autosave.conflicts", "Cells a flush found changed by someone else");
+        this.failures = counter(registry, "autosave.failures", "Autosave flushes that failed or were rejected");
+        Gauge.builder("autosave.pending.cells", this, b -> b.pending()[1])
+            .description("Cells buffered and not yet written")
+            .register(registry);
+        Gauge.builder("autosave.pending.patients", this, b -> b.pending()[0])
+            .description("Patients with buffered cells")
+            .register(registry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String description) {
+        return Counter.builder(name).description(description).register(registry);
+    }
+
+    // Queues one cell. Returns what is still pending for the patient and any
+    // conflicts or rejected cells earlier flushes ran into (each reported once).
+    public AutosaveStatusDTO submit(@NonNull String labId, PatientTestResultDTO cell, String editPin) {
+        Objects.requireNonNull(labId, "labId");
+        if (cell == null || cell.patientId == null || cell.testId == null) {
+            return new AutosaveStatusDTO(0, List.of(), List.of());
+        }
+        PatientKey key = new PatientKey(labId, cell.patientId);
+        PatientBuffer buffer;
+        while (true) {
+            buffer = buffers.computeIfAbsent(key, k -> new PatientBuffer());
+            long now = System.currentTimeMillis();
+            synchronized (buffer) {
+                if (buffer.retired) {
+                    continue;
+                }
+                if (buffer.pending.isEmpty()) {
+                    buffer.firstPendingAt = now;
+                }
+                if (buffer.pending.put(CellKey.of(cell), copyOf(cell)) != null) {
+                    coalescedCells.increment();
+                }
+                buffer.lastTouchedAt = now;
+                if (editPin != null) {
+                    buffer.editPin = editPin;
+                }
+                break;
+            }
+        }
+        if (closed) {
+            flush(key, buffer);
+        }
+        return drain(buffer);
+    }
+
+    // Writes a patient's pending cells now (explicit save and complete).
+    public void flushPatient(@NonNull String labId, Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        PatientKey key = new PatientKey(Objects.requireNonNull(labId, "labId"), patientId);
+        PatientBuffer buffer = buffers.get(key);
+        if (buffer != null) {
+            flush(key, buffer);
+        }
+    }
+
+    // Pending count and not yet reported conflicts and rejections for one patient.
+    public AutosaveStatusDTO status(@NonNull String labId, Long patientId) {
+        PatientBuffer buffer = patientId == null
+            ? null
+            : buffers.get(new PatientKey(Objects.requireNonNull(labId, "labId"), patientId));
+        return buffer == null ? new AutosaveStatusDTO(0, List.of(), List.of()) : drain(buffer);
+    }
+
+    @Scheduled(fixedDelayString = "${app.autosave.flush-delay-ms:1500}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<PatientKey, PatientBuffer> entry : buffers.entrySet()) {
+            PatientBuffer buffer = entry.getValue();
+            boolean due;
+            synchronized (buffer) {
+                due = !buffer.pending.isEmpty() && now - buffer.firstPendingAt >= flushDelayMillis;
+            }
+            if (due) {
+                flush(entry.getKey(), buffer);
+            } else {
+                retireIfIdle(entry.getKey(), buffer, now);
+            }
+        }
+    }
+
+    // Drops an idle, empty buffer. The check and the removal happen under the
+    // buffer's monitor, so a concurrent submit either lands before (and keeps
+    // the buffer) or sees it retired and creates a new one. A buffer that is
+    // mid-flush is left for the next run.
+    private void retireIfIdle(PatientKey key, PatientBuffer buffer, long now) {
+        if (!buffer.flushLock.tryLock()) {
+            return;
+        }
+        try {
+            synchronized (buffer) {
+                if (buffer.pending.isEmpty() && now - buffer.lastTouchedAt >= idleMillis) {
+                    buffer.retired = true;
+                    buffers.remove(key, buffer);
+                }
+            }
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        closed = true;
+        for (Map.Entry<PatientKey, PatientBuffer> entry : buffers.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // {patients, cells} still waiting to be written, across all labs.
+    private int[] pending() {
+        int patients = 0;
+        int cells = 0;
+        for (PatientBuffer buffer : buffers.values()) {
+            synchronized (buffer) {
+                if (!buffer.pending.isEmpty()) {
+                    patients++;
+                    cells += buffer.pending.size();
+                }
+            }
+        }
+        return new int[] {patients, cells};
+    }
+
+    private static AutosaveStatusDTO drain(PatientBuffer buffer) {
+        synchronized (buffer) {
+            List<ResultConflictDTO> conflicts = List.copyOf(buffer.conflicts);
+            List<AutosaveRejectedCellDTO> rejected = List.copyOf(buffer.rejected);
+            buffer.conflicts.clear();
+            buffer.rejected.clear();
+            return new AutosaveStatusDTO(buffer.pending.size(), conflicts, rejected);
+        }
+    }
+
+    private void flush(PatientKey key, PatientBuffer buffer) {
+        buffer.flushLock.lock();
+        try {
+            List<PatientTestResultDTO> changes;
+            String editPin;
+            synchronized (buffer) {
+                if (buffer.pending.isEmpty()) {
+                    return;
+                }
+                changes = new ArrayList<>(buffer.pending.values());
+                buffer.pending.clear();
+                editPin = buffer.editPin;
+            }
+            // Rebased under the flush lock, so it sees every earlier flush.
+            Map<PatientTestResultDTO, Long> seenVersions = new HashMap<>();
+            for (PatientTestResultDTO change : changes) {
+                seenVersions.put(change, change.version);
+                rebase(buffer, change);
+            }
+
+            long started = System.nanoTime();
+            ResultDeltaResponse response;
+            try {
+                response = reportService.saveResultDelta(
+                    key.labId(), new ResultDeltaRequest(key.patientId(), changes), editPin);
+            } catch (ResponseStatusException ex) {
+                // Missing patient or locked report: retrying cannot help, so
+                // the cells are handed back to the client as rejected.
+                failures.increment();
+                log.warn("Autosave rejected {} cells for patient {}: {}",
+                    changes.size(), key.patientId(), ex.getReason());
+                reject(buffer, changes, ex.getReason());
+                return;
+            } catch (RuntimeException ex) {
+                failures.increment();
+                requeue(buffer, changes, seenVersions);
+                log.warn("Autosave flush failed for patient {}, will retry", key.patientId(), ex);
+                return;
+            }
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            flushedCells.increment(changes.size());
+
+            synchronized (buffer) {
+                for (PatientTestResultDTO applied : response.applied) {
+                    remember(buffer, applied, seenVersions, changes);
+                }
+                if (!response.conflicts.isEmpty()) {
+                    buffer.conflicts.addAll(response.conflicts);
+                    conflictCount.increment(response.conflicts.size());
+                }
+            }
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    private void rebase(PatientBuffer buffer, PatientTestResultDTO change) {
+        synchronized (buffer) {
+            if (change.id == null) {
+                PatientTestResultDTO written = buffer.written.get(CellKey.of(change));
+                if (written != null && change.version == null) {
+                    RowVersion row = buffer.rowVersions.get(written.id);
+                    change.id = written.id;
+                    change.version = row == null ? written.version : row.current();
+                }
+                return;
+            }
+            RowVersion row = buffer.rowVersions.get(change.id);
+            if (row != null && Objects.equals(row.seen(), change.version)) {
+                change.version = row.current();
+            }
+        }
+    }
+
+    private void remember(PatientBuffer buffer,
+                          PatientTestResultDTO applied,
+                          Map<PatientTestResultDTO, Long> seenVersions,
+                          List<PatientTestResultDTO> changes) {
+        if (applied.id == null) {
+            return;
+        }
+        CellKey cell = CellKey.of(applied);
+        Long seen = null;
+        for (PatientTestResultDTO change : changes) {
+            if (CellKey.of(change).equals(cell)) {
+                seen = seenVersions.get(change);
+                break;
+            }
+        }
+        RowVersion previous = buffer.rowVersions.get(applied.id);
+        Long clientSeen = previous != null ? previous.seen() : seen;
+        buffer.rowVersions.put(applied.id, new RowVersion(clientSeen, applied.version));
+        buffer.written.put(cell, applied);
+    }
+
+    // A failed flush puts its cells back unless a newer keystroke replaced them.
+    private void requeue(PatientBuffer buffer,
+                         List<PatientTestResultDTO> changes,
+                         Map<PatientTestResultDTO, Long> seenVersions) {
+        synchronized (buffer) {
+            for (PatientTestResultDTO change : changes) {
+                change.version = seenVersions.get(change);
+                if (buffer.pending.putIfAbsent(CellKey.of(change), change) == null
+                        && buffer.pending.size() == 1) {
+                    buffer.firstPendingAt = System.currentTimeMillis();
+                }
+            }
+        }
+    }
+
+    private static void reject(PatientBuffer buffer, List<PatientTestResultDTO> changes, String reason) {
+        String why = reason == null || reason.isBlank() ? "Not saved" : reason;
+        synchronized (buffer) {
+            for (PatientTestResultDTO change : changes) {
+                String value = Boolean.TRUE.equals(change.clear) ? "" : change.resultValue;
+                buffer.rejected.add(new AutosaveRejectedCellDTO(change.testId, change.subTest, value, why));
+            }
+        }
+    }
+
+    private static PatientTestResultDTO copyOf(PatientTestResultDTO cell) {
+        PatientTestResultDTO copy = new PatientTestResultDTO(
+            cell.id, cell.patientId, cell.testId, cell.subTest, cell.resultValue);
+        copy.clear = cell.clear;
+        copy.version = cell.version;
+        return copy;
+    }
+}
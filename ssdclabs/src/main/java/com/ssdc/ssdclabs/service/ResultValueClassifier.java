@@ -0,0 +1,93 @@
+package com.ssdc.ssdclabs.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.NormalRange;
+
+// Write-time parsing of result text into report_results.numeric_value and
+// abnormal_flag.
+final class ResultValueClassifier {
+
+    private static final Pattern PLAIN_NUMBER =
+        Pattern.compile("^[-+]?(\\d+(\\.\\d*)?|\\.\\d+)$");
+    // "4,000", "1,50,000" (Indian grouping); "4,5" stays unparsed.
+    private static final Pattern GROUPED_NUMBER =
+        Pattern.compile("^[-+]?\\d{1,3}(,\\d{2,3})+(\\.\\d+)?$");
+    private static final BigDecimal MAX_ABS = new BigDecimal("99999999999999");
+
+    private ResultValueClassifier() {
+    }
+
+    // First line of the stored value that is a plain number, else null.
+    static BigDecimal numericValue(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        for (String line : stored.split("\\R")) {
+            BigDecimal value = parse(line);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    static BigDecimal parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim().replace(" ", "");
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (GROUPED_NUMBER.matcher(value).matches()) {
+            value = value.replace(",", "");
+        } else if (!PLAIN_NUMBER.matcher(value).matches()) {
+            return null;
+        }
+        BigDecimal parsed = new BigDecimal(value).setScale(4, RoundingMode.HALF_UP);
+        return parsed.abs().compareTo(MAX_ABS) > 0 ? null : parsed;
+    }
+
+    // Checks against the range for the patient's gender, falling back to the
+    // ANY range; no numeric range means no flag.
+    static AbnormalFlag flag(BigDecimal value, List<NormalRange> ranges, Gender gender) {
+        if (value == null || ranges == null || ranges.isEmpty()) {
+            return null;
+        }
+        NormalRange range = pickRange(ranges, gender == null ? Gender.ANY : gender);
+        if (range == null) {
+            return null;
+        }
+        double number = value.doubleValue();
+        if (range.getMinValue() != null && number < range.getMinValue()) {
+            return AbnormalFlag.LOW;
+        }
+        if (range.getMaxValue() != null && number > range.getMaxValue()) {
+            return AbnormalFlag.HIGH;
+        }
+        return null;
+    }
+
+    private static NormalRange pickRange(List<NormalRange> ranges, Gender gender) {
+        NormalRange fallback = null;
+        for (NormalRange range : ranges) {
+            if (range == null || (range.getMinValue() == null && range.getMaxValue() == null)) {
+                continue;
+            }
+            Gender rangeGender = range.getGender() == null ? Gender.ANY : range.getGender();
+            if (rangeGender == gender) {
+                return range;
+            }
+            if (rangeGender == Gender.ANY && fallback == null) {
+                fallback = range;
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ssdc.ssdclabs.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ssdc.ssdclabs.model.Doctor;
+import com.ssdc.ssdclabs.model.LabDailyRevenue;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository.DailyRevenueRow;
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+// Keeps lab_daily_revenue in step with patient billing. Patient writes move
+// their share between (date, doctor) buckets inside the caller's transaction;
+// a nightly job re-derives every lab from patients and rebuilds on drift.
+@Service
+public class RevenueRollupService extends DailyRollupService<DailyRevenueRow> {
+
+    private static final double TOLERANCE = 0.01;
+
+    // One patient's share of a bucket.
+    public record Contribution(LocalDate day,
+                               long doctorId,
+                               double billed,
+                               double discount,
+                               double paid,
+                               double commission) {
+    }
+
+    private final LabDailyRevenueRepository rollupRepo;
+    private final double defaultCommissionRate;
+
+    public RevenueRollupService(LabDailyRevenueRepository rollupRepo,
+                                LabRepository labRepo,
+                                PlatformTransactionManager txManager,
+                                @Value("${accounts.default-commission-rate:0}") double defaultCommissionRate) {
+        super("Revenue rollup", labRepo, txManager);
+        this.rollupRepo = Objects.requireNonNull(rollupRepo, "rollupRepo");
+        this.defaultCommissionRate = defaultCommissionRate;
+    }
+
+    // Same money rules as AccountsService: discount and paid are clamped, and
+    // SELF (or no doctor) earns no commission.
+    public Contribution contributionOf(Patient patient) {
+        if (patient == null) {
+            return null;
+        }
+        double bill = patient.getAmount() == null ? 0 : patient.getAmount();
+        double discount = patient.getDiscount() == null ? 0 : Math.max(0, patient.getDiscount());
+        double paid = patient.getPaid() == null ? 0 : Math.max(0, patient.getPaid());
+        if (bill >= 0) {
+            paid = Math.min(paid, bill);
+        }
+        Doctor doctor = patient.getDoctor();
+        long doctorId = doctor == null || doctor.getId() == null ? LabDailyRevenue.NO_DOCTOR : doctor.getId();
+        return new Contribution(
+            patient.getVisitDate() == null ? NO_DATE : patient.getVisitDate(),
+            doctorId,
+            bill,
+            discount,
+            paid,
+            bill * (commissionRate(doctor) / 100.0)
+        );
+    }
+
+    public double commissionRate(Doctor doctor) {
+        if (doctor == null) {
+            return 0;
+        }
+        String name = doctor.getName() == null ? "" : doctor.getName().trim();
+        if (name.isEmpty() || "SELF".equalsIgnoreCase(name)) {
+            return 0;
+        }
+        return doctor.getCommissionRate() != null ? doctor.getCommissionRate() : defaultCommissionRate;
+    }
+
+    // Moves a patient from its old bucket to its new one (either may be null).
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(@NonNull String labId, Contribution before, Contribution after) {
+        Objects.requireNonNull(labId, "labId");
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            rollupRepo.addToDay(labId, before.day(), before.doctorId(), -1,
+                -before.billed(), -before.discount(), -before.paid(), -before.commission());
+        }
+        if (after != null) {
+            rollupRepo.addToDay(labId, after.day(), after.doctorId(), 1,
+                after.billed(), after.discount(), after.paid(), after.commission());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void doctorRateChanged(@NonNull String labId, Doctor doctor) {
+        if (doctor == null || doctor.getId() == null) {
+            return;
+        }
+        rollupRepo.recomputeCommission(Objects.requireNonNull(labId, "labId"),
+            doctor.getId(), commissionRate(doctor));
+    }
+
+    @Scheduled(cron = "${app.accounts.rollup.verify-cron:0 30 2 * * *}", zone = "Asia/Kolkata")
+    public void verifyAllLabs() {
+        verifyEveryLab();
+    }
+
+    @Override
+    protected void deleteRows(String labId) {
+        rollupRepo.deleteByLabId(labId);
+    }
+
+    @Override
+    protected int insertFromPatients(String labId) {
+        return rollupRepo.rebuildFromPatients(labId, defaultCommissionRate);
+    }
+
+    @Override
+    protected List<DailyRevenueRow> storedRows(String labId) {
+        return rollupRepo.findRowsByLabId(labId);
+    }
+
+    @Override
+    protected List<DailyRevenueRow> expectedRows(String labId) {
+        return rollupRepo.computeFromPatients(labId, defaultCommissionRate);
+    }
+
+    @Override
+    protected Object bucketOf(DailyRevenueRow row) {
+        return row.getRevenueDate() + "/" + row.getDoctorId();
+    }
+
+    @Override
+    protected boolean isEmpty(DailyRevenueRow row) {
+        return row.getPatientCount() == null || row.getPatientCount() == 0;
+    }
+
+    @Override
+    protected boolean sameTotals(DailyRevenueRow a, DailyRevenueRow b) {
+        return Objects.equals(a.getPatientCount(), b.getPatientCount())
+            && close(a.getBilled(), b.getBilled())
+            && close(a.getDiscount(), b.getDiscount())
+            && close(a.getPaid(), b.getPaid())
+            && close(a.getCommission(), b.getCommission());
+    }
+
+    private static boolean close(Double a, Double b) {
+        double x = a == null ? 0 : a;
+        double y = b == null ? 0 : b;
+        return Math.abs(x - y) < TOLERANCE;
+    }
+}
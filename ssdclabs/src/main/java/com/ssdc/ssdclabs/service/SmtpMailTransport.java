@@ -0,0 +1,30 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.Objects;
+
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+// Sends through spring.mail.* (Gmail SMTP in production).
+public class SmtpMailTransport implements MailTransport {
+
+    private final JavaMailSender sender;
+    private final String from;
+
+    public SmtpMailTransport(JavaMailSender sender, String from) {
+        this.sender = Objects.requireNonNull(sender, "sender");
+        this.from = from == null ? "" : from.trim();
+    }
+
+    @Override
+    public void send(String to, String subject, String body) {
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setTo(to);
+        if (!from.isEmpty()) {
+            msg.setFrom(from);
+        }
+        msg.setSubject(subject);
+        msg.setText(body);
+        sender.send(msg);
+    }
+}
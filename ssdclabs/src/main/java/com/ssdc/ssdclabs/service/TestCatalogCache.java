@@ -0,0 +1,80 @@
+package com.ssdc.ssdclabs.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ssdc.ssdclabs.dto.TestViewDTO;
+
+// Per-lab, immutable snapshot of the prebuilt catalog views.
+// Every catalog write bumps the lab version; a snapshot built against an
+// older version is never published, so readers cannot see stale catalogs.
+@Component
+public class TestCatalogCache {
+
+    public record Snapshot(long version,
+                           List<TestViewDTO> allTests,
+                           List<TestViewDTO> activeTests) {
+    }
+
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public @NonNull Snapshot get(@NonNull String labId,
+                                 @NonNull Supplier<List<TestViewDTO>> loader) {
+        String key = Objects.requireNonNull(labId, "labId");
+        Snapshot current = snapshots.get(key);
+        if (current != null) {
+            return current;
+        }
+
+        AtomicLong version = versionOf(key);
+        long expected = version.get();
+        List<TestViewDTO> all = List.copyOf(loader.get());
+        List<TestViewDTO> active = all.stream()
+            .filter(test -> Boolean.TRUE.equals(test.active))
+            .toList();
+        Snapshot built = new Snapshot(expected, all, active);
+
+        // Publish only if no write landed while we were loading.
+        snapshots.compute(key, (k, existing) -> version.get() == expected ? built : existing);
+        return built;
+    }
+
+    public long version(@NonNull String labId) {
+        return versionOf(Objects.requireNonNull(labId, "labId")).get();
+    }
+
+    public void invalidate(@NonNull String labId) {
+        String key = Objects.requireNonNull(labId, "labId");
+        versionOf(key).incrementAndGet();
+        snapshots.remove(key);
+    }
+
+    // Catalog writes run inside a transaction; dropping the snapshot before
+    // commit would let a concurrent reader rebuild it from the old rows.
+    public void invalidateAfterCommit(@NonNull String labId) {
+        String key = Objects.requireNonNull(labId, "labId");
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(key);
+            }
+        });
+    }
+
+    private AtomicLong versionOf(String labId) {
+        return versions.computeIfAbsent(labId, k -> new AtomicLong());
+    }
+}
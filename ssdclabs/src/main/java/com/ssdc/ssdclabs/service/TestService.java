@@ -17,7 +17,9 @@ import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.ssdc.ssdclabs.dto.TestNormalValueDTO;
@@ -44,25 +46,45 @@ public class TestService {
 
     private final TestRepository testRepo;
     private final TestParameterRepository paramRepo;
+    private final TestCatalogCache catalogCache;
+    private final TransactionTemplate readOnlyTx;
 
     public TestService(TestRepository testRepo,
-                       TestParameterRepository paramRepo) {
+                       TestParameterRepository paramRepo,
+                       TestCatalogCache catalogCache,
+                       PlatformTransactionManager txManager) {
         this.testRepo = testRepo;
         this.paramRepo = paramRepo;
+        this.catalogCache = Objects.requireNonNull(catalogCache, "catalogCache");
+        this.readOnlyTx = new TransactionTemplate(Objects.requireNonNull(txManager, "txManager"));
+        this.readOnlyTx.setReadOnly(true);
     }
 
-    @Transactional(readOnly = true)
+    // Catalog reads are served from the per-lab snapshot; a transaction is
+    // only opened when the snapshot has to be rebuilt.
     public List<TestViewDTO> getAllTests(@NonNull String labId) {
-        return testRepo.findByLabIdOrderByIdAsc(labId).stream()
-            .map(this::toView)
-            .collect(Collectors.toList());
+        return catalogCache.get(labId, () -> loadCatalog(labId)).allTests();
     }
 
-    @Transactional(readOnly = true)
     public List<TestViewDTO> getActiveTests(@NonNull String labId) {
-        return testRepo.findByLabIdAndActiveTrueOrderByIdAsc(labId).stream()
-            .map(this::toView)
-            .collect(Collectors.toList());
+        return catalogCache.get(labId, () -> loadCatalog(labId)).activeTests();
+    }
+
+    // Two statements regardless of catalog size: tests, then parameters with ranges.
+    private List<TestViewDTO> loadCatalog(String labId) {
+        return readOnlyTx.execute(status -> {
+            List<Test> tests = testRepo.findByLabIdOrderByIdAsc(labId);
+            if (tests.isEmpty()) {
+                return List.of();
+            }
+            Map<Long, List<TestParameter>> paramsByTest =
+                groupByTest(paramRepo.findByLabIdWithRanges(labId));
+            List<TestViewDTO> views = new ArrayList<>(tests.size());
+            for (Test test : tests) {
+                views.add(toView(test, paramsByTest.getOrDefault(test.getId(), List.of())));
+            }
+            return views;
+        });
     }
 
     @Transactional
@@ -72,6 +94,7 @@ public class TestService {
         test.setLabId(Objects.requireNonNull(labId, "labId"));
         applyPayload(test, payload, Collections.emptyList());
         Test saved = testRepo.save(test);
+        catalogCache.invalidateAfterCommit(labId);
         return toView(saved);
     }
 
@@ -132,6 +155,7 @@ public class TestService {
         }
 
         Test saved = testRepo.save(test);
+        catalogCache.invalidateAfterCommit(labId);
         return toView(saved);
     }
 
@@ -145,6 +169,7 @@ public class TestService {
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Test not found"));
         test.setActive(active);
         testRepo.save(test);
+        catalogCache.invalidateAfterCommit(labId);
     }
 
     @Transactional
@@ -154,6 +179,7 @@ public class TestService {
                 Objects.requireNonNull(labId, "labId"))
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Test not found"));
         testRepo.deleteById(test.getId());
+        catalogCache.invalidateAfterCommit(labId);
     }
 
     private void applyPayload(Test test,
@@ -793,7 +819,22 @@ public class TestService {
     @Transactional(readOnly = true)
     public @NonNull TestViewDTO toView(Test test) {
         List<TestParameter> params =
-            paramRepo.findByTest_IdOrderByIdAsc(test.getId());
+            paramRepo.findByTestIdInWithRanges(List.of(test.getId()));
+        return toView(test, params);
+    }
+
+    private Map<Long, List<TestParameter>> groupByTest(List<TestParameter> params) {
+        Map<Long, List<TestParameter>> byTest = new HashMap<>();
+        for (TestParameter param : params) {
+            if (param == null || param.getTest() == null) {
+                continue;
+            }
+            byTest.computeIfAbsent(param.getTest().getId(), k -> new ArrayList<>()).add(param);
+        }
+        return byTest;
+    }
+
+    private @NonNull TestViewDTO toView(Test test, List<TestParameter> params) {
         boolean multi = params.size() > 1;
         List<TestUnitDTO> units = new ArrayList<>();
         List<TestNormalValueDTO> normalValues = new ArrayList<>();
@@ -834,6 +875,7 @@ public class TestService {
             }
         }
 
+        // Views end up shared through the catalog snapshot, so hand out read-only lists.
         return new TestViewDTO(
             test.getId(),
             test.getTestName(),
@@ -842,9 +884,9 @@ public class TestService {
             test.getCost(),
             test.getActive(),
             Boolean.FALSE.equals(test.getShowTestNameInReport()) ? Boolean.FALSE : Boolean.TRUE,
-            units,
-            normalValues,
-            parameterViews
+            Collections.unmodifiableList(units),
+            Collections.unmodifiableList(normalValues),
+            Collections.unmodifiableList(parameterViews)
         );
     }
 
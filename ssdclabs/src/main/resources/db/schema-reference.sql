@@ -47,6 +47,7 @@ CREATE TABLE patients (
   age INT,
   gender VARCHAR(20) NOT NULL,
   mobile VARCHAR(50),
+  identity_id BIGINT,
   address VARCHAR(255),
   doctor_id BIGINT,
   amount DECIMAL(10,2) NOT NULL DEFAULT 0,
@@ -56,6 +57,7 @@ CREATE TABLE patients (
   INDEX idx_patients_lab_visit_date (lab_id, visit_date),
   INDEX idx_patients_lab_doctor (lab_id, doctor_id),
   INDEX idx_patients_lab_mobile (lab_id, mobile),
+  INDEX idx_patients_identity_visit (identity_id, visit_date),
   CONSTRAINT fk_patients_doctor
     FOREIGN KEY (doctor_id) REFERENCES doctors(id)
 );
@@ -129,7 +131,15 @@ CREATE TABLE report_results (
   parameter_id BIGINT NOT NULL,
   sub_test VARCHAR(255),
   result_value TEXT,
+  -- First numeric line of result_value and its normal-range check (LOW/HIGH),
+  -- both written on save; visit_date copies patients.visit_date for the
+  -- abnormal-results index. Older rows are filled by a background backfill.
+  numeric_value DECIMAL(18,4),
+  abnormal_flag VARCHAR(8),
+  visit_date DATE,
+  version BIGINT NOT NULL DEFAULT 0,
   INDEX idx_report_results_patient_id (patient_id),
+  INDEX idx_report_results_param_flag (parameter_id, abnormal_flag, visit_date),
   CONSTRAINT uk_report_result UNIQUE (patient_id, test_id, parameter_id, sub_test),
   CONSTRAINT fk_report_patient
     FOREIGN KEY (patient_id) REFERENCES patients(id),
@@ -145,7 +155,90 @@ CREATE TABLE lab_print_settings (
   bottom_lines INT NOT NULL DEFAULT 0,
   left_lines INT NOT NULL DEFAULT 0,
   right_lines INT NOT NULL DEFAULT 0,
+  report_title VARCHAR(80),
   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   CONSTRAINT fk_lab_print_settings_lab
     FOREIGN KEY (lab_id) REFERENCES labs(lab_id)
 );
+
+-- Frozen report for a COMPLETED patient (JSON document). payload is NULL
+-- after a PIN-authorized reopen; version keeps counting across captures.
+CREATE TABLE report_snapshots (
+  patient_id BIGINT PRIMARY KEY,
+  lab_id VARCHAR(6) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 1,
+  payload MEDIUMTEXT,
+  captured_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT fk_report_snapshots_patient
+    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE
+);
+
+-- Table-backed id pools (MySQL has no sequences). report_results ids are
+-- handed out 50 at a time so inserts can be JDBC-batched; next_val is the
+-- first id of the next block (pooled-lo), so seed it past the current max.
+CREATE TABLE id_sequences (
+  sequence_name VARCHAR(64) PRIMARY KEY,
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'report_results', COALESCE(MAX(id), 0) + 1 FROM report_results;
+
+-- Daily billing rollup per (lab, visit date, doctor); doctor_id 0 = no doctor.
+-- Patient writes adjust it in the same transaction (INSERT ... ON DUPLICATE
+-- KEY UPDATE with signed deltas); a nightly job re-derives and repairs it.
+CREATE TABLE lab_daily_revenue (
+  lab_id VARCHAR(6) NOT NULL,
+  revenue_date DATE NOT NULL,
+  doctor_id BIGINT NOT NULL DEFAULT 0,
+  patient_count BIGINT NOT NULL DEFAULT 0,
+  billed DECIMAL(16,4) NOT NULL DEFAULT 0,
+  discount DECIMAL(16,4) NOT NULL DEFAULT 0,
+  paid DECIMAL(16,4) NOT NULL DEFAULT 0,
+  commission DECIMAL(16,4) NOT NULL DEFAULT 0,
+  PRIMARY KEY (lab_id, revenue_date, doctor_id)
+);
+
+-- One row per person across labs, keyed on the normalized mobile
+-- ("+919876543210"). patients.identity_id points here; new and edited visits
+-- are linked on write and older rows by a background backfill, so the patient
+-- app reads "all visits for this mobile" through idx_patients_identity_visit.
+CREATE TABLE patient_identities (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  mobile_key VARCHAR(16) NOT NULL,
+  created_at DATETIME(6) NOT NULL,
+  UNIQUE KEY uk_patient_identities_mobile_key (mobile_key)
+);
+
+-- Home dashboard counts per (lab, visit date). Patient create, edit, status
+-- change and delete adjust them in the same transaction (INSERT ... ON
+-- DUPLICATE KEY UPDATE with signed deltas); a nightly job re-derives and
+-- repairs them. due = patients with amount - paid > 0.
+CREATE TABLE lab_daily_counters (
+  lab_id VARCHAR(6) NOT NULL,
+  counter_date DATE NOT NULL,
+  registered BIGINT NOT NULL DEFAULT 0,
+  pending BIGINT NOT NULL DEFAULT 0,
+  completed BIGINT NOT NULL DEFAULT 0,
+  due BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (lab_id, counter_date)
+);
+
+-- Outgoing email (verification and password-reset links). AuthService inserts
+-- the row in the transaction that stores the token hash; MailOutboxDispatcher
+-- sends due PENDING rows, retrying with exponential backoff, then marks them
+-- SENT or FAILED and clears body so the link is not kept.
+CREATE TABLE mail_outbox (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  lab_id VARCHAR(6) NULL,
+  recipient VARCHAR(255) NOT NULL,
+  subject VARCHAR(255) NOT NULL,
+  body TEXT NULL,
+  status VARCHAR(16) NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at DATETIME(6) NOT NULL,
+  last_error VARCHAR(500) NULL,
+  created_at DATETIME(6) NOT NULL,
+  sent_at DATETIME(6) NULL,
+  KEY idx_mail_outbox_due (status, next_attempt_at)
+);
@@ -0,0 +1,59 @@
+package com.ssdc.ssdclabs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+	"spring.datasource.url=jdbc:h2:mem:ssdclabs-metrics;MODE=MySQL;DB_CLOSE_DELAY=-1",
+	"spring.datasource.driverClassName=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"app.jwt.secret=0123456789abcdef0123456789abcdef",
+	"management.server.port=0"
+})
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int port;
+
+	@LocalManagementPort
+	private int managementPort;
+
+	@Test
+	void prometheus_isServedOnManagementPortOnly() throws Exception {
+		// One API call so the endpoint timer exists.
+		get(port, "/dashboard/home-summary");
+
+		HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+
+		assertEquals(200, scrape.statusCode());
+		String body = scrape.body();
+		assertTrue(body.contains("http_server_requests_seconds_bucket"), "endpoint histogram");
+		assertTrue(body.contains("hikaricp_connections_pending"), "pool saturation");
+		assertTrue(body.contains("hibernate_statements_total"), "hibernate statistics");
+		assertTrue(body.contains("jvm_gc_"), "gc metrics");
+		assertTrue(body.contains("jvm_memory_used_bytes"), "heap gauges");
+		assertTrue(get(port, "/actuator/prometheus").statusCode() >= 400);
+	}
+
+	private HttpResponse<String> get(int targetPort, String path) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + targetPort + path)).build();
+		return http.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,92 @@
+package com.ssdc.ssdclabs.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Test
+    void validateAndGetLabId_repeatedCallsReturnSubject() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        JwtService service = new JwtService(SECRET, 3600, 100, clock);
+        String token = service.issueToken("lab1");
+
+        assertEquals("lab1", service.validateAndGetLabId(token));
+        assertEquals("lab1", service.validateAndGetLabId(" " + token + " "));
+    }
+
+    @Test
+    void validateAndGetLabId_cachedTokenHonorsExactExpiry() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        JwtService service = new JwtService(SECRET, 3600, 100, clock);
+        String token = service.issueToken("lab1");
+        assertEquals("lab1", service.validateAndGetLabId(token));
+
+        clock.advance(Duration.ofSeconds(3600));
+        assertEquals("lab1", service.validateAndGetLabId(token));
+
+        clock.advance(Duration.ofMillis(1));
+        assertNull(service.validateAndGetLabId(token));
+    }
+
+    @Test
+    void validateAndGetLabId_rejectsTamperedAndForeignTokens() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        JwtService service = new JwtService(SECRET, 3600, 100, clock);
+        JwtService other = new JwtService("fedcba9876543210fedcba9876543210", 3600, 100, clock);
+        String token = service.issueToken("lab1");
+        assertEquals("lab1", service.validateAndGetLabId(token));
+
+        assertNull(service.validateAndGetLabId(token.substring(0, token.length() - 2) + "xx"));
+        assertNull(service.validateAndGetLabId(other.issueToken("lab1")));
+        assertNull(service.validateAndGetLabId(" "));
+    }
+
+    @Test
+    void validateAndGetLabId_worksWithCacheDisabled() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        JwtService service = new JwtService(SECRET, 3600, 0, clock);
+        String token = service.issueToken("lab1");
+
+        assertEquals("lab1", service.validateAndGetLabId(token));
+        clock.advance(Duration.ofHours(2));
+        assertNull(service.validateAndGetLabId(token));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
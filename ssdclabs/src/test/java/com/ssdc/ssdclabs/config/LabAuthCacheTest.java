@@ -0,0 +1,84 @@
+package com.ssdc.ssdclabs.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+@ExtendWith(MockitoExtension.class)
+class LabAuthCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock private LabRepository labRepo;
+
+    @Test
+    void get_withinTtl_hitsRepositoryOnce() {
+        LabAuthCache cache = new LabAuthCache(labRepo, 30, 100);
+        when(labRepo.findAuthRowByLabId("lab1")).thenReturn(Optional.of(row(true, TODAY)));
+
+        assertTrue(cache.get("lab1").allowsAccessOn(TODAY));
+        assertTrue(cache.get("lab1").allowsAccessOn(TODAY));
+
+        verify(labRepo, times(1)).findAuthRowByLabId("lab1");
+    }
+
+    @Test
+    void evict_forcesReloadOfChangedState() {
+        LabAuthCache cache = new LabAuthCache(labRepo, 30, 100);
+        when(labRepo.findAuthRowByLabId("lab1"))
+            .thenReturn(Optional.of(row(false, null)))
+            .thenReturn(Optional.of(row(true, null)));
+
+        assertFalse(cache.get("lab1").allowsAccessOn(TODAY));
+        cache.evict("lab1");
+
+        assertTrue(cache.get("lab1").allowsAccessOn(TODAY));
+    }
+
+    @Test
+    void get_expiredSubscriptionOrMissingLab_deniesAccess() {
+        LabAuthCache cache = new LabAuthCache(labRepo, 30, 100);
+        when(labRepo.findAuthRowByLabId("lab1")).thenReturn(Optional.of(row(true, TODAY.minusDays(1))));
+        when(labRepo.findAuthRowByLabId("gone")).thenReturn(Optional.empty());
+
+        assertFalse(cache.get("lab1").allowsAccessOn(TODAY));
+        assertFalse(cache.get("gone").allowsAccessOn(TODAY));
+    }
+
+    @Test
+    void get_zeroTtl_alwaysReadsRepository() {
+        LabAuthCache cache = new LabAuthCache(labRepo, 0, 100);
+        when(labRepo.findAuthRowByLabId("lab1")).thenReturn(Optional.of(row(true, null)));
+
+        cache.get("lab1");
+        cache.get("lab1");
+
+        verify(labRepo, times(2)).findAuthRowByLabId("lab1");
+    }
+
+    private static LabRepository.LabAuthRow row(boolean active, LocalDate expiry) {
+        return new LabRepository.LabAuthRow() {
+            @Override
+            public Boolean getActive() {
+                return active;
+            }
+
+            @Override
+            public LocalDate getSubscriptionExpiry() {
+                return expiry;
+            }
+        };
+    }
+}
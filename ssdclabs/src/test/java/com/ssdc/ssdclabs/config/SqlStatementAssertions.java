@@ -0,0 +1,39 @@
+package com.ssdc.ssdclabs.config;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Statement budgets for repository and service tests. The test context needs
+// @Import(SqlStatementConfig.class) and app.sql.counter.enabled=true so its
+// DataSource is proxied; flush inside the call when pending writes should count.
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStatementCounter.Scope count(Runnable call) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            call.run();
+            return scope;
+        }
+    }
+
+    public static SqlStatementCounter.Scope assertAtMostStatements(int max, Runnable call) {
+        SqlStatementCounter.Scope scope = count(call);
+        if (scope.statements() > max) {
+            fail("Expected at most " + max + " statements but ran " + scope.statements() + ":\n"
+                + describe(scope));
+        }
+        return scope;
+    }
+
+    private static String describe(SqlStatementCounter.Scope scope) {
+        return scope.shapes().entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+            .map(e -> "  " + e.getValue() + "x " + e.getKey())
+            .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ssdc.ssdclabs.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ssdc.ssdclabs.config.SqlStatementCounter.Repeat;
+
+class SqlStatementCounterTest {
+
+    @Test
+    void shapeOf_foldsLiteralsAndInLists() {
+        assertEquals(
+            "select p.id from patients p where p.lab_id=? and p.id in (?) and p.name like ?",
+            SqlStatementCounter.shapeOf(
+                "SELECT p.id FROM patients p\n  WHERE p.lab_id='lab''1' AND p.id IN (?, ?, ?) AND p.name LIKE '%a%'"));
+        assertEquals(
+            "select t1_0.id from tests t1_0 where t1_0.id=?",
+            SqlStatementCounter.shapeOf("select t1_0.id from tests t1_0 where t1_0.id=42"));
+    }
+
+    @Test
+    void recordExecution_perRowQueries_reportedAsOneRepeatedShape() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            SqlStatementCounter.recordExecution(List.of("select * from patients where lab_id=?"), 2, 0);
+            for (int id = 1; id <= 12; id++) {
+                SqlStatementCounter.recordExecution(List.of("select * from doctors where id=" + id), 1, 0);
+                SqlStatementCounter.recordRow();
+            }
+
+            assertEquals(13, scope.statements());
+            assertEquals(12, scope.rows());
+            assertEquals(14, scope.dbTimeMs());
+            assertEquals(new Repeat("select * from doctors where id=?", 12), scope.mostRepeated());
+        }
+    }
+
+    @Test
+    void open_nestedScope_alsoCountsInOuter() {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open()) {
+            SqlStatementCounter.recordExecution(List.of("select 1"), 0, 0);
+            try (SqlStatementCounter.Scope inner = SqlStatementCounter.open()) {
+                SqlStatementCounter.recordExecution(List.of("update patients set status=? where id=?"), 0, 3);
+                assertEquals(1, inner.statements());
+                assertEquals(3, inner.rows());
+            }
+            SqlStatementCounter.recordExecution(List.of("select 1"), 0, 0);
+
+            assertEquals(3, outer.statements());
+            assertEquals(3, outer.rows());
+        }
+        assertFalse(SqlStatementCounter.active());
+    }
+
+    @Test
+    void recordExecution_withoutScope_isIgnored() {
+        SqlStatementCounter.recordExecution(List.of("select 1"), 5, 1);
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertEquals(0, scope.statements());
+            assertNull(scope.mostRepeated());
+        }
+    }
+}
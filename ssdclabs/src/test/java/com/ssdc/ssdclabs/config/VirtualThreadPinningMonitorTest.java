@@ -0,0 +1,74 @@
+package com.ssdc.ssdclabs.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final List<String> DRIVER_STACK = List.of(
+        "java.lang.VirtualThread.parkOnCarrierThread:681",
+        "com.example.jdbc.Connection.execute:120",
+        "com.ssdc.ssdclabs.service.ReportService.saveResults:88",
+        "com.ssdc.ssdclabs.controller.PatientTestController.saveResults:75");
+
+    @Test
+    void onPinned_everyEvent_recordedInTimer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, 20, 60);
+
+        monitor.onPinned(Duration.ofMillis(35), DRIVER_STACK);
+        monitor.onPinned(Duration.ofMillis(45), DRIVER_STACK);
+
+        Timer timer = registry.get("jvm.threads.virtual.pinned").timer();
+        assertEquals(2, timer.count());
+        assertEquals(80, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void onPinned_sameCallSiteWithinInterval_loggedOnce() {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(new SimpleMeterRegistry(), 20, 60);
+
+        assertTrue(monitor.onPinned(Duration.ofMillis(30), DRIVER_STACK));
+        assertFalse(monitor.onPinned(Duration.ofMillis(30), DRIVER_STACK));
+        assertTrue(monitor.onPinned(Duration.ofMillis(30), List.of("java.lang.Object.wait:1")));
+    }
+
+    @Test
+    void onPinned_zeroInterval_logsEveryEvent() {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(new SimpleMeterRegistry(), 20, 0);
+
+        assertTrue(monitor.onPinned(Duration.ofMillis(30), DRIVER_STACK));
+        assertTrue(monitor.onPinned(Duration.ofMillis(30), DRIVER_STACK));
+    }
+
+    @Test
+    void callSite_prefersInnermostApplicationFrame() {
+        assertEquals("com.ssdc.ssdclabs.service.ReportService.saveResults:88",
+            VirtualThreadPinningMonitor.callSite(DRIVER_STACK));
+        assertEquals("java.lang.Object.wait:1",
+            VirtualThreadPinningMonitor.callSite(List.of("java.lang.Object.wait:1", "java.lang.Thread.run:2")));
+        assertEquals("unknown", VirtualThreadPinningMonitor.callSite(List.of()));
+    }
+
+    // The JFR stream must start and stop cleanly on runtimes without the event.
+    @Test
+    void startAndClose_anyRuntime_succeed() {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(new SimpleMeterRegistry(), 20, 60);
+
+        assertDoesNotThrow(() -> {
+            monitor.start();
+            monitor.close();
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.dto.AccountsDetailRow;
+import com.ssdc.ssdclabs.repository.DoctorRepository;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AccountsServiceTest {
+
+    @Mock private PatientRepository patientRepo;
+    @Mock private DoctorRepository doctorRepo;
+    @Mock private LabDailyRevenueRepository rollupRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writeAllDetails_jsonStreamsRowsWithAccountsRules() throws Exception {
+        AccountsService service = service();
+        when(patientRepo.streamDetailRowsByLabId("ssdc")).thenReturn(Stream.of(
+            new AccountsDetailRow(LocalDate.of(2024, 3, 2), 12L, "Ravi", 5L, "Dr Rao", 10.0, 500.0, 50.0, 700.0),
+            new AccountsDetailRow(LocalDate.of(2024, 3, 1), 11L, "Sita", null, null, null, 300.0, null, 100.0)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service.writeAllDetails("ssdc", AccountsService.ExportFormat.JSON, out);
+
+        assertEquals(2, written);
+        JsonNode rows = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, rows.size());
+        assertEquals("R12", rows.get(0).get("reportId").asText());
+        assertEquals(500.0, rows.get(0).get("paidAmount").asDouble());
+        assertEquals(0.0, rows.get(0).get("dueAmount").asDouble());
+        assertEquals(50.0, rows.get(0).get("commissionAmount").asDouble());
+        assertEquals("SELF", rows.get(1).get("doctorName").asText());
+        assertEquals(200.0, rows.get(1).get("dueAmount").asDouble());
+        assertEquals(0.0, rows.get(1).get("commissionAmount").asDouble());
+    }
+
+    @Test
+    void writeAllDetails_csvQuotesValuesAndEndsEachRow() throws Exception {
+        AccountsService service = service();
+        when(patientRepo.streamDetailRowsByLabId("ssdc")).thenReturn(Stream.of(
+            new AccountsDetailRow(LocalDate.of(2024, 3, 2), 12L, "Ravi \"RK\"", 5L, "Dr Rao", null, 500.0, 0.0, 200.0)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeAllDetails("ssdc", AccountsService.ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].endsWith("\"Date\",\"Report ID\",\"Patient\",\"Doctor\",\"Bill\","
+            + "\"Discount\",\"Paid\",\"Due\",\"Commission\""));
+        assertEquals("\"2024-03-02\",\"R12\",\"Ravi \"\"RK\"\"\",\"Dr Rao\",\"500.00\","
+            + "\"0.00\",\"200.00\",\"300.00\",\"25.00\"", lines[1]);
+    }
+
+    @Test
+    void writeAllDetails_csvPrefixesFormulaLikeNamesWithAQuote() throws Exception {
+        AccountsService service = service();
+        when(patientRepo.streamDetailRowsByLabId("ssdc")).thenReturn(Stream.of(
+            new AccountsDetailRow(LocalDate.of(2024, 3, 2), 12L, "=HYPERLINK(\"x\")", 5L, "@Rao", null, -50.0, 0.0, 0.0)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeAllDetails("ssdc", AccountsService.ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("\"2024-03-02\",\"R12\",\"'=HYPERLINK(\"\"x\"\")\",\"'@Rao\",\"-50.00\","
+            + "\"0.00\",\"0.00\",\"0.00\",\"-2.50\"", lines[1]);
+    }
+
+    @Test
+    void writeDetailsWorkbook_writesTypedCellsWithoutFormulas() throws Exception {
+        AccountsService service = service();
+        AccountsService.ExportFilter filter = new AccountsService.ExportFilter(
+            LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), true, false, -1L, false);
+        when(patientRepo.streamDetailRows("ssdc", filter.from(), filter.to(), true, false, -1L))
+            .thenReturn(Stream.of(
+                new AccountsDetailRow(LocalDate.of(2024, 3, 2), 12L, "=SUM(A1)", 5L, "Dr Rao", 10.0, 500.0, 0.0, 200.0)
+            ));
+        AtomicBoolean committed = new AtomicBoolean();
+        doAnswer(call -> {
+            committed.set(true);
+            return null;
+        }).when(txManager).commit(any());
+        // The download starts only once the read transaction is over.
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                assertTrue(committed.get());
+                super.write(b, off, len);
+            }
+        };
+
+        long written = service.writeDetailsWorkbook("ssdc", filter, out);
+
+        assertEquals(1, written);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("Accounts", sheet.getSheetName());
+            assertEquals("Commission", sheet.getRow(0).getCell(8).getStringCellValue());
+            Row row = sheet.getRow(1);
+            assertTrue(DateUtil.isCellDateFormatted(row.getCell(0)));
+            assertEquals(LocalDate.of(2024, 3, 2), row.getCell(0).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(CellType.STRING, row.getCell(2).getCellType());
+            assertEquals("=SUM(A1)", row.getCell(2).getStringCellValue());
+            assertEquals(CellType.NUMERIC, row.getCell(7).getCellType());
+            assertEquals(300.0, row.getCell(7).getNumericCellValue());
+            assertEquals(50.0, row.getCell(8).getNumericCellValue());
+        }
+    }
+
+    private AccountsService service() {
+        return new AccountsService(patientRepo, doctorRepo, rollupRepo, objectMapper, txManager, 5.0);
+    }
+}
@@ -25,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.ssdc.ssdclabs.config.JwtService;
+import com.ssdc.ssdclabs.config.LabAuthCache;
 import com.ssdc.ssdclabs.dto.AuthLoginRequest;
 import com.ssdc.ssdclabs.dto.AuthResponse;
 import com.ssdc.ssdclabs.dto.AuthTwoFactorSetupResponse;
@@ -39,6 +40,7 @@ class AuthServiceTest {
     @Mock private LabRepository labRepo;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private JwtService jwtService;
+    @Mock private LabAuthCache labAuthCache;
     @Mock private MailService mailService;
     @Mock private TotpService totpService;
     @Mock private TwoFactorSecretCryptoService twoFactorSecretCryptoService;
@@ -382,6 +384,7 @@ class AuthServiceTest {
             labRepo,
             passwordEncoder,
             jwtService,
+            labAuthCache,
             mailService,
             totpService,
             twoFactorSecretCryptoService,
@@ -0,0 +1,98 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.LabDailyCounterRepository;
+import com.ssdc.ssdclabs.repository.LabDailyCounterRepository.DailyCounterRow;
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCounterServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Mock private LabDailyCounterRepository counterRepo;
+    @Mock private LabRepository labRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    @Test
+    void move_completingAPaidPatientShiftsPendingToCompleted() {
+        DashboardCounterService service = service();
+        Patient patient = patient(" not complete ", 500.0, 200.0);
+        DashboardCounterService.Contribution before = service.contributionOf(patient);
+        patient.setStatus("COMPLETED");
+        patient.setPaid(500.0);
+
+        service.move("ssdc", before, service.contributionOf(patient));
+
+        verify(counterRepo).addToDay("ssdc", DAY, -1, -1, 0, -1);
+        verify(counterRepo).addToDay("ssdc", DAY, 1, 0, 1, 0);
+    }
+
+    @Test
+    void move_unchangedCountsWritesNothing() {
+        DashboardCounterService service = service();
+        Patient patient = patient(null, 0.0, null);
+
+        service.move("ssdc", service.contributionOf(patient), service.contributionOf(patient));
+
+        verify(counterRepo, never()).addToDay(eq("ssdc"), any(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void verify_driftedDayIsCountedAndRebuilt() {
+        DashboardCounterService service = service();
+        when(counterRepo.findRowsByLabId("ssdc")).thenReturn(List.of(
+            row(DAY, 2, 1, 1, 0), row(DAY.plusDays(1), 1, 1, 0, 1)
+        ));
+        when(counterRepo.computeFromPatients("ssdc")).thenReturn(List.of(
+            row(DAY, 2, 1, 1, 0), row(DAY.plusDays(1), 2, 2, 0, 1)
+        ));
+
+        DailyRollupService.VerifyResult result = service.verify("ssdc", true);
+
+        assertEquals(1, result.mismatches());
+        assertTrue(result.rebuilt());
+        verify(counterRepo).rebuildFromPatients("ssdc");
+    }
+
+    private DashboardCounterService service() {
+        return new DashboardCounterService(counterRepo, labRepo, txManager);
+    }
+
+    private static Patient patient(String status, Double amount, Double paid) {
+        Patient patient = new Patient();
+        patient.setVisitDate(DAY);
+        patient.setStatus(status);
+        patient.setAmount(amount);
+        patient.setPaid(paid);
+        return patient;
+    }
+
+    private static DailyCounterRow row(LocalDate day, long registered, long pending, long completed, long due) {
+        return new DailyCounterRow() {
+            @Override public LocalDate getCounterDate() { return day; }
+            @Override public Long getRegistered() { return registered; }
+            @Override public Long getPending() { return pending; }
+            @Override public Long getCompleted() { return completed; }
+            @Override public Long getDue() { return due; }
+        };
+    }
+}
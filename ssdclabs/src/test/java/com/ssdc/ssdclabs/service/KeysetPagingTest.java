@@ -0,0 +1,112 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.dto.AccountsDuePatientDTO;
+import com.ssdc.ssdclabs.dto.KeysetPage;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.DoctorRepository;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.ReportResultRepository;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class KeysetPagingTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private PatientRepository patientRepo;
+    @Autowired private DoctorRepository doctorRepo;
+    @Autowired private ReportResultRepository resultRepo;
+    @Autowired private LabDailyRevenueRepository rollupRepo;
+    @Autowired private PlatformTransactionManager txManager;
+
+    @Test
+    void searchPatientsAfter_walksEveryPatientOnceIncludingUndated() {
+        List<Long> expected = new ArrayList<>();
+        // Newest date first, ids descending within a date, undated last.
+        Long a = seed("Ravi", LocalDate.of(2024, 3, 2), 0, 0);
+        Long b = seed("Ravi", LocalDate.of(2024, 3, 2), 0, 0);
+        Long c = seed("Ravi", LocalDate.of(2024, 3, 1), 0, 0);
+        Long d = seed("Ravi", LocalDate.of(2024, 2, 1), 0, 0);
+        Long e = seed("Ravi", null, 0, 0);
+        Long f = seed("Ravi", null, 0, 0);
+        seed("Sita", LocalDate.of(2024, 3, 2), 0, 0);
+        expected.addAll(List.of(b, a, c, d, f, e));
+        em.flush();
+        em.clear();
+
+        // SQL seek, then the warm in-memory index: same pages either way.
+        for (boolean indexed : new boolean[] {false, true}) {
+            PatientNameIndex index = new PatientNameIndex(patientRepo, txManager, indexed, 10, 1000, Runnable::run);
+            PatientService service = new PatientService(patientRepo, resultRepo, doctorRepo,
+                mock(ReportService.class), mock(RevenueRollupService.class),
+                mock(DashboardCounterService.class), index,
+                mock(PatientIdentityService.class), mock(LabEventHub.class),
+                mock(PasswordEncoder.class));
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                KeysetPage<Patient> page = service.searchPatientsAfter("ssdc", "ravi", "", cursor, 4);
+                page.items().forEach(p -> seen.add(p.getId()));
+                cursor = page.nextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(expected, seen, indexed ? "index" : "sql");
+            assertEquals(2, pages);
+        }
+    }
+
+    @Test
+    void getDuePatientsAfter_pagesInVisitDateThenIdOrder() {
+        Long a = seed("A", LocalDate.of(2024, 3, 5), 100, 0);
+        seed("Paid", LocalDate.of(2024, 3, 5), 100, 100);
+        Long b = seed("B", LocalDate.of(2024, 3, 5), 100, 20);
+        Long c = seed("C", LocalDate.of(2024, 3, 4), 100, 0);
+        seed("Outside", LocalDate.of(2024, 2, 28), 100, 0);
+        em.flush();
+        em.clear();
+
+        AccountsService service = new AccountsService(
+            patientRepo, doctorRepo, rollupRepo, new ObjectMapper(), txManager, 0);
+        KeysetPage<AccountsDuePatientDTO> first =
+            service.getDuePatientsAfter("ssdc", "2024-03-01", "2024-03-31", null, null, 2);
+        KeysetPage<AccountsDuePatientDTO> second =
+            service.getDuePatientsAfter("ssdc", "2024-03-01", "2024-03-31", null, first.nextCursor(), 2);
+
+        assertEquals(List.of(b, a), first.items().stream().map(AccountsDuePatientDTO::patientId).toList());
+        assertEquals(List.of(c), second.items().stream().map(AccountsDuePatientDTO::patientId).toList());
+        assertEquals(80.0, first.items().get(0).dueAmount());
+        assertNull(second.nextCursor());
+    }
+
+    private Long seed(String name, LocalDate visitDate, double amount, double paid) {
+        Patient patient = new Patient();
+        patient.setLabId("ssdc");
+        patient.setName(name);
+        patient.setGender(Gender.MALE);
+        patient.setVisitDate(visitDate);
+        patient.setAmount(amount);
+        patient.setPaid(paid);
+        return em.persistAndGetId(patient, Long.class);
+    }
+}
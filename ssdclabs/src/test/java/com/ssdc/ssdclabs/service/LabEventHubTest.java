@@ -0,0 +1,149 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.dto.LabEvent;
+
+class LabEventHubTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    @Test
+    void publish_reachesSubscribersOfThatLabOnly() {
+        LabEventHub hub = new LabEventHub(16, 8, 60_000, 5_000, Runnable::run);
+        RecordingEmitter labA = (RecordingEmitter) hub.subscribe("labA", null, new RecordingEmitter());
+        RecordingEmitter labB = (RecordingEmitter) hub.subscribe("labB", null, new RecordingEmitter());
+
+        hub.publish("labA", event(1L));
+
+        assertEquals(1, labA.sent.size());
+        assertTrue(labA.sent.get(0).contains("\"type\":\"PATIENT_REGISTERED\""));
+        assertTrue(labB.sent.isEmpty());
+    }
+
+    @Test
+    void subscribe_lastEventId_replaysOnlyMissedEvents() {
+        LabEventHub hub = new LabEventHub(16, 8, 60_000, 5_000, Runnable::run);
+        RecordingEmitter first = (RecordingEmitter) hub.subscribe("ssdc", null, new RecordingEmitter());
+        hub.publish("ssdc", event(1L));
+        hub.publish("ssdc", event(2L));
+        hub.publish("ssdc", event(3L));
+
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe("ssdc", idOf(first.sent.get(0)), new RecordingEmitter());
+        RecordingEmitter stale = (RecordingEmitter) hub.subscribe("ssdc", "oldboot-2", new RecordingEmitter());
+
+        assertEquals(2, resumed.sent.size());
+        assertTrue(resumed.sent.get(0).contains("\"patientId\":2"));
+        assertEquals(1, stale.sent.size());
+        assertTrue(stale.sent.get(0).contains("event:resync"));
+    }
+
+    @Test
+    void slowConnection_overflowingItsBuffer_isDisconnected() {
+        List<Runnable> parked = new ArrayList<>();
+        LabEventHub hub = new LabEventHub(16, 4, 60_000, 5_000, parked::add);
+        RecordingEmitter slow = (RecordingEmitter) hub.subscribe("ssdc", null, new RecordingEmitter());
+
+        for (long id = 1; id <= 5; id++) {
+            hub.publish("ssdc", event(id));
+        }
+
+        assertTrue(slow.completed);
+        assertEquals(0, hub.subscriberCount("ssdc"));
+        assertFalse(parked.isEmpty());
+    }
+
+    @Test
+    void stalledSend_pastTheTimeout_isDroppedAndItsThreadFreed() throws Exception {
+        LabEventHub hub = new LabEventHub(16, 8, 60_000, 5_000, task -> new Thread(task).start());
+        StalledEmitter stalled = (StalledEmitter) hub.subscribe("ssdc", null, new StalledEmitter());
+        hub.publish("ssdc", event(1L));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+
+        assertEquals(0, hub.dropStalledSends(System.nanoTime()));
+        assertEquals(1, hub.dropStalledSends(System.nanoTime() + TimeUnit.SECONDS.toNanos(6)));
+
+        assertTrue(stalled.interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(stalled.failed);
+        assertEquals(0, hub.subscriberCount("ssdc"));
+    }
+
+    private static LabEvent event(long patientId) {
+        return new LabEvent(LabEvent.PATIENT_REGISTERED, patientId, "Ravi", null,
+            new LabEvent.TaskState("2026-03-01", 100.0, true));
+    }
+
+    private static String idOf(String frame) {
+        Matcher m = EVENT_ID.matcher(frame);
+        assertTrue(m.find(), frame);
+        return m.group(1);
+    }
+
+    // A client whose socket never drains: send blocks until the thread is interrupted.
+    private static final class StalledEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        volatile boolean failed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw new IOException("write interrupted", ex);
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed = true;
+        }
+    }
+
+    // Renders frames the way the servlet side would, without a request.
+    private static final class RecordingEmitter extends SseEmitter {
+        private static final ObjectMapper JSON = new ObjectMapper();
+
+        final List<String> sent = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder frame = new StringBuilder();
+            for (var part : builder.build()) {
+                Object data = part.getData();
+                if (data instanceof String text) {
+                    frame.append(text);
+                } else {
+                    try {
+                        frame.append(JSON.writeValueAsString(data));
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+            sent.add(frame.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.model.MailOutbox;
+import com.ssdc.ssdclabs.model.MailStatus;
+import com.ssdc.ssdclabs.repository.MailOutboxRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MailOutboxDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock private MailOutboxRepository outboxRepo;
+    @Mock private MailTransport transport;
+    @Mock private PlatformTransactionManager txManager;
+
+    private MailOutboxDispatcher dispatcher(int maxAttempts) {
+        return new MailOutboxDispatcher(outboxRepo, transport, txManager,
+            Clock.fixed(NOW, ZoneOffset.UTC), 10, maxAttempts, 30, 30);
+    }
+
+    @Test
+    void dispatchBatch_delivered_marksSentAndClearsBody() {
+        MailOutbox mail = pending(1L, 0, NOW.minusSeconds(5));
+        givenDue(mail);
+
+        assertEquals(1, dispatcher(5).dispatchBatch());
+
+        verify(transport).send("lab@example.com", "Verify", "link");
+        assertEquals(MailStatus.SENT, mail.getStatus());
+        assertEquals(NOW, mail.getSentAt());
+        assertEquals(1, mail.getAttempts());
+        assertNull(mail.getBody());
+    }
+
+    @Test
+    void dispatchBatch_transportFails_staysPendingWithBackoff() {
+        MailOutbox mail = pending(1L, 1, NOW.minusSeconds(60));
+        givenDue(mail);
+        doThrow(new MailSendException("Connection timed out"))
+            .when(transport).send(anyString(), anyString(), anyString());
+
+        dispatcher(5).dispatchBatch();
+
+        assertEquals(MailStatus.PENDING, mail.getStatus());
+        assertEquals(2, mail.getAttempts());
+        assertEquals(NOW.plusSeconds(60), mail.getNextAttemptAt());
+        assertEquals("Connection timed out", mail.getLastError());
+        assertEquals("link", mail.getBody());
+    }
+
+    @Test
+    void dispatchBatch_lastAttemptFails_marksFailed() {
+        MailOutbox mail = pending(1L, 2, NOW.minusSeconds(300));
+        givenDue(mail);
+        doThrow(new MailSendException("535 Authentication failed"))
+            .when(transport).send(anyString(), anyString(), anyString());
+
+        dispatcher(3).dispatchBatch();
+
+        assertEquals(MailStatus.FAILED, mail.getStatus());
+        assertEquals(3, mail.getAttempts());
+        assertNull(mail.getBody());
+    }
+
+    // A link older than its 30-minute lifetime is not worth sending.
+    @Test
+    void dispatchBatch_olderThanMaxAge_failsWithoutSending() {
+        MailOutbox mail = pending(1L, 4, NOW.minus(Duration.ofMinutes(45)));
+        givenDue(mail);
+
+        dispatcher(10).dispatchBatch();
+
+        verify(transport, never()).send(anyString(), anyString(), anyString());
+        assertEquals(MailStatus.FAILED, mail.getStatus());
+        assertEquals("Expired before delivery", mail.getLastError());
+    }
+
+    @Test
+    void dispatchBatch_nothingDue_sendsNothing() {
+        when(outboxRepo.findDueForUpdate(eq(NOW), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, dispatcher(5).dispatchBatch());
+
+        verify(transport, never()).send(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void backoff_doublesPerAttemptUpToAnHour() {
+        MailOutboxDispatcher dispatcher = dispatcher(5);
+
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(240), dispatcher.backoff(4));
+        assertEquals(Duration.ofHours(1), dispatcher.backoff(30));
+    }
+
+    private void givenDue(MailOutbox mail) {
+        when(outboxRepo.findDueForUpdate(eq(NOW), any(Pageable.class))).thenReturn(List.of(mail));
+        when(outboxRepo.findById(mail.getId())).thenReturn(Optional.of(mail));
+    }
+
+    private static MailOutbox pending(Long id, int attempts, Instant createdAt) {
+        MailOutbox mail = new MailOutbox();
+        mail.setId(id);
+        mail.setLabId("lab1");
+        mail.setRecipient("lab@example.com");
+        mail.setSubject("Verify");
+        mail.setBody("link");
+        mail.setAttempts(attempts);
+        mail.setCreatedAt(createdAt);
+        mail.setNextAttemptAt(createdAt);
+        return mail;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class MobileNumbersTest {
+
+    @Test
+    void normalize_indianFormats_shareOneKey() {
+        assertEquals("+919876543210", MobileNumbers.normalize("9876543210"));
+        assertEquals("+919876543210", MobileNumbers.normalize(" +91 98765 43210 "));
+        assertEquals("+919876543210", MobileNumbers.normalize("098765-43210"));
+        assertEquals("+919876543210", MobileNumbers.normalize("919876543210"));
+        assertEquals("+919876543210", MobileNumbers.normalize("0091 (98765) 43210"));
+    }
+
+    @Test
+    void normalize_foreignAndUnusable() {
+        assertEquals("+14155550123", MobileNumbers.normalize("+1 415-555-0123"));
+        assertNull(MobileNumbers.normalize("12345"));
+        assertNull(MobileNumbers.normalize("98765x43210"));
+        assertNull(MobileNumbers.normalize("  "));
+        assertNull(MobileNumbers.normalize(null));
+    }
+
+    @Test
+    void sameNumber_comparesNormalizedKeys() {
+        assertTrue(MobileNumbers.sameNumber("+91 98765 43210", "9876543210"));
+        assertFalse(MobileNumbers.sameNumber("9876543211", "9876543210"));
+        assertTrue(MobileNumbers.sameNumber(" N/A ", "N/A"));
+        assertFalse(MobileNumbers.sameNumber(null, null));
+    }
+}
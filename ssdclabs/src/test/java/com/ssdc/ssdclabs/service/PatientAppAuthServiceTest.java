@@ -0,0 +1,158 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ssdc.ssdclabs.config.JwtService;
+import com.ssdc.ssdclabs.config.PatientAppTokenService;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PatientAppAuthServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Mock private PatientRepository patientRepo;
+    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private PatientIdentityService identities;
+
+    private final PatientAppTokenService tokenService = new PatientAppTokenService(SECRET, 3600);
+
+    @Test
+    void login_checksSharedHashOnceAndIssuesToken() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(patientRepo.findByMobileOrderByVisitDateDesc("9876543210")).thenReturn(List.of(
+            patient(3L, "hash-a"), patient(2L, "hash-a"), patient(1L, "hash-a")
+        ));
+        when(passwordEncoder.matches("123456", "hash-a")).thenReturn(true);
+
+        PatientAppAuthService.PatientSession session = service.login("9876543210", "123456");
+
+        assertEquals(3L, session.patient().getId());
+        assertEquals("9876543210", service.authenticate("Bearer " + session.token()));
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void login_wrongPassword_isUnauthorized() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(patientRepo.findByMobileOrderByVisitDateDesc("9876543210")).thenReturn(List.of(
+            patient(2L, "hash-b"), patient(1L, "hash-a")
+        ));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+            () -> service.login("9876543210", "000000"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void authenticate_rejectsLabTokensAndGarbage() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        String labToken = new JwtService(SECRET, 3600, 0).issueToken("123456");
+
+        assertThrows(ResponseStatusException.class, () -> service.authenticate("Bearer " + labToken));
+        assertThrows(ResponseStatusException.class, () -> service.authenticate("Bearer nope"));
+        assertThrows(ResponseStatusException.class, () -> service.authenticate(null));
+    }
+
+    @Test
+    void changePassword_hashesOnceForAllVisits() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(patientRepo.findByMobileOrderByVisitDateDesc("9876543210")).thenReturn(List.of(
+            patient(2L, "hash-a"), patient(1L, "hash-a")
+        ));
+        when(passwordEncoder.matches("old", "hash-a")).thenReturn(true);
+        when(passwordEncoder.encode("new")).thenReturn("hash-new");
+
+        service.changePassword("9876543210", "old", "new");
+
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+        verify(passwordEncoder, times(1)).encode("new");
+        verify(patientRepo).updatePasswordByIds(List.of(2L, 1L), "hash-new");
+    }
+
+    @Test
+    void login_differentlyFormattedMobile_findsVisitsThroughIdentity() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(identities.findIdentityId("+91 98765 43210")).thenReturn(Optional.of(7L));
+        when(patientRepo.findVisitsOfIdentity(7L, "+91 98765 43210")).thenReturn(List.of(patient(4L, "hash-a")));
+        when(passwordEncoder.matches("123456", "hash-a")).thenReturn(true);
+
+        PatientAppAuthService.PatientSession session = service.login("+91 98765 43210", "123456");
+
+        assertEquals(4L, session.patient().getId());
+        verify(patientRepo, never()).findByMobileOrderByVisitDateDesc(anyString());
+    }
+
+    @Test
+    void changePassword_sharedPhone_keepsOtherVisitsPins() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(patientRepo.findByMobileOrderByVisitDateDesc("9876543210")).thenReturn(List.of(
+            patient(3L, "hash-sibling"), patient(2L, "hash-a"), patient(1L, "hash-a")
+        ));
+        when(passwordEncoder.matches("old", "hash-sibling")).thenReturn(false);
+        when(passwordEncoder.matches("old", "hash-a")).thenReturn(true);
+        when(passwordEncoder.encode("new")).thenReturn("hash-new");
+
+        service.changePassword("9876543210", "old", "new");
+
+        verify(patientRepo).updatePasswordByIds(List.of(2L, 1L), "hash-new");
+    }
+
+    @Test
+    void changePassword_partlyLinkedIdentity_includesUnlinkedVisits() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(identities.findIdentityId("9876543210")).thenReturn(Optional.of(7L));
+        // 5 was linked on create; 2 still waits for the backfill.
+        when(patientRepo.findVisitsOfIdentity(7L, "9876543210")).thenReturn(List.of(
+            patient(5L, "hash-new-visit"), patient(2L, "hash-a")
+        ));
+        when(passwordEncoder.matches("old", "hash-new-visit")).thenReturn(false);
+        when(passwordEncoder.matches("old", "hash-a")).thenReturn(true);
+        when(passwordEncoder.encode("new")).thenReturn("hash-new");
+
+        service.changePassword("9876543210", "old", "new");
+
+        verify(patientRepo).updatePasswordByIds(List.of(2L), "hash-new");
+        verify(patientRepo, never()).findByMobileOrderByVisitDateDesc(anyString());
+    }
+
+    @Test
+    void changePassword_wrongOldPassword_doesNotUpdate() {
+        PatientAppAuthService service = new PatientAppAuthService(patientRepo, passwordEncoder, tokenService, identities);
+        when(patientRepo.findByMobileOrderByVisitDateDesc("9876543210")).thenReturn(List.of(patient(1L, "hash-a")));
+
+        assertThrows(ResponseStatusException.class,
+            () -> service.changePassword("9876543210", "bad", "new"));
+
+        verify(patientRepo, never()).updatePasswordByIds(anyList(), anyString());
+    }
+
+    private static Patient patient(Long id, String hash) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setMobile("9876543210");
+        patient.setPassword(hash);
+        return patient;
+    }
+}
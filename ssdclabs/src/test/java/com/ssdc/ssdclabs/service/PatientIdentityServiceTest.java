@@ -0,0 +1,71 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.repository.PatientIdentityRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository.UnlinkedMobileRow;
+
+@ExtendWith(MockitoExtension.class)
+class PatientIdentityServiceTest {
+
+    @Mock private PatientIdentityRepository identityRepo;
+    @Mock private PatientRepository patientRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    @Test
+    void backfill_groupsRowsByNormalizedMobileAndPagesById() {
+        PatientIdentityService service = new PatientIdentityService(identityRepo, patientRepo, txManager, true, 3);
+        when(patientRepo.findUnlinkedMobiles(eq(0L), any(Pageable.class))).thenReturn(List.of(
+            row(1L, "9876543210"), row(2L, "n/a"), row(3L, "+91 98765 43210")
+        ));
+        when(patientRepo.findUnlinkedMobiles(eq(3L), any(Pageable.class))).thenReturn(List.of(
+            row(5L, "0044 20 7946 0958")
+        ));
+        when(identityRepo.findIdByMobileKey("+919876543210")).thenReturn(Optional.of(7L));
+        when(identityRepo.findIdByMobileKey("+442079460958"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(8L));
+        when(patientRepo.linkIdentity(7L, List.of(1L, 3L))).thenReturn(2);
+        when(patientRepo.linkIdentity(8L, List.of(5L))).thenReturn(1);
+
+        assertEquals(3, service.backfill());
+
+        verify(identityRepo).insertIfAbsent("+442079460958");
+        verify(identityRepo, never()).insertIfAbsent("+919876543210");
+    }
+
+    @Test
+    void backfill_nothingUnlinked_writesNothing() {
+        PatientIdentityService service = new PatientIdentityService(identityRepo, patientRepo, txManager, true, 100);
+        when(patientRepo.findUnlinkedMobiles(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, service.backfill());
+
+        verify(patientRepo, never()).linkIdentity(anyLong(), anyList());
+    }
+
+    private static UnlinkedMobileRow row(Long id, String mobile) {
+        return new UnlinkedMobileRow() {
+            @Override public Long getId() { return id; }
+            @Override public String getMobile() { return mobile; }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.dto.PageCursor;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository.NameIndexRow;
+
+@ExtendWith(MockitoExtension.class)
+class PatientNameIndexTest {
+
+    @Mock private PatientRepository patientRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    @Test
+    void search_coldIndexReturnsEmptyUntilBuiltThenMatchesSubstrings() {
+        List<Runnable> builds = new ArrayList<>();
+        PatientNameIndex index = new PatientNameIndex(patientRepo, txManager, true, 10, 1000, builds::add);
+        when(patientRepo.streamNameIndexRows("ssdc")).thenReturn(Stream.of(
+            row(1L, "Ravi Kumar", "9876543210", LocalDate.of(2024, 3, 1)),
+            row(2L, "Kumari Devi", "9123456780", LocalDate.of(2024, 3, 2)),
+            row(3L, "Sita", "9876500000", LocalDate.of(2024, 3, 2)),
+            row(4L, "Old Kumar", null, null)
+        ));
+
+        assertTrue(index.searchPage("ssdc", "kum", "", 0, 10).isEmpty());
+        assertTrue(index.searchPage("ssdc", "kum", "", 0, 10).isEmpty());
+        assertEquals(1, builds.size());
+        builds.get(0).run();
+
+        assertEquals(Optional.of(List.of(2L, 1L, 4L)), index.searchPage("ssdc", "KUM", "", 0, 10));
+        assertEquals(Optional.of(List.of(1L)), index.searchPage("ssdc", "kum", "98765", 0, 10));
+        assertEquals(Optional.of(List.of(1L)), index.searchPage("ssdc", "", "98", 1, 10));
+        assertEquals(Optional.of(List.of(4L)),
+            index.searchAfter("ssdc", "ku", "", PageCursor.after(LocalDate.of(2024, 3, 1), 1L), 10));
+        verify(patientRepo, times(1)).streamNameIndexRows("ssdc");
+    }
+
+    @Test
+    void patientSaved_replacesOldTrigramsAndDeleteRemoves() {
+        PatientNameIndex index = new PatientNameIndex(patientRepo, txManager, true, 10, 1000, Runnable::run);
+        when(patientRepo.streamNameIndexRows("ssdc")).thenReturn(Stream.of(
+            row(1L, "Ravi", "9876543210", LocalDate.of(2024, 3, 1))
+        ));
+        index.searchPage("ssdc", "ravi", "", 0, 10);
+
+        Patient renamed = new Patient();
+        renamed.setId(1L);
+        renamed.setName("Raghav");
+        renamed.setVisitDate(LocalDate.of(2024, 3, 1));
+        index.patientSaved("ssdc", renamed);
+        Patient added = new Patient();
+        added.setId(2L);
+        added.setName("Ravindra");
+        added.setVisitDate(LocalDate.of(2024, 3, 3));
+        index.patientSaved("ssdc", added);
+
+        assertEquals(Optional.of(List.of(2L)), index.searchPage("ssdc", "ravi", "", 0, 10));
+        assertEquals(Optional.of(List.of(1L)), index.searchPage("ssdc", "ghav", "", 0, 10));
+
+        index.patientDeleted("ssdc", 2L);
+        assertEquals(Optional.of(List.of()), index.searchPage("ssdc", "ravi", "", 0, 10));
+    }
+
+    @Test
+    void search_labOverPatientCap_staysOnSqlWithoutReloading() {
+        PatientNameIndex index = new PatientNameIndex(patientRepo, txManager, true, 10, 2, Runnable::run);
+        when(patientRepo.streamNameIndexRows("ssdc")).thenReturn(Stream.of(
+            row(1L, "Ravi", "9876543210", LocalDate.of(2024, 3, 1)),
+            row(2L, "Ravindra", "9876500000", LocalDate.of(2024, 3, 2)),
+            row(3L, "Ravali", "9123456780", LocalDate.of(2024, 3, 3))
+        ));
+
+        assertTrue(index.searchPage("ssdc", "rav", "", 0, 10).isEmpty());
+        assertTrue(index.searchPage("ssdc", "rav", "", 0, 10).isEmpty());
+
+        verify(patientRepo, times(1)).streamNameIndexRows("ssdc");
+    }
+
+    // Rows arrive in any id order; postings are sorted before the index serves.
+    @Test
+    void search_rowsLoadedOutOfIdOrder_intersectsSortedPostings() {
+        PatientNameIndex index = new PatientNameIndex(patientRepo, txManager, true, 10, 1000, Runnable::run);
+        when(patientRepo.streamNameIndexRows("ssdc")).thenReturn(Stream.of(
+            row(9L, "Anil Kumar", "9000000009", LocalDate.of(2024, 3, 1)),
+            row(3L, "Kumar Anil", "9000000003", LocalDate.of(2024, 3, 2)),
+            row(5L, "Sunil Kumar", "9000000005", LocalDate.of(2024, 3, 3))
+        ));
+        index.searchPage("ssdc", "", "", 0, 10);
+        Patient added = new Patient();
+        added.setId(4L);
+        added.setName("Anil Kumaran");
+        added.setVisitDate(LocalDate.of(2024, 3, 4));
+        index.patientSaved("ssdc", added);
+
+        assertEquals(Optional.of(List.of(4L, 3L, 9L)), index.searchPage("ssdc", "anil", "", 0, 10));
+        assertEquals(Optional.of(List.of(4L, 5L, 3L, 9L)), index.searchPage("ssdc", "kumar", "", 0, 10));
+    }
+
+    private static NameIndexRow row(Long id, String name, String mobile, LocalDate visitDate) {
+        return new NameIndexRow() {
+            @Override public Long getId() { return id; }
+            @Override public String getName() { return name; }
+            @Override public String getMobile() { return mobile; }
+            @Override public LocalDate getVisitDate() { return visitDate; }
+        };
+    }
+}
@@ -26,11 +26,17 @@ class PatientServiceTest {
     @Mock private PatientRepository patientRepo;
     @Mock private ReportResultRepository resultRepo;
     @Mock private DoctorRepository doctorRepo;
+    @Mock private ReportService reportService;
+    @Mock private RevenueRollupService revenueRollups;
+    @Mock private DashboardCounterService dashboardCounters;
+    @Mock private PatientNameIndex nameIndex;
+    @Mock private PatientIdentityService identities;
+    @Mock private LabEventHub labEvents;
     @Mock private org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
 
     @Test
     void getRecentTasks_ordersPresentToPast() {
-        PatientService service = new PatientService(patientRepo, resultRepo, doctorRepo, passwordEncoder);
+        PatientService service = new PatientService(patientRepo, resultRepo, doctorRepo, reportService, revenueRollups, dashboardCounters, nameIndex, identities, labEvents, passwordEncoder);
 
         LocalDate today = LocalDate.now(ZoneId.of("Asia/Kolkata"));
         LocalDate yesterday = today.minusDays(1);
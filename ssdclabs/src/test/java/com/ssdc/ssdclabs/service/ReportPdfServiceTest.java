@@ -0,0 +1,211 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.ssdc.ssdclabs.dto.PatientAppReportDTO;
+import com.ssdc.ssdclabs.dto.ReportSnapshotDocument;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.Lab;
+import com.ssdc.ssdclabs.model.LabPrintSettings;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.LabPrintSettingsRepository;
+import com.ssdc.ssdclabs.repository.LabRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ReportPdfServiceTest {
+
+    @Mock private ReportService reportService;
+    @Mock private PatientRepository patientRepo;
+    @Mock private LabRepository labRepo;
+    @Mock private LabPrintSettingsRepository printSettingsRepo;
+
+    // No fallback files: the sandboxed test runs only see the bundled fonts.
+    private static final ReportPdfFonts FONTS = new ReportPdfFonts(new String[0]);
+
+    @Test
+    void writeReport_rendersResultsWithLabHeaderAndAbnormalMarking() throws Exception {
+        ReportPdfService service = service(200);
+        when(patientRepo.findByIdAndLabIdWithDoctor(7L, "ssdc")).thenReturn(Optional.of(patient()));
+        when(labRepo.findById("ssdc")).thenReturn(Optional.of(lab()));
+        when(reportService.getReportForApp("ssdc", 7L)).thenReturn(rows());
+
+        String text = textOf(render(service, ReportPdfRenderer.Mode.PDF));
+
+        assertTrue(text.contains("SSDC TEST LAB"), text);
+        assertTrue(text.contains("Ravi Kumar"), text);
+        assertTrue(text.contains("Haemoglobin"), text);
+        assertTrue(text.contains("13-17"), text);
+        assertTrue(!text.contains("12-15"), "female range printed for a male patient");
+        assertTrue(text.contains("Neutrophils"), text);
+    }
+
+    @Test
+    void writeReport_servesCompletedReportFromCacheUntilSnapshotChanges() throws Exception {
+        ReportPdfService service = service(200);
+        when(patientRepo.findByIdAndLabIdWithDoctor(7L, "ssdc")).thenReturn(Optional.of(patient()));
+        when(reportService.getSnapshot("ssdc", 7L)).thenReturn(
+            new ReportSnapshotDocument(3L, List.of(), List.of(), rows()),
+            new ReportSnapshotDocument(3L, List.of(), List.of(), rows()),
+            new ReportSnapshotDocument(4L, List.of(), List.of(), rows().subList(0, 1))
+        );
+
+        byte[] first = render(service, ReportPdfRenderer.Mode.PDF);
+        byte[] second = render(service, ReportPdfRenderer.Mode.PDF);
+        byte[] third = render(service, ReportPdfRenderer.Mode.PDF);
+
+        assertArrayEquals(first, second);
+        assertTrue(textOf(third).contains("Haemoglobin"));
+        assertTrue(!textOf(third).contains("Neutrophils"));
+        verify(reportService, never()).getReportForApp("ssdc", 7L);
+        verify(labRepo, times(1)).findById("ssdc");
+    }
+
+    @Test
+    void writeReport_letterheadModeLeavesOutLabHeader() throws Exception {
+        ReportPdfService service = service(200);
+        when(patientRepo.findByIdAndLabIdWithDoctor(7L, "ssdc")).thenReturn(Optional.of(patient()));
+        when(labRepo.findById("ssdc")).thenReturn(Optional.of(lab()));
+        when(reportService.getReportForApp("ssdc", 7L)).thenReturn(rows());
+
+        String text = textOf(render(service, ReportPdfRenderer.Mode.LETTERHEAD));
+
+        assertTrue(!text.contains("SSDC TEST LAB"), text);
+        assertTrue(text.contains("Haemoglobin"), text);
+    }
+
+    @Test
+    void writeReport_printsUnicodeTextAndTheLabsTitle() throws Exception {
+        ReportPdfService service = service(200);
+        Patient patient = patient();
+        patient.setName("Ravi Kumar \u0c30\u0c35\u0c3f");
+        LabPrintSettings settings = new LabPrintSettings();
+        settings.setLabId("ssdc");
+        settings.setReportTitle("THYROID PROFILE");
+        when(patientRepo.findByIdAndLabIdWithDoctor(7L, "ssdc")).thenReturn(Optional.of(patient));
+        when(labRepo.findById("ssdc")).thenReturn(Optional.of(lab()));
+        when(printSettingsRepo.findById("ssdc")).thenReturn(Optional.of(settings));
+        when(reportService.getReportForApp("ssdc", 7L)).thenReturn(List.of(
+            new PatientAppReportDTO(3L, "TSH", null, "7.9", "\u00b5IU/mL", "\u2264 4.5")
+        ));
+
+        String text = textOf(render(service, ReportPdfRenderer.Mode.PDF));
+
+        assertTrue(text.contains("THYROID PROFILE"), text);
+        assertTrue(!text.contains("BLOOD EXAMINATION REPORT"), text);
+        assertTrue(text.contains("\u00b5IU/mL"), text);
+        assertTrue(text.contains("\u2264 4.5"), text);
+    }
+
+    @Test
+    void writeReport_rowTallerThanAPage_continuesOnNextPages() throws Exception {
+        ReportPdfService service = service(200);
+        StringBuilder normal = new StringBuilder();
+        for (int i = 1; i <= 150; i++) {
+            normal.append("Note line ").append(i).append('\n');
+        }
+        when(patientRepo.findByIdAndLabIdWithDoctor(7L, "ssdc")).thenReturn(Optional.of(patient()));
+        when(labRepo.findById("ssdc")).thenReturn(Optional.of(lab()));
+        when(reportService.getReportForApp("ssdc", 7L)).thenReturn(List.of(
+            new PatientAppReportDTO(4L, "Culture", null, "See notes", "", normal.toString())
+        ));
+
+        byte[] pdf = render(service, ReportPdfRenderer.Mode.PDF);
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            assertTrue(document.getNumberOfPages() >= 3, "pages: " + document.getNumberOfPages());
+        }
+        String text = textOf(pdf);
+        assertTrue(text.contains("Note line 1\n"), text);
+        assertTrue(text.contains("Note line 150"), text);
+    }
+
+    @Test
+    void runs_fallBackToQuestionMarkAndDropInvisibleJoiners() {
+        ReportPdfFonts fonts = new ReportPdfFonts(new String[0]);
+
+        List<ReportPdfFonts.Run> runs = fonts.runs("\u00b5g \u0c30\u200d", ReportPdfFonts.Style.REGULAR);
+
+        assertEquals(1, runs.size());
+        assertEquals("\u00b5g ?", runs.get(0).text());
+    }
+
+    @Test
+    void normalLinesFor_picksPatientGenderAndFlagsOutOfRange() {
+        List<String> male = ReportPdfRenderer.normalLinesFor("M: 13-17\nF: 12-15", Gender.MALE);
+        List<double[]> ranges = List.of(ReportPdfRenderer.parseRange(male.get(0)));
+
+        assertEquals(List.of("13-17"), male);
+        assertTrue(ReportPdfRenderer.isAbnormal("11.2", ranges));
+        assertTrue(!ReportPdfRenderer.isAbnormal("14", ranges));
+        assertTrue(!ReportPdfRenderer.isAbnormal("Reactive", ranges));
+    }
+
+    private ReportPdfService service(int maxEntries) {
+        return new ReportPdfService(
+            reportService,
+            patientRepo,
+            new ReportLetterheadCache(labRepo, printSettingsRepo),
+            new ReportPdfRenderer(new TestCatalogCache(), FONTS),
+            maxEntries
+        );
+    }
+
+    private static byte[] render(ReportPdfService service, ReportPdfRenderer.Mode mode) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeReport("ssdc", 7L, mode, out);
+        return out.toByteArray();
+    }
+
+    private static String textOf(byte[] pdf) throws Exception {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private static Patient patient() {
+        Patient patient = new Patient();
+        patient.setId(7L);
+        patient.setLabId("ssdc");
+        patient.setName("Ravi Kumar");
+        patient.setAge(42);
+        patient.setGender(Gender.MALE);
+        patient.setMobile("9876543210");
+        patient.setVisitDate(LocalDate.of(2026, 3, 1));
+        return patient;
+    }
+
+    private static Lab lab() {
+        Lab lab = new Lab();
+        lab.setLabId("ssdc");
+        lab.setLabName("SSDC TEST LAB");
+        return lab;
+    }
+
+    private static List<PatientAppReportDTO> rows() {
+        return List.of(
+            new PatientAppReportDTO(1L, "Haemoglobin", null, "11.2", "g/dL", "M: 13-17\nF: 12-15"),
+            new PatientAppReportDTO(2L, "Differential Count", "Neutrophils", "60", "%", "40-75"),
+            new PatientAppReportDTO(2L, "Differential Count", "Lymphocytes", "30", "%", "20-45")
+        );
+    }
+}
@@ -0,0 +1,110 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.NormalRange;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.model.ReportResult;
+import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.repository.NormalRangeRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.ReportResultRepository;
+import com.ssdc.ssdclabs.repository.TestParameterRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ReportResultBackfillServiceTest {
+
+    private static final LocalDate VISIT = LocalDate.of(2025, 3, 14);
+
+    @Mock private ReportResultRepository resultRepo;
+    @Mock private TestRepository testRepo;
+    @Mock private TestParameterRepository paramRepo;
+    @Mock private PatientRepository patientRepo;
+    @Mock private ReportSnapshotStore snapshotStore;
+    @Mock private NormalRangeRepository normalRangeRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    @Test
+    void backfill_classifiesOlderRowsAndPagesById() {
+        ReportResultBackfillService service = service(2);
+        TestParameter param = param();
+        ReportResult high = row(1L, param, "19.2");
+        ReportResult text = row(2L, param, "see note");
+        ReportResult low = row(4L, param, "9");
+        when(resultRepo.findUnclassified(eq(0L), any(Pageable.class))).thenReturn(List.of(high, text));
+        when(resultRepo.findUnclassified(eq(2L), any(Pageable.class))).thenReturn(List.of(low));
+        when(normalRangeRepo.findByParameterIdIn(any())).thenReturn(List.of(range(param)));
+        when(resultRepo.setClassification(1L, new BigDecimal("19.2000"), AbnormalFlag.HIGH, VISIT)).thenReturn(1);
+        when(resultRepo.setClassification(2L, null, null, VISIT)).thenReturn(1);
+        // Saved by an editor between the read and the write.
+        when(resultRepo.setClassification(4L, new BigDecimal("9.0000"), AbnormalFlag.LOW, VISIT)).thenReturn(0);
+
+        assertEquals(2, service.backfill());
+    }
+
+    @Test
+    void backfill_nothingPending_writesNothing() {
+        ReportResultBackfillService service = service(100);
+        when(resultRepo.findUnclassified(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, service.backfill());
+
+        verify(resultRepo, never()).setClassification(any(), any(), any(), any());
+        verifyNoInteractions(normalRangeRepo);
+    }
+
+    private ReportResultBackfillService service(int batchSize) {
+        ReportService reportService = new ReportService(
+            resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+        return new ReportResultBackfillService(resultRepo, reportService, txManager, true, batchSize);
+    }
+
+    private static TestParameter param() {
+        TestParameter param = new TestParameter();
+        param.setId(100L);
+        param.setName("Haemoglobin");
+        return param;
+    }
+
+    private static NormalRange range(TestParameter param) {
+        NormalRange range = new NormalRange();
+        range.setParameter(param);
+        range.setGender(Gender.ANY);
+        range.setMinValue(12.0);
+        range.setMaxValue(16.0);
+        return range;
+    }
+
+    private static ReportResult row(Long id, TestParameter param, String value) {
+        Patient patient = new Patient();
+        patient.setId(id * 10);
+        patient.setVisitDate(VISIT);
+        ReportResult row = new ReportResult();
+        row.setId(id);
+        row.setPatient(patient);
+        row.setParameter(param);
+        row.setResultValue(value);
+        return row;
+    }
+}
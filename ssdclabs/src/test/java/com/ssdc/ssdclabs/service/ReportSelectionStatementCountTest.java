@@ -0,0 +1,119 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.config.SqlStatementAssertions;
+import com.ssdc.ssdclabs.config.SqlStatementConfig;
+import com.ssdc.ssdclabs.dto.PatientTestSelectionDTO;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.model.TestType;
+import com.ssdc.ssdclabs.model.ValueType;
+import com.ssdc.ssdclabs.repository.NormalRangeRepository;
+import com.ssdc.ssdclabs.repository.PatientRepository;
+import com.ssdc.ssdclabs.repository.ReportResultRepository;
+import com.ssdc.ssdclabs.repository.ReportSnapshotRepository;
+import com.ssdc.ssdclabs.repository.TestParameterRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "app.sql.counter.enabled=true"
+})
+@Import(SqlStatementConfig.class)
+class ReportSelectionStatementCountTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private ReportResultRepository resultRepo;
+    @Autowired private TestRepository testRepo;
+    @Autowired private TestParameterRepository paramRepo;
+    @Autowired private PatientRepository patientRepo;
+    @Autowired private ReportSnapshotRepository snapshotRepo;
+    @Autowired private NormalRangeRepository normalRangeRepo;
+
+    @Test
+    void saveSelectedTests_statementCountDoesNotGrowWithSelection() {
+        List<Long> warm = seedTests("warm", 1);
+        List<Long> small = seedTests("small", 2);
+        List<Long> large = seedTests("large", 15);
+        Long warmPatient = seedPatient("warm");
+        Long smallPatient = seedPatient("small");
+        Long largePatient = seedPatient("large");
+        em.flush();
+        em.clear();
+        // The first save also reserves a block of ids from id_sequences.
+        statementsFor("warm", warmPatient, warm);
+
+        long smallCount = statementsFor("small", smallPatient, small);
+        long largeCount = statementsFor("large", largePatient, large);
+
+        assertEquals(smallCount, largeCount);
+        assertTrue(largeCount <= 6, "selection save used " + largeCount + " statements");
+        assertEquals(30, resultRepo.findByPatient_Id("large", largePatient).size());
+    }
+
+    private long statementsFor(String labId, Long patientId, List<Long> testIds) {
+        ReportService service = new ReportService(
+            resultRepo,
+            testRepo,
+            paramRepo,
+            patientRepo,
+            new ReportSnapshotStore(snapshotRepo, new ObjectMapper()),
+            normalRangeRepo
+        );
+        List<PatientTestSelectionDTO> selections = new ArrayList<>();
+        for (Long testId : testIds) {
+            selections.add(new PatientTestSelectionDTO(patientId, testId));
+        }
+        long count = SqlStatementAssertions.count(() -> {
+            service.saveSelectedTests(labId, selections, null);
+            em.flush();
+        }).statements();
+        em.clear();
+        return count;
+    }
+
+    private Long seedPatient(String labId) {
+        Patient patient = new Patient();
+        patient.setLabId(labId);
+        patient.setName("Patient " + labId);
+        patient.setGender(Gender.MALE);
+        return em.persistAndGetId(patient, Long.class);
+    }
+
+    private List<Long> seedTests(String labId, int testCount) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < testCount; i++) {
+            com.ssdc.ssdclabs.model.Test test = new com.ssdc.ssdclabs.model.Test();
+            test.setLabId(labId);
+            test.setTestName("Test " + i);
+            test.setShortcut("T" + i);
+            test.setTestType(TestType.MULTI);
+            List<TestParameter> params = new ArrayList<>();
+            for (int p = 0; p < 2; p++) {
+                TestParameter param = new TestParameter();
+                param.setTest(test);
+                param.setName("P" + p);
+                param.setValueType(ValueType.NUMBER);
+                params.add(param);
+            }
+            test.setParameters(params);
+            em.persist(test);
+            ids.add(test.getId());
+        }
+        return ids;
+    }
+}
@@ -2,9 +2,14 @@ package com.ssdc.ssdclabs.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
@@ -16,12 +21,18 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.ssdc.ssdclabs.dto.AbnormalResultDTO;
 import com.ssdc.ssdclabs.dto.PatientAppReportDTO;
 import com.ssdc.ssdclabs.dto.PatientTestSelectionDTO;
 import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
+import com.ssdc.ssdclabs.dto.ReportSnapshotDocument;
+import com.ssdc.ssdclabs.dto.ResultDeltaRequest;
+import com.ssdc.ssdclabs.dto.ResultDeltaResponse;
+import com.ssdc.ssdclabs.model.AbnormalFlag;
 import com.ssdc.ssdclabs.model.Patient;
 import com.ssdc.ssdclabs.model.ReportResult;
 import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.repository.NormalRangeRepository;
 import com.ssdc.ssdclabs.repository.PatientRepository;
 import com.ssdc.ssdclabs.repository.ReportResultRepository;
 import com.ssdc.ssdclabs.repository.TestParameterRepository;
@@ -34,11 +45,13 @@ class ReportServiceTest {
     @Mock private TestRepository testRepo;
     @Mock private TestParameterRepository paramRepo;
     @Mock private PatientRepository patientRepo;
+    @Mock private ReportSnapshotStore snapshotStore;
+    @Mock private NormalRangeRepository normalRangeRepo;
     @Captor private ArgumentCaptor<Iterable<ReportResult>> reportResultIterableCaptor;
 
     @Test
     void getSelectedTests_ordersByCategoryThenDisplayOrder_forLegacyRows() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         com.ssdc.ssdclabs.model.Test microbiology = createTest(41L, "Culture", "Microbiology", 1);
         com.ssdc.ssdclabs.model.Test biochemistry = createTest(31L, "Sugar", "Biochemistry", 2);
@@ -62,7 +75,7 @@ class ReportServiceTest {
 
     @Test
     void getSelectedTests_dedupesMultipleRowsPerTest() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         com.ssdc.ssdclabs.model.Test biochemistry = createTest(31L, "Sugar", "Biochemistry", 1);
         com.ssdc.ssdclabs.model.Test hematology = createTest(21L, "CBC", "Hematology", 2);
@@ -82,7 +95,7 @@ class ReportServiceTest {
 
     @Test
     void getReportForApp_ordersByReportPriority() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         com.ssdc.ssdclabs.model.Test biochemistry = createTest(2L, "FBS", "Biochemistry", 3);
         com.ssdc.ssdclabs.model.Test hematologyLater = createTest(1L, "ESR", "Hematology", 5);
@@ -118,7 +131,7 @@ class ReportServiceTest {
 
     @Test
     void getResults_splitsMultilineForSingleParameterTest() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         Patient patient = new Patient();
         patient.setId(1L);
@@ -155,7 +168,7 @@ class ReportServiceTest {
 
     @Test
     void getResults_splitsMultilineForMultiParameterTest() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         Patient patient = new Patient();
         patient.setId(1L);
@@ -200,9 +213,47 @@ class ReportServiceTest {
         assertEquals("55", out.get(1).resultValue);
     }
 
+    @Test
+    void getResults_flagsOnlyTheLineHoldingTheReading() {
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+        com.ssdc.ssdclabs.model.Test test = deltaTest();
+        ReportResult row = deltaRow(deltaPatient(), test, deltaParam(test), "see note\n19.2\n20", 0L);
+        row.setAbnormalFlag(AbnormalFlag.HIGH);
+        when(resultRepo.findByPatient_Id("ssdc", 1L)).thenReturn(List.of(row));
+
+        List<PatientTestResultDTO> out = service.getResults("ssdc", 1L);
+
+        assertEquals(3, out.size());
+        assertEquals(null, out.get(0).abnormalFlag);
+        assertEquals(AbnormalFlag.HIGH, out.get(1).abnormalFlag);
+        assertEquals(null, out.get(2).abnormalFlag);
+    }
+
+    @Test
+    void findAbnormalResults_noFlag_asksForBothAndMapsRows() {
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+        com.ssdc.ssdclabs.model.Test test = deltaTest();
+        Patient patient = deltaPatient();
+        patient.setName("Ravi");
+        ReportResult row = deltaRow(patient, test, deltaParam(test), "9", 0L);
+        row.setNumericValue(new BigDecimal("9.0000"));
+        row.setAbnormalFlag(AbnormalFlag.LOW);
+        row.setVisitDate(LocalDate.of(2025, 3, 14));
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 3, 31);
+        when(resultRepo.findAbnormalByParameter("ssdc", 100L, EnumSet.allOf(AbnormalFlag.class), from, to))
+            .thenReturn(List.of(row));
+
+        List<AbnormalResultDTO> out = service.findAbnormalResults("ssdc", 100L, null, from, to);
+
+        assertEquals(List.of(new AbnormalResultDTO(
+            1L, "Ravi", "2025-03-14", 10L, null, "9", new BigDecimal("9.0000"), AbnormalFlag.LOW
+        )), out);
+    }
+
     @Test
     void saveResults_combinesLinesAndDeletesLineRows() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         Patient patient = new Patient();
         patient.setId(1L);
@@ -251,6 +302,7 @@ class ReportServiceTest {
         assertEquals(1, saved.size());
         ReportResult savedRow = saved.get(0);
         assertEquals("13\n14\n15", savedRow.getResultValue());
+        assertEquals(new BigDecimal("13.0000"), savedRow.getNumericValue());
 
         verify(resultRepo).deleteAll(reportResultIterableCaptor.capture());
         List<ReportResult> deleted = toResultList(reportResultIterableCaptor.getValue());
@@ -260,7 +312,7 @@ class ReportServiceTest {
 
     @Test
     void saveResults_clearTrue_clearsValueAndDeletesLineRows() {
-        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo);
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
 
         Patient patient = new Patient();
         patient.setId(1L);
@@ -314,6 +366,96 @@ class ReportServiceTest {
         assertEquals(1001L, deleted.get(0).getId());
     }
 
+    @Test
+    void saveResultDelta_updatesOnlyTheChangedLine() {
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+        Patient patient = deltaPatient();
+        com.ssdc.ssdclabs.model.Test test = deltaTest();
+        TestParameter param = deltaParam(test);
+        ReportResult base = deltaRow(patient, test, param, "13\n14", 3L);
+
+        when(patientRepo.findByIdAndLabId(1L, "ssdc")).thenReturn(Optional.of(patient));
+        when(testRepo.findByLabIdAndIdIn(any(), any())).thenReturn(List.of(test));
+        when(paramRepo.findByTestIdIn(any())).thenReturn(List.of(param));
+        when(resultRepo.findByPatientAndParameterIds(any(), any(), any())).thenReturn(List.of(base));
+        when(resultRepo.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            base.setVersion(4L);
+            return invocation.getArgument(0);
+        });
+
+        PatientTestResultDTO change = new PatientTestResultDTO(null, 1L, 10L, "Haemoglobin::2", "15");
+        change.version = 3L;
+        ResultDeltaResponse out = service.saveResultDelta("ssdc", new ResultDeltaRequest(1L, List.of(change)), null);
+
+        assertEquals("13\n15", base.getResultValue());
+        assertEquals(1, out.applied.size());
+        assertEquals(4L, out.applied.get(0).version);
+        assertEquals(List.of(), out.conflicts);
+        verify(resultRepo, never()).findByPatient_IdIn(any(), any());
+    }
+
+    @Test
+    void saveResultDelta_staleVersion_reportsConflictAndKeepsStoredValue() {
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+        Patient patient = deltaPatient();
+        com.ssdc.ssdclabs.model.Test test = deltaTest();
+        TestParameter param = deltaParam(test);
+        ReportResult base = deltaRow(patient, test, param, "12.5", 5L);
+
+        when(patientRepo.findByIdAndLabId(1L, "ssdc")).thenReturn(Optional.of(patient));
+        when(testRepo.findByLabIdAndIdIn(any(), any())).thenReturn(List.of(test));
+        when(paramRepo.findByTestIdIn(any())).thenReturn(List.of(param));
+        when(resultRepo.findByPatientAndParameterIds(any(), any(), any())).thenReturn(List.of(base));
+
+        PatientTestResultDTO change = new PatientTestResultDTO(null, 1L, 10L, null, "13");
+        change.version = 4L;
+        ResultDeltaResponse out = service.saveResultDelta("ssdc", new ResultDeltaRequest(1L, List.of(change)), null);
+
+        assertEquals("12.5", base.getResultValue());
+        assertEquals(List.of(), out.applied);
+        assertEquals(1, out.conflicts.size());
+        assertEquals(5L, out.conflicts.get(0).currentVersion);
+        assertEquals("12.5", out.conflicts.get(0).currentValue);
+        verify(resultRepo, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void describeSaveConflicts_listsOnlyCellsWhoseStoredValueDiffers() {
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+        Patient patient = deltaPatient();
+        com.ssdc.ssdclabs.model.Test test = deltaTest();
+        ReportResult stored = deltaRow(patient, test, deltaParam(test), "12.5", 6L);
+        when(resultRepo.findByPatient_Id("ssdc", 1L)).thenReturn(List.of(stored));
+
+        ResultDeltaResponse out = service.describeSaveConflicts("ssdc", List.of(
+            new PatientTestResultDTO(null, 1L, 10L, null, "13"),
+            new PatientTestResultDTO(null, 1L, 10L, null, "12.5")
+        ));
+
+        assertEquals(1, out.conflicts.size());
+        assertEquals(6L, out.conflicts.get(0).currentVersion);
+        assertEquals("12.5", out.conflicts.get(0).currentValue);
+        assertEquals("13", out.conflicts.get(0).rejectedValue);
+    }
+
+    @Test
+    void getReportForApp_servesCompletedReportFromSnapshot() {
+        ReportService service = new ReportService(resultRepo, testRepo, paramRepo, patientRepo, snapshotStore, normalRangeRepo);
+
+        PatientAppReportDTO frozen = new PatientAppReportDTO(3L, "CBC", "CBC", "13.5", "g/dL", "13-17");
+        when(snapshotStore.find("ssdc", 29L)).thenReturn(new ReportSnapshotDocument(
+            4L,
+            List.of(new PatientTestSelectionDTO(29L, 3L)),
+            List.of(),
+            List.of(frozen)
+        ));
+
+        List<PatientAppReportDTO> out = service.getReportForApp("ssdc", 29L);
+
+        assertEquals(List.of(frozen), out);
+        verifyNoInteractions(resultRepo, testRepo, paramRepo);
+    }
+
     private static List<ReportResult> toResultList(Iterable<ReportResult> rows) {
         List<ReportResult> out = new ArrayList<>();
         for (ReportResult row : rows) {
@@ -334,6 +476,44 @@ class ReportServiceTest {
         return test;
     }
 
+    private static Patient deltaPatient() {
+        Patient patient = new Patient();
+        patient.setId(1L);
+        patient.setLabId("ssdc");
+        return patient;
+    }
+
+    private static com.ssdc.ssdclabs.model.Test deltaTest() {
+        com.ssdc.ssdclabs.model.Test test = new com.ssdc.ssdclabs.model.Test();
+        test.setId(10L);
+        test.setTestName("Haemoglobin");
+        return test;
+    }
+
+    private static TestParameter deltaParam(com.ssdc.ssdclabs.model.Test test) {
+        TestParameter param = new TestParameter();
+        param.setId(100L);
+        param.setName("Haemoglobin");
+        param.setTest(test);
+        return param;
+    }
+
+    private static ReportResult deltaRow(Patient patient,
+                                         com.ssdc.ssdclabs.model.Test test,
+                                         TestParameter param,
+                                         String value,
+                                         Long version) {
+        ReportResult row = new ReportResult();
+        row.setId(1000L);
+        row.setPatient(patient);
+        row.setTest(test);
+        row.setParameter(param);
+        row.setSubTest("");
+        row.setResultValue(value);
+        row.setVersion(version);
+        return row;
+    }
+
     private ReportResult createResultWithTest(com.ssdc.ssdclabs.model.Test test) {
         ReportResult result = new ReportResult();
         result.setTest(test);
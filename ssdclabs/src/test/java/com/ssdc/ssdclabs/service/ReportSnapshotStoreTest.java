@@ -0,0 +1,83 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdc.ssdclabs.dto.PatientAppReportDTO;
+import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
+import com.ssdc.ssdclabs.dto.PatientTestSelectionDTO;
+import com.ssdc.ssdclabs.dto.ReportSnapshotDocument;
+import com.ssdc.ssdclabs.model.ReportSnapshot;
+import com.ssdc.ssdclabs.repository.ReportSnapshotRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ReportSnapshotStoreTest {
+
+    @Mock private ReportSnapshotRepository snapshotRepo;
+
+    @Test
+    void save_roundTripsDocumentAndBumpsVersion() {
+        ReportSnapshotStore store = new ReportSnapshotStore(snapshotRepo, new ObjectMapper());
+        ReportSnapshot row = new ReportSnapshot();
+        when(snapshotRepo.findById(5L))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(row));
+        when(snapshotRepo.save(any())).thenAnswer(invocation -> {
+            ReportSnapshot saved = invocation.getArgument(0);
+            row.setPatientId(saved.getPatientId());
+            row.setLabId(saved.getLabId());
+            row.setVersion(saved.getVersion());
+            row.setPayload(saved.getPayload());
+            return row;
+        });
+
+        assertEquals(1L, store.save("ssdc", 5L, document()));
+        assertEquals(2L, store.save("ssdc", 5L, document()));
+
+        when(snapshotRepo.findById(5L)).thenReturn(Optional.of(row));
+        ReportSnapshotDocument found = store.find("ssdc", 5L);
+        assertEquals(2L, found.version());
+        assertEquals(12L, found.selectedTests().get(0).testId);
+        assertEquals("13.5", found.results().get(0).resultValue);
+        assertEquals("g/dL", found.report().get(0).unit);
+    }
+
+    @Test
+    void find_ignoresInvalidatedAndOtherLabRows() {
+        ReportSnapshotStore store = new ReportSnapshotStore(snapshotRepo, new ObjectMapper());
+        ReportSnapshot row = new ReportSnapshot();
+        row.setPatientId(5L);
+        row.setLabId("ssdc");
+        row.setVersion(3L);
+        row.setPayload("{}");
+        when(snapshotRepo.findById(5L)).thenReturn(Optional.of(row));
+
+        assertNull(store.find("other", 5L));
+
+        store.invalidate(5L);
+
+        assertNull(row.getPayload());
+        assertEquals(3L, row.getVersion());
+        assertNull(store.find("ssdc", 5L));
+    }
+
+    private static ReportSnapshotDocument document() {
+        return new ReportSnapshotDocument(
+            0L,
+            List.of(new PatientTestSelectionDTO(5L, 12L)),
+            List.of(new PatientTestResultDTO(null, 5L, 12L, null, "13.5")),
+            List.of(new PatientAppReportDTO(12L, "Haemoglobin", "Haemoglobin", "13.5", "g/dL", "13-17"))
+        );
+    }
+}
@@ -0,0 +1,167 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ssdc.ssdclabs.dto.AutosaveStatusDTO;
+import com.ssdc.ssdclabs.dto.PatientTestResultDTO;
+import com.ssdc.ssdclabs.dto.ResultDeltaRequest;
+import com.ssdc.ssdclabs.dto.ResultDeltaResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ResultAutosaveBufferTest {
+
+    @Mock private ReportService reportService;
+    @Captor private ArgumentCaptor<ResultDeltaRequest> requestCaptor;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void submit_coalescesKeystrokesAndFlushesOncePerPatient() {
+        ResultAutosaveBuffer buffer = new ResultAutosaveBuffer(reportService, registry, 60_000L, 1800L);
+        when(reportService.saveResultDelta(eq("ssdc"), any(), any())).thenReturn(new ResultDeltaResponse());
+
+        buffer.submit("ssdc", cell(10L, "Haemoglobin", "1", 3L), null);
+        buffer.submit("ssdc", cell(10L, "Haemoglobin", "13", 3L), null);
+        buffer.submit("ssdc", cell(10L, "haemoglobin ", "13.5", 3L), null);
+        buffer.submit("ssdc", cell(11L, "ESR", "20", 1L), null);
+
+        buffer.flushDue();
+        verify(reportService, never()).saveResultDelta(any(), any(), any());
+
+        buffer.flushPatient("ssdc", 7L);
+
+        verify(reportService, times(1)).saveResultDelta(eq("ssdc"), requestCaptor.capture(), any());
+        List<PatientTestResultDTO> changes = requestCaptor.getValue().changes;
+        assertEquals(2, changes.size());
+        assertEquals("13.5", changes.get(0).resultValue);
+        assertEquals(0, gauge("autosave.pending.cells"));
+        assertEquals(2, registry.get("autosave.cells.coalesced").counter().count());
+        assertEquals(1, registry.get("autosave.flushes").timer().count());
+    }
+
+    @Test
+    void flush_laterEditOfSameRowUsesVersionFromOwnEarlierWrite() {
+        ResultAutosaveBuffer buffer = new ResultAutosaveBuffer(reportService, registry, 0L, 1800L);
+        ResultDeltaResponse first = new ResultDeltaResponse();
+        PatientTestResultDTO written = cell(10L, "Haemoglobin", "13", 4L);
+        written.id = 1000L;
+        first.applied.add(written);
+        when(reportService.saveResultDelta(eq("ssdc"), any(), any()))
+            .thenReturn(first, new ResultDeltaResponse());
+
+        PatientTestResultDTO edit = cell(10L, "Haemoglobin", "13", 3L);
+        edit.id = 1000L;
+        buffer.submit("ssdc", edit, null);
+        buffer.flushDue();
+
+        PatientTestResultDTO next = cell(10L, "Haemoglobin::2", "14", 3L);
+        next.id = 1000L;
+        buffer.submit("ssdc", next, null);
+        buffer.flushDue();
+
+        verify(reportService, times(2)).saveResultDelta(eq("ssdc"), requestCaptor.capture(), any());
+        PatientTestResultDTO sent = requestCaptor.getAllValues().get(1).changes.get(0);
+        assertEquals(4L, sent.version);
+    }
+
+    @Test
+    void flushAll_writesPendingCellsOnShutdown() {
+        ResultAutosaveBuffer buffer = new ResultAutosaveBuffer(reportService, registry, 60_000L, 1800L);
+        when(reportService.saveResultDelta(eq("ssdc"), any(), any()))
+            .thenThrow(new IllegalStateException("db down"))
+            .thenReturn(new ResultDeltaResponse());
+
+        buffer.submit("ssdc", cell(10L, "Haemoglobin", "13", 3L), null);
+        buffer.flushPatient("ssdc", 7L);
+        assertEquals(1, gauge("autosave.pending.cells"));
+
+        buffer.flushAll();
+
+        assertEquals(0, gauge("autosave.pending.cells"));
+        assertEquals(1, registry.get("autosave.failures").counter().count());
+    }
+
+    @Test
+    void flush_reportLocked_returnsRejectedCellsOnNextStatus() {
+        ResultAutosaveBuffer buffer = new ResultAutosaveBuffer(reportService, registry, 60_000L, 1800L);
+        when(reportService.saveResultDelta(eq("ssdc"), any(), any()))
+            .thenThrow(new ResponseStatusException(HttpStatus.FORBIDDEN, "Report is locked"));
+
+        buffer.submit("ssdc", cell(10L, "Haemoglobin", "13", 3L), null);
+        buffer.flushPatient("ssdc", 7L);
+
+        AutosaveStatusDTO status = buffer.status("ssdc", 7L);
+        assertEquals(0, status.pendingCells());
+        assertEquals(1, status.rejected().size());
+        assertEquals("13", status.rejected().get(0).rejectedValue());
+        assertEquals("Report is locked", status.rejected().get(0).reason());
+        assertTrue(buffer.status("ssdc", 7L).rejected().isEmpty());
+    }
+
+    // An idle buffer being retired while a keystroke arrives must not swallow it.
+    @Test
+    void submit_racingIdleRetirement_neverLosesACell() throws Exception {
+        ResultAutosaveBuffer buffer = new ResultAutosaveBuffer(reportService, registry, 0L, Duration.ZERO);
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        when(reportService.saveResultDelta(eq("ssdc"), any(), any())).thenAnswer(call -> {
+            ResultDeltaRequest request = call.getArgument(1);
+            request.changes.forEach(change -> written.add(change.testId));
+            return new ResultDeltaResponse();
+        });
+        int cells = 5_000;
+        AtomicBoolean typing = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (typing.get()) {
+                buffer.flushDue();
+            }
+        });
+        flusher.start();
+        try {
+            for (long testId = 1; testId <= cells; testId++) {
+                buffer.submit("ssdc", cell(testId, "Result", "1", null), null);
+                if (testId % 50 == 0) {
+                    Thread.yield();
+                }
+            }
+        } finally {
+            typing.set(false);
+            flusher.join();
+        }
+        buffer.flushAll();
+
+        assertEquals(cells, written.size());
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private static PatientTestResultDTO cell(Long testId, String subTest, String value, Long version) {
+        PatientTestResultDTO dto = new PatientTestResultDTO(null, 7L, testId, subTest, value);
+        dto.version = version;
+        return dto;
+    }
+}
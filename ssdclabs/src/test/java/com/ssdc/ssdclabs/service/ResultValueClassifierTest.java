@@ -0,0 +1,51 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ssdc.ssdclabs.model.AbnormalFlag;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.NormalRange;
+
+class ResultValueClassifierTest {
+
+    @Test
+    void numericValue_acceptsGroupedDigitsAndSkipsText() {
+        assertEquals(new BigDecimal("4000.0000"), ResultValueClassifier.numericValue("4,000"));
+        assertEquals(new BigDecimal("150000.0000"), ResultValueClassifier.numericValue("1,50,000"));
+        assertEquals(new BigDecimal("12.5000"), ResultValueClassifier.numericValue("Reactive\n12.5"));
+        assertNull(ResultValueClassifier.numericValue("4,5"));
+        assertNull(ResultValueClassifier.numericValue("< 5"));
+        assertNull(ResultValueClassifier.numericValue("Negative"));
+    }
+
+    @Test
+    void flag_usesPatientGenderRangeBeforeAnyRange() {
+        List<NormalRange> ranges = List.of(
+            range(Gender.ANY, 11.0, 17.0),
+            range(Gender.MALE, 13.0, 17.0),
+            range(Gender.FEMALE, 12.0, 15.0)
+        );
+        BigDecimal value = new BigDecimal("12.5");
+
+        assertEquals(AbnormalFlag.LOW, ResultValueClassifier.flag(value, ranges, Gender.MALE));
+        assertNull(ResultValueClassifier.flag(value, ranges, Gender.FEMALE));
+        assertNull(ResultValueClassifier.flag(value, ranges, Gender.ANY));
+        assertEquals(AbnormalFlag.HIGH,
+            ResultValueClassifier.flag(new BigDecimal("16"), ranges, Gender.FEMALE));
+        assertNull(ResultValueClassifier.flag(value, List.of(), Gender.MALE));
+    }
+
+    private static NormalRange range(Gender gender, Double min, Double max) {
+        NormalRange range = new NormalRange();
+        range.setGender(gender);
+        range.setMinValue(min);
+        range.setMaxValue(max);
+        return range;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.model.Doctor;
+import com.ssdc.ssdclabs.model.Patient;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository;
+import com.ssdc.ssdclabs.repository.LabDailyRevenueRepository.DailyRevenueRow;
+import com.ssdc.ssdclabs.repository.LabRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Mock private LabDailyRevenueRepository rollupRepo;
+    @Mock private LabRepository labRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    @Test
+    void move_takesPatientOutOfOldBucketAndAddsToNewOne() {
+        RevenueRollupService service = service();
+        Patient patient = patient(doctor(5L, "Dr Rao", 10.0), 1000.0, 50.0, 1200.0);
+        RevenueRollupService.Contribution before = service.contributionOf(patient);
+        patient.setVisitDate(DAY.plusDays(1));
+        patient.setDoctor(null);
+        RevenueRollupService.Contribution after = service.contributionOf(patient);
+
+        service.move("ssdc", before, after);
+
+        // paid is capped at the bill, commission follows the doctor's rate
+        verify(rollupRepo).addToDay("ssdc", DAY, 5L, -1, -1000.0, -50.0, -1000.0, -100.0);
+        verify(rollupRepo).addToDay("ssdc", DAY.plusDays(1), 0L, 1, 1000.0, 50.0, 1000.0, 0.0);
+    }
+
+    @Test
+    void move_unchangedBillingWritesNothing() {
+        RevenueRollupService service = service();
+        Patient patient = patient(doctor(5L, "SELF", 10.0), 500.0, 0.0, 0.0);
+
+        service.move("ssdc", service.contributionOf(patient), service.contributionOf(patient));
+
+        assertEquals(0.0, service.contributionOf(patient).commission());
+        verify(rollupRepo, never()).addToDay(eq("ssdc"), eq(DAY), anyLong(), anyLong(),
+            anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void verify_countsDriftedAndOrphanBuckets() {
+        RevenueRollupService service = service();
+        when(rollupRepo.findRowsByLabId("ssdc")).thenReturn(List.of(
+            row(DAY, 5L, 2, 1000.0),
+            row(DAY, 6L, 1, 300.0)
+        ));
+        when(rollupRepo.computeFromPatients("ssdc", 0.0)).thenReturn(List.of(
+            row(DAY, 5L, 2, 1000.0),
+            row(DAY.plusDays(1), 5L, 1, 200.0)
+        ));
+
+        DailyRollupService.VerifyResult result = service.verify("ssdc", false);
+
+        assertEquals(2, result.buckets());
+        assertEquals(2, result.mismatches());
+        assertTrue(!result.rebuilt());
+        verify(rollupRepo, never()).deleteByLabId("ssdc");
+    }
+
+    private RevenueRollupService service() {
+        return new RevenueRollupService(rollupRepo, labRepo, txManager, 0.0);
+    }
+
+    private static Doctor doctor(Long id, String name, Double rate) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setName(name);
+        doctor.setCommissionRate(rate);
+        return doctor;
+    }
+
+    private static Patient patient(Doctor doctor, double amount, double discount, double paid) {
+        Patient patient = new Patient();
+        patient.setDoctor(doctor);
+        patient.setVisitDate(DAY);
+        patient.setAmount(amount);
+        patient.setDiscount(discount);
+        patient.setPaid(paid);
+        return patient;
+    }
+
+    private static DailyRevenueRow row(LocalDate day, Long doctorId, long count, double billed) {
+        return new DailyRevenueRow() {
+            public LocalDate getRevenueDate() { return day; }
+            public Long getDoctorId() { return doctorId; }
+            public Long getPatientCount() { return count; }
+            public Double getBilled() { return billed; }
+            public Double getDiscount() { return 0.0; }
+            public Double getPaid() { return 0.0; }
+            public Double getCommission() { return 0.0; }
+        };
+    }
+}
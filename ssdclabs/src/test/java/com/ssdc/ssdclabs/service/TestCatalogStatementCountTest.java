@@ -0,0 +1,110 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.config.SqlStatementAssertions;
+import com.ssdc.ssdclabs.config.SqlStatementConfig;
+import com.ssdc.ssdclabs.dto.TestViewDTO;
+import com.ssdc.ssdclabs.model.Gender;
+import com.ssdc.ssdclabs.model.NormalRange;
+import com.ssdc.ssdclabs.model.TestParameter;
+import com.ssdc.ssdclabs.model.TestType;
+import com.ssdc.ssdclabs.model.ValueType;
+import com.ssdc.ssdclabs.repository.TestParameterRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "app.sql.counter.enabled=true"
+})
+@Import(SqlStatementConfig.class)
+class TestCatalogStatementCountTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TestRepository testRepo;
+    @Autowired private TestParameterRepository paramRepo;
+    @Autowired private PlatformTransactionManager txManager;
+
+    @Test
+    void getAllTests_statementCountDoesNotGrowWithCatalog() {
+        seedLab("small", 2);
+        seedLab("large", 40);
+        em.flush();
+        em.clear();
+
+        long small = statementsFor("small", 2);
+        long large = statementsFor("large", 40);
+
+        assertEquals(small, large);
+        assertTrue(large <= 3, "catalog load used " + large + " statements");
+    }
+
+    @Test
+    void getAllTests_buildsViewsFromBatchedRanges() {
+        seedLab("view", 1);
+        em.flush();
+        em.clear();
+
+        TestService service = new TestService(testRepo, paramRepo, new TestCatalogCache(), txManager);
+        TestViewDTO view = service.getAllTests("view").get(0);
+
+        assertEquals(2, view.parameters.size());
+        assertEquals("M: 13.0-17.0\nF: 12.0-15.0", view.parameters.get(0).normalText);
+        assertEquals(List.of("P0", "P1"), view.units.stream().map(u -> u.unit).toList());
+    }
+
+    private long statementsFor(String labId, int expectedTests) {
+        TestService service = new TestService(testRepo, paramRepo, new TestCatalogCache(), txManager);
+        em.clear();
+        List<List<TestViewDTO>> views = new ArrayList<>();
+        long count = SqlStatementAssertions.assertAtMostStatements(3,
+            () -> views.add(service.getAllTests(labId))).statements();
+        assertEquals(expectedTests, views.get(0).size());
+        return count;
+    }
+
+    private void seedLab(String labId, int testCount) {
+        for (int i = 0; i < testCount; i++) {
+            com.ssdc.ssdclabs.model.Test test = new com.ssdc.ssdclabs.model.Test();
+            test.setLabId(labId);
+            test.setTestName("Test " + i);
+            test.setShortcut("T" + i);
+            test.setTestType(TestType.MULTI);
+            List<TestParameter> params = new ArrayList<>();
+            for (int p = 0; p < 2; p++) {
+                TestParameter param = new TestParameter();
+                param.setTest(test);
+                param.setName("P" + p);
+                param.setValueType(ValueType.NUMBER);
+                param.setNormalRanges(new ArrayList<>(List.of(
+                    range(param, Gender.MALE, 13.0, 17.0),
+                    range(param, Gender.FEMALE, 12.0, 15.0)
+                )));
+                params.add(param);
+            }
+            test.setParameters(params);
+            em.persist(test);
+        }
+    }
+
+    private static NormalRange range(TestParameter param, Gender gender, Double min, Double max) {
+        NormalRange range = new NormalRange();
+        range.setParameter(param);
+        range.setGender(gender);
+        range.setMinValue(min);
+        range.setMaxValue(max);
+        return range;
+    }
+}
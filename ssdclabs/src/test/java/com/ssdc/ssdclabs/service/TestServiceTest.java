@@ -0,0 +1,91 @@
+package com.ssdc.ssdclabs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssdc.ssdclabs.dto.TestViewDTO;
+import com.ssdc.ssdclabs.repository.TestParameterRepository;
+import com.ssdc.ssdclabs.repository.TestRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TestServiceTest {
+
+    @Mock private TestRepository testRepo;
+    @Mock private TestParameterRepository paramRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    @Test
+    void getActiveTests_servesRepeatedReadsFromSnapshot() {
+        TestService service = new TestService(testRepo, paramRepo, new TestCatalogCache(), txManager);
+        when(testRepo.findByLabIdOrderByIdAsc("lab1"))
+            .thenReturn(List.of(test(1L, true), test(2L, false)));
+
+        List<TestViewDTO> first = service.getActiveTests("lab1");
+        List<TestViewDTO> second = service.getActiveTests("lab1");
+        List<TestViewDTO> all = service.getAllTests("lab1");
+
+        assertEquals(1, first.size());
+        assertEquals(1L, first.get(0).id);
+        assertSame(first, second);
+        assertEquals(2, all.size());
+        verify(testRepo, times(1)).findByLabIdOrderByIdAsc("lab1");
+        assertThrows(UnsupportedOperationException.class, () -> first.add(first.get(0)));
+    }
+
+    @Test
+    void updateActive_rebuildsSnapshotWithNewVersion() {
+        TestCatalogCache cache = new TestCatalogCache();
+        TestService service = new TestService(testRepo, paramRepo, cache, txManager);
+        com.ssdc.ssdclabs.model.Test inactive = test(1L, false);
+        when(testRepo.findByLabIdOrderByIdAsc("lab1")).thenReturn(List.of(inactive));
+        when(testRepo.findByIdAndLabId(1L, "lab1")).thenReturn(Optional.of(inactive));
+
+        assertEquals(0, service.getActiveTests("lab1").size());
+        long versionBefore = cache.version("lab1");
+
+        service.updateActive("lab1", 1L, true);
+
+        assertEquals(1, service.getActiveTests("lab1").size());
+        assertEquals(versionBefore + 1, cache.version("lab1"));
+        verify(testRepo, times(2)).findByLabIdOrderByIdAsc("lab1");
+    }
+
+    @Test
+    void invalidate_onlyAffectsTheChangedLab() {
+        TestCatalogCache cache = new TestCatalogCache();
+        TestService service = new TestService(testRepo, paramRepo, cache, txManager);
+        when(testRepo.findByLabIdOrderByIdAsc("lab1")).thenReturn(List.of(test(1L, true)));
+        when(testRepo.findByLabIdOrderByIdAsc("lab2")).thenReturn(List.of(test(2L, true)));
+
+        service.getAllTests("lab1");
+        service.getAllTests("lab2");
+        cache.invalidate("lab1");
+        service.getAllTests("lab1");
+        service.getAllTests("lab2");
+
+        verify(testRepo, times(2)).findByLabIdOrderByIdAsc("lab1");
+        verify(testRepo, times(1)).findByLabIdOrderByIdAsc("lab2");
+    }
+
+    private static com.ssdc.ssdclabs.model.Test test(Long id, boolean active) {
+        com.ssdc.ssdclabs.model.Test test = new com.ssdc.ssdclabs.model.Test();
+        test.setId(id);
+        test.setLabId("lab1");
+        test.setTestName("Test " + id);
+        test.setActive(active);
+        return test;
+    }
+}